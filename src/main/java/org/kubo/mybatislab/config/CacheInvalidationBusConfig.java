@@ -0,0 +1,54 @@
+package org.kubo.mybatislab.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.kubo.mybatislab.mybatis.cache.bus.CacheInvalidationBus;
+import org.kubo.mybatislab.mybatis.cache.bus.HttpInvalidationTransport;
+import org.kubo.mybatislab.mybatis.cache.bus.InvalidationTransport;
+import org.kubo.mybatislab.mybatis.cache.bus.LoopbackInvalidationTransport;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 跨节点二级缓存失效总线配置（{@code mybatis.myPlugins.cacheBus.enabled=true} 时生效）。
+ *
+ * <p>{@code transport=http}（默认）经 Nacos 服务发现向同名服务的各实例广播；{@code transport=loopback} 只在进程内回环，用于单机演示。</p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.cacheBus", name = "enabled", havingValue = "true")
+public class CacheInvalidationBusConfig {
+
+    @Bean
+    public InvalidationTransport invalidationTransport(
+            @Value("${mybatis.myPlugins.cacheBus.transport:http}") String transport,
+            @Value("${spring.application.name}") String serviceId,
+            @Value("${mybatis.myPlugins.cacheBus.token:}") String token,
+            @Value("${mybatis.myPlugins.cacheBus.timeoutMs:1000}") long timeoutMs,
+            ObjectProvider<DiscoveryClient> discoveryClient,
+            ObjectMapper objectMapper) {
+        if ("loopback".equalsIgnoreCase(transport)) {
+            return new LoopbackInvalidationTransport(serviceId);
+        }
+        if (!"http".equalsIgnoreCase(transport)) {
+            throw new IllegalArgumentException("Unknown mybatis.myPlugins.cacheBus.transport: " + transport);
+        }
+        return new HttpInvalidationTransport(discoveryClient.getObject(), serviceId, objectMapper, token, timeoutMs);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheInvalidationBus cacheInvalidationBus(
+            InvalidationTransport invalidationTransport,
+            SqlSessionFactory sqlSessionFactory,
+            @Value("${mybatis.myPlugins.cacheBus.windowMs:20}") long windowMs,
+            @Value("${mybatis.myPlugins.cacheBus.maxEntriesPerMessage:64}") int maxEntriesPerMessage,
+            @Value("${mybatis.myPlugins.cacheBus.maxTagsPerNamespace:256}") int maxTagsPerNamespace) {
+        CacheInvalidationBus bus = new CacheInvalidationBus(invalidationTransport, sqlSessionFactory.getConfiguration(),
+                windowMs, maxEntriesPerMessage, maxTagsPerNamespace);
+        bus.start();
+        return bus;
+    }
+}
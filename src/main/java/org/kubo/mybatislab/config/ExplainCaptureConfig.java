@@ -0,0 +1,48 @@
+package org.kubo.mybatislab.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.kubo.mybatislab.mybatis.explain.ExplainCapture;
+import org.kubo.mybatislab.mybatis.sql.SqlFingerprinter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 慢 SQL 执行计划抓取配置（{@code mybatis.myPlugins.explain.enabled=true} 时生效）。
+ *
+ * <p>EXPLAIN 使用独立的小连接池（默认 1 个连接，只读，取连接超时 2 秒），连接信息取自 {@code spring.datasource.*}，
+ * 不占用业务连接池：数据库最慢的时候正是抓计划的时候，不能再和业务请求抢连接。</p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.explain", name = "enabled", havingValue = "true")
+public class ExplainCaptureConfig {
+
+    /**
+     * 连接池不单独注册为 Bean：容器里多出一个 DataSource 会让 Spring Boot 不再自动创建业务数据源。
+     * 连接池随 {@link ExplainCapture#close()} 一起关闭。
+     */
+    @Bean(destroyMethod = "close")
+    public ExplainCapture explainCapture(
+            DataSourceProperties properties,
+            SqlFingerprinter fingerprinter,
+            @Value("${mybatis.myPlugins.explain.poolSize:1}") int poolSize,
+            @Value("${mybatis.myPlugins.explain.explainPrefix:EXPLAIN}") String explainPrefix,
+            @Value("${mybatis.myPlugins.explain.minIntervalMs:60000}") long minIntervalMs,
+            @Value("${mybatis.myPlugins.explain.maxPerMinute:30}") int maxPerMinute,
+            @Value("${mybatis.myPlugins.explain.queueCapacity:16}") int queueCapacity,
+            @Value("${mybatis.myPlugins.explain.maxPlans:200}") int maxPlans,
+            @Value("${mybatis.myPlugins.explain.queryTimeoutSeconds:5}") int queryTimeoutSeconds,
+            @Value("${mybatis.myPlugins.explain.maskParameters:true}") boolean maskParameters) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("sql-explain");
+        dataSource.setMaximumPoolSize(Math.max(1, poolSize));
+        dataSource.setMinimumIdle(0);
+        dataSource.setReadOnly(true);
+        dataSource.setConnectionTimeout(2000);
+        System.out.println("[EXPLAIN] 慢 SQL 执行计划抓取已开启，独立连接池大小: " + dataSource.getMaximumPoolSize());
+        return new ExplainCapture(dataSource, fingerprinter, explainPrefix, minIntervalMs, maxPerMinute, queueCapacity,
+                maxPlans, queryTimeoutSeconds, maskParameters);
+    }
+}
@@ -1,9 +1,24 @@
 package org.kubo.mybatislab.config;
 
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.kubo.mybatislab.mybatis.plugin.CacheTagInterceptor;
+import org.kubo.mybatislab.mybatis.plugin.CompositeInterceptor;
 import org.kubo.mybatislab.mybatis.plugin.SqlCostInterceptor;
+import org.mybatis.spring.boot.autoconfigure.SqlSessionFactoryBeanCustomizer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * MyBatis 插件注册配置（避免重复注册）。
@@ -28,6 +43,52 @@ public class MybatisPluginConfig {
 //        interceptor.setProperties(properties);
 //        return interceptor;
 //    }
-}
 
+    /**
+     * 组合分发模式：把 starter 收集到的全部 Interceptor 替换为一个 {@link CompositeInterceptor}，
+     * 每个 Executor/StatementHandler 只生成一层代理。
+     *
+     * <p>starter 先 setPlugins(所有拦截器)，再执行 SqlSessionFactoryBeanCustomizer，因此这里覆盖即可，
+     * 各拦截器仍以 @Component 暴露，无需改动。</p>
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "mybatis.myPlugins", name = "compositeDispatch", havingValue = "true")
+    public SqlSessionFactoryBeanCustomizer compositeInterceptorCustomizer(
+            ObjectProvider<Interceptor> interceptors,
+            @Value("${mybatis.myPlugins.compositeSkipTargetTypes:}") String skipTargetTypes) {
+        return factoryBean -> {
+            List<Interceptor> all = interceptors.orderedStream().collect(Collectors.toList());
+            if (all.isEmpty()) {
+                return;
+            }
+            CompositeInterceptor composite = new CompositeInterceptor(all);
+            List<Class<?>> skips = new ArrayList<>();
+            for (String name : StringUtils.commaDelimitedListToStringArray(skipTargetTypes)) {
+                if (StringUtils.hasText(name)) {
+                    skips.add(ClassUtils.resolveClassName(name.trim(), MybatisPluginConfig.class.getClassLoader()));
+                }
+            }
+            composite.setSkipTargetTypes(skips);
+            factoryBean.setPlugins(composite);
+        };
+    }
 
+    /**
+     * 关闭 CacheTagInterceptor 时的启动检查：缓存命名空间里 flushCache=false 的写语句（{@code @InvalidateTags}）
+     * 全靠它让二级缓存失效，没有它就只能等条目被淘汰，期间一直读到旧数据，因此直接启动失败。
+     *
+     * <p>所有单例（包括 MapperFactoryBean 注册的 Mapper）创建完成后再检查，语句已全部解析。</p>
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "mybatis.myPlugins", name = "cacheTagInterceptor", havingValue = "false")
+    public SmartInitializingSingleton cacheTagInterceptorRequiredCheck(SqlSessionFactory sqlSessionFactory) {
+        return () -> {
+            List<String> statements = CacheTagInterceptor.dependentStatements(sqlSessionFactory.getConfiguration());
+            if (!statements.isEmpty()) {
+                throw new IllegalStateException("mybatis.myPlugins.cacheTagInterceptor=false, but these cached writes use "
+                        + "flushCache=false and rely on it to invalidate the second-level cache: " + statements
+                        + ". Re-enable the interceptor or restore flushCache=true on them.");
+            }
+        };
+    }
+}
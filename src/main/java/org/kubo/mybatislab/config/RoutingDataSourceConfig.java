@@ -0,0 +1,157 @@
+package org.kubo.mybatislab.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.kubo.mybatislab.mybatis.routing.ReadWriteRoutingDataSource;
+import org.kubo.mybatislab.mybatis.routing.ReplicaSelectionPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读写分离数据源配置（{@code mybatis.myPlugins.routing.enabled=true} 时生效）。
+ *
+ * <pre>
+ * dataSource（@Primary，LazyConnectionDataSourceProxy：物理连接推迟到第一条语句执行时再取）
+ *   └─ ReadWriteRoutingDataSource（按 RoutingContext 选择主库或副本）
+ *       ├─ primaryDataSource（spring.datasource.*，Hikari 参数取 spring.datasource.hikari.*）
+ *       └─ 副本（mybatis.myPlugins.routing.replicas[*]，各自一个 Hikari 连接池）
+ * </pre>
+ *
+ * <p>自定义了 DataSource Bean 后 Spring Boot 不再自动创建数据源，事务管理器与 MyBatis 都使用 @Primary 的那个。</p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            Environment environment,
+            @Value("${mybatis.myPlugins.routing.policy:ROUND_ROBIN}") ReplicaSelectionPolicy policy,
+            @Value("${mybatis.myPlugins.routing.failureThreshold:3}") int failureThreshold,
+            @Value("${mybatis.myPlugins.routing.ejectMs:30000}") long ejectMs,
+            @Value("${mybatis.myPlugins.routing.healthCheckIntervalMs:5000}") long healthCheckIntervalMs) {
+        List<ReplicaProperties> replicas = Binder.get(environment)
+                .bind("mybatis.my-plugins.routing.replicas", Bindable.listOf(ReplicaProperties.class))
+                .orElse(Collections.emptyList());
+        Map<String, DataSource> replicaDataSources = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaProperties replica = replicas.get(i);
+            String name = replica.getName() != null ? replica.getName() : "replica-" + i;
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .driverClassName(replica.getDriverClassName())
+                    .build();
+            dataSource.setPoolName(name);
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            // 副本宕机时尽快失败并回退主库，而不是等满默认 30 秒
+            dataSource.setConnectionTimeout(replica.getConnectionTimeoutMs());
+            dataSource.setReadOnly(true);
+            replicaDataSources.put(name, dataSource);
+        }
+        System.out.println("[读写分离] 主库 + " + replicaDataSources.size() + " 个副本 " + replicaDataSources.keySet()
+                + "，策略: " + policy);
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSources, policy, failureThreshold,
+                ejectMs, healthCheckIntervalMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    /**
+     * 单个副本的连接配置。
+     */
+    public static class ReplicaProperties {
+
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+        private long connectionTimeoutMs = 1000;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getDriverClassName() {
+            return driverClassName;
+        }
+
+        public void setDriverClassName(String driverClassName) {
+            this.driverClassName = driverClassName;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public long getConnectionTimeoutMs() {
+            return connectionTimeoutMs;
+        }
+
+        public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+            this.connectionTimeoutMs = connectionTimeoutMs;
+        }
+    }
+}
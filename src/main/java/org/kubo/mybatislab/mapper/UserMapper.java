@@ -1,14 +1,21 @@
 package org.kubo.mybatislab.mapper;
 
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.CacheNamespace;
-import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.annotations.Property;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.kubo.mybatislab.mybatis.cache.CacheTags;
+import org.kubo.mybatislab.mybatis.cache.InvalidateTags;
+import org.kubo.mybatislab.mybatis.cache.LabCache;
 import org.kubo.mybatislab.user.model.User;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,29 +24,91 @@ import java.util.List;
  * <p>示例中既可以使用 XML，也可以使用注解。为简洁，这里先用注解演示。</p>
  */
 @Mapper
-@CacheNamespace(eviction = LruCache.class, size = 512, readWrite = true)
+@CacheNamespace(implementation = LabCache.class, properties = {
+        @Property(name = "maximumSize", value = "512"),
+        // 读写隔离由 CopyOnReadCache 提供（自定义实现上 readWrite 属性不生效）
+        @Property(name = "copyOnRead", value = "true"),
+        // 热点条目被淘汰/失效后，同一键的并发未命中只回源一次，其余请求最多等 1 秒
+        @Property(name = "singleFlight", value = "true"),
+        @Property(name = "singleFlightTimeoutMs", value = "1000")
+})
 public interface UserMapper {
 
     @Select("select id, username, email from t_user where id = #{id}")
 //    @Options(useCache = true, flushCache = Options.FlushCachePolicy.FALSE)
+    @CacheTags("user:#{id}")
     User findById(@Param("id") Long id);
 
     @Select("select id, username, email from t_user order by id")
 //    @Options(useCache = true, flushCache = Options.FlushCachePolicy.FALSE)
+    @CacheTags("user")
     List<User> findAll();
 
+    /**
+     * keyset 分页：从 afterId 之后按主键顺序取 limit 行，深页与首页代价相同（见 UserPageService）。
+     */
+    @Select("select id, username, email from t_user where id > #{afterId} order by id limit #{limit}")
+    @CacheTags("user")
+    List<User> findPage(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 按一组 ID 批量查询（供 UserBatchLoader 合并单行查询使用），ids 不能为空。
+     * id 组合几乎不会重复，缓存只会挤占 findById 的条目，因此不进二级缓存。
+     */
+    @Select({"<script>",
+            "select id, username, email from t_user where id in",
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"})
+    @Options(useCache = false)
+    List<User> findByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 流式读取全部用户（Executor#queryCursor），供 UserStreamService 逐行写出。
+     * fetchSize 在启动时按配置改写（见 UserStreamService），游标查询本身不经过二级缓存。
+     */
+    @Select("select id, username, email from t_user order by id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, useCache = false)
+    Cursor<User> streamAll();
+
 
     @Update("update t_user set username = 'kubo'")
-//    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    @Options(flushCache = Options.FlushCachePolicy.FALSE)
+    @InvalidateTags("user")
     void updateAll();
 
 
     @Update("update t_user set username = 'kubo' where id = 1")
-//    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    @Options(flushCache = Options.FlushCachePolicy.FALSE)
+    @InvalidateTags("user:1")
     void updateOne();
 
+    /*
+        批量写入（UserBulkService 在 ExecutorType.BATCH 会话中逐行调用，同一条 SQL 复用一个 PreparedStatement 并 addBatch）。
+        新增行只影响集合查询，insertUser 按整组失效（"user"）；update/upsert 按行失效（"user:#{id}"），
+        行标签同时失效集合标签，不会清掉其它行的 findById 条目。CacheTagInterceptor 对同一会话内重复的标签只记一次。
+    */
+    @Insert("insert into t_user (username, email) values (#{username}, #{email})")
+    @Options(flushCache = Options.FlushCachePolicy.FALSE)
+    @InvalidateTags("user")
+    int insertUser(User user);
+
+    @Update("update t_user set username = #{username}, email = #{email} where id = #{id}")
+    @Options(flushCache = Options.FlushCachePolicy.FALSE)
+    @InvalidateTags("user:#{id}")
+    int updateUser(User user);
+
+    /**
+     * MySQL upsert：主键冲突时更新；影响行数 1 表示插入、2 表示更新、0 表示未变化。
+     */
+    @Insert("insert into t_user (id, username, email) values (#{id}, #{username}, #{email})"
+            + " on duplicate key update username = values(username), email = values(email)")
+    @Options(flushCache = Options.FlushCachePolicy.FALSE)
+    @InvalidateTags("user:#{id}")
+    int upsertUser(User user);
+
     @Update("delete from t_user")
-//    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    @Options(flushCache = Options.FlushCachePolicy.FALSE)
+    @InvalidateTags("user")
     void deleteAll();
 }
 
@@ -0,0 +1,35 @@
+package org.kubo.mybatislab.monitor.controller;
+
+import org.kubo.mybatislab.mybatis.admission.AdmissionLimiter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 数据库准入限流统计查看接口（数据来自 AdmissionLimiter）。
+ */
+@RestController
+public class AdmissionStatsController {
+
+    private final AdmissionLimiter admissionLimiter;
+
+    public AdmissionStatsController(AdmissionLimiter admissionLimiter) {
+        this.admissionLimiter = admissionLimiter;
+    }
+
+    /**
+     * 许可数、在途/排队数、放行与拒绝次数、排队等待时间。
+     */
+    @GetMapping("/api/admission/stats")
+    public Map<String, Object> stats() {
+        return admissionLimiter.stats();
+    }
+
+    @PostMapping("/api/admission/stats/reset")
+    public String reset() {
+        admissionLimiter.resetStats();
+        return "Admission stats reset";
+    }
+}
@@ -0,0 +1,69 @@
+package org.kubo.mybatislab.monitor.controller;
+
+import org.kubo.mybatislab.mybatis.cache.bus.CacheInvalidationBus;
+import org.kubo.mybatislab.mybatis.cache.bus.HttpInvalidationTransport;
+import org.kubo.mybatislab.mybatis.cache.bus.InvalidationMessage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * 缓存失效总线：接收其它节点发来的失效消息（HTTP 传输），以及查看收发统计。
+ */
+@RestController
+public class CacheInvalidationBusController {
+
+    private final ObjectProvider<CacheInvalidationBus> bus;
+    private final String token;
+
+    public CacheInvalidationBusController(ObjectProvider<CacheInvalidationBus> bus,
+                                          @Value("${mybatis.myPlugins.cacheBus.token:}") String token) {
+        this.bus = bus;
+        this.token = token;
+    }
+
+    /**
+     * 节点间接口：只应在内网开放；配置了 token 时校验请求头。
+     */
+    @PostMapping(HttpInvalidationTransport.PATH)
+    public void receive(@RequestBody InvalidationMessage message,
+                        @RequestHeader(value = HttpInvalidationTransport.TOKEN_HEADER, required = false) String header) {
+        CacheInvalidationBus b = bus.getIfAvailable();
+        if (b == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        if (!token.isEmpty() && (header == null || !MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), header.getBytes(StandardCharsets.UTF_8)))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+        b.receive(message);
+    }
+
+    /**
+     * 发布/合并/提升/发送/接收计数（未开启时返回 enabled=false）。
+     */
+    @GetMapping("/api/cache/bus/stats")
+    public Map<String, Object> stats() {
+        CacheInvalidationBus b = bus.getIfAvailable();
+        return b == null ? Map.of("enabled", false) : b.stats();
+    }
+
+    @PostMapping("/api/cache/bus/stats/reset")
+    public String reset() {
+        CacheInvalidationBus b = bus.getIfAvailable();
+        if (b != null) {
+            b.resetStats();
+        }
+        return "Cache bus stats reset";
+    }
+}
@@ -0,0 +1,42 @@
+package org.kubo.mybatislab.monitor.controller;
+
+import org.kubo.mybatislab.mybatis.cache.SingleFlightCache;
+import org.kubo.mybatislab.mybatis.cache.TinyLfuCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二级缓存统计查看接口（数据来自各 namespace 的 TinyLfuCache 与 SingleFlightCache）。
+ */
+@RestController
+public class CacheStatsController {
+
+    /**
+     * 每个 namespace 的条目数、权重、命中率、淘汰与过期次数；启用单飞时附带合并回源的计数。
+     */
+    @GetMapping("/api/cache/stats")
+    public List<Map<String, Object>> stats() {
+        List<Map<String, Object>> views = TinyLfuCache.snapshot();
+        for (Map<String, Object> view : views) {
+            SingleFlightCache singleFlight = SingleFlightCache.instance(String.valueOf(view.get("id")));
+            if (singleFlight != null) {
+                view.put("singleFlight", singleFlight.stats());
+            }
+        }
+        return views;
+    }
+
+    /**
+     * 清零计数器（不清空缓存内容）。
+     */
+    @PostMapping("/api/cache/stats/reset")
+    public String reset() {
+        TinyLfuCache.instances().forEach(TinyLfuCache::resetStats);
+        SingleFlightCache.instances().forEach(SingleFlightCache::resetStats);
+        return "Cache stats reset";
+    }
+}
@@ -0,0 +1,28 @@
+package org.kubo.mybatislab.monitor.controller;
+
+import org.kubo.mybatislab.mybatis.governor.DiagnosticsGovernor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 诊断开销调节器状态查看接口（级别调整通过 Nacos 修改 mybatis.myPlugins.governor.*）。
+ */
+@RestController
+public class DiagnosticsGovernorController {
+
+    private final DiagnosticsGovernor governor;
+
+    public DiagnosticsGovernorController(DiagnosticsGovernor governor) {
+        this.governor = governor;
+    }
+
+    /**
+     * 当前级别、上一周期的 p99 与开销占比、最近一次切换原因、升降级次数与采样计数。
+     */
+    @GetMapping("/api/governor/stats")
+    public Map<String, Object> stats() {
+        return governor.stats();
+    }
+}
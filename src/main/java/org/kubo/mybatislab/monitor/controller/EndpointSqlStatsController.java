@@ -0,0 +1,36 @@
+package org.kubo.mybatislab.monitor.controller;
+
+import org.kubo.mybatislab.mybatis.budget.EndpointSqlMetrics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按接口汇总的 SQL 用量查看接口（mybatis.myPlugins.requestBudget.enabled=true 时才有数据）。
+ */
+@RestController
+public class EndpointSqlStatsController {
+
+    private final EndpointSqlMetrics metrics;
+
+    public EndpointSqlStatsController(EndpointSqlMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 每个接口平均每次请求的语句数、行数、L1/L2 命中、数据库耗时与占比（按数据库总耗时降序）、预算超限次数。
+     */
+    @GetMapping("/api/sql/endpoints")
+    public List<Map<String, Object>> endpoints() {
+        return metrics.snapshot();
+    }
+
+    @PostMapping("/api/sql/endpoints/reset")
+    public String reset() {
+        metrics.reset();
+        return "Endpoint SQL stats reset";
+    }
+}
@@ -0,0 +1,50 @@
+package org.kubo.mybatislab.monitor.controller;
+
+import org.kubo.mybatislab.mybatis.explain.ExplainCapture;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 慢 SQL 执行计划查看接口（未开启 mybatis.myPlugins.explain 时返回 enabled=false / 空列表）。
+ */
+@RestController
+public class ExplainCaptureController {
+
+    private final ObjectProvider<ExplainCapture> explainCapture;
+
+    public ExplainCaptureController(ObjectProvider<ExplainCapture> explainCapture) {
+        this.explainCapture = explainCapture;
+    }
+
+    /**
+     * 按 SQL 指纹保存的最近一次执行计划（按最后一次慢执行时间倒序），含脱敏参数、慢执行次数与计划是否变化。
+     */
+    @GetMapping("/api/sql/explain")
+    public List<Map<String, Object>> plans() {
+        ExplainCapture capture = explainCapture.getIfAvailable();
+        return capture == null ? List.of() : capture.plans();
+    }
+
+    /**
+     * 提交、去重、限流、丢弃与失败计数。
+     */
+    @GetMapping("/api/sql/explain/stats")
+    public Map<String, Object> stats() {
+        ExplainCapture capture = explainCapture.getIfAvailable();
+        return capture == null ? Map.of("enabled", false) : capture.stats();
+    }
+
+    @PostMapping("/api/sql/explain/reset")
+    public String reset() {
+        ExplainCapture capture = explainCapture.getIfAvailable();
+        if (capture != null) {
+            capture.reset();
+        }
+        return "Explain plans reset";
+    }
+}
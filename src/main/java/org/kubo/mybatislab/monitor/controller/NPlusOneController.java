@@ -0,0 +1,35 @@
+package org.kubo.mybatislab.monitor.controller;
+
+import org.kubo.mybatislab.mybatis.nplusone.NPlusOneDetector;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * N+1 查询检测报告查看接口（数据来自 NPlusOneDetector）。
+ */
+@RestController
+public class NPlusOneController {
+
+    private final NPlusOneDetector detector;
+
+    public NPlusOneController(NPlusOneDetector detector) {
+        this.detector = detector;
+    }
+
+    /**
+     * 按“请求/事务 + 语句”汇总的 N+1 报告（按累计耗时降序）与最近的单次报告，含调用点与估算耗时。
+     */
+    @GetMapping("/api/nplusone/findings")
+    public Map<String, Object> findings() {
+        return detector.findings();
+    }
+
+    @PostMapping("/api/nplusone/findings/reset")
+    public String reset() {
+        detector.reset();
+        return "N+1 findings reset";
+    }
+}
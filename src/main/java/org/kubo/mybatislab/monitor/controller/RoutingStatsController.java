@@ -0,0 +1,30 @@
+package org.kubo.mybatislab.monitor.controller;
+
+import org.kubo.mybatislab.mybatis.routing.ReadWriteRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 读写分离路由统计查看接口（未开启 mybatis.myPlugins.routing 时返回 enabled=false）。
+ */
+@RestController
+public class RoutingStatsController {
+
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    public RoutingStatsController(ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    /**
+     * 主库取连接次数、回退次数，以及每个副本的可用状态、借出连接数、失败与摘除次数。
+     */
+    @GetMapping("/api/routing/stats")
+    public Map<String, Object> stats() {
+        ReadWriteRoutingDataSource dataSource = routingDataSource.getIfAvailable();
+        return dataSource == null ? Map.of("enabled", false) : dataSource.stats();
+    }
+}
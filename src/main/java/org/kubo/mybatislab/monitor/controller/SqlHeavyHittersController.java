@@ -0,0 +1,52 @@
+package org.kubo.mybatislab.monitor.controller;
+
+import org.kubo.mybatislab.mybatis.stats.SqlHeavyHitters;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL 指纹 Top-K 查看接口（未开启 mybatis.myPlugins.heavyHitters 时返回 enabled=false / 空列表）。
+ */
+@RestController
+public class SqlHeavyHittersController {
+
+    private final ObjectProvider<SqlHeavyHitters> heavyHitters;
+
+    public SqlHeavyHittersController(ObjectProvider<SqlHeavyHitters> heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
+    /**
+     * 最重的语句形状：by=calls 按调用次数，by=time 按总耗时；估算值带误差上界，tracked* 为进入 Top-K 后的精确值。
+     */
+    @GetMapping("/api/sql/top")
+    public List<Map<String, Object>> top(@RequestParam(defaultValue = "calls") String by,
+                                         @RequestParam(defaultValue = "20") int limit) {
+        SqlHeavyHitters hitters = heavyHitters.getIfAvailable();
+        return hitters == null ? List.of() : hitters.top(by, limit);
+    }
+
+    /**
+     * 计数器容量与占用、总调用次数与总耗时、指纹缓存命中情况。
+     */
+    @GetMapping("/api/sql/top/stats")
+    public Map<String, Object> stats() {
+        SqlHeavyHitters hitters = heavyHitters.getIfAvailable();
+        return hitters == null ? Map.of("enabled", false) : hitters.stats();
+    }
+
+    @PostMapping("/api/sql/top/reset")
+    public String reset() {
+        SqlHeavyHitters hitters = heavyHitters.getIfAvailable();
+        if (hitters != null) {
+            hitters.reset();
+        }
+        return "SQL heavy hitters reset";
+    }
+}
@@ -0,0 +1,69 @@
+package org.kubo.mybatislab.monitor.controller;
+
+import org.kubo.mybatislab.mybatis.resultmap.RowMapperRegistry;
+import org.kubo.mybatislab.mybatis.slowlog.SlowSqlEventPipeline;
+import org.kubo.mybatislab.mybatis.stats.SqlStatsRegistry;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL 执行统计查看接口（数据来自 SqlCostInterceptor）。
+ */
+@RestController
+public class SqlStatsController {
+
+    private final SqlStatsRegistry sqlStatsRegistry;
+    private final SlowSqlEventPipeline slowSqlEventPipeline;
+    private final RowMapperRegistry rowMapperRegistry;
+
+    public SqlStatsController(SqlStatsRegistry sqlStatsRegistry, SlowSqlEventPipeline slowSqlEventPipeline,
+                              RowMapperRegistry rowMapperRegistry) {
+        this.sqlStatsRegistry = sqlStatsRegistry;
+        this.slowSqlEventPipeline = slowSqlEventPipeline;
+        this.rowMapperRegistry = rowMapperRegistry;
+    }
+
+    /**
+     * 每个 Mapper 方法（statement id）的执行次数、错误数与 p50/p90/p99/max 延迟。
+     */
+    @GetMapping("/api/sql/stats")
+    public List<Map<String, Object>> stats() {
+        return sqlStatsRegistry.snapshot();
+    }
+
+    /**
+     * 清零统计，便于压测前后对比。会修改状态，只接受 POST。
+     */
+    @PostMapping("/api/sql/stats/reset")
+    public String reset() {
+        sqlStatsRegistry.reset();
+        return "SQL stats reset";
+    }
+
+    /**
+     * 慢 SQL 异步管道的积压、写出、丢弃与采样计数。
+     */
+    @GetMapping("/api/sql/slow-log/stats")
+    public Map<String, Object> slowLogStats() {
+        return slowSqlEventPipeline.stats();
+    }
+
+    /**
+     * 生成的行映射器（mybatis.myPlugins.fastResultMapping.enabled=true 时）：每条语句是否已生成、
+     * 走快路径的次数与行数、回退次数及不适用原因。
+     */
+    @GetMapping("/api/sql/result-mappers")
+    public List<Map<String, Object>> resultMappers() {
+        return rowMapperRegistry.snapshot();
+    }
+
+    @PostMapping("/api/sql/result-mappers/reset")
+    public String resetResultMappers() {
+        rowMapperRegistry.reset();
+        return "Result mappers reset";
+    }
+}
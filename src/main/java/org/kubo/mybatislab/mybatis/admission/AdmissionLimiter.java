@@ -0,0 +1,126 @@
+package org.kubo.mybatislab.mybatis.admission;
+
+import org.kubo.mybatislab.mybatis.stats.LatencyHistogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据库准入限流：公平信号量 + 有界排队 + 排队超时，拒绝时快速失败（{@link DatabaseBusyException}，503）。
+ *
+ * <p>许可数默认与 Hikari 连接池大小一致：拿到许可的调用基本能立刻拿到连接，
+ * 其余请求在这里按先来先到排队，而不是堆在连接池的等待队列里直到 {@code connectionTimeout}（默认 30 秒）。
+ * 排队人数超过 {@code maxQueue} 时直接拒绝，排队超过 {@code queueTimeoutMs} 时也拒绝。</p>
+ *
+ * <p>等待使用 {@link Semaphore}（AQS），虚拟线程等待时会卸载，不占用载体线程。</p>
+ */
+@Component
+public class AdmissionLimiter {
+
+    private final boolean enabled;
+    private final int permits;
+    private final int maxQueue;
+    private final long queueTimeoutNanos;
+    private final Semaphore semaphore;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LatencyHistogram waitNanos = new LatencyHistogram();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+
+    public AdmissionLimiter(
+            @Value("${mybatis.myPlugins.admission.enabled:false}") boolean enabled,
+            @Value("${mybatis.myPlugins.admission.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${mybatis.myPlugins.admission.maxQueue:200}") int maxQueue,
+            @Value("${mybatis.myPlugins.admission.queueTimeoutMs:200}") long queueTimeoutMs) {
+        this.enabled = enabled;
+        this.permits = Math.max(1, permits);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, queueTimeoutMs));
+        this.semaphore = new Semaphore(this.permits, true);
+    }
+
+    /**
+     * 获取一个许可；失败时抛出 {@link DatabaseBusyException}。成功后必须调用 {@link #release()}。
+     */
+    public void acquire(String statementId) {
+        // 注意：无参 tryAcquire() 会无视公平性插队，带超时的版本（哪怕是 0）才按先来先到
+        if (waiting.get() == 0 && tryAcquireNow()) {
+            admitted.increment();
+            waitNanos.record(0);
+            return;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejectedQueueFull.increment();
+            throw new DatabaseBusyException("Database admission queue is full (" + maxQueue + "), rejected " + statementId);
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for database admission: " + statementId);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        waitNanos.record(waited);
+        if (!acquired) {
+            rejectedTimeout.increment();
+            throw new DatabaseBusyException("Database admission timed out after "
+                    + TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos) + "ms, rejected " + statementId);
+        }
+        admitted.increment();
+    }
+
+    private boolean tryAcquireNow() {
+        try {
+            return semaphore.tryAcquire(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for database admission");
+        }
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    public Map<String, Object> stats() {
+        LatencyHistogram.Snapshot s = waitNanos.snapshot();
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("enabled", enabled);
+        view.put("permits", permits);
+        view.put("inFlight", permits - semaphore.availablePermits());
+        view.put("waiting", waiting.get());
+        view.put("maxQueue", maxQueue);
+        view.put("queueTimeoutMs", TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos));
+        view.put("admitted", admitted.sum());
+        view.put("rejectedQueueFull", rejectedQueueFull.sum());
+        view.put("rejectedTimeout", rejectedTimeout.sum());
+        view.put("waitMeanMs", toMillis(s.getMean()));
+        view.put("waitP99Ms", toMillis(s.getValueAtPercentile(99)));
+        view.put("waitMaxMs", toMillis(s.getMax()));
+        return view;
+    }
+
+    public void resetStats() {
+        waitNanos.reset();
+        admitted.reset();
+        rejectedQueueFull.reset();
+        rejectedTimeout.reset();
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+}
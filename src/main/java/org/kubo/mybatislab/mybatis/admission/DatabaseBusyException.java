@@ -0,0 +1,20 @@
+package org.kubo.mybatislab.mybatis.admission;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 数据库准入被拒绝（排队已满或等待许可超时）。
+ *
+ * <p>从 Mapper 调用中抛出时会被 MyBatis/Spring 层层包装，{@code ResponseStatusExceptionResolver}
+ * 会沿 cause 链找到这里的注解，最终响应 503，调用方可稍后重试。</p>
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DatabaseBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
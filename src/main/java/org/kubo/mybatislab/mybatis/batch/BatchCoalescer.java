@@ -0,0 +1,271 @@
+package org.kubo.mybatislab.mybatis.batch;
+
+import org.kubo.mybatislab.mybatis.stats.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * DataLoader 风格的请求合并器：把短时间窗口内的并发单键查询合并成一次批量查询。
+ *
+ * <ul>
+ *   <li>第一个键到达时开启一个批次，并在 {@code window} 之后派发；批次攒满 {@code maxBatchSize} 个不同的键时立即派发；</li>
+ *   <li>同一批次内重复的键共享一个 Future，只查一次；</li>
+ *   <li>派发在独立线程池中执行，键按 {@code maxInListSize} 切块，每块调用一次批量加载函数（即一条 {@code in (...)} 查询）；</li>
+ *   <li>结果按 {@code keyOf} 回填到各自的 Future，查不到的键得到 null；某块失败只影响该块的调用方，失败不会被缓存。</li>
+ * </ul>
+ *
+ * <p>入队只在一把很短的锁内修改当前批次（HashMap put），查询不在锁内执行。
+ * 调用方等待时间（入队到拿到结果）与批次大小都记入 {@link LatencyHistogram}，用于权衡“多等几毫秒”与“少几次往返”。</p>
+ *
+ * @param <K> 键类型（需正确实现 equals/hashCode）
+ * @param <V> 结果类型
+ */
+public class BatchCoalescer<K, V> implements AutoCloseable {
+
+    private final String name;
+    private final Function<List<K>, List<V>> loader;
+    private final Function<V, K> keyOf;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final int maxInListSize;
+    private final long timeoutMs;
+
+    private final ScheduledExecutorService timer;
+    private final ExecutorService dispatcher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** 正在攒的批次，受 lock 保护；派发前置为 null，保证每个批次只派发一次。 */
+    private Batch<K, V> current;
+
+    private final LatencyHistogram batchSizes = new LatencyHistogram();
+    private final LatencyHistogram waitNanos = new LatencyHistogram();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder fullBatches = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param name          名称，用于线程名与统计
+     * @param loader        批量加载函数，入参不为空且不含重复键，返回结果的顺序无关
+     * @param keyOf         从结果中取出键
+     * @param windowMicros  合并窗口（微秒）
+     * @param maxBatchSize  单批最多的不同键数，达到即派发
+     * @param maxInListSize 单条 in 列表的最大长度，超过则拆成多次查询
+     * @param timeoutMs     同步等待结果的超时时间
+     * @param threads       派发线程数
+     */
+    public BatchCoalescer(String name, Function<List<K>, List<V>> loader, Function<V, K> keyOf, long windowMicros,
+                          int maxBatchSize, int maxInListSize, long timeoutMs, int threads) {
+        this.name = name;
+        this.loader = loader;
+        this.keyOf = keyOf;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxInListSize = Math.max(1, maxInListSize);
+        this.timeoutMs = Math.max(1, timeoutMs);
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads(name + "-timer"));
+        this.dispatcher = Executors.newFixedThreadPool(Math.max(1, threads), daemonThreads(name + "-dispatch"));
+    }
+
+    /**
+     * 异步加载一个键。
+     */
+    public CompletableFuture<V> load(K key) {
+        long start = System.nanoTime();
+        loads.increment();
+        CompletableFuture<V> future;
+        Batch<K, V> opened = null;
+        Batch<K, V> full = null;
+        lock.lock();
+        try {
+            Batch<K, V> batch = current;
+            if (batch == null) {
+                batch = current = new Batch<>();
+                opened = batch;
+            }
+            future = batch.futures.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                batch.futures.put(key, future);
+                if (batch.futures.size() >= maxBatchSize) {
+                    current = null;
+                    full = batch;
+                }
+            } else {
+                deduplicated.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            fullBatches.increment();
+            submit(full);
+        } else if (opened != null) {
+            Batch<K, V> scheduled = opened;
+            timer.schedule(() -> flush(scheduled), windowNanos, TimeUnit.NANOSECONDS);
+        }
+        future.whenComplete((v, e) -> waitNanos.record(System.nanoTime() - start));
+        return future;
+    }
+
+    /**
+     * 同步加载一个键：等待合并后的查询结果，超时或查询失败时抛出异常。
+     */
+    public V get(K key) {
+        CompletableFuture<V> future = load(key);
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch load of " + key, e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Batch load of " + key + " timed out after " + timeoutMs + "ms", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Batch load of " + key + " failed", cause);
+        }
+    }
+
+    /**
+     * 窗口到期：若该批次尚未因攒满而派发，则派发它。
+     */
+    private void flush(Batch<K, V> batch) {
+        lock.lock();
+        try {
+            if (current != batch) {
+                return;
+            }
+            current = null;
+        } finally {
+            lock.unlock();
+        }
+        submit(batch);
+    }
+
+    private void submit(Batch<K, V> batch) {
+        try {
+            dispatcher.execute(() -> dispatch(batch));
+        } catch (RuntimeException e) {
+            // 已关闭：不让调用方一直等到超时
+            batch.futures.values().forEach(f -> f.completeExceptionally(e));
+        }
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        List<K> keys = new ArrayList<>(batch.futures.keySet());
+        batchSizes.record(keys.size());
+        for (int from = 0; from < keys.size(); from += maxInListSize) {
+            List<K> chunk = keys.subList(from, Math.min(keys.size(), from + maxInListSize));
+            try {
+                queries.increment();
+                List<V> rows = loader.apply(chunk);
+                Map<K, V> byKey = new HashMap<>(Math.max(16, rows.size() * 2));
+                for (V row : rows) {
+                    if (row != null) {
+                        byKey.put(keyOf.apply(row), row);
+                    }
+                }
+                for (K key : chunk) {
+                    batch.futures.get(key).complete(byKey.get(key));
+                }
+            } catch (Throwable e) {
+                failures.increment();
+                for (K key : chunk) {
+                    batch.futures.get(key).completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        LatencyHistogram.Snapshot sizes = batchSizes.snapshot();
+        LatencyHistogram.Snapshot waits = waitNanos.snapshot();
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("name", name);
+        view.put("loads", loads.sum());
+        view.put("deduplicated", deduplicated.sum());
+        view.put("batches", sizes.getCount());
+        view.put("fullBatches", fullBatches.sum());
+        view.put("queries", queries.sum());
+        view.put("failures", failures.sum());
+        view.put("batchSizeMean", Math.round(sizes.getMean() * 100) / 100.0);
+        view.put("batchSizeP50", sizes.getValueAtPercentile(50));
+        view.put("batchSizeP99", sizes.getValueAtPercentile(99));
+        view.put("batchSizeMax", sizes.getMax());
+        view.put("waitMeanMs", toMillis(waits.getMean()));
+        view.put("waitP50Ms", toMillis(waits.getValueAtPercentile(50)));
+        view.put("waitP99Ms", toMillis(waits.getValueAtPercentile(99)));
+        view.put("waitMaxMs", toMillis(waits.getMax()));
+        return view;
+    }
+
+    public void resetStats() {
+        batchSizes.reset();
+        waitNanos.reset();
+        loads.reset();
+        deduplicated.reset();
+        fullBatches.reset();
+        queries.reset();
+        failures.reset();
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        dispatcher.shutdown();
+        // 窗口内尚未派发的批次直接失败
+        Batch<K, V> pending;
+        lock.lock();
+        try {
+            pending = current;
+            current = null;
+        } finally {
+            lock.unlock();
+        }
+        if (pending != null) {
+            IllegalStateException closed = new IllegalStateException(name + " is closed");
+            pending.futures.values().forEach(f -> f.completeExceptionally(closed));
+        }
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static final class Batch<K, V> {
+        /** 保持入队顺序，便于按顺序切块。 */
+        final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,164 @@
+package org.kubo.mybatislab.mybatis.budget;
+
+import org.kubo.mybatislab.mybatis.stats.LatencyHistogram;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 按接口汇总的 SQL 用量，以及接口预算的判定。
+ *
+ * <ul>
+ *   <li>{@link #check}：每条语句执行后调用，超出预算时记下原因；{@link SqlBudget.Action#REJECT} 直接抛异常，
+ *       不再继续访问数据库；</li>
+ *   <li>{@link #complete}：请求结束时并入接口统计，{@link SqlBudget.Action#WARN} 的超限在这里打印一次告警。</li>
+ * </ul>
+ *
+ * <p>{@code dbShare} 是数据库耗时占请求总耗时的比例，越接近 1 说明接口越受数据库制约。</p>
+ */
+@Component
+public class EndpointSqlMetrics {
+
+    private final RequestSqlBudgetProperties properties;
+    private final ConcurrentHashMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public EndpointSqlMetrics(RequestSqlBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    public void check(RequestSqlStats stats) {
+        SqlBudget budget = stats.budget;
+        if (budget == null) {
+            budget = budgetFor(stats.endpoint());
+            stats.budget = budget;
+        }
+        if (stats.violation != null) {
+            return;
+        }
+        String exceeded = budget.exceeded(stats);
+        if (exceeded == null) {
+            return;
+        }
+        stats.violation = exceeded;
+        if (budget.getAction() == SqlBudget.Action.REJECT) {
+            Endpoint endpoint = endpoint(stats.endpoint());
+            if (endpoint != null) {
+                endpoint.rejected.increment();
+            }
+            throw new SqlBudgetExceededException("SQL budget exceeded for " + stats.endpoint() + ": " + exceeded);
+        }
+    }
+
+    private SqlBudget budgetFor(String endpoint) {
+        for (SqlBudget budget : properties.getBudgets()) {
+            if (endpoint.equals(budget.getEndpoint())) {
+                return budget;
+            }
+        }
+        return properties.getDefaultBudget();
+    }
+
+    public void complete(RequestSqlStats stats) {
+        long requestNanos = System.nanoTime() - stats.startNanos;
+        String name = stats.endpoint();
+        Endpoint endpoint = endpoint(name);
+        if (endpoint != null) {
+            endpoint.record(stats, requestNanos);
+        }
+        if (stats.violation != null && (stats.budget == null || stats.budget.getAction() == SqlBudget.Action.WARN)) {
+            System.out.println("[SQL预算] " + name + " 超出预算（" + stats.violation + "）: " + stats.serverTiming());
+        }
+    }
+
+    private Endpoint endpoint(String name) {
+        Endpoint endpoint = endpoints.get(name);
+        if (endpoint == null && endpoints.size() < properties.getMaxEndpoints()) {
+            endpoint = endpoints.computeIfAbsent(name, n -> new Endpoint());
+        }
+        return endpoint;
+    }
+
+    public List<Map<String, Object>> snapshot() {
+        return endpoints.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Endpoint> e) -> e.getValue().dbNanos.sum()).reversed())
+                .map(e -> e.getValue().view(e.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static final class Endpoint {
+
+        final LongAdder requests = new LongAdder();
+        final LongAdder mapperCalls = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder updatedRows = new LongAdder();
+        final LongAdder l1Hits = new LongAdder();
+        final LongAdder l2Hits = new LongAdder();
+        final LongAdder dbNanos = new LongAdder();
+        final LongAdder requestNanos = new LongAdder();
+        final LongAdder violations = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LatencyHistogram dbLatency = new LatencyHistogram();
+        final LatencyHistogram statementsPerRequest = new LatencyHistogram();
+
+        void record(RequestSqlStats stats, long requestNanos) {
+            requests.increment();
+            mapperCalls.add(stats.mapperCalls);
+            statements.add(stats.statements);
+            rows.add(stats.rows);
+            updatedRows.add(stats.updatedRows);
+            l1Hits.add(stats.l1Hits);
+            l2Hits.add(stats.l2Hits);
+            dbNanos.add(stats.dbNanos);
+            this.requestNanos.add(requestNanos);
+            dbLatency.record(stats.dbNanos);
+            statementsPerRequest.record(stats.statements);
+            if (stats.violation != null) {
+                violations.increment();
+            }
+        }
+
+        Map<String, Object> view(String name) {
+            long n = Math.max(1, requests.sum());
+            LatencyHistogram.Snapshot db = dbLatency.snapshot();
+            LatencyHistogram.Snapshot perRequest = statementsPerRequest.snapshot();
+            long totalRequestNanos = requestNanos.sum();
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("endpoint", name);
+            view.put("requests", requests.sum());
+            view.put("statementsPerRequest", round((double) statements.sum() / n));
+            view.put("statementsP99", perRequest.getValueAtPercentile(99));
+            view.put("rowsPerRequest", round((double) rows.sum() / n));
+            view.put("updatedRowsPerRequest", round((double) updatedRows.sum() / n));
+            view.put("mapperCallsPerRequest", round((double) mapperCalls.sum() / n));
+            view.put("l1Hits", l1Hits.sum());
+            view.put("l2Hits", l2Hits.sum());
+            view.put("dbMeanMs", toMillis(db.getMean()));
+            view.put("dbP99Ms", toMillis(db.getValueAtPercentile(99)));
+            view.put("requestMeanMs", toMillis((double) totalRequestNanos / n));
+            view.put("dbShare", totalRequestNanos == 0 ? 0 : round((double) dbNanos.sum() / totalRequestNanos));
+            view.put("budgetViolations", violations.sum());
+            view.put("rejected", rejected.sum());
+            return view;
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static double toMillis(double nanos) {
+        return round(nanos / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
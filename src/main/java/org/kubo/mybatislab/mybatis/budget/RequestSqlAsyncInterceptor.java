@@ -0,0 +1,51 @@
+package org.kubo.mybatislab.mybatis.budget;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 把请求的 {@link RequestSqlStats} 带到 Spring MVC 的异步执行线程上。
+ *
+ * <p>{@code StreamingResponseBody} 与返回 {@code Callable} 的接口都经由 {@code WebAsyncManager} 在 MVC 的异步线程池里执行，
+ * {@link RequestSqlContext} 是线程本地的，不带过去的话这部分 SQL 全部漏记（如 {@code GET /api/users/stream} 的游标查询）。
+ * 请求线程在交出请求前把累加器放进请求属性，异步线程执行前挂上、执行后摘下；请求线程此时已不再访问它，不会并发读写。</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.requestBudget", name = "enabled", havingValue = "true")
+public class RequestSqlAsyncInterceptor implements CallableProcessingInterceptor, WebMvcConfigurer {
+
+    private static final String ATTRIBUTE = RequestSqlAsyncInterceptor.class.getName() + ".stats";
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(this);
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        RequestSqlStats stats = RequestSqlContext.current();
+        if (stats != null) {
+            request.setAttribute(ATTRIBUTE, stats, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        Object stats = request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (stats instanceof RequestSqlStats) {
+            RequestSqlContext.attach((RequestSqlStats) stats);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        RequestSqlContext.end();
+    }
+}
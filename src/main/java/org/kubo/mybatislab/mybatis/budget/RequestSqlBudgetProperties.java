@@ -0,0 +1,66 @@
+package org.kubo.mybatislab.mybatis.budget;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 请求级 SQL 统计与预算配置（{@code mybatis.myPlugins.requestBudget.*}）。
+ *
+ * <p>与调节器配置一样以 {@code @ConfigurationProperties} 绑定，Nacos 上调整预算后无需重启。</p>
+ */
+@Component
+@ConfigurationProperties(prefix = "mybatis.my-plugins.request-budget")
+public class RequestSqlBudgetProperties {
+
+    private boolean enabled;
+    /** 是否输出 Server-Timing 响应头。 */
+    private boolean serverTiming = true;
+    /** 最多统计的接口数，超出后新接口不再单独统计。 */
+    private int maxEndpoints = 500;
+    /** 没有单独配置预算的接口使用的预算（默认不限制）。 */
+    private SqlBudget defaultBudget = new SqlBudget();
+    private List<SqlBudget> budgets = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isServerTiming() {
+        return serverTiming;
+    }
+
+    public void setServerTiming(boolean serverTiming) {
+        this.serverTiming = serverTiming;
+    }
+
+    public int getMaxEndpoints() {
+        return maxEndpoints;
+    }
+
+    public void setMaxEndpoints(int maxEndpoints) {
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    public SqlBudget getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    public void setDefaultBudget(SqlBudget defaultBudget) {
+        this.defaultBudget = defaultBudget;
+    }
+
+    public List<SqlBudget> getBudgets() {
+        return budgets;
+    }
+
+    public void setBudgets(List<SqlBudget> budgets) {
+        this.budgets = budgets;
+    }
+}
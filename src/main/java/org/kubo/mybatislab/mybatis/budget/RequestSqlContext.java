@@ -0,0 +1,51 @@
+package org.kubo.mybatislab.mybatis.budget;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程正在处理的请求的 {@link RequestSqlStats}。
+ *
+ * <p>由 {@link RequestSqlFilter} 在请求开始时开启、结束时清除；异步请求由 {@link RequestSqlAsyncInterceptor}
+ * 带到异步执行线程上。请求之外（定时任务、启动脚本、{@code UserBatchLoader} 的派发线程等）为 null，
+ * 拦截器与 {@code LabCache} 此时什么都不记。</p>
+ */
+public final class RequestSqlContext {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private RequestSqlContext() {
+    }
+
+    public static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    public static RequestSqlStats begin(Supplier<String> endpoint) {
+        RequestSqlStats stats = new RequestSqlStats(endpoint);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * 把请求线程上开启的累加器挂到当前（异步执行）线程上，用完后调用 {@link #end()}。
+     */
+    public static void attach(RequestSqlStats stats) {
+        CURRENT.set(stats);
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 二级缓存查找结果（由 {@code LabCache#getObject} 上报）：命中计入当前请求的 L2 命中数。
+     */
+    public static void recordL2Lookup(boolean hit) {
+        if (hit) {
+            RequestSqlStats stats = CURRENT.get();
+            if (stats != null) {
+                stats.l2Hits++;
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.kubo.mybatislab.mybatis.budget;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * 为每个请求开启 {@link RequestSqlContext}，请求结束时并入 {@link EndpointSqlMetrics}。
+ *
+ * <p>接口标识为“方法 + 路由模板”（如 {@code GET /api/users/{id}}），没有匹配到 Controller 的请求记为 {@code <unmapped>}。
+ * {@code Server-Timing} 响应头由 {@link ServerTimingAdvice} 在写出响应体之前设置；没有响应体的请求在这里补上。</p>
+ *
+ * <p>异步请求（如 {@code GET /api/users/stream} 的 {@code StreamingResponseBody}）的 SQL 在异步线程上执行
+ * （累加器由 {@link RequestSqlAsyncInterceptor} 带过去），等异步处理完成（{@link AsyncListener#onComplete}）再并入统计；
+ * 此时响应头早已写出，这类请求不带 {@code Server-Timing}。</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.requestBudget", name = "enabled", havingValue = "true")
+public class RequestSqlFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private final EndpointSqlMetrics metrics;
+    private final RequestSqlBudgetProperties properties;
+
+    public RequestSqlFilter(EndpointSqlMetrics metrics, RequestSqlBudgetProperties properties) {
+        this.metrics = metrics;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlContext.begin(() -> endpoint(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlContext.end();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(stats));
+            } else {
+                if (properties.isServerTiming() && !response.isCommitted() && !response.containsHeader(SERVER_TIMING)) {
+                    response.setHeader(SERVER_TIMING, stats.serverTiming());
+                }
+                metrics.complete(stats);
+            }
+        }
+    }
+
+    static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern == null ? "<unmapped>" : pattern);
+    }
+
+    /**
+     * 异步请求结束（包括超时与出错，之后都会回调 onComplete）时并入统计。
+     */
+    private final class CompletionListener implements AsyncListener {
+
+        private final RequestSqlStats stats;
+
+        CompletionListener(RequestSqlStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            metrics.complete(stats);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 再次 startAsync 时监听器会被移除，需要重新注册
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
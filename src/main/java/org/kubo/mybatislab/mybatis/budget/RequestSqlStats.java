@@ -0,0 +1,84 @@
+package org.kubo.mybatislab.mybatis.budget;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 一次 HTTP 请求内的 SQL 用量累加器。同一时刻只在一个线程上读写：请求线程，
+ * 或异步请求（{@code StreamingResponseBody} / {@code Callable}）交接之后的异步执行线程。
+ */
+public final class RequestSqlStats {
+
+    final long startNanos = System.nanoTime();
+    /** 接口标识在分发到 Controller 之后才能确定，按需解析。 */
+    private final Supplier<String> endpoint;
+
+    /** 最外层 Mapper 调用次数。 */
+    long mapperCalls;
+    /** 真正发往数据库的语句数。 */
+    long statements;
+    /** 查询返回的行数。 */
+    long rows;
+    /** 写语句影响的行数。 */
+    long updatedRows;
+    long l1Hits;
+    long l2Hits;
+    long dbNanos;
+
+    SqlBudget budget;
+    String violation;
+
+    RequestSqlStats(Supplier<String> endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void recordStatement(long nanos, long returnedRows, long affectedRows) {
+        statements++;
+        dbNanos += nanos;
+        rows += returnedRows;
+        updatedRows += affectedRows;
+    }
+
+    /**
+     * BATCH 执行器的一次 flush：{@code batches} 次 executeBatch 往返，共影响 {@code affectedRows} 行。
+     */
+    public void recordBatch(long nanos, int batches, long affectedRows) {
+        statements += batches;
+        dbNanos += nanos;
+        updatedRows += affectedRows;
+    }
+
+    public void recordMapperCall() {
+        mapperCalls++;
+    }
+
+    public void recordL1Hit() {
+        l1Hits++;
+    }
+
+    public long statements() {
+        return statements;
+    }
+
+    public long l2Hits() {
+        return l2Hits;
+    }
+
+    public String endpoint() {
+        return endpoint.get();
+    }
+
+    double dbMillis() {
+        return Math.round((double) dbNanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+
+    /**
+     * {@code Server-Timing} 响应头的值，可在浏览器开发者工具的 Timing 面板中直接查看。
+     */
+    public String serverTiming() {
+        return String.format(Locale.ROOT, "db;dur=%.3f;desc=\"%d statements, %d rows\", mapper;desc=\"%d calls\", "
+                        + "l1;desc=\"%d hits\", l2;desc=\"%d hits\"",
+                dbMillis(), statements, rows + updatedRows, mapperCalls, l1Hits, l2Hits);
+    }
+}
@@ -0,0 +1,42 @@
+package org.kubo.mybatislab.mybatis.budget;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 在 {@code @ResponseBody} 写出之前设置 {@code Server-Timing} 响应头。
+ *
+ * <p>响应体一旦开始写出，响应头就无法再修改；Controller 方法返回时本请求的 SQL 已经全部执行完，正好在这里汇总。</p>
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.requestBudget", name = "enabled", havingValue = "true")
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    private final RequestSqlBudgetProperties properties;
+
+    public ServerTimingAdvice(RequestSqlBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestSqlStats stats = RequestSqlContext.current();
+        if (stats != null && properties.isServerTiming()) {
+            response.getHeaders().set(RequestSqlFilter.SERVER_TIMING, stats.serverTiming());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,80 @@
+package org.kubo.mybatislab.mybatis.budget;
+
+/**
+ * 单个接口的 SQL 预算（{@code mybatis.myPlugins.requestBudget.budgets[*]}）。各项为 0 表示不限制。
+ */
+public class SqlBudget {
+
+    /**
+     * 超出预算时的处理方式。
+     */
+    public enum Action {
+        /** 请求结束时打印告警，请求照常完成。 */
+        WARN,
+        /** 超出的那一刻抛出 {@link SqlBudgetExceededException}，请求失败。 */
+        REJECT
+    }
+
+    /** 接口标识：“方法 + 路由模板”，如 {@code GET /api/users/{id}}。 */
+    private String endpoint;
+    private int maxStatements;
+    private long maxRows;
+    private double maxDbMs;
+    private Action action = Action.WARN;
+
+    /**
+     * 返回超出的第一项预算的描述；未超出时返回 null。
+     */
+    String exceeded(RequestSqlStats stats) {
+        if (maxStatements > 0 && stats.statements > maxStatements) {
+            return "statements " + stats.statements + " > " + maxStatements;
+        }
+        if (maxRows > 0 && stats.rows > maxRows) {
+            return "rows " + stats.rows + " > " + maxRows;
+        }
+        if (maxDbMs > 0 && stats.dbMillis() > maxDbMs) {
+            return "dbMs " + stats.dbMillis() + " > " + maxDbMs;
+        }
+        return null;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public void setMaxStatements(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    public void setMaxRows(long maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    public double getMaxDbMs() {
+        return maxDbMs;
+    }
+
+    public void setMaxDbMs(double maxDbMs) {
+        this.maxDbMs = maxDbMs;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+}
@@ -0,0 +1,19 @@
+package org.kubo.mybatislab.mybatis.budget;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 请求的 SQL 用量超出了 {@link SqlBudget.Action#REJECT} 预算。
+ *
+ * <p>与 {@code DatabaseBusyException} 一样，被 MyBatis/Spring 包装后仍会按 cause 链上的注解响应状态码。</p>
+ */
+@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+public class SqlBudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
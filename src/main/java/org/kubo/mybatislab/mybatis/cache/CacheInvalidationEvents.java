@@ -0,0 +1,68 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+/**
+ * 二级缓存失效事件出口：本节点提交的标签失效与命名空间整体清空，交给监听者（{@code CacheInvalidationBus}）广播给其它节点。
+ *
+ * <p>{@link LabCache} 由 MyBatis 创建、不受 Spring 管理，因此用静态入口衔接。应用其它节点发来的失效时
+ * 在 {@link #applyRemote(Runnable)} 内执行，期间不再触发事件，避免节点之间来回转发。</p>
+ */
+public final class CacheInvalidationEvents {
+
+    /**
+     * 失效事件监听者。
+     */
+    public interface Listener {
+
+        /**
+         * 某命名空间写语句所在事务已提交，依赖这些标签的条目应失效。
+         */
+        void tagsCommitted(String namespace, String[] tags);
+
+        /**
+         * 某命名空间的二级缓存被整体清空（flushCache=true 的语句提交等）。
+         */
+        void namespaceCleared(String namespace);
+    }
+
+    private static volatile Listener listener;
+    private static final ThreadLocal<Boolean> APPLYING_REMOTE = new ThreadLocal<>();
+
+    private CacheInvalidationEvents() {
+    }
+
+    public static void register(Listener l) {
+        listener = l;
+    }
+
+    public static void unregister(Listener l) {
+        if (listener == l) {
+            listener = null;
+        }
+    }
+
+    public static void tagsCommitted(String namespace, String[] tags) {
+        Listener l = listener;
+        if (l != null && APPLYING_REMOTE.get() == null) {
+            l.tagsCommitted(namespace, tags);
+        }
+    }
+
+    public static void namespaceCleared(String namespace) {
+        Listener l = listener;
+        if (l != null && APPLYING_REMOTE.get() == null) {
+            l.namespaceCleared(namespace);
+        }
+    }
+
+    /**
+     * 执行来自其它节点的失效，期间产生的本地事件不再广播。
+     */
+    public static void applyRemote(Runnable action) {
+        APPLYING_REMOTE.set(Boolean.TRUE);
+        try {
+            action.run();
+        } finally {
+            APPLYING_REMOTE.remove();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 全局标签版本表：缓存条目在查询开始时记下所依赖标签的版本，写入时递增标签版本，命中时版本不一致即视为失效。
+ *
+ * <p>失效是 O(标签数) 的计数器递增，不需要维护“标签 → 键”的反向索引，也不会随条目数增长。
+ * 标签按哈希映射到固定数量的槽位，冲突只会造成多余的未命中，不会返回过期数据。
+ * 版本表是全局的，因此标签可以跨命名空间使用（如其它 Mapper 的联表查询也可依赖 {@code user:1}）。</p>
+ */
+public final class CacheTagVersions {
+
+    private static final int SLOTS = 8192;
+    private static final AtomicLongArray VERSIONS = new AtomicLongArray(SLOTS);
+
+    private CacheTagVersions() {
+    }
+
+    /**
+     * 查询条目依赖的槽位：行标签依赖自身与组的“整组失效”槽；集合标签依赖自身与“整组失效”槽；
+     * 无标签的查询依赖命名空间的“未声明”槽。
+     */
+    static int[] dependencySlots(String namespace, String[] tags) {
+        if (tags.length == 0) {
+            return new int[]{slot(namespace + "!untagged")};
+        }
+        int[] slots = new int[tags.length * 2];
+        for (int i = 0; i < tags.length; i++) {
+            slots[2 * i] = slot(tags[i]);
+            slots[2 * i + 1] = slot(group(tags[i]) + "!all");
+        }
+        return slots;
+    }
+
+    /**
+     * 写语句需要递增的槽位：行标签递增自身与组（集合查询）；组标签递增“整组失效”；二者都会递增命名空间的“未声明”槽。
+     */
+    static int[] invalidationSlots(String namespace, String[] tags) {
+        int[] slots = new int[tags.length * 2 + 1];
+        for (int i = 0; i < tags.length; i++) {
+            String tag = tags[i];
+            String group = group(tag);
+            if (group.length() == tag.length()) {
+                slots[2 * i] = slot(tag + "!all");
+                slots[2 * i + 1] = slot(tag);
+            } else {
+                slots[2 * i] = slot(tag);
+                slots[2 * i + 1] = slot(group);
+            }
+        }
+        slots[slots.length - 1] = slot(namespace + "!untagged");
+        return slots;
+    }
+
+    /**
+     * 让依赖这些标签的条目失效（写语句执行后、事务提交/回滚后各调用一次）。
+     */
+    public static void invalidate(String namespace, String[] tags) {
+        bump(invalidationSlots(namespace, tags));
+    }
+
+    static long[] snapshot(int[] slots) {
+        long[] versions = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            versions[i] = VERSIONS.get(slots[i]);
+        }
+        return versions;
+    }
+
+    static boolean isCurrent(int[] slots, long[] versions) {
+        for (int i = 0; i < slots.length; i++) {
+            if (VERSIONS.get(slots[i]) != versions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static void bump(int[] slots) {
+        for (int slot : slots) {
+            VERSIONS.incrementAndGet(slot);
+        }
+    }
+
+    private static String group(String tag) {
+        int colon = tag.indexOf(':');
+        return colon < 0 ? tag : tag.substring(0, colon);
+    }
+
+    private static int slot(String name) {
+        int h = name.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (SLOTS - 1);
+    }
+}
@@ -0,0 +1,26 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明查询结果在二级缓存中依赖的标签（配合 {@link LabCache} 与 {@code CacheTagInterceptor} 使用）。
+ *
+ * <ul>
+ *   <li>行标签 {@code "user:#{id}"}：按参数解析出主键，只随该行的写入失效；参数为集合/数组时展开为多个标签；</li>
+ *   <li>集合标签 {@code "user"}（不带冒号）：列表类查询使用，同组任意一行被写入都会失效。</li>
+ * </ul>
+ *
+ * <p>占位符语法与 Mapper 参数一致（{@code #{id}}、{@code #{user.id}}），每个标签最多一个占位符。
+ * 未声明标签的查询在本命名空间发生任何按标签失效时都会失效。</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CacheTags {
+
+    String[] value();
+}
@@ -0,0 +1,16 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+/**
+ * 二级缓存值的“存入/取出”编解码，用于 {@link CopyOnReadCache} 在命中时向调用方返回独立副本。
+ *
+ * <p>{@code encode} 在写入缓存时调用一次，返回真正存入底层缓存的对象；
+ * {@code decode} 在每次命中时调用，必须返回与缓存内部状态互不影响的新对象。</p>
+ *
+ * <p>实现类需要有无参构造器：通过 {@code @Property(name = "codec", value = "全限定类名")} 配置。</p>
+ */
+public interface CacheValueCodec {
+
+    Object encode(Object value);
+
+    Object decode(Object stored);
+}
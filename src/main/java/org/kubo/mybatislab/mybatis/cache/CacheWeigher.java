@@ -0,0 +1,14 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+/**
+ * 计算缓存条目的权重，配合 {@code maximumWeight} 使用。
+ *
+ * <p>实现类需要有无参构造器：通过 {@code @Property(name = "weigher", value = "全限定类名")} 配置。</p>
+ */
+public interface CacheWeigher {
+
+    /**
+     * @return 条目权重，必须 &gt;= 0；0 表示不占容量
+     */
+    int weigh(Object key, Object value);
+}
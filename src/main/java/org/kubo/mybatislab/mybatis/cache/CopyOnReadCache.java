@@ -0,0 +1,66 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * 读时复制装饰器：写入时编码一次，每次命中解码出独立副本，替代 {@code SerializedCache} 提供读写隔离。
+ *
+ * <p>编解码方式可替换（{@link CacheValueCodec}），默认 {@link FastValueCodec} 对结果实体按类型生成复制器，
+ * 无法复制的类型回退到 Java 序列化。</p>
+ */
+public class CopyOnReadCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheValueCodec codec;
+
+    public CopyOnReadCache(Cache delegate) {
+        this(delegate, new FastValueCodec());
+    }
+
+    public CopyOnReadCache(Cache delegate, CacheValueCodec codec) {
+        this.delegate = delegate;
+        this.codec = codec;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        // 写入时也复制：调用方拿到的原始结果之后被修改，不会污染缓存
+        delegate.putObject(key, codec.encode(value));
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Object stored = delegate.getObject(key);
+        return stored == null ? null : codec.decode(stored);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return delegate.equals(obj);
+    }
+}
@@ -0,0 +1,310 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按类型生成复制器的深拷贝编解码，替代 {@code SerializedCache} 每次命中的 Java 序列化往返。
+ *
+ * <ul>
+ *   <li>不可变类型（String、包装类型、BigDecimal/BigInteger、枚举、UUID、{@code java.time}）直接共享引用；</li>
+ *   <li>List/Set/Map 复制容器并逐个复制元素（分别还原为 ArrayList/LinkedHashSet/LinkedHashMap）；
+ *       {@link Date} 及其子类（含 {@code java.sql.Timestamp}）通过 clone 复制；数组逐元素复制；</li>
+ *   <li>结果实体（如 {@code User}）：首次遇到时解析无参构造器与全部实例字段，生成 {@link MethodHandle} 复制器并按类缓存，
+ *       之后每次复制只是“new + 逐字段读写”，字段声明为不可变类型时不再递归判断；</li>
+ *   <li>其它类型（JDK 内部类、含 final 字段、无无参构造器等）整体回退到 Java 序列化，结果与 {@code SerializedCache} 一致。</li>
+ * </ul>
+ *
+ * <p>对象图中的共享引用与环（如嵌套结果映射的双向关联）按同一性保留。</p>
+ */
+public class FastValueCodec implements CacheValueCodec {
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(
+            String.class, Boolean.class, Byte.class, Short.class, Integer.class, Long.class, Float.class,
+            Double.class, Character.class, BigDecimal.class, BigInteger.class, UUID.class, Class.class);
+
+    private static final TypeCopier IMMUTABLE = (value, seen) -> value;
+    private static final TypeCopier UNSUPPORTED = (value, seen) -> {
+        throw NotCopyableException.INSTANCE;
+    };
+
+    private final ConcurrentHashMap<Class<?>, TypeCopier> copiers = new ConcurrentHashMap<>();
+
+    @Override
+    public Object encode(Object value) {
+        try {
+            return copy(value);
+        } catch (NotCopyableException e) {
+            return new SerializingValueCodec().encode(value);
+        }
+    }
+
+    @Override
+    public Object decode(Object stored) {
+        if (stored instanceof SerializingValueCodec.SerializedForm) {
+            return SerializingValueCodec.deserialize(((SerializingValueCodec.SerializedForm) stored).bytes);
+        }
+        // encode 阶段已验证整张对象图可复制
+        return copy(stored);
+    }
+
+    /**
+     * 深拷贝；遇到无法复制的类型抛出 {@link NotCopyableException}。
+     */
+    Object copy(Object value) {
+        if (value == null) {
+            return null;
+        }
+        TypeCopier copier = copierFor(value.getClass());
+        if (copier == IMMUTABLE) {
+            return value;
+        }
+        return copier.copy(value, new IdentityHashMap<>());
+    }
+
+    private Object copy(Object value, IdentityHashMap<Object, Object> seen) {
+        if (value == null) {
+            return null;
+        }
+        TypeCopier copier = copierFor(value.getClass());
+        if (copier == IMMUTABLE) {
+            return value;
+        }
+        Object existing = seen.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        return copier.copy(value, seen);
+    }
+
+    private TypeCopier copierFor(Class<?> type) {
+        TypeCopier copier = copiers.get(type);
+        if (copier == null) {
+            copier = copiers.computeIfAbsent(type, this::createCopier);
+        }
+        return copier;
+    }
+
+    private TypeCopier createCopier(Class<?> type) {
+        if (isImmutable(type)) {
+            return IMMUTABLE;
+        }
+        if (type.isArray()) {
+            Class<?> component = type.getComponentType();
+            if (component.isPrimitive()) {
+                return (value, seen) -> cloneArray(value);
+            }
+            return (value, seen) -> {
+                Object[] source = (Object[]) value;
+                Object[] target = source.clone();
+                seen.put(value, target);
+                for (int i = 0; i < target.length; i++) {
+                    target[i] = copy(source[i], seen);
+                }
+                return target;
+            };
+        }
+        if (SortedSet.class.isAssignableFrom(type) || SortedMap.class.isAssignableFrom(type)) {
+            // 比较器无法通过通用容器还原，交给序列化
+            return UNSUPPORTED;
+        }
+        if (List.class.isAssignableFrom(type)) {
+            return (value, seen) -> {
+                List<?> source = (List<?>) value;
+                List<Object> target = new ArrayList<>(source.size());
+                seen.put(value, target);
+                for (Object element : source) {
+                    target.add(copy(element, seen));
+                }
+                return target;
+            };
+        }
+        if (Set.class.isAssignableFrom(type)) {
+            return (value, seen) -> {
+                Collection<?> source = (Collection<?>) value;
+                Set<Object> target = new LinkedHashSet<>(Math.max(16, source.size() * 2));
+                seen.put(value, target);
+                for (Object element : source) {
+                    target.add(copy(element, seen));
+                }
+                return target;
+            };
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return (value, seen) -> {
+                Map<?, ?> source = (Map<?, ?>) value;
+                Map<Object, Object> target = new LinkedHashMap<>(Math.max(16, source.size() * 2));
+                seen.put(value, target);
+                for (Map.Entry<?, ?> entry : source.entrySet()) {
+                    target.put(copy(entry.getKey(), seen), copy(entry.getValue(), seen));
+                }
+                return target;
+            };
+        }
+        if (Date.class.isAssignableFrom(type)) {
+            return (value, seen) -> ((Date) value).clone();
+        }
+        BeanCopier bean = beanCopier(type);
+        return bean == null ? UNSUPPORTED : bean;
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        if (type.isPrimitive() || type.isEnum() || IMMUTABLE_TYPES.contains(type)) {
+            return true;
+        }
+        Class<?> enclosing = type.getSuperclass();
+        if (enclosing != null && enclosing.isEnum()) {
+            // 带方法体的枚举常量是枚举的匿名子类
+            return true;
+        }
+        String name = type.getName();
+        return name.startsWith("java.time.") && !name.startsWith("java.time.format.")
+                && !name.startsWith("java.time.chrono.") && !name.startsWith("java.time.zone.");
+    }
+
+    private static Object cloneArray(Object array) {
+        if (array instanceof byte[]) {
+            return ((byte[]) array).clone();
+        } else if (array instanceof int[]) {
+            return ((int[]) array).clone();
+        } else if (array instanceof long[]) {
+            return ((long[]) array).clone();
+        } else if (array instanceof char[]) {
+            return ((char[]) array).clone();
+        } else if (array instanceof double[]) {
+            return ((double[]) array).clone();
+        } else if (array instanceof float[]) {
+            return ((float[]) array).clone();
+        } else if (array instanceof short[]) {
+            return ((short[]) array).clone();
+        }
+        return ((boolean[]) array).clone();
+    }
+
+    /**
+     * 为结果实体生成复制器。
+     *
+     * @return 不满足条件（JDK 类型、抽象类、无无参构造器、存在 final 实例字段或无法访问）时返回 null
+     */
+    private BeanCopier beanCopier(Class<?> type) {
+        String name = type.getName();
+        if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.")
+                || type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.isRecord()
+                || type.isSynthetic() || type.isHidden()) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            Constructor<?> ctor = type.getDeclaredConstructor();
+            MethodHandle constructor = lookup.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+            List<MethodHandle> getters = new ArrayList<>();
+            List<MethodHandle> setters = new ArrayList<>();
+            List<Boolean> shallow = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                if (c.getName().startsWith("java.")) {
+                    return null;
+                }
+                MethodHandles.Lookup fieldLookup = c == type ? lookup : MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers)) {
+                        continue;
+                    }
+                    if (Modifier.isFinal(modifiers)) {
+                        return null;
+                    }
+                    getters.add(fieldLookup.unreflectGetter(field)
+                            .asType(MethodType.methodType(Object.class, Object.class)));
+                    setters.add(fieldLookup.unreflectSetter(field)
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class)));
+                    shallow.add(isImmutable(field.getType()));
+                }
+            }
+            boolean[] flags = new boolean[shallow.size()];
+            for (int i = 0; i < flags.length; i++) {
+                flags[i] = shallow.get(i);
+            }
+            return new BeanCopier(constructor, getters.toArray(new MethodHandle[0]),
+                    setters.toArray(new MethodHandle[0]), flags);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface TypeCopier {
+        Object copy(Object value, IdentityHashMap<Object, Object> seen);
+    }
+
+    /**
+     * 结果实体复制器：无参构造 + 逐字段复制，字段读写均为预先解析好的 MethodHandle。
+     */
+    private final class BeanCopier implements TypeCopier {
+
+        private final MethodHandle constructor;
+        private final MethodHandle[] getters;
+        private final MethodHandle[] setters;
+        /** 字段声明类型本身不可变（基本类型、String、Long……）时直接赋值，不再递归。 */
+        private final boolean[] shallow;
+
+        private BeanCopier(MethodHandle constructor, MethodHandle[] getters, MethodHandle[] setters, boolean[] shallow) {
+            this.constructor = constructor;
+            this.getters = getters;
+            this.setters = setters;
+            this.shallow = shallow;
+        }
+
+        @Override
+        public Object copy(Object value, IdentityHashMap<Object, Object> seen) {
+            try {
+                Object target = (Object) constructor.invokeExact();
+                seen.put(value, target);
+                for (int i = 0; i < getters.length; i++) {
+                    Object fieldValue = (Object) getters[i].invokeExact(value);
+                    if (!shallow[i]) {
+                        fieldValue = FastValueCodec.this.copy(fieldValue, seen);
+                    }
+                    setters[i].invokeExact(target, fieldValue);
+                }
+                return target;
+            } catch (NotCopyableException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw NotCopyableException.INSTANCE;
+            }
+        }
+    }
+
+    /**
+     * 对象图中存在无法复制的类型，整体改用序列化。无栈信息，仅用于控制流。
+     */
+    static final class NotCopyableException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        static final NotCopyableException INSTANCE = new NotCopyableException();
+
+        private NotCopyableException() {
+            super("value is not copyable", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明写语句影响的标签，执行后只让依赖这些标签的二级缓存条目失效。
+ *
+ * <ul>
+ *   <li>行标签 {@code "user:#{id}"}：失效该行的条目，以及同组的集合标签 {@code "user"}（如 findAll）；</li>
+ *   <li>组标签 {@code "user"}：失效整组（全部 {@code user:*} 行条目与集合条目）。</li>
+ * </ul>
+ *
+ * <p>需同时在该语句上设置 {@code @Options(flushCache = Options.FlushCachePolicy.FALSE)}，
+ * 否则 MyBatis 仍会按默认行为清空整个命名空间。</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface InvalidateTags {
+
+    String[] value();
+}
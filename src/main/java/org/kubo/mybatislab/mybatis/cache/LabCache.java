@@ -0,0 +1,136 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.kubo.mybatislab.mybatis.budget.RequestSqlContext;
+
+/**
+ * 项目统一的二级缓存入口：{@code @CacheNamespace(implementation = LabCache.class, properties = {...})}。
+ *
+ * <p>MyBatis 对自定义缓存实现不会再套 eviction/readWrite 等装饰器（只包一层 {@code LoggingCache}），
+ * 因此由这里在 {@link #initialize()} 中按属性组装装饰链：</p>
+ * <pre>
+ * CopyOnReadCache（copyOnRead=true 时，替代 SerializedCache 的读写隔离）
+ *   └─ TaggedCache（按标签失效，配合 {@link CacheTags}/{@link InvalidateTags}）
+ *       └─ SingleFlightCache（singleFlight=true 时，同一键并发未命中只回源一次）
+ *           └─ TinyLfuCache（maximumSize / maximumWeight / weigher / expireAfterWriteMs）
+ * </pre>
+ *
+ * <p>属性：</p>
+ * <ul>
+ *   <li>{@code maximumSize}、{@code maximumWeight}、{@code weigher}、{@code expireAfterWriteMs}：透传给 {@link TinyLfuCache}；</li>
+ *   <li>{@code copyOnRead}：命中时是否返回独立副本，默认 true；</li>
+ *   <li>{@code codec}：{@link CacheValueCodec} 实现类全限定名，默认 {@link FastValueCodec}；</li>
+ *   <li>{@code singleFlight}：是否合并同一键的并发回源，默认 true；{@code singleFlightTimeoutMs}：等待者最长等待时间，默认 1000。</li>
+ * </ul>
+ */
+public class LabCache implements Cache, InitializingObject {
+
+    private final String id;
+    private final TinyLfuCache store;
+    private boolean copyOnRead = true;
+    private String codec;
+    private boolean singleFlight = true;
+    private long singleFlightTimeoutMs = 1000;
+    private Cache delegate;
+
+    public LabCache(String id) {
+        this.id = id;
+        this.store = new TinyLfuCache(id);
+        this.delegate = new TaggedCache(store);
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        store.setMaximumSize(maximumSize);
+    }
+
+    public void setMaximumWeight(long maximumWeight) {
+        store.setMaximumWeight(maximumWeight);
+    }
+
+    public void setWeigher(String weigher) {
+        store.setWeigher(weigher);
+    }
+
+    public void setExpireAfterWriteMs(long expireAfterWriteMs) {
+        store.setExpireAfterWriteMs(expireAfterWriteMs);
+    }
+
+    public void setCopyOnRead(boolean copyOnRead) {
+        this.copyOnRead = copyOnRead;
+    }
+
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+
+    public void setSingleFlight(boolean singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    public void setSingleFlightTimeoutMs(long singleFlightTimeoutMs) {
+        this.singleFlightTimeoutMs = singleFlightTimeoutMs;
+    }
+
+    @Override
+    public void initialize() throws Exception {
+        store.initialize();
+        Cache cache = singleFlight ? new SingleFlightCache(store, singleFlightTimeoutMs) : store;
+        cache = new TaggedCache(cache);
+        if (copyOnRead) {
+            CacheValueCodec valueCodec = codec == null || codec.isBlank()
+                    ? new FastValueCodec()
+                    : (CacheValueCodec) Class.forName(codec.trim()).getDeclaredConstructor().newInstance();
+            cache = new CopyOnReadCache(cache, valueCodec);
+        }
+        this.delegate = cache;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.putObject(key, value);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Object value = delegate.getObject(key);
+        // 按请求统计 L2 命中（开启 mybatis.myPlugins.requestBudget 时，见 RequestSqlInterceptor）
+        RequestSqlContext.recordL2Lookup(value != null);
+        return value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        // 整体清空需要同步到其它节点（开启 CacheInvalidationBus 时）
+        CacheInvalidationEvents.namespaceCleared(id);
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Cache && id.equals(((Cache) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+}
@@ -0,0 +1,22 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import java.util.Collection;
+
+/**
+ * 按查询结果的行数计重：二级缓存里存的是结果 List，findAll 这类大结果集与单行查询占用差距很大。
+ *
+ * <p>空结果（含 TransactionalCache 为未命中键写入的 null 占位）按 1 计，避免完全不占容量。</p>
+ */
+public class ResultSizeWeigher implements CacheWeigher {
+
+    @Override
+    public int weigh(Object key, Object value) {
+        if (value instanceof TaggedCache.TaggedValue) {
+            value = ((TaggedCache.TaggedValue) value).value;
+        }
+        if (value instanceof Collection) {
+            return Math.max(1, ((Collection<?>) value).size());
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,67 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.io.SerialFilterChecker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * 与 MyBatis {@code SerializedCache} 等价的 Java 序列化编解码：存字节数组，每次命中反序列化。
+ *
+ * <p>作为 {@link FastValueCodec} 遇到无法生成复制器的类型时的兜底，也可单独配置用于对比。</p>
+ */
+public class SerializingValueCodec implements CacheValueCodec {
+
+    @Override
+    public Object encode(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Serializable)) {
+            throw new CacheException("SharedCache failed to make a copy of a non-serializable object: " + value);
+        }
+        return new SerializedForm(serialize(value));
+    }
+
+    @Override
+    public Object decode(Object stored) {
+        return stored == null ? null : deserialize(((SerializedForm) stored).bytes);
+    }
+
+    static byte[] serialize(Object value) {
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
+             ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(value);
+            oos.flush();
+            return bos.toByteArray();
+        } catch (Exception e) {
+            throw new CacheException("Error serializing object.  Cause: " + e, e);
+        }
+    }
+
+    static Object deserialize(byte[] bytes) {
+        SerialFilterChecker.check();
+        try (ObjectInputStream ois = new SerializedCache.CustomObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        } catch (Exception e) {
+            throw new CacheException("Error deserializing object.  Cause: " + e, e);
+        }
+    }
+
+    /**
+     * 序列化后的缓存值（与普通结果区分开，避免把业务上的 byte[] 误当成序列化数据）。
+     */
+    static final class SerializedForm {
+
+        final byte[] bytes;
+
+        SerializedForm(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.apache.ibatis.cache.Cache;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单飞（single-flight）装饰器：同一个键未命中时只让第一个调用方回源，其余并发未命中的调用方等待它的结果。
+ *
+ * <p>与 MyBatis 自带的 {@code BlockingCache} 使用相同的回调约定（由 {@code TransactionalCache} 驱动）：</p>
+ * <ul>
+ *   <li>{@code getObject} 未命中：成为该键的“领头者”，返回 null 让其去查库；</li>
+ *   <li>{@code putObject}（提交时写入，未查到结果的键写入 null）：写入底层缓存后，把值交给所有等待者；</li>
+ *   <li>{@code removeObject}（回滚时对未命中的键调用）：放弃本次回源，等待者各自回源，失败结果不会被缓存。</li>
+ * </ul>
+ *
+ * <p>与 {@code BlockingCache} 的区别：</p>
+ * <ul>
+ *   <li>等待的是一个 Future 而不是一把锁，每个等待者最多等 {@code timeoutMs}（从自己开始等待算起），
+ *       超时后不抛异常而是自己回源，并撤下这次卡住的回源，后来者重新选出领头者；</li>
+ *   <li>领头线程在提交前再次查询同一个键（同一会话内重复查询）时直接返回 null，不会自己等自己；</li>
+ *   <li>等待者拿到的值为 null（领头者没查到结果或回滚）时同样自己回源。</li>
+ * </ul>
+ *
+ * <p>放在 {@link TaggedCache} 之下：等待者拿到的是带版本快照的值，仍由上层按当前标签版本校验；
+ * 上层丢弃过期写入时调用 {@code removeObject}，等待者随之回源。</p>
+ */
+public class SingleFlightCache implements Cache {
+
+    private static final ConcurrentHashMap<String, SingleFlightCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Cache delegate;
+    private final long timeoutNanos;
+    private final ConcurrentHashMap<Object, Flight> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    public SingleFlightCache(Cache delegate, long timeoutMs) {
+        this.delegate = delegate;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMs));
+        INSTANCES.put(delegate.getId(), this);
+    }
+
+    public static SingleFlightCache instance(String id) {
+        return INSTANCES.get(id);
+    }
+
+    public static Collection<SingleFlightCache> instances() {
+        return INSTANCES.values();
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        try {
+            delegate.putObject(key, value);
+        } finally {
+            Flight flight = flights.remove(key);
+            if (flight != null) {
+                flight.future.complete(value);
+            }
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Object value = delegate.getObject(key);
+        if (value != null) {
+            return value;
+        }
+        Flight flight = flights.get(key);
+        if (flight == null) {
+            Flight mine = new Flight();
+            flight = flights.putIfAbsent(key, mine);
+            if (flight == null) {
+                // 抢到领头之前别人可能刚好写完，再查一次，避免重复回源
+                value = delegate.getObject(key);
+                if (value != null) {
+                    flights.remove(key, mine);
+                    mine.future.complete(value);
+                    return value;
+                }
+                leaders.increment();
+                return null;
+            }
+        }
+        if (flight.owner == Thread.currentThread()) {
+            // 同一会话提交前重复查询：不能等自己
+            return null;
+        }
+        return await(key, flight);
+    }
+
+    private Object await(Object key, Flight flight) {
+        coalesced.increment();
+        long remaining = flight.startNanos + timeoutNanos - System.nanoTime();
+        try {
+            Object value = remaining > 0
+                    ? flight.future.get(remaining, TimeUnit.NANOSECONDS)
+                    : flight.future.getNow(null);
+            if (value != null) {
+                sharedHits.increment();
+            }
+            return value;
+        } catch (TimeoutException e) {
+            // 领头者迟迟不结束：撤下这次回源，所有等待者与后来者不再被它拖住
+            timeouts.increment();
+            if (flights.remove(key, flight)) {
+                flight.future.cancel(false);
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Flight flight = flights.remove(key);
+        if (flight != null) {
+            abandoned.increment();
+            flight.future.cancel(false);
+        }
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("inFlight", flights.size());
+        view.put("leaders", leaders.sum());
+        view.put("coalesced", coalesced.sum());
+        view.put("sharedHits", sharedHits.sum());
+        view.put("timeouts", timeouts.sum());
+        view.put("abandoned", abandoned.sum());
+        return view;
+    }
+
+    public void resetStats() {
+        leaders.reset();
+        coalesced.reset();
+        sharedHits.reset();
+        timeouts.reset();
+        abandoned.reset();
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return delegate.equals(obj);
+    }
+
+    private static final class Flight {
+
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final Thread owner = Thread.currentThread();
+        final long startNanos = System.nanoTime();
+    }
+}
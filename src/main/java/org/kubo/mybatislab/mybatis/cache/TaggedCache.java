@@ -0,0 +1,100 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * 按标签失效的装饰器：存入时把值与标签版本快照包在一起，命中时校验版本，任一标签已变更则视为未命中并移除。
+ *
+ * <p>键来自 {@code CacheTagInterceptor} 生成的 {@link TaggedCacheKey}；
+ * 普通 {@code CacheKey}（拦截器未启用等情况）退化为只依赖命名空间的“未声明”槽，且快照在写入时才取。</p>
+ */
+public class TaggedCache implements Cache {
+
+    private static final String[] NO_TAGS = new String[0];
+
+    private final Cache delegate;
+
+    public TaggedCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        int[] slots;
+        long[] versions;
+        if (key instanceof TaggedCacheKey) {
+            slots = ((TaggedCacheKey) key).slots;
+            versions = ((TaggedCacheKey) key).versions;
+        } else {
+            slots = CacheTagVersions.dependencySlots(getId(), NO_TAGS);
+            versions = CacheTagVersions.snapshot(slots);
+        }
+        if (!CacheTagVersions.isCurrent(slots, versions)) {
+            // 查询期间依赖的标签已被写入，结果可能是旧数据：丢弃，并通知下层放弃本次回源（SingleFlightCache 的等待者各自回源）
+            delegate.removeObject(key);
+            return;
+        }
+        delegate.putObject(key, new TaggedValue(value, slots, versions));
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Object stored = delegate.getObject(key);
+        if (stored == null) {
+            return null;
+        }
+        TaggedValue tagged = (TaggedValue) stored;
+        if (!CacheTagVersions.isCurrent(tagged.slots, tagged.versions)) {
+            delegate.removeObject(key);
+            return null;
+        }
+        return tagged.value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Object stored = delegate.removeObject(key);
+        return stored == null ? null : ((TaggedValue) stored).value;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return delegate.equals(obj);
+    }
+
+    /**
+     * 存入底层缓存的值：原值 + 依赖槽位 + 版本快照。
+     */
+    static final class TaggedValue {
+
+        final Object value;
+        final int[] slots;
+        final long[] versions;
+
+        TaggedValue(Object value, int[] slots, long[] versions) {
+            this.value = value;
+            this.slots = slots;
+            this.versions = versions;
+        }
+    }
+}
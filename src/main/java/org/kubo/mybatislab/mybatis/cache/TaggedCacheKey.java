@@ -0,0 +1,55 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.apache.ibatis.cache.CacheKey;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * 携带标签依赖的缓存键：与原始 {@link CacheKey} 相等（equals/hashCode 只看键内容），
+ * 额外带上查询开始时所依赖标签的版本快照。
+ *
+ * <p>快照必须在查询数据库之前取：若在写入缓存时才取，读到旧数据后、放入缓存前恰好发生的写入会被漏掉。
+ * MyBatis 在事务提交时才把结果放入二级缓存，键对象一路原样传到 {@link TaggedCache#putObject}。</p>
+ */
+public final class TaggedCacheKey extends CacheKey {
+
+    private static final long serialVersionUID = 1L;
+    private static final MethodHandle UPDATE_LIST = updateListGetter();
+
+    final transient int[] slots;
+    final transient long[] versions;
+
+    private TaggedCacheKey(Object[] components, int[] slots) {
+        super(components);
+        this.slots = slots;
+        this.versions = CacheTagVersions.snapshot(slots);
+    }
+
+    /**
+     * 基于执行器生成的键创建带标签快照的键。
+     */
+    public static TaggedCacheKey of(CacheKey base, String namespace, String[] tags) {
+        return new TaggedCacheKey(components(base), CacheTagVersions.dependencySlots(namespace, tags));
+    }
+
+    private static Object[] components(CacheKey key) {
+        try {
+            return ((List<?>) (Object) UPDATE_LIST.invokeExact(key)).toArray();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot read CacheKey components", e);
+        }
+    }
+
+    private static MethodHandle updateListGetter() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(CacheKey.class, MethodHandles.lookup());
+            return lookup.findGetter(CacheKey.class, "updateList", List.class)
+                    .asType(MethodType.methodType(Object.class, CacheKey.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,607 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 高并发二级缓存实现：无锁读 + W-TinyLFU 淘汰 + 可选 TTL + 按权重限容。
+ *
+ * <p>MyBatis 默认的 {@code SynchronizedCache + LruCache(LinkedHashMap)} 每次命中都要拿同一把监视器锁
+ * （LinkedHashMap 的访问顺序调整也是写操作），热点 namespace 在多核下会在这把锁上排队。这里改为：</p>
+ * <ul>
+ *   <li>读：{@link ConcurrentHashMap#get} 直接返回；“访问记录”写入按线程分条带的有损环形缓冲区，
+ *       缓冲区满时丢弃（只影响淘汰精度，不影响正确性），由拿到维护锁的线程批量回放；</li>
+ *   <li>写：先更新 Map；维护锁空闲时直接调整链表，否则把调整作为任务入队并等待锁（保证容量上限）；</li>
+ *   <li>淘汰：W-TinyLFU —— 约 1% 容量的 LRU 窗口区 + 99% 的分段 LRU 主区（保护区 80% / 试用区 20%），
+ *       窗口区溢出的候选者与试用区最久未访问的条目比较 {@link FrequencySketch} 估计的频率，频率高者留下；</li>
+ *   <li>TTL：{@code expireAfterWriteMs} &gt; 0 时按写入顺序维护一条队列，维护时从队头批量过期；读到过期条目按未命中处理。</li>
+ * </ul>
+ *
+ * <p>用法：{@code @CacheNamespace(implementation = TinyLfuCache.class, properties = {...})}，可用属性：</p>
+ * <ul>
+ *   <li>{@code maximumSize}：最大条目数（默认 1024，每个条目权重为 1）；</li>
+ *   <li>{@code maximumWeight} + {@code weigher}：按权重限容，{@code weigher} 为 {@link CacheWeigher} 实现类的全限定名，
+ *       缺省为 {@link ResultSizeWeigher}（按结果行数计重）；</li>
+ *   <li>{@code expireAfterWriteMs}：写入后过期时间，0 表示不过期。</li>
+ * </ul>
+ *
+ * <p>注意：自定义实现不会再被套上 {@code SerializedCache}，即 {@code readWrite = true} 的“读写隔离”不再生效，
+ * 命中时返回的是同一个对象实例，调用方不能修改缓存返回的结果。</p>
+ *
+ * <p>实例由 MyBatis 反射创建，不是 Spring Bean；统计信息通过 {@link #instances()} 汇总（见 {@code GET /api/cache/stats}）。</p>
+ */
+public class TinyLfuCache implements Cache, InitializingObject {
+
+    private static final ConcurrentHashMap<String, TinyLfuCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_STRIPES = stripeCount();
+
+    private final String id;
+    private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<>();
+    private final ReadStripe[] readBuffer = new ReadStripe[READ_BUFFER_STRIPES];
+    private final ConcurrentLinkedQueue<Runnable> writeTasks = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // 以下字段只在 evictionLock 内读写（weightedSize 额外供统计读取）
+    private final AccessDeque window = new AccessDeque();
+    private final AccessDeque probation = new AccessDeque();
+    private final AccessDeque protectedDeque = new AccessDeque();
+    private Node writeHead;
+    private Node writeTail;
+    private FrequencySketch sketch;
+    private long windowMaximum;
+    private long protectedMaximum;
+    private volatile long weightedSize;
+
+    // 配置项（由 MyBatis 通过 setter 注入，initialize() 之后不再变化）
+    private long maximumSize = 1024;
+    private long maximumWeight;
+    private String weigher;
+    private long expireAfterWriteMs;
+    private CacheWeigher cacheWeigher;
+    private long maximum;
+    private long expireAfterWriteNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public TinyLfuCache(String id) {
+        this.id = id;
+        for (int i = 0; i < READ_BUFFER_STRIPES; i++) {
+            readBuffer[i] = new ReadStripe();
+        }
+    }
+
+    /**
+     * 当前进程内已初始化的 TinyLfuCache（按 namespace 去重，后创建的覆盖先创建的）。
+     */
+    public static Collection<TinyLfuCache> instances() {
+        return INSTANCES.values();
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public void setMaximumWeight(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+
+    public void setWeigher(String weigher) {
+        this.weigher = weigher;
+    }
+
+    public void setExpireAfterWriteMs(long expireAfterWriteMs) {
+        this.expireAfterWriteMs = expireAfterWriteMs;
+    }
+
+    @Override
+    public void initialize() throws Exception {
+        if (maximumWeight > 0) {
+            maximum = maximumWeight;
+            cacheWeigher = weigher == null || weigher.isBlank()
+                    ? new ResultSizeWeigher()
+                    : (CacheWeigher) Class.forName(weigher.trim()).getDeclaredConstructor().newInstance();
+        } else {
+            if (weigher != null && !weigher.isBlank()) {
+                throw new CacheException("Cache '" + id + "': 'weigher' requires 'maximumWeight'");
+            }
+            if (maximumSize <= 0) {
+                throw new CacheException("Cache '" + id + "': 'maximumSize' must be positive");
+            }
+            maximum = maximumSize;
+        }
+        windowMaximum = Math.max(1, maximum / 100);
+        protectedMaximum = (maximum - windowMaximum) * 80 / 100;
+        expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, expireAfterWriteMs));
+        // 按权重限容时条目数未知，以权重上限估计（上限 2^24 个计数器组）
+        sketch = new FrequencySketch(maximum);
+        INSTANCES.put(id, this);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        int weight = cacheWeigher == null ? 1 : cacheWeigher.weigh(key, value);
+        if (weight < 0) {
+            throw new CacheException("Cache '" + id + "': negative weight " + weight);
+        }
+        Node node = new Node(key, value, weight, expireAfterWriteNanos > 0 ? System.nanoTime() : 0L);
+        Node old = data.put(key, node);
+        if (evictionLock.tryLock()) {
+            // 无竞争时直接在锁内调整链表，省去任务入队
+            try {
+                drainWriteTasks();
+                if (old != null) {
+                    unlink(old);
+                }
+                link(node);
+                drainReadBuffer();
+                expire();
+                evict();
+            } finally {
+                evictionLock.unlock();
+            }
+            return;
+        }
+        writeTasks.add(() -> {
+            if (old != null) {
+                unlink(old);
+            }
+            link(node);
+        });
+        maintenance();
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Node node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (expireAfterWriteNanos > 0 && System.nanoTime() - node.writeNanos >= expireAfterWriteNanos) {
+            if (data.remove(key, node)) {
+                expirations.increment();
+                writeTasks.add(() -> unlink(node));
+            }
+            misses.increment();
+            tryMaintenance();
+            return null;
+        }
+        hits.increment();
+        if (recordRead(node)) {
+            tryMaintenance();
+        }
+        return node.value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Node node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        writeTasks.add(() -> unlink(node));
+        maintenance();
+        return node.value;
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            // 读缓冲区里可能还留着旧节点的访问记录，逐个标记为已摘除，回放时会被忽略
+            drainWriteTasks();
+            for (AccessDeque deque : new AccessDeque[]{window, probation, protectedDeque}) {
+                for (Node n = deque.head; n != null; n = n.next) {
+                    n.linked = false;
+                }
+                deque.head = null;
+                deque.tail = null;
+                deque.weight = 0;
+            }
+            writeHead = null;
+            writeTail = null;
+            weightedSize = 0;
+            data.clear();
+            // 频率草图保留：flushCache 清空后，热点键重新写入时仍能凭历史频率被准入
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return data.size();
+    }
+
+    /**
+     * 命中/未命中/淘汰/过期统计。
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", id);
+        view.put("size", data.size());
+        view.put("weightedSize", weightedSize);
+        view.put("maximum", maximum);
+        view.put("expireAfterWriteMs", expireAfterWriteMs);
+        view.put("hits", hitCount);
+        view.put("misses", missCount);
+        view.put("hitRate", requests == 0 ? 0.0 : Math.round(hitCount * 10000.0 / requests) / 10000.0);
+        view.put("evictions", evictions.sum());
+        view.put("evictionWeight", evictionWeight.sum());
+        view.put("expirations", expirations.sum());
+        return view;
+    }
+
+    /**
+     * 清零计数器（不影响缓存内容）。
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        evictionWeight.reset();
+        expirations.reset();
+    }
+
+    // ---------------------------------------------------------------- 读缓冲区
+
+    /**
+     * 记录一次命中；返回 true 表示该条带已满，应尝试回放。
+     */
+    private boolean recordRead(Node node) {
+        ReadStripe stripe = readBuffer[stripeIndex()];
+        long head = stripe.readCounter;
+        long tail = stripe.writeCounter.get();
+        long size = tail - head;
+        if (size >= READ_BUFFER_SIZE) {
+            return true;
+        }
+        if (stripe.writeCounter.compareAndSet(tail, tail + 1)) {
+            stripe.slots.lazySet((int) (tail & READ_BUFFER_MASK), node);
+            return size + 1 >= READ_BUFFER_SIZE;
+        }
+        // CAS 失败说明同条带有并发读者，直接丢弃这次记录
+        return false;
+    }
+
+    private void drainReadBuffer() {
+        for (ReadStripe stripe : readBuffer) {
+            long head = stripe.readCounter;
+            long tail = stripe.writeCounter.get();
+            for (; head != tail; head++) {
+                int index = (int) (head & READ_BUFFER_MASK);
+                Node node = stripe.slots.get(index);
+                if (node == null) {
+                    // 槽位已预订但尚未写入，下次再回放
+                    break;
+                }
+                stripe.slots.lazySet(index, null);
+                onAccess(node);
+            }
+            stripe.readCounter = head;
+        }
+    }
+
+    // ---------------------------------------------------------------- 维护
+
+    private void maintenance() {
+        evictionLock.lock();
+        try {
+            runMaintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void tryMaintenance() {
+        if (evictionLock.tryLock()) {
+            try {
+                runMaintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void runMaintenance() {
+        drainWriteTasks();
+        drainReadBuffer();
+        expire();
+        evict();
+    }
+
+    private void drainWriteTasks() {
+        Runnable task;
+        while ((task = writeTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void link(Node node) {
+        // 任务乱序时（并发覆盖同一个键），只有仍在 Map 中的节点才进入链表
+        if (node.linked || data.get(node.key) != node) {
+            return;
+        }
+        node.linked = true;
+        node.region = WINDOW;
+        window.addLast(node);
+        if (expireAfterWriteNanos > 0) {
+            node.writePrev = writeTail;
+            if (writeTail == null) {
+                writeHead = node;
+            } else {
+                writeTail.writeNext = node;
+            }
+            writeTail = node;
+        }
+        weightedSize += node.weight;
+        sketch.increment(node.key);
+    }
+
+    private void unlink(Node node) {
+        if (!node.linked) {
+            return;
+        }
+        node.linked = false;
+        deque(node.region).remove(node);
+        if (expireAfterWriteNanos > 0) {
+            if (node.writePrev == null) {
+                writeHead = node.writeNext;
+            } else {
+                node.writePrev.writeNext = node.writeNext;
+            }
+            if (node.writeNext == null) {
+                writeTail = node.writePrev;
+            } else {
+                node.writeNext.writePrev = node.writePrev;
+            }
+            node.writePrev = null;
+            node.writeNext = null;
+        }
+        weightedSize -= node.weight;
+    }
+
+    private void onAccess(Node node) {
+        if (!node.linked) {
+            return;
+        }
+        sketch.increment(node.key);
+        if (node.region == WINDOW) {
+            window.moveToLast(node);
+        } else if (node.region == PROTECTED) {
+            protectedDeque.moveToLast(node);
+        } else {
+            // 试用区再次被访问：晋升到保护区，保护区超限则把最久未访问的降回试用区
+            probation.remove(node);
+            node.region = PROTECTED;
+            protectedDeque.addLast(node);
+            while (protectedDeque.weight > protectedMaximum && protectedDeque.head != node) {
+                Node demoted = protectedDeque.head;
+                protectedDeque.remove(demoted);
+                demoted.region = PROBATION;
+                probation.addLast(demoted);
+            }
+        }
+    }
+
+    private void expire() {
+        if (expireAfterWriteNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        while (writeHead != null && now - writeHead.writeNanos >= expireAfterWriteNanos) {
+            Node node = writeHead;
+            if (data.remove(node.key, node)) {
+                expirations.increment();
+            }
+            unlink(node);
+        }
+    }
+
+    private void evict() {
+        // 1. 窗口区溢出的条目作为候选者进入试用区尾部
+        int candidates = 0;
+        while (window.weight > windowMaximum && window.head != null) {
+            Node node = window.head;
+            window.remove(node);
+            node.region = PROBATION;
+            probation.addLast(node);
+            candidates++;
+        }
+        // 2. 超出总容量时，候选者（试用区尾）与受害者（试用区头）比较频率
+        while (weightedSize > maximum) {
+            Node victim = probation.head;
+            Node candidate = candidates > 0 ? probation.tail : null;
+            if (victim == null) {
+                victim = protectedDeque.head != null ? protectedDeque.head : window.head;
+                if (victim == null) {
+                    break;
+                }
+                evictNode(victim);
+            } else if (candidate == null || candidate == victim) {
+                if (candidate != null) {
+                    candidates--;
+                }
+                evictNode(victim);
+            } else if (admit(candidate, victim)) {
+                evictNode(victim);
+            } else {
+                candidates--;
+                evictNode(candidate);
+            }
+        }
+    }
+
+    private boolean admit(Node candidate, Node victim) {
+        int candidateFrequency = sketch.frequency(candidate.key);
+        int victimFrequency = sketch.frequency(victim.key);
+        if (candidateFrequency > victimFrequency) {
+            return true;
+        }
+        // 防止攻击者刻意抬高受害者频率：频率较高的候选者以小概率随机准入
+        return candidateFrequency > 5 && ThreadLocalRandom.current().nextInt(128) == 0;
+    }
+
+    private void evictNode(Node node) {
+        if (data.remove(node.key, node)) {
+            evictions.increment();
+            evictionWeight.add(node.weight);
+        }
+        unlink(node);
+    }
+
+    private AccessDeque deque(byte region) {
+        return region == WINDOW ? window : region == PROBATION ? probation : protectedDeque;
+    }
+
+    private static int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h >>> 16) & (READ_BUFFER_STRIPES - 1);
+    }
+
+    private static int stripeCount() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int n = Integer.highestOneBit(Math.max(1, cpus - 1)) << 1;
+        return Math.min(16, Math.max(1, n));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Cache && id.equals(((Cache) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    /**
+     * 汇总所有实例的统计，供监控接口使用。
+     */
+    public static List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (TinyLfuCache cache : INSTANCES.values()) {
+            list.add(cache.stats());
+        }
+        list.sort((a, b) -> String.valueOf(a.get("id")).compareTo(String.valueOf(b.get("id"))));
+        return list;
+    }
+
+    /**
+     * 缓存条目。key/value/weight/writeNanos 不可变（覆盖写入会创建新节点），其余字段只在维护锁内访问。
+     */
+    private static final class Node {
+
+        final Object key;
+        final Object value;
+        final int weight;
+        final long writeNanos;
+
+        boolean linked;
+        byte region;
+        Node prev;
+        Node next;
+        Node writePrev;
+        Node writeNext;
+
+        Node(Object key, Object value, int weight, long writeNanos) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeNanos = writeNanos;
+        }
+    }
+
+    /**
+     * 侵入式双向链表（头部为最久未访问），同时维护区内总权重。
+     */
+    private static final class AccessDeque {
+
+        Node head;
+        Node tail;
+        long weight;
+
+        void addLast(Node node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            weight += node.weight;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToLast(Node node) {
+            if (tail != node) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * 读缓冲区的一个条带：写计数器由读者 CAS 预订槽位，读计数器只由持有维护锁的线程推进。
+     */
+    private static final class ReadStripe {
+
+        final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        final AtomicLong writeCounter = new AtomicLong();
+        volatile long readCounter;
+    }
+}
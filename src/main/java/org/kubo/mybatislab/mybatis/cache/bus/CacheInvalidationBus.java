@@ -0,0 +1,261 @@
+package org.kubo.mybatislab.mybatis.cache.bus;
+
+import org.apache.ibatis.session.Configuration;
+import org.kubo.mybatislab.mybatis.cache.CacheInvalidationEvents;
+import org.kubo.mybatislab.mybatis.cache.CacheTagVersions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 跨节点二级缓存失效总线。
+ *
+ * <p>本节点提交的失效（{@link CacheInvalidationEvents}）先进入待发送表，按命名空间合并：</p>
+ * <ul>
+ *   <li>同一标签在窗口内只发一次；命名空间被整体清空后，它的标签失效全部并入这一次清空；</li>
+ *   <li>某命名空间的行标签超过 {@code maxTagsPerNamespace} 时提升为组标签（{@code user:1..N → user}），消息大小有上限；</li>
+ *   <li>第一条失效到达后 {@code windowMs} 发送一次，待发送的命名空间达到 {@code maxEntriesPerMessage} 时立即发送。</li>
+ * </ul>
+ *
+ * <p>其它节点收到后只失效消息覆盖的部分：标签失效递增 {@link CacheTagVersions}，整体清空才清空对应命名空间的缓存。
+ * 本节点在写入时已经失效过，收到自己发出的消息直接忽略。</p>
+ */
+public class CacheInvalidationBus implements CacheInvalidationEvents.Listener, AutoCloseable {
+
+    private final String nodeId;
+    private final InvalidationTransport transport;
+    private final long windowMs;
+    private final int maxEntriesPerMessage;
+    private final int maxTagsPerNamespace;
+    private final Consumer<InvalidationMessage.Entry> applier;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private LinkedHashMap<String, PendingNamespace> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder promoted = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder entriesSent = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder ignoredOwn = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+
+    public CacheInvalidationBus(InvalidationTransport transport, Configuration configuration, long windowMs,
+                                int maxEntriesPerMessage, int maxTagsPerNamespace) {
+        this(UUID.randomUUID().toString(), transport, entry -> applyLocally(configuration, entry), windowMs,
+                maxEntriesPerMessage, maxTagsPerNamespace);
+    }
+
+    CacheInvalidationBus(String nodeId, InvalidationTransport transport, Consumer<InvalidationMessage.Entry> applier,
+                         long windowMs, int maxEntriesPerMessage, int maxTagsPerNamespace) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+        this.applier = applier;
+        this.windowMs = Math.max(0, windowMs);
+        this.maxEntriesPerMessage = Math.max(1, maxEntriesPerMessage);
+        this.maxTagsPerNamespace = Math.max(1, maxTagsPerNamespace);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cache-invalidation-bus");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 开始收发：订阅传输层，并接管本节点的失效事件。
+     */
+    public void start() {
+        transport.start(this::receive);
+        CacheInvalidationEvents.register(this);
+        System.out.println("[缓存失效总线] 节点 " + nodeId + " 已启动，传输: " + transport.name());
+    }
+
+    @Override
+    public void tagsCommitted(String namespace, String[] tags) {
+        enqueue(namespace, tags, false);
+    }
+
+    @Override
+    public void namespaceCleared(String namespace) {
+        enqueue(namespace, null, true);
+    }
+
+    private void enqueue(String namespace, String[] tags, boolean clear) {
+        published.increment();
+        boolean flushNow;
+        lock.lock();
+        try {
+            PendingNamespace p = pending.computeIfAbsent(namespace, k -> new PendingNamespace());
+            if (p.clear) {
+                coalesced.increment();
+            } else if (clear) {
+                p.clear = true;
+                p.tags.clear();
+            } else {
+                for (String tag : tags) {
+                    if (!p.tags.add(p.promoted ? group(tag) : tag)) {
+                        coalesced.increment();
+                    }
+                }
+                if (!p.promoted && p.tags.size() > maxTagsPerNamespace) {
+                    promote(p);
+                }
+            }
+            flushNow = pending.size() >= maxEntriesPerMessage;
+            if (!flushScheduled && !flushNow) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (flushNow) {
+            scheduler.execute(this::flush);
+        }
+    }
+
+    private void promote(PendingNamespace p) {
+        Set<String> groups = new LinkedHashSet<>();
+        for (String tag : p.tags) {
+            groups.add(group(tag));
+        }
+        p.tags = groups;
+        p.promoted = true;
+        promoted.increment();
+    }
+
+    /**
+     * 立即发送待发送的失效（定时任务与测试调用）。
+     */
+    public void flush() {
+        LinkedHashMap<String, PendingNamespace> batch;
+        lock.lock();
+        try {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+        } finally {
+            lock.unlock();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<InvalidationMessage.Entry> entries = new ArrayList<>(batch.size());
+        batch.forEach((namespace, p) -> entries.add(
+                new InvalidationMessage.Entry(namespace, p.clear ? new ArrayList<>() : new ArrayList<>(p.tags), p.clear)));
+        for (int from = 0; from < entries.size(); from += maxEntriesPerMessage) {
+            List<InvalidationMessage.Entry> chunk = entries.subList(from, Math.min(entries.size(), from + maxEntriesPerMessage));
+            InvalidationMessage message = new InvalidationMessage(nodeId, sequence.incrementAndGet(), new ArrayList<>(chunk));
+            try {
+                transport.publish(message);
+                messagesSent.increment();
+                entriesSent.add(chunk.size());
+            } catch (Exception e) {
+                sendFailures.increment();
+                System.out.println("[缓存失效总线] 发送失败（seq=" + message.getSeq() + "）: " + e);
+            }
+        }
+    }
+
+    /**
+     * 处理收到的消息：忽略自己发出的，其余逐项失效本地缓存。
+     */
+    public void receive(InvalidationMessage message) {
+        received.increment();
+        if (nodeId.equals(message.getOrigin())) {
+            ignoredOwn.increment();
+            return;
+        }
+        for (InvalidationMessage.Entry entry : message.getEntries()) {
+            applier.accept(entry);
+            applied.increment();
+        }
+    }
+
+    private static void applyLocally(Configuration configuration, InvalidationMessage.Entry entry) {
+        String namespace = entry.getNamespace();
+        if (entry.isClear()) {
+            if (configuration.hasCache(namespace)) {
+                // 经 LabCache 完整清空（包括单飞中的回源），期间不再广播
+                CacheInvalidationEvents.applyRemote(() -> configuration.getCache(namespace).clear());
+            }
+            CacheTagVersions.invalidate(namespace, new String[0]);
+        } else {
+            CacheTagVersions.invalidate(namespace, entry.getTags().toArray(new String[0]));
+        }
+    }
+
+    private static String group(String tag) {
+        int colon = tag.indexOf(':');
+        return colon < 0 ? tag : tag.substring(0, colon);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Map<String, Object> stats() {
+        int pendingNamespaces;
+        lock.lock();
+        try {
+            pendingNamespaces = pending.size();
+        } finally {
+            lock.unlock();
+        }
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("nodeId", nodeId);
+        view.put("transport", transport.name());
+        view.put("windowMs", windowMs);
+        view.put("pendingNamespaces", pendingNamespaces);
+        view.put("published", published.sum());
+        view.put("coalesced", coalesced.sum());
+        view.put("promoted", promoted.sum());
+        view.put("messagesSent", messagesSent.sum());
+        view.put("entriesSent", entriesSent.sum());
+        view.put("sendFailures", sendFailures.sum());
+        view.put("received", received.sum());
+        view.put("ignoredOwn", ignoredOwn.sum());
+        view.put("applied", applied.sum());
+        view.put("transportStats", transport.stats());
+        return view;
+    }
+
+    public void resetStats() {
+        Arrays.asList(published, coalesced, promoted, messagesSent, entriesSent, sendFailures, received, ignoredOwn, applied)
+                .forEach(LongAdder::reset);
+    }
+
+    @Override
+    public void close() {
+        CacheInvalidationEvents.unregister(this);
+        // 关闭前把窗口内尚未发送的失效发出去
+        flush();
+        scheduler.shutdownNow();
+        transport.close();
+    }
+
+    private static final class PendingNamespace {
+
+        boolean clear;
+        boolean promoted;
+        Set<String> tags = new LinkedHashSet<>();
+    }
+}
@@ -0,0 +1,97 @@
+package org.kubo.mybatislab.mybatis.cache.bus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP 传输：经 {@link DiscoveryClient}（Nacos）找到同名服务的全部实例，把消息 POST 到各实例的接收接口。
+ *
+ * <ul>
+ *   <li>发送是异步的，单个实例超时或失败只计数、打印，不影响其它实例，也不阻塞提交线程；</li>
+ *   <li>实例列表每次发送时读取（Nacos 客户端本地有缓存），扩缩容后自动生效；</li>
+ *   <li>自己也在实例列表中，收到后由总线按 origin 忽略；</li>
+ *   <li>接收端是 {@code POST /internal/cache/invalidations}，配置了 token 时请求头 {@code X-Cache-Bus-Token} 必须一致。</li>
+ * </ul>
+ *
+ * <p>尽力而为、不重试：丢失的消息只能靠缓存的 {@code expireAfterWriteMs} 兜底，集群开启二级缓存时应配置过期时间。</p>
+ */
+public class HttpInvalidationTransport implements InvalidationTransport {
+
+    public static final String PATH = "/internal/cache/invalidations";
+    public static final String TOKEN_HEADER = "X-Cache-Bus-Token";
+
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final ObjectMapper objectMapper;
+    private final String token;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public HttpInvalidationTransport(DiscoveryClient discoveryClient, String serviceId, ObjectMapper objectMapper,
+                                     String token, long timeoutMs) {
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.objectMapper = objectMapper;
+        this.token = token;
+        this.timeout = Duration.ofMillis(Math.max(1, timeoutMs));
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return "http:" + serviceId;
+    }
+
+    @Override
+    public void start(Consumer<InvalidationMessage> receiver) {
+        // 接收由 Web 接口完成（CacheInvalidationBusController），这里无需监听
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(message);
+        List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+        for (ServiceInstance instance : instances) {
+            URI uri = instance.getUri().resolve(PATH);
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if (token != null && !token.isEmpty()) {
+                request.header(TOKEN_HEADER, token);
+            }
+            requests.increment();
+            client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() >= 300) {
+                            failures.increment();
+                            System.out.println("[缓存失效总线] 发送到 " + uri + " 失败: "
+                                    + (error != null ? error : "HTTP " + response.statusCode()));
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("requests", requests.sum());
+        view.put("failures", failures.sum());
+        return view;
+    }
+}
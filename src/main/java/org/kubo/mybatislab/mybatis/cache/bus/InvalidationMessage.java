@@ -0,0 +1,98 @@
+package org.kubo.mybatislab.mybatis.cache.bus;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 失效消息：一个时间窗口内某节点合并后的全部失效，每个命名空间一项。
+ *
+ * <p>示例：{@code {"origin":"7f3a..","seq":42,"entries":[{"namespace":"org.kubo.mybatislab.mapper.UserMapper","tags":["user:1","user:2"]}]}}；
+ * 整体清空时为 {@code {"namespace":"...","clear":true}}。</p>
+ */
+public class InvalidationMessage {
+
+    /** 发送节点 ID，收到自己发出的消息时忽略。 */
+    private String origin;
+    /** 发送节点内递增的序号，便于排查丢失与乱序。 */
+    private long seq;
+    private List<Entry> entries = new ArrayList<>();
+
+    public InvalidationMessage() {
+    }
+
+    public InvalidationMessage(String origin, long seq, List<Entry> entries) {
+        this.origin = origin;
+        this.seq = seq;
+        this.entries = entries;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 单个命名空间的失效：{@code clear=true} 时整体清空，否则按标签失效。
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public static class Entry {
+
+        private String namespace;
+        private List<String> tags = new ArrayList<>();
+        private boolean clear;
+
+        public Entry() {
+        }
+
+        public Entry(String namespace, List<String> tags, boolean clear) {
+            this.namespace = namespace;
+            this.tags = tags;
+            this.clear = clear;
+        }
+
+        public String getNamespace() {
+            return namespace;
+        }
+
+        public void setNamespace(String namespace) {
+            this.namespace = namespace;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public boolean isClear() {
+            return clear;
+        }
+
+        public void setClear(boolean clear) {
+            this.clear = clear;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.kubo.mybatislab.mybatis.cache.bus;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 失效消息的传输层（可替换）：{@link LoopbackInvalidationTransport} 用于进程内测试，
+ * {@link HttpInvalidationTransport} 经服务发现向同名服务的各实例 POST。
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    String name();
+
+    /**
+     * 开始接收；收到的消息交给 {@code receiver}（包括自己发出的，由总线按 origin 过滤）。
+     */
+    void start(Consumer<InvalidationMessage> receiver);
+
+    /**
+     * 发出一条消息。可以异步发送，但不应长时间阻塞调用线程。
+     */
+    void publish(InvalidationMessage message) throws Exception;
+
+    default Map<String, Object> stats() {
+        return Map.of();
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,51 @@
+package org.kubo.mybatislab.mybatis.cache.bus;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 进程内回环传输：同一频道上的所有订阅者（包括发送者自己）同步收到消息。
+ * 用于测试与单实例演示；多个总线实例挂在同一频道上即可模拟多个节点。
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private static final ConcurrentHashMap<String, List<Consumer<InvalidationMessage>>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private volatile Consumer<InvalidationMessage> receiver;
+
+    public LoopbackInvalidationTransport(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public String name() {
+        return "loopback:" + channel;
+    }
+
+    @Override
+    public void start(Consumer<InvalidationMessage> receiver) {
+        this.receiver = receiver;
+        CHANNELS.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>()).add(receiver);
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        List<Consumer<InvalidationMessage>> subscribers = CHANNELS.get(channel);
+        if (subscribers != null) {
+            for (Consumer<InvalidationMessage> subscriber : subscribers) {
+                subscriber.accept(message);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        List<Consumer<InvalidationMessage>> subscribers = CHANNELS.get(channel);
+        if (subscribers != null && receiver != null) {
+            subscribers.remove(receiver);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package org.kubo.mybatislab.mybatis.explain;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.kubo.mybatislab.mybatis.sql.BoundParameters;
+import org.kubo.mybatislab.mybatis.sql.SqlFingerprinter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 慢 SQL 执行计划自动抓取。
+ *
+ * <p>{@code SqlCostInterceptor} 发现慢 SQL 时调用 {@link #submit}：请求线程只取出绑定参数并放入有界队列，
+ * 由单个后台线程 {@code sql-explain} 从独立的小连接池取连接，用同样的 TypeHandler 绑定参数执行
+ * {@code EXPLAIN <sql>}（H2 与 MySQL 通用），结果存入按 SQL 指纹去重的有界内存表。</p>
+ *
+ * <ul>
+ *   <li>只处理 SELECT，EXPLAIN 不会执行语句本身；</li>
+ *   <li>去重：同一指纹 {@code minIntervalMs} 内只抓一次，其余慢执行只累计次数与耗时；</li>
+ *   <li>限流：全局每分钟最多 {@code maxPerMinute} 次，队列满时丢弃；</li>
+ *   <li>计划变化：同一指纹新抓到的计划与上一次不同时标记 {@code planChanged} 并打印，便于第一时间发现计划回退；</li>
+ *   <li>参数默认脱敏保存：数字、布尔、枚举原样，字符串只保留首字符与长度，其它类型只记类型名。</li>
+ * </ul>
+ */
+public class ExplainCapture implements AutoCloseable {
+
+    private static final int MAX_PLAN_ROWS = 100;
+
+    /**
+     * 判断计划是否变化时只比较的列：MySQL 的访问路径（表、访问类型、选用的索引、Extra），以及 H2 的 PLAN 文本。
+     * rows、filtered 等估算值随 InnoDB 统计信息刷新而变化，只用于展示，不参与比较。
+     */
+    private static final Set<String> PLAN_STRUCTURE_COLUMNS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        PLAN_STRUCTURE_COLUMNS.addAll(List.of("id", "select_type", "table", "type", "key", "Extra", "PLAN"));
+    }
+
+    private final DataSource dataSource;
+    private final SqlFingerprinter fingerprinter;
+    private final String explainPrefix;
+    private final long minIntervalNanos;
+    private final int maxPerMinute;
+    private final int maxPlans;
+    private final int queryTimeoutSeconds;
+    private final boolean maskParameters;
+    private final ThreadPoolExecutor worker;
+
+    /** 指纹 → 计划，按访问顺序淘汰最久未出现的。 */
+    private final LinkedHashMap<String, Plan> plans;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong windowCount = new AtomicLong();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder explained = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder planChanges = new LongAdder();
+
+    public ExplainCapture(DataSource dataSource, SqlFingerprinter fingerprinter, String explainPrefix, long minIntervalMs,
+                          int maxPerMinute, int queueCapacity, int maxPlans, int queryTimeoutSeconds,
+                          boolean maskParameters) {
+        this.dataSource = dataSource;
+        this.fingerprinter = fingerprinter;
+        this.explainPrefix = explainPrefix;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minIntervalMs));
+        this.maxPerMinute = Math.max(1, maxPerMinute);
+        this.maxPlans = Math.max(1, maxPlans);
+        this.queryTimeoutSeconds = Math.max(0, queryTimeoutSeconds);
+        this.maskParameters = maskParameters;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Plan> eldest) {
+                return size() > ExplainCapture.this.maxPlans;
+            }
+        };
+        this.worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread t = new Thread(r, "sql-explain");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * 提交一条慢 SQL。只在请求线程上取参数与做去重/限流判断，EXPLAIN 在后台执行。
+     */
+    public void submit(MappedStatement ms, BoundSql boundSql, long costNanos) {
+        if (ms.getSqlCommandType() != SqlCommandType.SELECT) {
+            skipped.increment();
+            return;
+        }
+        String sql = boundSql.getSql();
+        SqlFingerprinter.Fingerprint fingerprint = fingerprinter.fingerprint(sql);
+        long now = System.nanoTime();
+        Plan plan;
+        synchronized (plans) {
+            plan = plans.computeIfAbsent(fingerprint.id(), f -> new Plan(fingerprint, ms.getId(), sql));
+            plan.seen(costNanos);
+            if (plan.submittedAt != 0 && now - plan.submittedAt < minIntervalNanos) {
+                deduplicated.increment();
+                return;
+            }
+            if (!tryAcquire(now)) {
+                rateLimited.increment();
+                return;
+            }
+            plan.submittedAt = now;
+        }
+        Configuration configuration = ms.getConfiguration();
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        Object[] values = BoundParameters.values(configuration, boundSql);
+        JdbcType jdbcTypeForNull = configuration.getJdbcTypeForNull();
+        try {
+            worker.execute(() -> explain(plan, sql, mappings, values, jdbcTypeForNull, costNanos));
+            submitted.increment();
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            synchronized (plans) {
+                plan.submittedAt = 0;
+            }
+        }
+    }
+
+    /**
+     * 固定一分钟窗口计数限流。
+     */
+    private boolean tryAcquire(long now) {
+        long start = windowStart.get();
+        if (now - start >= TimeUnit.MINUTES.toNanos(1) && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() <= maxPerMinute;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void explain(Plan plan, String sql, List<ParameterMapping> mappings, Object[] values,
+                         JdbcType jdbcTypeForNull, long costNanos) {
+        long start = System.nanoTime();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        String error = null;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(explainPrefix + " " + sql)) {
+            if (queryTimeoutSeconds > 0) {
+                ps.setQueryTimeout(queryTimeoutSeconds);
+            }
+            for (int i = 0; i < values.length; i++) {
+                ParameterMapping mapping = mappings.get(i);
+                JdbcType jdbcType = mapping.getJdbcType();
+                if (values[i] == null && jdbcType == null) {
+                    jdbcType = jdbcTypeForNull;
+                }
+                ((TypeHandler) mapping.getTypeHandler()).setParameter(ps, i + 1, values[i], jdbcType);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columns = metaData.getColumnCount();
+                while (rs.next() && rows.size() < MAX_PLAN_ROWS) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int c = 1; c <= columns; c++) {
+                        Object value = rs.getObject(c);
+                        row.put(metaData.getColumnLabel(c), value == null ? null : value.toString());
+                    }
+                    rows.add(row);
+                }
+            }
+            explained.increment();
+        } catch (SQLException | RuntimeException e) {
+            failed.increment();
+            error = e.toString();
+        }
+        long explainNanos = System.nanoTime() - start;
+        List<String> parameters = new ArrayList<>(values.length);
+        for (Object value : values) {
+            parameters.add(maskParameters ? mask(value) : String.valueOf(value));
+        }
+        boolean changed;
+        synchronized (plans) {
+            changed = plan.captured(rows, error, parameters, costNanos, explainNanos);
+        }
+        if (changed) {
+            planChanges.increment();
+            System.out.println("[EXPLAIN] 执行计划发生变化: " + plan.statementId + "\n  之前: " + plan.previousRows
+                    + "\n  现在: " + rows);
+        } else if (error != null) {
+            System.out.println("[EXPLAIN] 抓取失败: " + plan.statementId + " -> " + error);
+        }
+    }
+
+    /**
+     * 计划的结构部分（见 {@link #PLAN_STRUCTURE_COLUMNS}）；结果里没有任何已知结构列时（其它数据库）按整行比较。
+     */
+    static List<Map<String, Object>> planStructure(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> structure = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> kept = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> column : row.entrySet()) {
+                if (PLAN_STRUCTURE_COLUMNS.contains(column.getKey())) {
+                    kept.put(column.getKey(), column.getValue());
+                }
+            }
+            structure.add(kept.isEmpty() ? row : kept);
+        }
+        return structure;
+    }
+
+    static String mask(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Enum) {
+            return value.toString();
+        }
+        if (value instanceof CharSequence) {
+            CharSequence s = (CharSequence) value;
+            return s.length() == 0 ? "''" : "'" + s.charAt(0) + "***'(" + s.length() + ")";
+        }
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+
+    public List<Map<String, Object>> plans() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        synchronized (plans) {
+            for (Plan plan : plans.values()) {
+                list.add(plan.view());
+            }
+        }
+        list.sort((a, b) -> Long.compare((Long) b.get("lastSeenAt"), (Long) a.get("lastSeenAt")));
+        return list;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("enabled", true);
+        synchronized (plans) {
+            view.put("plans", plans.size());
+        }
+        view.put("maxPlans", maxPlans);
+        view.put("queued", worker.getQueue().size());
+        view.put("submitted", submitted.sum());
+        view.put("explained", explained.sum());
+        view.put("failed", failed.sum());
+        view.put("planChanges", planChanges.sum());
+        view.put("deduplicated", deduplicated.sum());
+        view.put("rateLimited", rateLimited.sum());
+        view.put("dropped", dropped.sum());
+        view.put("skippedNonSelect", skipped.sum());
+        return view;
+    }
+
+    public void reset() {
+        synchronized (plans) {
+            plans.clear();
+        }
+        submitted.reset();
+        deduplicated.reset();
+        rateLimited.reset();
+        dropped.reset();
+        skipped.reset();
+        explained.reset();
+        failed.reset();
+        planChanges.reset();
+    }
+
+    /**
+     * 等待队列中已提交的 EXPLAIN 执行完（测试与停机时使用）。
+     */
+    public void awaitIdle(long timeoutMs) throws InterruptedException {
+        // 单线程按提交顺序执行：排在最后的空任务完成时，之前提交的都已完成
+        try {
+            worker.submit(() -> {
+            }).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            // 超时或队列已满时直接返回
+        }
+    }
+
+    /**
+     * 停止后台线程，并关闭专用连接池（DataSource 实现了 AutoCloseable 时）。
+     */
+    @Override
+    public void close() {
+        worker.shutdownNow();
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                System.out.println("[EXPLAIN] 关闭连接池失败: " + e);
+            }
+        }
+    }
+
+    /**
+     * 一个 SQL 指纹的最近一次计划与慢执行统计。所有字段在 plans 锁内读写。
+     */
+    private static final class Plan {
+
+        final SqlFingerprinter.Fingerprint fingerprint;
+        final String statementId;
+        final String sql;
+        long occurrences;
+        long lastCostNanos;
+        long maxCostNanos;
+        long lastSeenAt;
+        /** 最近一次提交 EXPLAIN 的时间（nanoTime），0 表示未提交。 */
+        long submittedAt;
+        List<Map<String, Object>> rows;
+        List<Map<String, Object>> previousRows;
+        List<String> parameters;
+        String error;
+        long capturedAt;
+        long explainNanos;
+        long captureCostNanos;
+        long captures;
+        boolean planChanged;
+
+        Plan(SqlFingerprinter.Fingerprint fingerprint, String statementId, String sql) {
+            this.fingerprint = fingerprint;
+            this.statementId = statementId;
+            this.sql = sql;
+        }
+
+        void seen(long costNanos) {
+            occurrences++;
+            lastCostNanos = costNanos;
+            maxCostNanos = Math.max(maxCostNanos, costNanos);
+            lastSeenAt = System.currentTimeMillis();
+        }
+
+        boolean captured(List<Map<String, Object>> newRows, String newError, List<String> newParameters,
+                         long costNanos, long explainNanos) {
+            boolean changed = newError == null && rows != null
+                    && !planStructure(rows).equals(planStructure(newRows));
+            if (newError == null) {
+                if (changed) {
+                    previousRows = rows;
+                }
+                rows = newRows;
+            }
+            planChanged = planChanged || changed;
+            error = newError;
+            parameters = newParameters;
+            capturedAt = System.currentTimeMillis();
+            this.explainNanos = explainNanos;
+            captureCostNanos = costNanos;
+            captures++;
+            return changed;
+        }
+
+        Map<String, Object> view() {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("fingerprint", fingerprint.id());
+            view.put("shape", fingerprint.shape());
+            view.put("statementId", statementId);
+            view.put("sql", sql);
+            view.put("occurrences", occurrences);
+            view.put("lastCostMs", toMillis(lastCostNanos));
+            view.put("maxCostMs", toMillis(maxCostNanos));
+            view.put("lastSeenAt", lastSeenAt);
+            view.put("captures", captures);
+            if (captures > 0) {
+                view.put("capturedAt", capturedAt);
+                view.put("captureCostMs", toMillis(captureCostNanos));
+                view.put("explainMs", toMillis(explainNanos));
+                view.put("parameters", parameters);
+            }
+            if (rows != null) {
+                view.put("plan", rows);
+            }
+            if (planChanged) {
+                view.put("planChanged", true);
+                view.put("previousPlan", previousRows);
+            }
+            if (error != null) {
+                view.put("error", error);
+            }
+            return view;
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round((double) nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+}
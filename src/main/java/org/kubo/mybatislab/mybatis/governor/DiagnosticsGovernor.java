@@ -0,0 +1,222 @@
+package org.kubo.mybatislab.mybatis.governor;
+
+import org.kubo.mybatislab.mybatis.stats.LatencyHistogram;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 诊断开销调节器：运行时决定 TestInterceptor 与 SqlCostInterceptor 慢 SQL 输出是否观测当前语句。
+ *
+ * <p>每个评估周期统计两项指标：SQL 延迟 p99（SqlCostInterceptor 上报）与诊断拦截器自身耗时占 SQL 耗时的比例
+ * （TestInterceptor 扣除放行部分后上报）。AUTO 模式下：</p>
+ * <ul>
+ *   <li>任一指标超过阈值：降一级（FULL → SAMPLED → OFF）；</li>
+ *   <li>两项都低于阈值的 {@code recoverRatio}（或周期内样本不足，说明负载已下降），连续 {@code recoverIntervals} 个周期：升一级，最高到 {@code maxLevel}；</li>
+ *   <li>其余情况保持不变。</li>
+ * </ul>
+ *
+ * <p>热路径 {@link #admit()} 只读一个 volatile 字段，SAMPLED 时再加一次原子自增。
+ * 配置（含固定模式）可经 Nacos 动态修改，收到刷新事件后立即重新评估。</p>
+ */
+@Component
+public class DiagnosticsGovernor implements InitializingBean, DisposableBean {
+
+    private final DiagnosticsGovernorProperties properties;
+    private volatile DiagnosticsLevel level = DiagnosticsLevel.FULL;
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private final LatencyHistogram windowLatency = new LatencyHistogram();
+    private final LongAdder windowStatementNanos = new LongAdder();
+    private final LongAdder windowOverheadNanos = new LongAdder();
+
+    private int healthyIntervals;
+    private long lastEvaluationNanos = System.nanoTime();
+    private double lastP99Ms;
+    private double lastOverheadPercent;
+    private long lastSamples;
+    private String lastReason = "startup";
+    private final LongAdder degradations = new LongAdder();
+    private final LongAdder recoveries = new LongAdder();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    public DiagnosticsGovernor(DiagnosticsGovernorProperties properties) {
+        this.properties = properties;
+        this.level = initialLevel();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "diagnostics-governor");
+            t.setDaemon(true);
+            return t;
+        });
+        // 按较短的节拍检查是否到了评估时间，评估间隔因此也可以动态修改
+        scheduler.scheduleWithFixedDelay(this::tick, 200, 200, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 当前语句是否需要观测（只在语句的最外层调用上询问一次，SAMPLED 时每次询问都会推进采样计数）。
+     */
+    public boolean admit() {
+        DiagnosticsLevel current = level;
+        boolean admit = current == DiagnosticsLevel.FULL
+                || (current == DiagnosticsLevel.SAMPLED
+                && sampleCounter.getAndIncrement() % Math.max(1, properties.getSampleRate()) == 0);
+        (admit ? admitted : skipped).increment();
+        return admit;
+    }
+
+    public DiagnosticsLevel level() {
+        return level;
+    }
+
+    /**
+     * SqlCostInterceptor 上报一条语句的执行耗时。
+     */
+    public void recordStatement(long nanos) {
+        windowLatency.record(nanos);
+        windowStatementNanos.add(nanos);
+    }
+
+    /**
+     * 诊断拦截器上报自身耗时（不含放行给下游的部分）。
+     */
+    public void recordOverhead(long nanos) {
+        if (nanos > 0) {
+            windowOverheadNanos.add(nanos);
+        }
+    }
+
+    private void tick() {
+        try {
+            long now = System.nanoTime();
+            if (now - lastEvaluationNanos >= TimeUnit.MILLISECONDS.toNanos(properties.getEvaluationIntervalMs())) {
+                evaluate();
+            }
+        } catch (RuntimeException e) {
+            System.out.println("[诊断调节] 评估失败: " + e);
+        }
+    }
+
+    /**
+     * Nacos 等配置源刷新后立即按新配置评估（固定模式立刻生效）。
+     *
+     * <p>{@code @ConfigurationProperties} 的重新绑定同样由 EnvironmentChangeEvent 触发，
+     * 这里排在最后执行，读到的是重新绑定后的配置。</p>
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(EnvironmentChangeEvent.class)
+    public void onEnvironmentChange() {
+        evaluate();
+    }
+
+    /**
+     * 结束当前评估周期并调整级别。
+     */
+    synchronized void evaluate() {
+        lastEvaluationNanos = System.nanoTime();
+        LatencyHistogram.Snapshot s = windowLatency.snapshot();
+        long statementNanos = windowStatementNanos.sumThenReset();
+        long overheadNanos = windowOverheadNanos.sumThenReset();
+        windowLatency.reset();
+        lastSamples = s.getCount();
+        lastP99Ms = s.getValueAtPercentile(99) / 1_000_000.0;
+        lastOverheadPercent = statementNanos == 0 ? 0 : overheadNanos * 100.0 / statementNanos;
+
+        DiagnosticsGovernorProperties.Mode mode = properties.getMode();
+        if (mode != DiagnosticsGovernorProperties.Mode.AUTO) {
+            change(DiagnosticsLevel.valueOf(mode.name()), "forced by configuration");
+            healthyIntervals = 0;
+            return;
+        }
+        DiagnosticsLevel ceiling = properties.getMaxLevel();
+        if (level.ordinal() < ceiling.ordinal()) {
+            // 配置把上限调低了：立即降到上限
+            change(ceiling, "maxLevel lowered");
+            healthyIntervals = 0;
+            return;
+        }
+        boolean enoughSamples = lastSamples >= properties.getMinSamples();
+        boolean overSlo = enoughSamples && lastP99Ms > properties.getSloP99Ms();
+        boolean overBudget = enoughSamples && lastOverheadPercent > properties.getMaxOverheadPercent();
+        if (overSlo || overBudget) {
+            healthyIntervals = 0;
+            if (level != DiagnosticsLevel.OFF) {
+                degradations.increment();
+                change(level.lower(), overSlo
+                        ? String.format("p99 %.3fms > slo %.3fms", lastP99Ms, properties.getSloP99Ms())
+                        : String.format("overhead %.2f%% > %.2f%%", lastOverheadPercent, properties.getMaxOverheadPercent()));
+            }
+            return;
+        }
+        double ratio = properties.getRecoverRatio();
+        boolean healthy = !enoughSamples
+                || (lastP99Ms <= properties.getSloP99Ms() * ratio
+                && lastOverheadPercent <= properties.getMaxOverheadPercent() * ratio);
+        if (!healthy || level.ordinal() <= ceiling.ordinal()) {
+            healthyIntervals = 0;
+            return;
+        }
+        if (++healthyIntervals >= properties.getRecoverIntervals()) {
+            healthyIntervals = 0;
+            recoveries.increment();
+            change(level.higher(), "load recovered");
+        }
+    }
+
+    private void change(DiagnosticsLevel next, String reason) {
+        if (next != level) {
+            System.out.println("[诊断调节] " + level + " -> " + next + "（" + reason + "）");
+            level = next;
+            lastReason = reason;
+        }
+    }
+
+    private DiagnosticsLevel initialLevel() {
+        DiagnosticsGovernorProperties.Mode mode = properties.getMode();
+        return mode == DiagnosticsGovernorProperties.Mode.AUTO ? properties.getMaxLevel() : DiagnosticsLevel.valueOf(mode.name());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("mode", properties.getMode().name());
+        view.put("level", level.name());
+        view.put("maxLevel", properties.getMaxLevel().name());
+        view.put("sampleRate", properties.getSampleRate());
+        view.put("sloP99Ms", properties.getSloP99Ms());
+        view.put("maxOverheadPercent", properties.getMaxOverheadPercent());
+        view.put("lastSamples", lastSamples);
+        view.put("lastP99Ms", Math.round(lastP99Ms * 1000) / 1000.0);
+        view.put("lastOverheadPercent", Math.round(lastOverheadPercent * 100) / 100.0);
+        view.put("lastReason", lastReason);
+        view.put("degradations", degradations.sum());
+        view.put("recoveries", recoveries.sum());
+        view.put("admitted", admitted.sum());
+        view.put("skipped", skipped.sum());
+        return view;
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
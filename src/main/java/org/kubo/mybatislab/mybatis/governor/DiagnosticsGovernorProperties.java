@@ -0,0 +1,114 @@
+package org.kubo.mybatislab.mybatis.governor;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 诊断开销调节器配置（{@code mybatis.myPlugins.governor.*}）。
+ *
+ * <p>以 {@code @ConfigurationProperties} 绑定：Nacos 配置变更触发刷新时 Spring Cloud 会重新绑定这个 Bean，
+ * 调节器每次评估都读取最新值，无需重启。</p>
+ */
+@Component
+@ConfigurationProperties(prefix = "mybatis.my-plugins.governor")
+public class DiagnosticsGovernorProperties {
+
+    /**
+     * 调节方式。
+     */
+    public enum Mode {
+        /** 按负载自动在 maxLevel 与 OFF 之间升降。 */
+        AUTO,
+        /** 固定为对应级别（运维手动干预）。 */
+        FULL, SAMPLED, OFF
+    }
+
+    private Mode mode = Mode.AUTO;
+    /** AUTO 模式下允许恢复到的最高级别。 */
+    private DiagnosticsLevel maxLevel = DiagnosticsLevel.FULL;
+    /** SAMPLED 级别下每多少条语句观测一条。 */
+    private int sampleRate = 10;
+    /** SQL 延迟 p99 目标（毫秒），超过即降级。 */
+    private double sloP99Ms = 50;
+    /** 诊断拦截器自身耗时占 SQL 耗时的上限（百分比），超过即降级。 */
+    private double maxOverheadPercent = 5;
+    /** 两项指标都低于阈值的这个比例时才算恢复（滞回，避免来回抖动）。 */
+    private double recoverRatio = 0.5;
+    /** 连续多少个评估周期恢复后升一级。 */
+    private int recoverIntervals = 3;
+    private long evaluationIntervalMs = 1000;
+    /** 一个周期内语句数少于此值视为低负载（样本不足，不据此降级）。 */
+    private int minSamples = 20;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public DiagnosticsLevel getMaxLevel() {
+        return maxLevel;
+    }
+
+    public void setMaxLevel(DiagnosticsLevel maxLevel) {
+        this.maxLevel = maxLevel;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public double getSloP99Ms() {
+        return sloP99Ms;
+    }
+
+    public void setSloP99Ms(double sloP99Ms) {
+        this.sloP99Ms = sloP99Ms;
+    }
+
+    public double getMaxOverheadPercent() {
+        return maxOverheadPercent;
+    }
+
+    public void setMaxOverheadPercent(double maxOverheadPercent) {
+        this.maxOverheadPercent = maxOverheadPercent;
+    }
+
+    public double getRecoverRatio() {
+        return recoverRatio;
+    }
+
+    public void setRecoverRatio(double recoverRatio) {
+        this.recoverRatio = recoverRatio;
+    }
+
+    public int getRecoverIntervals() {
+        return recoverIntervals;
+    }
+
+    public void setRecoverIntervals(int recoverIntervals) {
+        this.recoverIntervals = recoverIntervals;
+    }
+
+    public long getEvaluationIntervalMs() {
+        return evaluationIntervalMs;
+    }
+
+    public void setEvaluationIntervalMs(long evaluationIntervalMs) {
+        this.evaluationIntervalMs = evaluationIntervalMs;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+}
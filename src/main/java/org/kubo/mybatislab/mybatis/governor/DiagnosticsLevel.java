@@ -0,0 +1,21 @@
+package org.kubo.mybatislab.mybatis.governor;
+
+/**
+ * 诊断拦截器的观测级别，由 {@link DiagnosticsGovernor} 按负载在三档之间切换。
+ */
+public enum DiagnosticsLevel {
+    /** 全量：每条语句都观测。 */
+    FULL,
+    /** 采样：每 sampleRate 条语句观测一条。 */
+    SAMPLED,
+    /** 关闭：只保留必要的统计（SqlStatsRegistry），不做任何观测输出。 */
+    OFF;
+
+    DiagnosticsLevel lower() {
+        return this == FULL ? SAMPLED : OFF;
+    }
+
+    DiagnosticsLevel higher() {
+        return this == OFF ? SAMPLED : FULL;
+    }
+}
@@ -0,0 +1,23 @@
+package org.kubo.mybatislab.mybatis.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Executor#flushStatements（批处理提交）。
+ */
+@Name("org.kubo.mybatislab.FlushStatements")
+@Label("MyBatis Flush Statements")
+public class FlushStatementsEvent extends MybatisEvent {
+
+    @Label("Batches")
+    int batches;
+
+    @Label("Affected Rows")
+    long affectedRows;
+
+    public void set(int batches, long affectedRows) {
+        this.batches = batches;
+        this.affectedRows = affectedRows;
+    }
+}
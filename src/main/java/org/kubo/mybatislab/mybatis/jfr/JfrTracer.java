@@ -0,0 +1,257 @@
+package org.kubo.mybatislab.mybatis.jfr;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Invocation;
+import org.kubo.mybatislab.mybatis.plugin.PluginTargets;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 以 JFR 事件记录 MyBatis 执行链路（TestInterceptor 的 JFR 模式）。
+ *
+ * <p>开销控制：</p>
+ * <ul>
+ *   <li>被拦截方法到“阶段”的映射按 {@link Method} 缓存，只在首次调用时解析方法名；</li>
+ *   <li>事件未启用（没有正在进行的录制，或该事件在录制配置中被关闭）时，除了一次 {@code isEnabled()} 判断外直接放行；</li>
+ *   <li>statement id、行数等字段只在 {@code shouldCommit()} 为 true 时才提取，低于阈值的事件不付出任何额外代价。</li>
+ * </ul>
+ */
+public final class JfrTracer {
+
+    enum Phase {
+        QUERY, QUERY_CURSOR, UPDATE, FLUSH_STATEMENTS, COMMIT, ROLLBACK, CLOSE,
+        PREPARE, PARAMETERIZE, BATCH, STATEMENT_UPDATE, STATEMENT_QUERY, STATEMENT_QUERY_CURSOR,
+        SET_PARAMETERS, HANDLE_RESULT_SETS, HANDLE_CURSOR_RESULT_SETS, HANDLE_OUTPUT_PARAMETERS,
+        NONE
+    }
+
+    static final ConcurrentHashMap<Method, Phase> PHASES = new ConcurrentHashMap<>();
+
+    private JfrTracer() {
+    }
+
+    public static Object trace(Invocation invocation) throws Throwable {
+        Phase phase = phaseOf(invocation.getMethod());
+        switch (phase) {
+            case QUERY:
+            case QUERY_CURSOR:
+                return query(invocation, phase == Phase.QUERY_CURSOR);
+            case UPDATE:
+                return update(invocation);
+            case FLUSH_STATEMENTS:
+                return flushStatements(invocation);
+            case COMMIT:
+            case ROLLBACK:
+            case CLOSE:
+                return transaction(invocation, phase);
+            case PREPARE:
+            case PARAMETERIZE:
+            case BATCH:
+            case STATEMENT_UPDATE:
+            case STATEMENT_QUERY:
+            case STATEMENT_QUERY_CURSOR:
+            case SET_PARAMETERS:
+                return statement(invocation, phase);
+            case HANDLE_RESULT_SETS:
+            case HANDLE_CURSOR_RESULT_SETS:
+            case HANDLE_OUTPUT_PARAMETERS:
+                return resultSet(invocation, phase);
+            default:
+                return invocation.proceed();
+        }
+    }
+
+    static Phase phaseOf(Method method) {
+        Phase phase = PHASES.get(method);
+        if (phase == null) {
+            phase = PHASES.computeIfAbsent(method, JfrTracer::resolve);
+        }
+        return phase;
+    }
+
+    private static Object query(Invocation invocation, boolean cursor) throws Throwable {
+        QueryEvent event = new QueryEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+                event.set(ms.getId(), cursor ? -1 : rows(result), cursor);
+                event.commit();
+            }
+        }
+    }
+
+    private static Object update(Invocation invocation) throws Throwable {
+        UpdateEvent event = new UpdateEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+                event.set(ms.getId(), ms.getSqlCommandType().name(), rows(result));
+                event.commit();
+            }
+        }
+    }
+
+    private static Object flushStatements(Invocation invocation) throws Throwable {
+        FlushStatementsEvent event = new FlushStatementsEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                int batches = 0;
+                long affected = 0;
+                if (result instanceof List) {
+                    for (Object o : (List<?>) result) {
+                        if (o instanceof BatchResult) {
+                            batches++;
+                            for (int count : ((BatchResult) o).getUpdateCounts()) {
+                                affected += Math.max(0, count);
+                            }
+                        }
+                    }
+                }
+                event.set(batches, affected);
+                event.commit();
+            }
+        }
+    }
+
+    private static Object transaction(Invocation invocation, Phase phase) throws Throwable {
+        TransactionEvent event = new TransactionEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        try {
+            return invocation.proceed();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(phase.name().toLowerCase(Locale.ROOT), (boolean) invocation.getArgs()[0]);
+                event.commit();
+            }
+        }
+    }
+
+    private static Object statement(Invocation invocation, Phase phase) throws Throwable {
+        StatementEvent event = new StatementEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                boolean counted = phase == Phase.STATEMENT_QUERY || phase == Phase.STATEMENT_UPDATE;
+                event.set(PluginTargets.statementId(invocation.getTarget()), phase.name(), counted ? rows(result) : -1);
+                event.commit();
+            }
+        }
+    }
+
+    private static Object resultSet(Invocation invocation, Phase phase) throws Throwable {
+        ResultSetEvent event = new ResultSetEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                int rows = phase == Phase.HANDLE_RESULT_SETS ? rows(result) : -1;
+                event.set(PluginTargets.statementId(invocation.getTarget()), phase.name(), rows);
+                event.commit();
+            }
+        }
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof List) {
+            return ((List<?>) result).size();
+        }
+        if (result instanceof Integer) {
+            return (Integer) result;
+        }
+        return -1;
+    }
+
+    private static Phase resolve(Method method) {
+        Class<?> type = method.getDeclaringClass();
+        String name = method.getName();
+        if (Executor.class.isAssignableFrom(type)) {
+            switch (name) {
+                case "query": return Phase.QUERY;
+                case "queryCursor": return Phase.QUERY_CURSOR;
+                case "update": return Phase.UPDATE;
+                case "flushStatements": return Phase.FLUSH_STATEMENTS;
+                case "commit": return Phase.COMMIT;
+                case "rollback": return Phase.ROLLBACK;
+                case "close": return Phase.CLOSE;
+                default: return Phase.NONE;
+            }
+        }
+        if (StatementHandler.class.isAssignableFrom(type)) {
+            switch (name) {
+                case "prepare": return Phase.PREPARE;
+                case "parameterize": return Phase.PARAMETERIZE;
+                case "batch": return Phase.BATCH;
+                case "update": return Phase.STATEMENT_UPDATE;
+                case "query": return Phase.STATEMENT_QUERY;
+                case "queryCursor": return Phase.STATEMENT_QUERY_CURSOR;
+                default: return Phase.NONE;
+            }
+        }
+        if (ParameterHandler.class.isAssignableFrom(type)) {
+            return "setParameters".equals(name) ? Phase.SET_PARAMETERS : Phase.NONE;
+        }
+        if (ResultSetHandler.class.isAssignableFrom(type)) {
+            switch (name) {
+                case "handleResultSets": return Phase.HANDLE_RESULT_SETS;
+                case "handleCursorResultSets": return Phase.HANDLE_CURSOR_RESULT_SETS;
+                case "handleOutputParameters": return Phase.HANDLE_OUTPUT_PARAMETERS;
+                default: return Phase.NONE;
+            }
+        }
+        return Phase.NONE;
+    }
+}
@@ -0,0 +1,21 @@
+package org.kubo.mybatislab.mybatis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * MyBatis 执行链路 JFR 事件的公共父类。
+ *
+ * <p>所有事件归入 “MyBatis” 分类，默认不采集调用栈（降低开销）；事件自带 startTime/duration，
+ * 无需另行计时。录制方式示例：{@code jcmd <pid> JFR.start name=mybatis duration=60s filename=mybatis.jfr}，
+ * 在 JDK Mission Control 的 “Event Browser / MyBatis” 中查看。</p>
+ */
+@Category("MyBatis")
+@StackTrace(false)
+abstract class MybatisEvent extends Event {
+
+    @Label("Statement Id")
+    String statementId;
+}
@@ -0,0 +1,27 @@
+package org.kubo.mybatislab.mybatis.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Executor#query / queryCursor。
+ */
+@Name("org.kubo.mybatislab.Query")
+@Label("MyBatis Query")
+@Description("Executor#query/queryCursor，包含缓存查找、SQL 执行与结果映射")
+public class QueryEvent extends MybatisEvent {
+
+    @Label("Rows")
+    @Description("返回条数；游标查询为 -1")
+    int rows;
+
+    @Label("Cursor")
+    boolean cursor;
+
+    public void set(String statementId, int rows, boolean cursor) {
+        this.statementId = statementId;
+        this.rows = rows;
+        this.cursor = cursor;
+    }
+}
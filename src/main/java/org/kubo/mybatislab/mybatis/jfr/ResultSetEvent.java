@@ -0,0 +1,24 @@
+package org.kubo.mybatislab.mybatis.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * ResultSetHandler#handleResultSets / handleCursorResultSets / handleOutputParameters。
+ */
+@Name("org.kubo.mybatislab.ResultSet")
+@Label("MyBatis Result Set Handling")
+public class ResultSetEvent extends MybatisEvent {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Rows")
+    int rows;
+
+    public void set(String statementId, String phase, int rows) {
+        this.statementId = statementId;
+        this.phase = phase;
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,27 @@
+package org.kubo.mybatislab.mybatis.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * StatementHandler 各阶段：prepare / parameterize / batch / update / query / queryCursor，
+ * 以及 ParameterHandler#setParameters。
+ */
+@Name("org.kubo.mybatislab.Statement")
+@Label("MyBatis Statement Phase")
+public class StatementEvent extends MybatisEvent {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Rows")
+    @Description("query 为返回条数，update 为影响行数，其它阶段为 -1")
+    int rows;
+
+    public void set(String statementId, String phase, int rows) {
+        this.statementId = statementId;
+        this.phase = phase;
+        this.rows = rows;
+    }
+}
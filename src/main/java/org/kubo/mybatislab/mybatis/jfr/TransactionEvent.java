@@ -0,0 +1,23 @@
+package org.kubo.mybatislab.mybatis.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Executor#commit / rollback / close。
+ */
+@Name("org.kubo.mybatislab.Transaction")
+@Label("MyBatis Transaction")
+public class TransactionEvent extends MybatisEvent {
+
+    @Label("Action")
+    String action;
+
+    @Label("Required / Force Rollback")
+    boolean flag;
+
+    public void set(String action, boolean flag) {
+        this.action = action;
+        this.flag = flag;
+    }
+}
@@ -0,0 +1,24 @@
+package org.kubo.mybatislab.mybatis.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Executor#update（INSERT/UPDATE/DELETE）。
+ */
+@Name("org.kubo.mybatislab.Update")
+@Label("MyBatis Update")
+public class UpdateEvent extends MybatisEvent {
+
+    @Label("Command Type")
+    String commandType;
+
+    @Label("Affected Rows")
+    int affectedRows;
+
+    public void set(String statementId, String commandType, int affectedRows) {
+        this.statementId = statementId;
+        this.commandType = commandType;
+        this.affectedRows = affectedRows;
+    }
+}
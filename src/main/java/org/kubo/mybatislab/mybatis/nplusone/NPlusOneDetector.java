@@ -0,0 +1,306 @@
+package org.kubo.mybatislab.mybatis.nplusone;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * N+1 查询检测。
+ *
+ * <p>以“工作单元”为范围统计每条语句的执行：HTTP 请求由 {@link NPlusOneRequestFilter} 开启，
+ * 请求之外的事务在第一条语句时自动开启、事务结束时关闭；两者都没有时不统计。
+ * 同一单元内某条语句以超过 {@code threshold} 组不同参数执行，即判定为 N+1：</p>
+ * <ul>
+ *   <li>越过阈值的那一刻用 {@link StackWalker} 采样一次调用点（跳过 MyBatis、Spring、JDK 与本项目插件的栈帧），
+ *       经过 {@code ResultLoader} 的标记为懒加载级联，由其他语句的结果映射触发的标记为嵌套查询；</li>
+ *   <li>单元结束时输出一条报告：执行次数、不同参数数、累计耗时，以及合并成一次查询后可省下的估算耗时
+ *       （累计耗时减去平均单次耗时）；</li>
+ *   <li>严格模式（{@code strict=true}，用于测试）越过阈值时直接抛出 {@link NPlusOneQueryException}。</li>
+ * </ul>
+ *
+ * <p>工作单元与最外层语句都是线程本地的：在其他线程上执行的查询不归属任何单元。最典型的是开启
+ * {@code UserBatchLoader} 后的合并查询，它在派发线程上执行、一条 {@code in} 查询同时服务多个请求，
+ * 既不计入调用方的请求，也无法按调用方拆分；循环调用加载器本身不会被判定为 N+1。</p>
+ */
+@Component
+public class NPlusOneDetector {
+
+    private static final ThreadLocal<QueryUnit> CURRENT = new ThreadLocal<>();
+
+    private static final String[] SKIPPED_PACKAGES = {
+            "java.", "javax.", "jdk.", "sun.", "com.sun.", "jakarta.",
+            "org.apache.ibatis.", "org.mybatis.", "org.springframework.",
+            "org.kubo.mybatislab.mybatis.plugin.",
+    };
+
+    private final boolean enabled;
+    private final int threshold;
+    private final boolean strict;
+    private final int maxFindings;
+    private final int callSiteDepth;
+
+    private final Deque<Map<String, Object>> recent = new ArrayDeque<>();
+    private final ConcurrentHashMap<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private final LongAdder units = new LongAdder();
+    private final LongAdder flaggedUnits = new LongAdder();
+
+    public NPlusOneDetector(
+            @Value("${mybatis.myPlugins.nPlusOne.enabled:false}") boolean enabled,
+            @Value("${mybatis.myPlugins.nPlusOne.threshold:5}") int threshold,
+            @Value("${mybatis.myPlugins.nPlusOne.strict:false}") boolean strict,
+            @Value("${mybatis.myPlugins.nPlusOne.maxFindings:200}") int maxFindings,
+            @Value("${mybatis.myPlugins.nPlusOne.callSiteDepth:3}") int callSiteDepth) {
+        this.enabled = enabled;
+        this.threshold = Math.max(1, threshold);
+        this.strict = strict;
+        this.maxFindings = Math.max(1, maxFindings);
+        this.callSiteDepth = Math.max(1, callSiteDepth);
+    }
+
+    /**
+     * 开启一个工作单元，返回之前的单元（嵌套时用于恢复）。
+     */
+    public Object begin(String name) {
+        QueryUnit previous = CURRENT.get();
+        CURRENT.set(new QueryUnit(name));
+        return previous;
+    }
+
+    /**
+     * 重命名当前单元（请求结束时换成匹配到的路由模板，避免按具体 URI 分散统计）。
+     */
+    public void rename(String name) {
+        QueryUnit unit = CURRENT.get();
+        if (unit != null && name != null) {
+            unit.name = name;
+        }
+    }
+
+    /**
+     * 结束当前单元并输出报告，恢复 {@link #begin(String)} 返回的单元。
+     */
+    public void end(Object previous) {
+        QueryUnit unit = CURRENT.get();
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set((QueryUnit) previous);
+        }
+        if (unit != null) {
+            report(unit);
+        }
+    }
+
+    /**
+     * 记录一次真正发往数据库的查询。
+     *
+     * @param parameterHash 绑定参数（含 SQL 文本）的散列，用于区分“同参数重复”与“不同参数逐个查”
+     * @param nested        是否由另一条语句的结果映射触发
+     */
+    public void record(String statementId, int parameterHash, long nanos, boolean nested) {
+        QueryUnit unit = CURRENT.get();
+        if (unit == null) {
+            unit = beginTransactionUnit();
+            if (unit == null) {
+                return;
+            }
+        }
+        QueryUnit.Usage usage = unit.usage(statementId);
+        if (!usage.record(parameterHash, nanos, nested, threshold)) {
+            return;
+        }
+        usage.callSite = CallSite.capture(callSiteDepth, usage.nested > 0);
+        if (strict) {
+            throw new NPlusOneQueryException("N+1 query detected in " + unit.name + ": " + statementId + " executed with "
+                    + usage.parameters.size() + " different parameters (threshold " + threshold + ") at " + usage.callSite);
+        }
+    }
+
+    private QueryUnit beginTransactionUnit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        Object previous = begin("tx " + (name == null ? "<unnamed>" : name));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                end(previous);
+            }
+        });
+        return CURRENT.get();
+    }
+
+    private void report(QueryUnit unit) {
+        units.increment();
+        boolean flagged = false;
+        for (Map.Entry<String, QueryUnit.Usage> e : unit.usages.entrySet()) {
+            QueryUnit.Usage usage = e.getValue();
+            if (usage.callSite == null) {
+                continue;
+            }
+            flagged = true;
+            double totalMs = toMillis(usage.totalNanos);
+            double savingsMs = toMillis(usage.totalNanos - usage.totalNanos / usage.executions);
+            Map<String, Object> finding = new LinkedHashMap<>();
+            finding.put("unit", unit.name);
+            finding.put("statementId", e.getKey());
+            finding.put("kind", usage.callSite.kind());
+            finding.put("executions", usage.executions);
+            finding.put("distinctParameters", usage.parameters.size());
+            finding.put("totalMs", totalMs);
+            finding.put("estimatedSavingsMs", savingsMs);
+            finding.put("callSite", usage.callSite.frames);
+            finding.put("timestamp", System.currentTimeMillis());
+            synchronized (recent) {
+                recent.addFirst(finding);
+                while (recent.size() > maxFindings) {
+                    recent.removeLast();
+                }
+            }
+            String key = unit.name + " | " + e.getKey();
+            if (aggregates.size() < maxFindings || aggregates.containsKey(key)) {
+                aggregates.computeIfAbsent(key, k -> new Aggregate(unit.name, e.getKey())).add(usage, finding);
+            }
+            System.out.println("[N+1] " + unit.name + " 中 " + e.getKey() + " 以 " + usage.parameters.size()
+                    + " 组不同参数执行 " + usage.executions + " 次（" + usage.callSite.kind() + "），累计 " + totalMs
+                    + " ms，合并后约可省 " + savingsMs + " ms，调用点: " + usage.callSite);
+        }
+        if (flagged) {
+            flaggedUnits.increment();
+        }
+    }
+
+    public Map<String, Object> findings() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("enabled", enabled);
+        view.put("threshold", threshold);
+        view.put("strict", strict);
+        view.put("units", units.sum());
+        view.put("flaggedUnits", flaggedUnits.sum());
+        view.put("statements", aggregates.values().stream()
+                .sorted(Comparator.comparingLong((Aggregate a) -> a.totalNanos.sum()).reversed())
+                .map(Aggregate::view)
+                .collect(Collectors.toList()));
+        synchronized (recent) {
+            view.put("recent", new ArrayList<>(recent));
+        }
+        return view;
+    }
+
+    public void reset() {
+        synchronized (recent) {
+            recent.clear();
+        }
+        aggregates.clear();
+        units.reset();
+        flaggedUnits.reset();
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round((double) nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+
+    /**
+     * 越过阈值时采样的调用点：最靠近业务代码的若干栈帧。
+     */
+    static final class CallSite {
+
+        final List<String> frames;
+        final boolean lazy;
+        final boolean nested;
+
+        private CallSite(List<String> frames, boolean lazy, boolean nested) {
+            this.frames = frames;
+            this.lazy = lazy;
+            this.nested = nested;
+        }
+
+        static CallSite capture(int depth, boolean nested) {
+            boolean[] lazy = new boolean[1];
+            List<String> frames = StackWalker.getInstance().walk(s -> s
+                    .peek(f -> {
+                        if (f.getClassName().startsWith("org.apache.ibatis.executor.loader.")) {
+                            lazy[0] = true;
+                        }
+                    })
+                    .filter(f -> !skipped(f.getClassName()))
+                    .limit(depth)
+                    .map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+                    .collect(Collectors.toList()));
+            return new CallSite(frames, lazy[0], nested);
+        }
+
+        private static boolean skipped(String className) {
+            for (String prefix : SKIPPED_PACKAGES) {
+                if (className.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            String self = NPlusOneDetector.class.getName();
+            return className.contains("$$") || className.equals(self) || className.startsWith(self + "$");
+        }
+
+        String kind() {
+            return lazy ? "lazy-load" : nested ? "nested-select" : "repeated-select";
+        }
+
+        @Override
+        public String toString() {
+            return frames.isEmpty() ? "<unknown>" : String.join(" <- ", frames);
+        }
+    }
+
+    /**
+     * 同一单元名 + 语句的累计报告次数。
+     */
+    private static final class Aggregate {
+
+        final String unit;
+        final String statementId;
+        final LongAdder occurrences = new LongAdder();
+        final LongAdder executions = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        volatile Map<String, Object> last;
+
+        Aggregate(String unit, String statementId) {
+            this.unit = unit;
+            this.statementId = statementId;
+        }
+
+        void add(QueryUnit.Usage usage, Map<String, Object> finding) {
+            occurrences.increment();
+            executions.add(usage.executions);
+            totalNanos.add(usage.totalNanos);
+            last = finding;
+        }
+
+        Map<String, Object> view() {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("unit", unit);
+            view.put("statementId", statementId);
+            view.put("occurrences", occurrences.sum());
+            view.put("executions", executions.sum());
+            view.put("totalMs", toMillis(totalNanos.sum()));
+            Map<String, Object> finding = last;
+            if (finding != null) {
+                view.put("kind", finding.get("kind"));
+                view.put("callSite", finding.get("callSite"));
+            }
+            return view;
+        }
+    }
+}
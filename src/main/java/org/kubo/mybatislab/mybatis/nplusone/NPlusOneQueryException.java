@@ -0,0 +1,13 @@
+package org.kubo.mybatislab.mybatis.nplusone;
+
+/**
+ * 严格模式下检测到 N+1 查询（{@code mybatis.myPlugins.nPlusOne.strict=true}），用于在测试中让请求直接失败。
+ */
+public class NPlusOneQueryException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NPlusOneQueryException(String message) {
+        super(message);
+    }
+}
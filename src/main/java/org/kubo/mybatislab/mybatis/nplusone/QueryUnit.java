@@ -0,0 +1,52 @@
+package org.kubo.mybatislab.mybatis.nplusone;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一个工作单元（一次 HTTP 请求或一个事务）内各语句的执行情况，只在所属线程上读写。
+ */
+final class QueryUnit {
+
+    /** 每条语句最多记录的不同参数个数，超过后只计执行次数。 */
+    private static final int MAX_DISTINCT = 1024;
+
+    String name;
+    final Map<String, Usage> usages = new LinkedHashMap<>();
+
+    QueryUnit(String name) {
+        this.name = name;
+    }
+
+    Usage usage(String statementId) {
+        return usages.computeIfAbsent(statementId, id -> new Usage());
+    }
+
+    static final class Usage {
+
+        long executions;
+        long totalNanos;
+        /** 由其他语句的结果映射触发的嵌套查询次数。 */
+        long nested;
+        final Set<Integer> parameters = new HashSet<>();
+        /** 超过阈值时采样的调用点；null 表示尚未触发。 */
+        NPlusOneDetector.CallSite callSite;
+
+        /**
+         * 记录一次执行，返回本次是否让不同参数的个数刚好超过阈值。
+         */
+        boolean record(int parameterHash, long nanos, boolean nestedQuery, int threshold) {
+            executions++;
+            totalNanos += nanos;
+            if (nestedQuery) {
+                nested++;
+            }
+            if (parameters.size() < MAX_DISTINCT && parameters.add(parameterHash)) {
+                return parameters.size() == threshold + 1;
+            }
+            return false;
+        }
+    }
+}
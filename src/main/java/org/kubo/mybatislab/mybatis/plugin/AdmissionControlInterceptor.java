@@ -0,0 +1,114 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.kubo.mybatislab.mybatis.admission.AdmissionLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    MyBatis 插件：数据库准入控制。
+
+    许可跟着“连接被占用的时间”走，而不是跟着单次 Executor 调用走：
+
+    - Spring 事务（或事务同步）中：第一条语句申请许可，绑定到当前事务，事务完成（afterCompletion，连接已归还）时释放；
+      事务内后续语句不再排队，不会出现事务已经拿着连接、却在中途被 503 拒绝的情况。
+      REQUIRES_NEW 挂起外层事务时许可一并挂起，内层事务另取连接，另申请许可；
+    - 事务外：许可绑定到 Executor（即一个 SqlSession），在 Executor#close 时释放。
+      SqlSessionTemplate 事务外每次调用一个会话，相当于每次调用一个许可；手动 openSession 的会话
+      （BATCH 批量写入、Cursor 流式导出）在整个会话期间持有许可，覆盖游标遍历与批量 flush；
+
+    拿不到（排队已满或等待超时）时抛出 DatabaseBusyException，接口返回 503。
+    二级缓存命中同样会占用许可（命中发生在 CachingExecutor 内部，拦截器无法提前得知）。
+*/
+@Component
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.admission", name = "enabled", havingValue = "true")
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class}),
+})
+public class AdmissionControlInterceptor implements Interceptor {
+
+    private final AdmissionLimiter limiter;
+    /** 事务外持有许可的 Executor（按引用比较）。 */
+    private final Set<Object> sessions = ConcurrentHashMap.newKeySet();
+
+    public AdmissionControlInterceptor(AdmissionLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object executor = invocation.getTarget();
+        if ("close".equals(invocation.getMethod().getName())) {
+            try {
+                return invocation.proceed();
+            } finally {
+                if (sessions.remove(executor)) {
+                    limiter.release();
+                }
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!TransactionSynchronizationManager.hasResource(limiter)) {
+                limiter.acquire(statementId(invocation));
+                TransactionSynchronizationManager.bindResource(limiter, Boolean.TRUE);
+                TransactionSynchronizationManager.registerSynchronization(new PermitSynchronization());
+            }
+        } else if (sessions.add(executor)) {
+            try {
+                limiter.acquire(statementId(invocation));
+            } catch (RuntimeException e) {
+                sessions.remove(executor);
+                throw e;
+            }
+        }
+        return invocation.proceed();
+    }
+
+    private static String statementId(Invocation invocation) {
+        Object[] args = invocation.getArgs();
+        return args.length > 0 && args[0] instanceof MappedStatement
+                ? ((MappedStatement) args[0]).getId()
+                : invocation.getMethod().getName();
+    }
+
+    /**
+     * 事务持有的许可：随事务挂起/恢复解绑/重新绑定，事务完成后释放。
+     */
+    private final class PermitSynchronization implements TransactionSynchronization {
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(limiter);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(limiter, Boolean.TRUE);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(limiter);
+            limiter.release();
+        }
+    }
+}
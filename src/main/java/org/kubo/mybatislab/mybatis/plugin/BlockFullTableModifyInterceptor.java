@@ -1,20 +1,24 @@
 package org.kubo.mybatislab.mybatis.plugin;
 
+import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.executor.Executor;
-import org.apache.ibatis.executor.CachingExecutor;
-import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.Intercepts;
 import org.apache.ibatis.plugin.Invocation;
 import org.apache.ibatis.plugin.Signature;
 import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.kubo.mybatislab.mybatis.sql.ModifyGuardScanner;
+import org.kubo.mybatislab.mybatis.sql.ModifyGuardVerdict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 
-import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /*
@@ -22,6 +26,12 @@ import java.util.Properties;
 
     当执行全表修改（如 UPDATE 或 DELETE，并且没有筛选条件）时，拦截器会被触发。
 
+    性能说明：先按命令类型放行非 UPDATE/DELETE；判定结果按 statement id（静态 SQL）
+    或 SQL 文本（动态 SQL）缓存在有界并发 Map 中；未命中时用单遍扫描器判定，不使用正则。
+
+    判定规则（见 ModifyGuardScanner）：只认语句顶层的 WHERE（字符串、注释、子查询中的不算），
+    且 WHERE 不能恒为真（如 where 1=1）；带 LIMIT 的语句视为有保护。
+
 */
 @Component
 @ConditionalOnProperty(prefix = "mybatis.myPlugins", name = "blockFullTableModifyInterceptor", havingValue = "true", matchIfMissing = true)
@@ -31,46 +41,77 @@ import java.util.Properties;
 
 public class BlockFullTableModifyInterceptor implements Interceptor {
 
+    /**
+     * 判定结果缓存上限。静态 SQL 按 MappedStatement id 缓存，动态 SQL 按 SQL 文本缓存；
+     * 超过上限时整体清空重建，保证内存有界（判定本身很便宜，清空后重新预热的代价可以忽略）。
+     */
+    @Value("${mybatis.myPlugins.blockFullTableModifyCacheSize:2048}")
+    private int maxCachedVerdicts = 2048;
+
+    final ConcurrentHashMap<String, ModifyGuardVerdict> staticVerdicts = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, ModifyGuardVerdict> dynamicVerdicts = new ConcurrentHashMap<>();
+
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
-        // 说明：MyBatis 的执行器通常是 CachingExecutor(外层) 包装 BaseExecutor(内层)，
-        // 两层都会触发 Executor.update(...)，导致拦截两次。这里在外层 CachingExecutor 直接放行，
-        // 仅在内层实际执行器上做一次判定与日志，避免重复。
-        if (invocation.getTarget() instanceof CachingExecutor) {
-            return invocation.proceed();
-        }
+        // 说明：MyBatis 只对最外层执行器调用 pluginAll —— 开启二级缓存时就是 CachingExecutor，
+        // 其内部的 BaseExecutor 并不会被代理，因此这里不能跳过 CachingExecutor，否则开启缓存后判定永远不会执行。
 		// Executor#update(MappedStatement ms, Object parameter)
 		Object[] args = invocation.getArgs();
 		MappedStatement ms = (MappedStatement) args[0];
-		Object parameterObject = args[1];
 
+        // 先判断命令类型：INSERT 等操作直接放行，不再为它们生成 BoundSql 或做任何文本处理
         SqlCommandType type = ms.getSqlCommandType();
-		BoundSql boundSql = ms.getBoundSql(parameterObject);
-		String sql = boundSql.getSql();
-		String normalizedSql = sql
-				.replaceAll("/\\*.*?\\*/", " ")
-				.replaceAll("--.*?(\\r?\\n)", " ")
-				.replaceAll("#.*?(\\r?\\n)", " ")
-				.replaceAll("\\s+", " ")
-				.trim()
-				.toLowerCase(Locale.ROOT);
         if (type != SqlCommandType.UPDATE && type != SqlCommandType.DELETE) {
-            System.out.println("[全表修改拦截器]  非 UPDATE/DELETE 操作，跳过拦截。");
             return invocation.proceed();
         }
 
-        System.out.println("[全表修改拦截器]  拦截到 SQL Map ID: " + ms.getId());
-		boolean hasWhere = normalizedSql.contains(" where ");
-		boolean hasLimit = normalizedSql.contains(" limit ");
-        if (!hasWhere &&  ! hasLimit) {
-            // 阻断：没有 WHERE（且配置不认可 LIMIT 作为保护）
+        ModifyGuardVerdict verdict;
+        String sql = null;
+        if (isStatic(ms.getSqlSource())) {
+            // 静态 SQL：文本与参数无关，按 statement id 缓存，命中后连 getBoundSql 都省掉
+            verdict = staticVerdicts.get(ms.getId());
+            if (verdict == null) {
+                sql = ms.getBoundSql(args[1]).getSql();
+                verdict = judge(staticVerdicts, ms.getId(), ms, sql);
+            }
+        } else {
+            // 动态 SQL：不同参数可能生成不同文本，只能按最终 SQL 缓存
+            sql = ms.getBoundSql(args[1]).getSql();
+            verdict = dynamicVerdicts.get(sql);
+            if (verdict == null) {
+                verdict = judge(dynamicVerdicts, sql, ms, sql);
+            }
+        }
+
+        if (verdict != ModifyGuardVerdict.SAFE) {
+            if (sql == null) {
+                sql = ms.getBoundSql(args[1]).getSql();
+            }
+            // 阻断：没有顶层 WHERE（或 WHERE 恒为真），且没有 LIMIT
             throw new IllegalStateException(
-                    "[全表修改拦截器]  检测到可能的全表" + type.name() + "，已阻断！mapperId=" + ms.getId() + ", sql=" + boundSql.getSql()
+                    "[全表修改拦截器]  检测到可能的全表" + type.name() + "（" + verdict.getReason() + "），已阻断！mapperId="
+                            + ms.getId() + ", sql=" + sql
             );
         }
         return invocation.proceed();
     }
 
+    private ModifyGuardVerdict judge(ConcurrentHashMap<String, ModifyGuardVerdict> cache, String key,
+                                     MappedStatement ms, String sql) {
+        // 仅在缓存未命中时打印，批量任务中同一语句不会每行都输出
+        System.out.println("[全表修改拦截器]  拦截到 SQL Map ID: " + ms.getId());
+        ModifyGuardVerdict verdict = ModifyGuardScanner.scan(sql);
+        if (cache.size() >= maxCachedVerdicts) {
+            cache.clear();
+        }
+        cache.put(key, verdict);
+        return verdict;
+    }
+
+    private static boolean isStatic(SqlSource sqlSource) {
+        return sqlSource instanceof RawSqlSource || sqlSource instanceof StaticSqlSource;
+    }
+
     @Override
     public Object plugin(Object target) {
 		// 使用 MyBatis 提供的 Plugin.wrap 进行代理包装
@@ -80,5 +121,9 @@ public class BlockFullTableModifyInterceptor implements Interceptor {
     @Override
     public void setProperties(Properties properties) {
         Interceptor.super.setProperties(properties);
+        String size = properties == null ? null : properties.getProperty("blockFullTableModifyCacheSize");
+        if (size != null) {
+            this.maxCachedVerdicts = Integer.parseInt(size);
+        }
     }
 }
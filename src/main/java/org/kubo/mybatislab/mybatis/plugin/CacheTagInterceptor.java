@@ -0,0 +1,335 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.kubo.mybatislab.mybatis.cache.CacheInvalidationEvents;
+import org.kubo.mybatislab.mybatis.cache.CacheTagVersions;
+import org.kubo.mybatislab.mybatis.cache.CacheTags;
+import org.kubo.mybatislab.mybatis.cache.InvalidateTags;
+import org.kubo.mybatislab.mybatis.cache.TaggedCacheKey;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    MyBatis 插件：二级缓存按标签（行级）失效。
+
+    默认情况下命名空间内任意写语句都会清空整个二级缓存，一次 updateOne 就让所有 findById/findAll 条目作废。
+    这里配合 LabCache 中的 TaggedCache：
+
+    - 查询（Executor#query 4 参数版本）：按 @CacheTags 解析出标签，在访问数据库之前记下标签版本，
+      生成 TaggedCacheKey 后改调 6 参数版本（CachingExecutor 内部会原样把键带到提交时的 putObject）；
+    - 写入（Executor#update）：执行成功后按 @InvalidateTags 递增标签版本，并记在当前执行器上；
+    - 提交/回滚（Executor#commit/rollback）：再递增一次；处于 Spring 事务中时，事务完成后再递增一次。
+      第一次让其它会话立刻看不到旧条目，之后的递增覆盖“写入后、提交前”读到旧数据并放入缓存的并发查询。
+      提交（以及 Spring 事务提交完成）时同时发出 CacheInvalidationEvents，由 CacheInvalidationBus 合并后同步给其它节点。
+
+    只处理命名空间配置了二级缓存且语句 useCache=true 的查询；没有 @CacheTags 的查询同样会换成带快照的键，
+    依赖命名空间级的“未声明”标签。写语句需配合 @Options(flushCache = FALSE)，否则 MyBatis 仍整体清空。
+*/
+@Component
+@ConditionalOnProperty(prefix = "mybatis.myPlugins", name = "cacheTagInterceptor", havingValue = "true", matchIfMissing = true)
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class}),
+})
+public class CacheTagInterceptor implements Interceptor {
+
+    private static final TagSpec NONE = new TagSpec(new TagTemplate[0], null);
+
+    private final ConcurrentHashMap<String, TagSpec> specs = new ConcurrentHashMap<>();
+    /** 每个执行器（即每个 SqlSession）在本事务内失效过的标签（去重），提交/回滚时再失效一次。 */
+    private final ConcurrentHashMap<Object, Set<PendingInvalidation>> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        switch (invocation.getMethod().getName()) {
+            case "query":
+                return query(invocation);
+            case "update":
+                return update(invocation);
+            case "close":
+                try {
+                    return invocation.proceed();
+                } finally {
+                    pending.remove(invocation.getTarget());
+                }
+            default:
+                // commit / rollback
+                try {
+                    return invocation.proceed();
+                } finally {
+                    Set<PendingInvalidation> set = pending.remove(invocation.getTarget());
+                    if (set != null) {
+                        boolean committed = "commit".equals(invocation.getMethod().getName());
+                        for (PendingInvalidation p : set) {
+                            CacheTagVersions.invalidate(p.namespace, p.tags);
+                            if (committed) {
+                                CacheInvalidationEvents.tagsCommitted(p.namespace, p.tags);
+                            }
+                        }
+                    }
+                }
+        }
+    }
+
+    private Object query(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        // 全局关闭二级缓存时没有 CachingExecutor，改写出来的键不会被用到，直接放行
+        if (!ms.getConfiguration().isCacheEnabled() || ms.getCache() == null || !ms.isUseCache() || args[3] != null) {
+            return invocation.proceed();
+        }
+        Object parameter = args[1];
+        RowBounds rowBounds = (RowBounds) args[2];
+        Executor executor = (Executor) invocation.getTarget();
+        BoundSql boundSql = ms.getBoundSql(parameter);
+        CacheKey key = executor.createCacheKey(ms, parameter, rowBounds, boundSql);
+        String[] tags = spec(ms).resolveQueryTags(ms, parameter);
+        TaggedCacheKey taggedKey = TaggedCacheKey.of(key, ms.getCache().getId(), tags);
+        return executor.query(ms, parameter, rowBounds, null, taggedKey, boundSql);
+    }
+
+    private Object update(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        TagSpec spec = spec(ms);
+        if (spec.invalidate == null) {
+            return invocation.proceed();
+        }
+        // 先解析参数：执行后 useGeneratedKeys 等可能改写参数对象，但主键字段本身不会变
+        String[] tags = spec.resolve(spec.invalidate, ms, invocation.getArgs()[1]);
+        Object result = invocation.proceed();
+        // 标签版本是全局的，命名空间只用于“未声明”标签；没有二级缓存的命名空间也可以失效其它命名空间的标签
+        String namespace = ms.getCache() != null ? ms.getCache().getId() : namespaceOf(ms.getId());
+        CacheTagVersions.invalidate(namespace, tags);
+        // BATCH 执行器批量写入时同一组标签会重复成千上万次，只记一份，也只注册一次事务回调
+        boolean added = pending.computeIfAbsent(invocation.getTarget(), k -> new LinkedHashSet<>())
+                .add(new PendingInvalidation(namespace, tags));
+        if (added && TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Spring 事务中 SqlSession 在 beforeCommit 阶段提交，早于数据库真正提交，完成后再失效一次
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    CacheTagVersions.invalidate(namespace, tags);
+                    if (status == STATUS_COMMITTED) {
+                        CacheInvalidationEvents.tagsCommitted(namespace, tags);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 依赖本插件让二级缓存失效的写语句：命名空间配置了二级缓存、且 flushCache=false 的 insert/update/delete。
+     * 插件未注册时这些语句不会让任何条目失效，旧数据一直留到淘汰，用于启动检查（见 MybatisPluginConfig）。
+     */
+    public static List<String> dependentStatements(Configuration configuration) {
+        Set<String> ids = new TreeSet<>();
+        if (!configuration.isCacheEnabled()) {
+            return new ArrayList<>(ids);
+        }
+        for (String name : configuration.getMappedStatementNames()) {
+            // 同时登记了短名（方法名）与全限定名，只看全限定名；短名重复时取值会抛异常
+            if (name.indexOf('.') < 0) {
+                continue;
+            }
+            MappedStatement ms = configuration.getMappedStatement(name, false);
+            SqlCommandType type = ms.getSqlCommandType();
+            boolean write = type == SqlCommandType.INSERT || type == SqlCommandType.UPDATE || type == SqlCommandType.DELETE;
+            if (write && ms.getCache() != null && !ms.isFlushCacheRequired()) {
+                ids.add(ms.getId());
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private TagSpec spec(MappedStatement ms) {
+        TagSpec spec = specs.get(ms.getId());
+        if (spec == null) {
+            spec = specs.computeIfAbsent(ms.getId(), id -> parse(id));
+        }
+        return spec;
+    }
+
+    private static String namespaceOf(String statementId) {
+        int dot = statementId.lastIndexOf('.');
+        return dot < 0 ? statementId : statementId.substring(0, dot);
+    }
+
+    /**
+     * 按 statement id（接口全限定名 + 方法名）找到 Mapper 方法上的注解；找不到（XML 语句等）视为未声明。
+     */
+    private static TagSpec parse(String statementId) {
+        int dot = statementId.lastIndexOf('.');
+        if (dot < 0) {
+            return NONE;
+        }
+        Class<?> mapper;
+        try {
+            mapper = Resources.classForName(statementId.substring(0, dot));
+        } catch (ClassNotFoundException e) {
+            return NONE;
+        }
+        String methodName = statementId.substring(dot + 1);
+        for (Method method : mapper.getMethods()) {
+            if (!method.getName().equals(methodName) || method.isBridge() || method.isDefault()) {
+                continue;
+            }
+            CacheTags query = method.getAnnotation(CacheTags.class);
+            InvalidateTags invalidate = method.getAnnotation(InvalidateTags.class);
+            return new TagSpec(query == null ? new TagTemplate[0] : TagTemplate.parseAll(query.value()),
+                    invalidate == null ? null : TagTemplate.parseAll(invalidate.value()));
+        }
+        return NONE;
+    }
+
+    private static final class TagSpec {
+
+        final TagTemplate[] query;
+        /** null 表示未声明 @InvalidateTags，保持 MyBatis 默认行为。 */
+        final TagTemplate[] invalidate;
+
+        TagSpec(TagTemplate[] query, TagTemplate[] invalidate) {
+            this.query = query;
+            this.invalidate = invalidate;
+        }
+
+        String[] resolveQueryTags(MappedStatement ms, Object parameter) {
+            return resolve(query, ms, parameter);
+        }
+
+        String[] resolve(TagTemplate[] templates, MappedStatement ms, Object parameter) {
+            if (templates.length == 0) {
+                return new String[0];
+            }
+            List<String> tags = new ArrayList<>();
+            MetaObject meta = null;
+            for (TagTemplate template : templates) {
+                if (template.property == null) {
+                    tags.add(template.prefix);
+                    continue;
+                }
+                Object value;
+                if (parameter == null) {
+                    value = null;
+                } else if (ms.getConfiguration().getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                    value = parameter;
+                } else {
+                    if (meta == null) {
+                        meta = ms.getConfiguration().newMetaObject(parameter);
+                    }
+                    value = meta.getValue(template.property);
+                }
+                template.expand(value, tags);
+            }
+            return tags.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * 标签模板：{@code prefix + #{property} + suffix}，property 为 null 表示纯文本标签。
+     */
+    private static final class TagTemplate {
+
+        final String prefix;
+        final String property;
+        final String suffix;
+
+        private TagTemplate(String prefix, String property, String suffix) {
+            this.prefix = prefix;
+            this.property = property;
+            this.suffix = suffix;
+        }
+
+        static TagTemplate[] parseAll(String[] expressions) {
+            TagTemplate[] templates = new TagTemplate[expressions.length];
+            for (int i = 0; i < expressions.length; i++) {
+                templates[i] = parse(expressions[i]);
+            }
+            return templates;
+        }
+
+        static TagTemplate parse(String expression) {
+            int open = expression.indexOf("#{");
+            if (open < 0) {
+                return new TagTemplate(expression, null, "");
+            }
+            int close = expression.indexOf('}', open);
+            if (close < 0 || expression.indexOf("#{", close) >= 0) {
+                throw new IllegalArgumentException("Invalid cache tag expression (at most one #{...}): " + expression);
+            }
+            return new TagTemplate(expression.substring(0, open), expression.substring(open + 2, close).trim(),
+                    expression.substring(close + 1));
+        }
+
+        void expand(Object value, List<String> out) {
+            if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    out.add(prefix + element + suffix);
+                }
+            } else if (value != null && value.getClass().isArray()) {
+                for (int i = 0, n = Array.getLength(value); i < n; i++) {
+                    out.add(prefix + Array.get(value, i) + suffix);
+                }
+            } else {
+                out.add(prefix + value + suffix);
+            }
+        }
+    }
+
+    private static final class PendingInvalidation {
+
+        final String namespace;
+        final String[] tags;
+
+        PendingInvalidation(String namespace, String[] tags) {
+            this.namespace = namespace;
+            this.tags = tags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PendingInvalidation)) {
+                return false;
+            }
+            PendingInvalidation that = (PendingInvalidation) o;
+            return namespace.equals(that.namespace) && Arrays.equals(tags, that.tags);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * namespace.hashCode() + Arrays.hashCode(tags);
+        }
+    }
+}
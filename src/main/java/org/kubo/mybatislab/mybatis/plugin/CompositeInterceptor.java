@@ -0,0 +1,207 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.PluginException;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 组合拦截器：一个目标对象只生成一层代理，再按预先计算好的分发表把调用路由给各个拦截器。
+ *
+ * <p>背景：每个拦截器各自 {@code Plugin.wrap} 时，N 个拦截器会叠出 N 层 JDK 代理，
+ * 一次调用要经过 N 次 {@code Method.invoke}，且每层都要做一次签名查找。这里改为：</p>
+ * <ul>
+ *   <li>启动时解析所有拦截器的 {@link Intercepts}/{@link Signature}，得到 “{@link Method} → 拦截器数组”；</li>
+ *   <li>按目标类缓存分发表与需要代理的接口，{@code plugin()} 对同一种目标只计算一次；</li>
+ *   <li>调用时一次 HashMap 查找；命中则依次交给拦截器（最终只有一次反射调用），未命中则直接反射调用目标。</li>
+ * </ul>
+ *
+ * <p>调用顺序与逐个 {@code Plugin.wrap} 保持一致：后注册的拦截器在外层、先执行。</p>
+ *
+ * <p>需要整体跳过的目标类型（{@link #setSkipTargetTypes(List)}）也在这里统一判断，只在生成代理时判断一次，
+ * 而不是在每个拦截器、每次调用里 {@code instanceof}。注意 MyBatis 只对最外层执行器调用 {@code pluginAll}，
+ * 开启二级缓存时这一层就是 {@code CachingExecutor}，跳过它等于放弃所有 Executor 级拦截。</p>
+ */
+public class CompositeInterceptor implements Interceptor {
+
+    private final List<Interceptor> interceptors;
+    private final Map<Class<?>, Map<Method, Interceptor[]>> signatures;
+    private final ConcurrentHashMap<Class<?>, DispatchTable> tables = new ConcurrentHashMap<>();
+    private volatile List<Class<?>> skipTargetTypes = Collections.emptyList();
+
+    public CompositeInterceptor(List<Interceptor> interceptors) {
+        this.interceptors = List.copyOf(interceptors);
+        this.signatures = buildSignatures(this.interceptors);
+    }
+
+    public List<Interceptor> getInterceptors() {
+        return interceptors;
+    }
+
+    /**
+     * 这些类型（及其子类）的目标对象不做任何代理。
+     */
+    public void setSkipTargetTypes(List<Class<?>> skipTargetTypes) {
+        this.skipTargetTypes = List.copyOf(skipTargetTypes);
+        this.tables.clear();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        // 组合拦截器自身不会出现在调用链中，分发由 Dispatcher 完成
+        return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        DispatchTable table = tables.computeIfAbsent(target.getClass(), this::buildTable);
+        if (table.interfaces.length == 0) {
+            return target;
+        }
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), table.interfaces,
+                new Dispatcher(target, table.routes));
+    }
+
+    private DispatchTable buildTable(Class<?> type) {
+        for (Class<?> skip : skipTargetTypes) {
+            if (skip.isAssignableFrom(type)) {
+                return DispatchTable.EMPTY;
+            }
+        }
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        Map<Method, Interceptor[]> routes = new HashMap<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Class<?> itf : c.getInterfaces()) {
+                Map<Method, Interceptor[]> methods = signatures.get(itf);
+                if (methods != null) {
+                    interfaces.add(itf);
+                    routes.putAll(methods);
+                }
+            }
+        }
+        if (interfaces.isEmpty()) {
+            return DispatchTable.EMPTY;
+        }
+        return new DispatchTable(interfaces.toArray(new Class<?>[0]), routes);
+    }
+
+    private static Map<Class<?>, Map<Method, Interceptor[]>> buildSignatures(List<Interceptor> interceptors) {
+        // 先按注册顺序收集，再整体反转：与 pluginAll 逐层包装后“后注册者先执行”的顺序一致
+        Map<Class<?>, Map<Method, List<Interceptor>>> collected = new HashMap<>();
+        for (Interceptor interceptor : interceptors) {
+            Intercepts intercepts = interceptor.getClass().getAnnotation(Intercepts.class);
+            if (intercepts == null) {
+                throw new PluginException("No @Intercepts annotation was found in interceptor "
+                        + interceptor.getClass().getName());
+            }
+            for (Signature sig : intercepts.value()) {
+                Method method;
+                try {
+                    method = sig.type().getMethod(sig.method(), sig.args());
+                } catch (NoSuchMethodException e) {
+                    throw new PluginException("Could not find method on " + sig.type() + " named " + sig.method()
+                            + ". Cause: " + e, e);
+                }
+                List<Interceptor> chain = collected.computeIfAbsent(sig.type(), k -> new HashMap<>())
+                        .computeIfAbsent(method, k -> new ArrayList<>());
+                if (!chain.contains(interceptor)) {
+                    chain.add(interceptor);
+                }
+            }
+        }
+        Map<Class<?>, Map<Method, Interceptor[]>> result = new HashMap<>();
+        collected.forEach((type, methods) -> {
+            Map<Method, Interceptor[]> routes = new HashMap<>();
+            methods.forEach((method, chain) -> {
+                List<Interceptor> reversed = new ArrayList<>(chain);
+                Collections.reverse(reversed);
+                routes.put(method, reversed.toArray(new Interceptor[0]));
+            });
+            result.put(type, routes);
+        });
+        return result;
+    }
+
+    private static final class DispatchTable {
+
+        static final DispatchTable EMPTY = new DispatchTable(new Class<?>[0], Collections.emptyMap());
+
+        final Class<?>[] interfaces;
+        final Map<Method, Interceptor[]> routes;
+
+        DispatchTable(Class<?>[] interfaces, Map<Method, Interceptor[]> routes) {
+            this.interfaces = interfaces;
+            this.routes = routes;
+        }
+    }
+
+    private static final class Dispatcher implements InvocationHandler {
+
+        private final Object target;
+        private final Map<Method, Interceptor[]> routes;
+
+        Dispatcher(Object target, Map<Method, Interceptor[]> routes) {
+            this.target = target;
+            this.routes = routes;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            try {
+                Interceptor[] chain = routes.get(method);
+                if (chain == null) {
+                    return method.invoke(target, args);
+                }
+                return chain[0].intercept(new ChainedInvocation(target, method, args, chain, 1));
+            } catch (Exception e) {
+                throw ExceptionUtil.unwrapThrowable(e);
+            }
+        }
+    }
+
+    /**
+     * 链式 Invocation：proceed() 交给链上的下一个拦截器，最后一个才真正反射调用目标。
+     * 异常语义与逐层代理一致：逐层代理时外层的 proceed() 是反射调用内层代理，内层抛出的任何异常
+     * （先按 {@code Plugin} 的规则拆掉 {@link InvocationTargetException}）都会被重新包装为 {@link InvocationTargetException}。
+     */
+    private static final class ChainedInvocation extends Invocation {
+
+        private final Interceptor[] chain;
+        private final int next;
+
+        ChainedInvocation(Object target, Method method, Object[] args, Interceptor[] chain, int next) {
+            super(target, method, args);
+            this.chain = chain;
+            this.next = next;
+        }
+
+        @Override
+        public Object proceed() throws InvocationTargetException, IllegalAccessException {
+            if (next >= chain.length) {
+                return super.proceed();
+            }
+            try {
+                return chain[next].intercept(new ChainedInvocation(getTarget(), getMethod(), getArgs(), chain, next + 1));
+            } catch (Exception e) {
+                throw new InvocationTargetException(ExceptionUtil.unwrapThrowable(e));
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+}
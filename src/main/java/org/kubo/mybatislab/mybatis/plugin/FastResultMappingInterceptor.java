@@ -0,0 +1,80 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.RowBounds;
+import org.kubo.mybatislab.mybatis.resultmap.CompiledRowMapper;
+import org.kubo.mybatislab.mybatis.resultmap.RowMapperRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    MyBatis 插件：生成的行映射器（可选快路径，默认关闭）。
+
+    DefaultResultSetHandler 每一行都要经过 ObjectFactory 创建对象、MetaObject 包装、按列名取值、
+    反射调用 setter；列多、行多的查询里这部分开销可观。开启后，对结构简单的结果映射
+    由 RowMapperRegistry 按语句生成一次 CompiledRowMapper（按列序号读取 + MethodHandle 调用构造器与 setter），
+    之后每行直接调用它。
+
+    以下情况原样交给 MyBatis 处理：
+    - 结果映射不适用（嵌套映射、构造器映射、简单类型等，原因见 GET /api/sql/result-mappers）；
+    - 调用方传了 ResultHandler，或使用了非默认的 RowBounds（内存分页）；
+    - 游标查询（handleCursorResultSets）与存储过程输出参数。
+*/
+@Component
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.fastResultMapping", name = "enabled", havingValue = "true")
+@Intercepts({
+        @Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class}),
+})
+public class FastResultMappingInterceptor implements Interceptor {
+
+    private final RowMapperRegistry registry;
+
+    public FastResultMappingInterceptor(RowMapperRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object target = invocation.getTarget();
+        MappedStatement ms = PluginTargets.mappedStatement(target);
+        if (ms == null) {
+            return invocation.proceed();
+        }
+        RowBounds rowBounds = PluginTargets.rowBounds(target);
+        if (PluginTargets.resultHandler(target) != null || rowBounds == null
+                || rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT) {
+            registry.recordFallback(ms);
+            return invocation.proceed();
+        }
+        Statement statement = (Statement) invocation.getArgs()[0];
+        ResultSet rs = statement.getResultSet();
+        if (rs == null) {
+            return invocation.proceed();
+        }
+        CompiledRowMapper mapper = registry.mapperFor(ms, rs);
+        if (mapper == null) {
+            return invocation.proceed();
+        }
+        List<Object> rows = new ArrayList<>();
+        try {
+            while (rs.next()) {
+                // 与 DefaultResultHandler 一致：整行为空时也会放入 null
+                rows.add(mapper.map(rs));
+            }
+        } finally {
+            rs.close();
+        }
+        registry.recordExecution(ms, rows.size());
+        return rows;
+    }
+}
@@ -0,0 +1,83 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.kubo.mybatislab.mybatis.nplusone.NPlusOneDetector;
+import org.kubo.mybatislab.mybatis.sql.BoundParameters;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.util.Arrays;
+
+/*
+    MyBatis 插件：N+1 查询检测的数据来源。
+
+    - Executor#query/queryCursor：只记下本线程最外层调用的 statement id，之后在它内部执行的其他语句
+      （结果映射里的 select= 嵌套查询）即为嵌套查询；
+    - StatementHandler#query/queryCursor：每一次真正发往数据库的查询（二级缓存、一级缓存命中都到不了这里），
+      计时并按绑定参数取散列，交给 NPlusOneDetector 按工作单元统计。
+
+    参数取值见 BoundParameters（与 DefaultParameterHandler 相同），只在开启检测时才有这部分开销。
+
+    ROOT 与工作单元都是线程本地的：UserBatchLoader 派发线程上执行的合并查询不归属任何请求，不参与检测。
+*/
+@Component
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.nPlusOne", name = "enabled", havingValue = "true")
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "queryCursor", args = {Statement.class}),
+})
+public class NPlusOneInterceptor implements Interceptor {
+
+    /** 本线程最外层 Executor 调用的 statement id。 */
+    private static final ThreadLocal<String> ROOT = new ThreadLocal<>();
+
+    private final NPlusOneDetector detector;
+
+    public NPlusOneInterceptor(NPlusOneDetector detector) {
+        this.detector = detector;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object target = invocation.getTarget();
+        if (target instanceof Executor) {
+            if (ROOT.get() != null) {
+                return invocation.proceed();
+            }
+            ROOT.set(((MappedStatement) invocation.getArgs()[0]).getId());
+            try {
+                return invocation.proceed();
+            } finally {
+                ROOT.remove();
+            }
+        }
+        MappedStatement ms = PluginTargets.mappedStatement(target);
+        if (ms == null) {
+            return invocation.proceed();
+        }
+        int parameterHash = parameterHash(ms, ((StatementHandler) target).getBoundSql());
+        long start = System.nanoTime();
+        Object result = invocation.proceed();
+        String root = ROOT.get();
+        detector.record(ms.getId(), parameterHash, System.nanoTime() - start, root != null && !root.equals(ms.getId()));
+        return result;
+    }
+
+    private static int parameterHash(MappedStatement ms, BoundSql boundSql) {
+        return 31 * boundSql.getSql().hashCode() + Arrays.hashCode(BoundParameters.values(ms.getConfiguration(), boundSql));
+    }
+}
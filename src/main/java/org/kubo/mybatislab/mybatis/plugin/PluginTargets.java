@@ -0,0 +1,117 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.statement.BaseStatementHandler;
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+
+/**
+ * 插件目标对象访问工具。
+ *
+ * <p>多个拦截器叠加时，外层拦截器拿到的 target 往往是内层的 JDK 代理；
+ * 而 {@code RoutingStatementHandler -> delegate -> mappedStatement} 也都是私有/受保护字段。
+ * 原先通过 {@code MetaObject} 逐层反射读取，放在每条 SQL 的热路径上开销明显。
+ * 这里在类加载时一次性解析出字段的 {@link MethodHandle}，之后的读取与普通字段访问相当。</p>
+ */
+public final class PluginTargets {
+
+    private static final MethodHandle PLUGIN_TARGET = getter(Plugin.class, "target");
+    private static final MethodHandle ROUTING_DELEGATE = getter(RoutingStatementHandler.class, "delegate");
+    private static final MethodHandle MAPPED_STATEMENT = getter(BaseStatementHandler.class, "mappedStatement");
+    private static final MethodHandle RESULT_SET_MAPPED_STATEMENT = getter(DefaultResultSetHandler.class, "mappedStatement");
+    private static final MethodHandle RESULT_SET_RESULT_HANDLER = getter(DefaultResultSetHandler.class, "resultHandler");
+    private static final MethodHandle RESULT_SET_ROW_BOUNDS = getter(DefaultResultSetHandler.class, "rowBounds");
+    private static final MethodHandle PARAMETER_MAPPED_STATEMENT = getter(DefaultParameterHandler.class, "mappedStatement");
+
+    private PluginTargets() {
+    }
+
+    /**
+     * 剥掉 {@link Plugin} 生成的 JDK 代理，返回最内层的真实对象。
+     */
+    public static Object unwrap(Object target) {
+        Object current = target;
+        while (current != null && Proxy.isProxyClass(current.getClass())) {
+            Object handler = Proxy.getInvocationHandler(current);
+            if (!(handler instanceof Plugin)) {
+                break;
+            }
+            current = read(PLUGIN_TARGET, handler);
+        }
+        return current;
+    }
+
+    /**
+     * 从 StatementHandler（可能是代理或 RoutingStatementHandler）、默认的 ResultSetHandler / ParameterHandler
+     * 中取出 MappedStatement，取不到时返回 null。
+     */
+    public static MappedStatement mappedStatement(Object handlerOrProxy) {
+        Object handler = unwrap(handlerOrProxy);
+        if (handler instanceof RoutingStatementHandler) {
+            handler = unwrap(read(ROUTING_DELEGATE, handler));
+        }
+        if (handler instanceof BaseStatementHandler) {
+            return (MappedStatement) read(MAPPED_STATEMENT, handler);
+        }
+        if (handler instanceof DefaultResultSetHandler) {
+            return (MappedStatement) read(RESULT_SET_MAPPED_STATEMENT, handler);
+        }
+        if (handler instanceof DefaultParameterHandler) {
+            return (MappedStatement) read(PARAMETER_MAPPED_STATEMENT, handler);
+        }
+        return null;
+    }
+
+    /**
+     * 默认 ResultSetHandler 上调用方传入的 ResultHandler（select 带 ResultHandler 参数时非 null）；不是默认实现时返回 null。
+     */
+    public static ResultHandler<?> resultHandler(Object resultSetHandler) {
+        Object handler = unwrap(resultSetHandler);
+        return handler instanceof DefaultResultSetHandler ? (ResultHandler<?>) read(RESULT_SET_RESULT_HANDLER, handler) : null;
+    }
+
+    /**
+     * 默认 ResultSetHandler 上的 RowBounds；不是默认实现时返回 null。
+     */
+    public static RowBounds rowBounds(Object resultSetHandler) {
+        Object handler = unwrap(resultSetHandler);
+        return handler instanceof DefaultResultSetHandler ? (RowBounds) read(RESULT_SET_ROW_BOUNDS, handler) : null;
+    }
+
+    /**
+     * 与 {@link #mappedStatement(Object)} 相同，但直接返回 statement id；取不到时返回 "unknown"。
+     */
+    public static String statementId(Object handler) {
+        MappedStatement ms = mappedStatement(handler);
+        return ms == null ? "unknown" : ms.getId();
+    }
+
+    static MethodHandle getter(Class<?> owner, String fieldName) {
+        try {
+            Field field = owner.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static Object read(MethodHandle getter, Object owner) {
+        try {
+            return (Object) getter.invokeExact(owner);
+        } catch (Throwable e) {
+            throw new IllegalStateException("无法读取插件目标字段: " + owner.getClass().getName(), e);
+        }
+    }
+}
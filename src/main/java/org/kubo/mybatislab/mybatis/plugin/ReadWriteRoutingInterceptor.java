@@ -0,0 +1,136 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.kubo.mybatislab.mybatis.routing.DataSourceRoute;
+import org.kubo.mybatislab.mybatis.routing.Route;
+import org.kubo.mybatislab.mybatis.routing.RoutingContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+    MyBatis 插件：读写分离路由。
+
+    在进入 Executor（真正取连接、执行 SQL）之前决定本条语句走主库还是只读副本，写入 RoutingContext，
+    由 ReadWriteRoutingDataSource 在取连接时读取：
+
+    - 写语句（Executor#update）：主库，并开启写后粘滞（本请求或 stickyAfterWriteMs 内的读都走主库）；
+    - 查询：按优先级依次判断
+        1) 语句级覆盖：配置 primaryStatements / replicaStatements（statement id 或命名空间前缀），其次 @DataSourceRoute；
+        2) 写后粘滞中：主库；
+        3) 处于读写事务中：主库（事务的连接在第一条语句时确定，之后整个事务都用它）；只读事务：副本；
+        4) 其余：副本。
+*/
+@Component
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.routing", name = "enabled", havingValue = "true")
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+})
+public class ReadWriteRoutingInterceptor implements Interceptor {
+
+    private final long stickyNanos;
+    private final String[] primaryStatements;
+    private final String[] replicaStatements;
+    /** statement id → 覆盖的路由（Optional.empty() 表示未覆盖）。 */
+    private final ConcurrentHashMap<String, Optional<Route>> overrides = new ConcurrentHashMap<>();
+
+    public ReadWriteRoutingInterceptor(
+            @Value("${mybatis.myPlugins.routing.stickyAfterWriteMs:10000}") long stickyAfterWriteMs,
+            @Value("${mybatis.myPlugins.routing.primaryStatements:}") String primaryStatements,
+            @Value("${mybatis.myPlugins.routing.replicaStatements:}") String replicaStatements) {
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, stickyAfterWriteMs));
+        this.primaryStatements = StringUtils.tokenizeToStringArray(primaryStatements, ",");
+        this.replicaStatements = StringUtils.tokenizeToStringArray(replicaStatements, ",");
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        boolean write = "update".equals(invocation.getMethod().getName());
+        Route route = write ? Route.PRIMARY : routeForQuery(ms);
+        Route previous = RoutingContext.push(route);
+        try {
+            return invocation.proceed();
+        } finally {
+            RoutingContext.restore(previous);
+            if (write) {
+                RoutingContext.markWrite(stickyNanos);
+            }
+        }
+    }
+
+    private Route routeForQuery(MappedStatement ms) {
+        Optional<Route> override = overrides.computeIfAbsent(ms.getId(), this::resolveOverride);
+        if (override.isPresent()) {
+            return override.get();
+        }
+        if (RoutingContext.isStickyToPrimary()) {
+            return Route.PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    private Optional<Route> resolveOverride(String statementId) {
+        if (matches(primaryStatements, statementId)) {
+            return Optional.of(Route.PRIMARY);
+        }
+        if (matches(replicaStatements, statementId)) {
+            return Optional.of(Route.REPLICA);
+        }
+        int dot = statementId.lastIndexOf('.');
+        if (dot < 0) {
+            return Optional.empty();
+        }
+        Class<?> mapper;
+        try {
+            mapper = Resources.classForName(statementId.substring(0, dot));
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        }
+        String methodName = statementId.substring(dot + 1);
+        for (Method method : mapper.getMethods()) {
+            if (method.getName().equals(methodName) && !method.isBridge() && !method.isDefault()) {
+                DataSourceRoute onMethod = method.getAnnotation(DataSourceRoute.class);
+                if (onMethod != null) {
+                    return Optional.of(onMethod.value());
+                }
+                break;
+            }
+        }
+        DataSourceRoute onType = mapper.getAnnotation(DataSourceRoute.class);
+        return onType == null ? Optional.empty() : Optional.of(onType.value());
+    }
+
+    private static boolean matches(String[] patterns, String statementId) {
+        for (String pattern : patterns) {
+            if (statementId.equals(pattern) || statementId.startsWith(pattern + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,117 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.kubo.mybatislab.mybatis.budget.EndpointSqlMetrics;
+import org.kubo.mybatislab.mybatis.budget.RequestSqlContext;
+import org.kubo.mybatislab.mybatis.budget.RequestSqlStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.util.List;
+
+/*
+    MyBatis 插件：请求级 SQL 用量累加。
+
+    只在 RequestSqlFilter 开启了请求上下文时记录，请求之外的调用直接放行：
+    - Executor#query/queryCursor/update（最外层一次）：计一次 Mapper 调用；查询期间既没有访问数据库、
+      LabCache 也没有上报二级缓存命中，说明结果来自一级缓存；
+    - StatementHandler#query/queryCursor/update：每次真正的数据库往返，累加语句数、返回行数 / 影响行数与耗时，
+      之后按接口预算检查（REJECT 预算超出时在这里抛出，不再继续访问数据库）；
+    - Executor#flushStatements（BATCH 执行器）：StatementHandler#batch 只是 addBatch，真正的往返发生在 flush，
+      每个 BatchResult 是一次 executeBatch，计一条语句，影响行数取 updateCounts 之和。
+      commit / 查询前由 BatchExecutor 内部隐式触发的 flush 不经过插件代理，看不到，批量写入应显式 flushStatements。
+*/
+@Component
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.requestBudget", name = "enabled", havingValue = "true")
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {}),
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "queryCursor", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class}),
+})
+public class RequestSqlInterceptor implements Interceptor {
+
+    /** 当前线程 Executor 调用的嵌套深度。 */
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final EndpointSqlMetrics metrics;
+
+    public RequestSqlInterceptor(EndpointSqlMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        RequestSqlStats stats = RequestSqlContext.current();
+        if (stats == null) {
+            return invocation.proceed();
+        }
+        if (invocation.getTarget() instanceof Executor) {
+            return "flushStatements".equals(invocation.getMethod().getName())
+                    ? flush(invocation, stats)
+                    : executor(invocation, stats);
+        }
+        long start = System.nanoTime();
+        Object result = invocation.proceed();
+        long rows = result instanceof List ? ((List<?>) result).size() : 0;
+        long updated = result instanceof Integer ? (Integer) result : 0;
+        stats.recordStatement(System.nanoTime() - start, rows, Math.max(0, updated));
+        metrics.check(stats);
+        return result;
+    }
+
+    private Object flush(Invocation invocation, RequestSqlStats stats) throws Throwable {
+        long start = System.nanoTime();
+        Object result = invocation.proceed();
+        List<?> results = (List<?>) result;
+        if (results.isEmpty()) {
+            return result;
+        }
+        long affected = 0;
+        for (Object batch : results) {
+            for (int count : ((BatchResult) batch).getUpdateCounts()) {
+                affected += Math.max(0, count);
+            }
+        }
+        stats.recordBatch(System.nanoTime() - start, results.size(), affected);
+        metrics.check(stats);
+        return result;
+    }
+
+    private static Object executor(Invocation invocation, RequestSqlStats stats) throws Throwable {
+        int[] depth = DEPTH.get();
+        if (depth[0] > 0) {
+            return invocation.proceed();
+        }
+        boolean query = !"update".equals(invocation.getMethod().getName());
+        long statementsBefore = stats.statements();
+        long l2Before = stats.l2Hits();
+        depth[0]++;
+        try {
+            Object result = invocation.proceed();
+            if (query && stats.statements() == statementsBefore && stats.l2Hits() == l2Before) {
+                stats.recordL1Hit();
+            }
+            return result;
+        } finally {
+            depth[0]--;
+            stats.recordMapperCall();
+        }
+    }
+}
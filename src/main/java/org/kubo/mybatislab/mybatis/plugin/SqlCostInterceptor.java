@@ -2,26 +2,35 @@ package org.kubo.mybatislab.mybatis.plugin;
 
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.plugin.*;
 import org.apache.ibatis.reflection.MetaObject;
-import org.apache.ibatis.reflection.SystemMetaObject;
 import org.apache.ibatis.session.ResultHandler;
+import org.kubo.mybatislab.mybatis.explain.ExplainCapture;
+import org.kubo.mybatislab.mybatis.governor.DiagnosticsGovernor;
+import org.kubo.mybatislab.mybatis.slowlog.SlowSqlEventPipeline;
+import org.kubo.mybatislab.mybatis.stats.SqlHeavyHitters;
+import org.kubo.mybatislab.mybatis.stats.SqlStatsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.sql.Connection;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 自定义 MyBatis 插件：SQL 执行耗时统计拦截器。
  *
  * <p>详细说明：</p>
  * <ul>
- *   <li>通过 MyBatis 的插件机制，拦截 {@link StatementHandler#prepare(Connection, Integer)} 方法。</li>
- *   <li>在 SQL 执行前后记录时间差，输出到日志（此处简单使用 System.out）。</li>
- *   <li>展示了如何读取/设置插件属性、以及如何通过 {@link MetaObject} 访问底层对象。</li>
+ *   <li>通过 MyBatis 的插件机制，拦截 {@link StatementHandler#update(Statement)} 与 {@link StatementHandler#query(Statement, ResultHandler)} 方法。</li>
+ *   <li>在 SQL 执行前后以纳秒记录时间差，写入按 statement id 划分的无锁延迟直方图（{@link SqlStatsRegistry}），
+ *       可通过 {@code GET /api/sql/stats} 查看 p50/p90/p99/max、执行次数与错误次数。</li>
+ *   <li>仅当耗时超过慢 SQL 阈值时才输出日志：请求线程只把事件交给 {@link SlowSqlEventPipeline}，
+ *       由后台线程批量格式化并写出（此处简单使用 System.out）。</li>
+ *   <li>展示了如何读取/设置插件属性、以及如何访问底层对象（{@link MetaObject} 或 {@link PluginTargets}）。</li>
  * </ul>
  */
 /*
@@ -65,39 +74,90 @@ public class SqlCostInterceptor implements Interceptor {
     @Value("${mybatis.myPlugins.sqlCostInterceptor.slowSqlThresholdMs:1000}")
     private long slowSqlThresholdMs;
 
+    private final SqlStatsRegistry sqlStatsRegistry;
+    private final SlowSqlEventPipeline slowSqlEventPipeline;
+    private DiagnosticsGovernor governor;
+    private ExplainCapture explainCapture;
+    private SqlHeavyHitters heavyHitters;
+
+    public SqlCostInterceptor(SqlStatsRegistry sqlStatsRegistry, SlowSqlEventPipeline slowSqlEventPipeline) {
+        this.sqlStatsRegistry = sqlStatsRegistry;
+        this.slowSqlEventPipeline = slowSqlEventPipeline;
+    }
+
+    /**
+     * 运行时开销调节器：接收每条语句的耗时，并决定慢 SQL 是否输出（为 null 时始终输出）。
+     */
+    @Autowired(required = false)
+    public void setGovernor(DiagnosticsGovernor governor) {
+        this.governor = governor;
+    }
+
+    /**
+     * 慢 SQL 执行计划抓取（mybatis.myPlugins.explain.enabled=true 时存在）：慢 SQL 额外提交一次异步 EXPLAIN。
+     */
+    @Autowired(required = false)
+    public void setExplainCapture(ExplainCapture explainCapture) {
+        this.explainCapture = explainCapture;
+    }
+
+    /**
+     * SQL 指纹 Top-K（mybatis.myPlugins.heavyHitters.enabled=true 时存在）：每条语句按指纹累计次数与耗时。
+     */
+    @Autowired(required = false)
+    public void setHeavyHitters(SqlHeavyHitters heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
         // Invocation 包含：
         //  - target   ：被拦截的目标对象（此处为 RoutingStatementHandler/StatementHandler）
-        //  - method   ：被调用的方法（此处为 StatementHandler#prepare）
-        //  - args     ：方法入参列表（此处为 Connection、Integer(transactionTimeout)）
+        //  - method   ：被调用的方法（此处为 StatementHandler#update/query）
+        //  - args     ：方法入参列表（此处为 Statement、ResultHandler）
         //  - proceed(): 调用链继续执行（非常重要，若不调用将中断后续逻辑）
-        long start = System.currentTimeMillis();
+        //
+        // 热路径只做两次 nanoTime + 一次无锁直方图写入；字符串拼接与输出只发生在慢 SQL 上。
+        long start = System.nanoTime();
+        boolean failed = true;
         try {
             // 放行到拦截器链的下一环，最终调用到真实的目标方法。
-            return invocation.proceed();
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
         } finally {
             // 统计耗时（注意：包含了后续拦截器与目标方法执行时长）。
-            long cost = System.currentTimeMillis() - start;
+            long costNanos = System.nanoTime() - start;
 
-            // 通过 Invocation 取到当前的 StatementHandler
+            // 通过 Invocation 取到当前的 StatementHandler（可能是内层插件的代理），
+            // 再借助预先解析好的字段句柄拿到 MappedStatement，避免每次走 MetaObject 反射。
             StatementHandler statementHandler = (StatementHandler) invocation.getTarget();
+            MappedStatement ms = PluginTargets.mappedStatement(statementHandler);
+            String statementId = ms == null ? "unknown" : ms.getId();
+            sqlStatsRegistry.statement(statementId).record(costNanos, failed);
 
-            // 使用 MetaObject 可以读取/修改底层对象的属性（如 delegate.boundSql 等），在需要改写 SQL、
-            // 注入分页参数、动态数据源等场景非常常用。此处演示创建，不对属性做修改。
-            MetaObject metaObject = SystemMetaObject.forObject(statementHandler);
+            BoundSql boundSql = statementHandler.getBoundSql();
+            SqlHeavyHitters hitters = heavyHitters;
+            if (hitters != null) {
+                hitters.record(statementId, boundSql.getSql(), costNanos);
+            }
 
             // BoundSql 持有“带占位符的 SQL 字符串”以及“参数映射与实参对象”。
             // 注意：boundSql.getSql() 返回的仍是占位符 SQL；若需打印完整实参替换后的 SQL，
             // 可结合 ParameterMapping/TypeHandler 或自行格式化（成本较高，注意脱敏）。
-            BoundSql boundSql = statementHandler.getBoundSql();
-            String sql = boundSql.getSql();
-
-            // 简单输出到控制台。生产环境建议使用日志框架并按等级输出，同时可增加 traceId / mapperId 等上下文信息。
-            if (cost >= slowSqlThresholdMs) {
-                System.out.println("[执行耗时统计拦截器][慢查询] cost=" + cost + "ms, sql=" + sql);
-            } else {
-                System.out.println("[执行耗时统计拦截器] cost=" + cost + "ms, sql=" + sql);
+            //
+            // 慢 SQL 只把引用交给异步管道，格式化与输出在后台线程完成，不再占用请求线程。
+            // 统计始终记录；慢 SQL 输出属于诊断，由调节器按负载全量/采样/关闭
+            DiagnosticsGovernor g = governor;
+            if (g != null) {
+                g.recordStatement(costNanos);
+            }
+            if (costNanos >= TimeUnit.MILLISECONDS.toNanos(slowSqlThresholdMs) && (g == null || g.admit())) {
+                slowSqlEventPipeline.publish(statementId, boundSql.getSql(), costNanos);
+                ExplainCapture capture = explainCapture;
+                if (capture != null && ms != null && !failed) {
+                    capture.submit(ms, boundSql, costNanos);
+                }
             }
         }
     }
@@ -0,0 +1,62 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.kubo.mybatislab.mybatis.stats.SqlStatsRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/*
+    MyBatis 插件：prepare 与语句复用统计。
+
+    SqlCostInterceptor 只统计 StatementHandler#query/update，包含不了创建 PreparedStatement 的开销。
+    这里拦截：
+    - prepare(Connection, Integer)：计时，记为一次 prepare（SIMPLE 执行器每次调用都会走到这里）；
+    - parameterize(Statement)：三种执行器每次执行前都会调用一次；如果参数不是本线程刚 prepare 出来的
+      那个 Statement，说明是 REUSE / BATCH 执行器复用了已有语句，记为一次复用。
+
+    结果并入 SqlStatsRegistry，在 GET /api/sql/stats 的 prepares / reused / prepareMeanMs / prepareP99Ms 字段中查看。
+    注意 prepare 次数是 MyBatis 层面的：开启驱动端缓存（MySQL cachePrepStmts）后，一次 prepare 未必会真正往返数据库。
+*/
+@Component
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.prepareStats", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}),
+        @Signature(type = StatementHandler.class, method = "parameterize", args = {Statement.class}),
+})
+public class StatementPrepareInterceptor implements Interceptor {
+
+    /** 本线程最近一次 prepare 出来、尚未 parameterize 的 Statement。 */
+    private static final ThreadLocal<Statement> LAST_PREPARED = new ThreadLocal<>();
+
+    private final SqlStatsRegistry sqlStatsRegistry;
+
+    public StatementPrepareInterceptor(SqlStatsRegistry sqlStatsRegistry) {
+        this.sqlStatsRegistry = sqlStatsRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if ("parameterize".equals(invocation.getMethod().getName())) {
+            Statement statement = (Statement) invocation.getArgs()[0];
+            if (LAST_PREPARED.get() == statement) {
+                LAST_PREPARED.remove();
+            } else {
+                sqlStatsRegistry.statement(PluginTargets.statementId(invocation.getTarget())).recordReuse();
+            }
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        Object statement = invocation.proceed();
+        sqlStatsRegistry.statement(PluginTargets.statementId(invocation.getTarget()))
+                .recordPrepare(System.nanoTime() - start);
+        LAST_PREPARED.set((Statement) statement);
+        return statement;
+    }
+}
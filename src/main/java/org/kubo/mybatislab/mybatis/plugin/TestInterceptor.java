@@ -16,6 +16,11 @@ import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 import org.apache.ibatis.transaction.Transaction;
+import org.kubo.mybatislab.mybatis.governor.DiagnosticsGovernor;
+import org.kubo.mybatislab.mybatis.governor.DiagnosticsLevel;
+import org.kubo.mybatislab.mybatis.jfr.JfrTracer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 
@@ -24,6 +29,7 @@ import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.sql.CallableStatement;
 import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 
 /**
@@ -34,6 +40,13 @@ import java.util.Properties;
  * - StatementHandler#prepare：记录 JDBC Statement 准备阶段
  * - ParameterHandler#setParameters：记录参数绑定（仅打印概要，避免泄露敏感信息）
  * - ResultSetHandler#handleResultSets：记录结果集规模与元素类型概览
+ *
+ * 输出方式由 mybatis.myPlugins.testInterceptorMode 决定：
+ * - STDOUT（默认）：逐条打印，便于学习；
+ * - JFR：每个阶段发出一个 Java Flight Recorder 事件（见 org.kubo.mybatislab.mybatis.jfr），
+ *   携带 statement id、行数与耗时；没有录制在进行时几乎零开销，适合在生产常开。
+ *
+ * 是否观测由 DiagnosticsGovernor 在运行时决定（全量/采样/关闭），并上报本拦截器自身的开销。
  */
 @Component
 @ConditionalOnProperty(prefix = "mybatis.myPlugins", name = "testInterceptor", havingValue = "true", matchIfMissing = true)
@@ -70,8 +83,98 @@ import java.util.Properties;
 })
 public class TestInterceptor implements Interceptor {
 
+    /**
+     * 观测输出方式。
+     */
+    public enum TraceMode {
+        /** 逐条打印到控制台（学习/排障用，开销大）。 */
+        STDOUT,
+        /** 发出 JFR 事件，可常开，按需用 jcmd JFR.start / JFR.dump 导出。 */
+        JFR
+    }
+
+    @Value("${mybatis.myPlugins.testInterceptorMode:STDOUT}")
+    private TraceMode mode = TraceMode.STDOUT;
+
+    /** 当前线程正在观测的语句是否被采样（在最外层 Executor 调用上决定，内部各阶段沿用，日志不会残缺）。 */
+    private static final ThreadLocal<Boolean> STATEMENT_ADMITTED = new ThreadLocal<>();
+    /** 当前观测帧内放行给下游（proceed）的耗时，用于从总耗时中扣除、得到拦截器自身开销。 */
+    private static final ThreadLocal<long[]> PROCEED_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private DiagnosticsGovernor governor;
+
+    /**
+     * 运行时开销调节器（Spring 中自动注入；直接 new 出来使用时为 null，始终全量观测）。
+     */
+    @Autowired(required = false)
+    public void setGovernor(DiagnosticsGovernor governor) {
+        this.governor = governor;
+    }
+
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
+		if (governor == null) {
+			return mode == TraceMode.JFR ? JfrTracer.trace(invocation) : trace(invocation);
+		}
+		Boolean current = STATEMENT_ADMITTED.get();
+		boolean root = current == null && invocation.getTarget() instanceof Executor
+				&& isStatementMethod(invocation.getMethod().getName());
+		boolean admitted;
+		if (current != null) {
+			admitted = current;
+		} else if (root) {
+			admitted = governor.admit();
+		} else {
+			// 语句之外的调用（commit/close/getTransaction 等）不参与采样，只在全量观测时打印
+			admitted = governor.level() == DiagnosticsLevel.FULL;
+		}
+		if (root) {
+			STATEMENT_ADMITTED.set(admitted);
+		}
+		try {
+			if (!admitted) {
+				return invocation.proceed();
+			}
+			if (mode == TraceMode.JFR) {
+				return JfrTracer.trace(invocation);
+			}
+			long[] proceedNanos = PROCEED_NANOS.get();
+			long outer = proceedNanos[0];
+			proceedNanos[0] = 0;
+			long start = System.nanoTime();
+			try {
+				return trace(invocation);
+			} finally {
+				governor.recordOverhead(System.nanoTime() - start - proceedNanos[0]);
+				proceedNanos[0] = outer;
+			}
+		} finally {
+			if (root) {
+				STATEMENT_ADMITTED.remove();
+			}
+		}
+    }
+
+    private static boolean isStatementMethod(String methodName) {
+		return "update".equals(methodName) || "query".equals(methodName) || "queryCursor".equals(methodName);
+    }
+
+    /**
+     * 放行并累计下游耗时。
+     */
+    private static Object proceed(Invocation invocation) throws Throwable {
+		long start = System.nanoTime();
+		try {
+			return invocation.proceed();
+		} finally {
+			PROCEED_NANOS.get()[0] += System.nanoTime() - start;
+		}
+    }
+
+    /**
+     * STDOUT 模式的逐阶段打印。
+     */
+    private Object trace(Invocation invocation) throws Throwable {
 		Object target = invocation.getTarget();
 		String className = target.getClass().getName();
 		String methodName = invocation.getMethod().getName();
@@ -89,7 +192,7 @@ public class TestInterceptor implements Interceptor {
 					} else {
 						System.out.println("[全流程观测拦截器] CachingExecutor#" + mn);
 					}
-					return invocation.proceed();
+					return proceed(invocation);
 				}
 			}
 			Object[] args = invocation.getArgs();
@@ -105,7 +208,7 @@ public class TestInterceptor implements Interceptor {
 					String mapperMethod = statementId.contains(".") ? statementId.substring(statementId.lastIndexOf('.') + 1) : "<unknown>";
 					String sql = boundSql.getSql();
 					System.out.println("[全流程观测拦截器] Executor#update -> " + mapperClass + "." + mapperMethod + ", type=" + type + ", sql=" + sql);
-					Object result = invocation.proceed();
+					Object result = proceed(invocation);
 					if (result instanceof Integer) {
 						System.out.println("[全流程观测拦截器] 影响行数=" + result);
 					}
@@ -120,7 +223,7 @@ public class TestInterceptor implements Interceptor {
 					String mapperMethod = statementId.contains(".") ? statementId.substring(statementId.lastIndexOf('.') + 1) : "<unknown>";
 					String sql = boundSql.getSql();
 					System.out.println("[全流程观测拦截器] Executor#query -> " + mapperClass + "." + mapperMethod + ", sql=" + sql);
-					Object result = invocation.proceed();
+					Object result = proceed(invocation);
 					if (result instanceof List) {
 						List<?> list = (List<?>) result;
 						System.out.println("[全流程观测拦截器] 返回条数=" + list.size() + (list.isEmpty() ? "" : ("，元素类型=" + list.get(0).getClass().getName())));
@@ -133,10 +236,10 @@ public class TestInterceptor implements Interceptor {
 					String mapperClass = statementId.contains(".") ? statementId.substring(0, statementId.lastIndexOf('.')) : statementId;
 					String mapperMethod = statementId.contains(".") ? statementId.substring(statementId.lastIndexOf('.') + 1) : "<unknown>";
 					System.out.println("[全流程观测拦截器] Executor#queryCursor -> " + mapperClass + "." + mapperMethod);
-					return invocation.proceed();
+					return proceed(invocation);
 				}
 				case "flushStatements": {
-					Object result = invocation.proceed();
+					Object result = proceed(invocation);
 					if (result instanceof List) {
 						List<?> list = (List<?>) result;
 						int batches = 0;
@@ -150,57 +253,57 @@ public class TestInterceptor implements Interceptor {
 				case "commit": {
 					boolean required = (boolean) args[0];
 					System.out.println("[全流程观测拦截器] Executor#commit: required=" + required);
-					return invocation.proceed();
+					return proceed(invocation);
 				}
 				case "rollback": {
 					boolean required = (boolean) args[0];
 					System.out.println("[全流程观测拦截器] Executor#rollback: required=" + required);
-					return invocation.proceed();
+					return proceed(invocation);
 				}
 				case "createCacheKey": {
 					MappedStatement ms = (MappedStatement) args[0];
-					Object key = invocation.proceed();
+					Object key = proceed(invocation);
 					System.out.println("[全流程观测拦截器] Executor#createCacheKey: key=" + key);
 					return key;
 				}
 				case "isCached": {
 					MappedStatement ms = (MappedStatement) args[0];
 					CacheKey key = (CacheKey) args[1];
-					Object cached = invocation.proceed();
+					Object cached = proceed(invocation);
 					System.out.println("[全流程观测拦截器] Executor#isCached: key=" + key + ", hit=" + cached);
 					return cached;
 				}
 				case "clearLocalCache": {
 					System.out.println("[全流程观测拦截器] Executor#clearLocalCache");
-					return invocation.proceed();
+					return proceed(invocation);
 				}
 				case "deferLoad": {
 					MappedStatement ms = (MappedStatement) args[0];
 					String property = (String) args[2];
 					System.out.println("[全流程观测拦截器] Executor#deferLoad: property=" + property);
-					return invocation.proceed();
+					return proceed(invocation);
 				}
 				case "getTransaction": {
-					Object tx = invocation.proceed();
+					Object tx = proceed(invocation);
 					System.out.println("[全流程观测拦截器] Executor#getTransaction -> " + (tx == null ? "<null>" : tx.getClass().getName()));
 					return tx;
 				}
 				case "close": {
 					boolean forceRollback = (boolean) args[0];
 					System.out.println("[全流程观测拦截器] Executor#close: forceRollback=" + forceRollback);
-					return invocation.proceed();
+					return proceed(invocation);
 				}
 				case "isClosed": {
-					Object closed = invocation.proceed();
+					Object closed = proceed(invocation);
 					System.out.println("[全流程观测拦截器] Executor#isClosed -> " + closed);
 					return closed;
 				}
 				case "setExecutorWrapper": {
 					System.out.println("[全流程观测拦截器] Executor#setExecutorWrapper");
-					return invocation.proceed();
+					return proceed(invocation);
 				}
 				default:
-					return invocation.proceed();
+					return proceed(invocation);
 			}
 		}
 
@@ -247,7 +350,7 @@ public class TestInterceptor implements Interceptor {
 				default:
 					break;
 			}
-			return invocation.proceed();
+			return proceed(invocation);
 		}
 
 		// 3) 参数处理阶段（打印参数对象概览）
@@ -258,15 +361,15 @@ public class TestInterceptor implements Interceptor {
 					Object param = meta.hasGetter("parameterObject") ? meta.getValue("parameterObject") : null;
 					String paramDesc = (param == null) ? "<null>" : param.getClass().getName();
 					System.out.println("[全流程观测拦截器] ParameterHandler#setParameters -> 参数类型=" + paramDesc);
-					return invocation.proceed();
+					return proceed(invocation);
 				}
 				case "getParameterObject": {
-					Object result = invocation.proceed();
+					Object result = proceed(invocation);
 					System.out.println("[全流程观测拦截器] ParameterHandler#getParameterObject -> 返回类型=" + (result == null ? "<null>" : result.getClass().getName()));
 					return result;
 				}
 				default:
-					return invocation.proceed();
+					return proceed(invocation);
 			}
 		}
 
@@ -274,7 +377,7 @@ public class TestInterceptor implements Interceptor {
 		if (target instanceof ResultSetHandler) {
 			switch (methodName) {
 				case "handleResultSets": {
-					Object result = invocation.proceed();
+					Object result = proceed(invocation);
 					if (result instanceof List) {
 						List<?> list = (List<?>) result;
 						System.out.println("[全流程观测拦截器] ResultSetHandler#handleResultSets -> 返回条数=" + list.size() + (list.isEmpty() ? "" : ("，元素类型=" + list.get(0).getClass().getName())));
@@ -284,22 +387,22 @@ public class TestInterceptor implements Interceptor {
 					return result;
 				}
 				case "handleCursorResultSets": {
-					Object result = invocation.proceed();
+					Object result = proceed(invocation);
 					System.out.println("[全流程观测拦截器] ResultSetHandler#handleCursorResultSets -> 返回类型=" + (result == null ? "<null>" : result.getClass().getName()));
 					return result;
 				}
 				case "handleOutputParameters": {
 					System.out.println("[全流程观测拦截器] ResultSetHandler#handleOutputParameters -> 处理存储过程出参");
-					return invocation.proceed();
+					return proceed(invocation);
 				}
 				default:
-					return invocation.proceed();
+					return proceed(invocation);
 			}
 		}
 
 		// 兜底：默认打印原始信息并放行
 		System.out.println("[全流程观测拦截器] 执行" + className + "#" + methodName);
-		return invocation.proceed();
+		return proceed(invocation);
     }
 
     @Override
@@ -310,6 +413,10 @@ public class TestInterceptor implements Interceptor {
 
     @Override
     public void setProperties(Properties properties) {
-        // 本拦截器当前无可配置属性
+        // 非 Spring 注册方式（如 mybatis-config.xml）下可通过 mode 属性切换输出方式
+        String value = properties == null ? null : properties.getProperty("mode");
+        if (value != null) {
+            this.mode = TraceMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
     }
 }
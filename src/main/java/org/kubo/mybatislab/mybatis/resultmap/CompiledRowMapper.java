@@ -0,0 +1,102 @@
+package org.kubo.mybatislab.mybatis.resultmap;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.lang.invoke.MethodHandle;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * 为某条语句的结果映射预先生成的行映射器：按列序号读取，经预解析的 TypeHandler 取值，
+ * 再通过 {@link MethodHandle} 调用构造器与 setter，不再经过 MetaObject、列名转换与逐行 TypeHandler 查找。
+ *
+ * <p>语义与 {@code DefaultResultSetHandler} 的简单映射一致：值为 null 时不调用 setter
+ * （{@code callSettersOnNulls=true} 且非基本类型时调用）；整行都为 null 时返回 null
+ * （{@code returnInstanceForEmptyRow=true} 时返回空对象）。</p>
+ */
+public final class CompiledRowMapper {
+
+    /** 生成时结果集的列标签，执行时据此校验列未变化。 */
+    private final String[] columns;
+    private final boolean useColumnLabel;
+    private final MethodHandle constructor;
+    private final int[] indexes;
+    private final TypeHandler<?>[] typeHandlers;
+    private final MethodHandle[] setters;
+    private final boolean[] primitives;
+    private final String[] properties;
+    private final boolean callSettersOnNulls;
+    private final boolean returnInstanceForEmptyRow;
+
+    CompiledRowMapper(String[] columns, boolean useColumnLabel, MethodHandle constructor, int[] indexes,
+                      TypeHandler<?>[] typeHandlers, MethodHandle[] setters, boolean[] primitives, String[] properties,
+                      boolean callSettersOnNulls, boolean returnInstanceForEmptyRow) {
+        this.columns = columns;
+        this.useColumnLabel = useColumnLabel;
+        this.constructor = constructor;
+        this.indexes = indexes;
+        this.typeHandlers = typeHandlers;
+        this.setters = setters;
+        this.primitives = primitives;
+        this.properties = properties;
+        this.callSettersOnNulls = callSettersOnNulls;
+        this.returnInstanceForEmptyRow = returnInstanceForEmptyRow;
+    }
+
+    /**
+     * 结果集的列是否与生成时一致（数量、顺序与名称）。
+     */
+    boolean matches(ResultSetMetaData metaData) throws SQLException {
+        if (metaData.getColumnCount() != columns.length) {
+            return false;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            String name = useColumnLabel ? metaData.getColumnLabel(i + 1) : metaData.getColumnName(i + 1);
+            if (!columns[i].equals(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 映射当前行。
+     */
+    public Object map(ResultSet rs) throws SQLException {
+        Object row;
+        try {
+            row = (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new ExecutorException("Error instantiating result object: " + e, e);
+        }
+        boolean found = false;
+        for (int i = 0; i < indexes.length; i++) {
+            Object value = typeHandlers[i].getResult(rs, indexes[i]);
+            if (value != null) {
+                found = true;
+            }
+            if (value != null || callSettersOnNulls && !primitives[i]) {
+                try {
+                    setters[i].invokeExact(row, value);
+                } catch (Throwable e) {
+                    throw new ExecutorException("Error setting property '" + properties[i] + "' of '"
+                            + row.getClass().getName() + "' with value '" + value + "': " + e, e);
+                }
+            }
+        }
+        return found || returnInstanceForEmptyRow ? row : null;
+    }
+
+    /**
+     * 第 i 个映射所读取的列标签。
+     */
+    String columnOf(int i) {
+        return columns[indexes[i] - 1];
+    }
+
+    String[] properties() {
+        return properties;
+    }
+}
@@ -0,0 +1,295 @@
+package org.kubo.mybatislab.mybatis.resultmap;
+
+import org.apache.ibatis.executor.resultset.ResultSetWrapper;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 statement id 缓存 {@link CompiledRowMapper}：第一次执行时根据结果集列与结果映射生成，之后直接复用。
+ *
+ * <p>只处理“扁平”的结果映射（resultType 或只有 id/result 的 resultMap），列到属性的对应规则与
+ * {@code DefaultResultSetHandler} 相同：先自动映射未显式配置的列（遵循 mapUnderscoreToCamelCase、autoMappingBehavior），
+ * 再应用显式映射。以下情况判定为不适用，由调用方回退到 MyBatis 自带的反射映射：</p>
+ * <ul>
+ *   <li>多结果集、多个 resultMap、嵌套结果映射 / 嵌套查询、鉴别器、构造器映射；</li>
+ *   <li>结果类型是简单类型、Map、接口或没有公共无参构造器；</li>
+ *   <li>自定义了 ObjectFactory / ObjectWrapperFactory，或 autoMappingUnknownColumnBehavior 不是 NONE；</li>
+ *   <li>属性是嵌套路径（a.b）或没有公共 setter。</li>
+ * </ul>
+ *
+ * <p>同一条语句返回的列发生变化（例如动态 SQL 选了不同的列）时会重新生成。</p>
+ */
+@Component
+public class RowMapperRegistry {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 取当前结果集可用的行映射器；不适用时返回 null。
+     */
+    public CompiledRowMapper mapperFor(MappedStatement ms, ResultSet rs) throws SQLException {
+        Entry entry = entries.computeIfAbsent(ms.getId(), id -> new Entry(ineligibleReason(ms)));
+        if (entry.reason != null) {
+            entry.fallbacks.increment();
+            return null;
+        }
+        CompiledRowMapper mapper = entry.mapper;
+        if (mapper == null || !mapper.matches(rs.getMetaData())) {
+            try {
+                mapper = compile(ms, rs);
+            } catch (IneligibleException e) {
+                entry.reason = e.getMessage();
+                entry.fallbacks.increment();
+                System.out.println("[结果映射] " + ms.getId() + " 不适用生成的行映射器，回退反射映射: " + e.getMessage());
+                return null;
+            }
+            entry.mapper = mapper;
+            entry.compilations.increment();
+        }
+        return mapper;
+    }
+
+    /**
+     * 记录一次走生成映射器的执行及其行数。
+     */
+    public void recordExecution(MappedStatement ms, int rows) {
+        Entry entry = entries.get(ms.getId());
+        if (entry != null) {
+            entry.executions.increment();
+            entry.rows.add(rows);
+        }
+    }
+
+    /**
+     * 记录一次因调用方式（ResultHandler、RowBounds 等）回退反射映射的执行。
+     */
+    public void recordFallback(MappedStatement ms) {
+        entries.computeIfAbsent(ms.getId(), id -> new Entry(ineligibleReason(ms))).fallbacks.increment();
+    }
+
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        entries.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> {
+            Entry entry = e.getValue();
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("statementId", e.getKey());
+            view.put("compiled", entry.reason == null && entry.mapper != null);
+            view.put("executions", entry.executions.sum());
+            view.put("rows", entry.rows.sum());
+            view.put("fallbacks", entry.fallbacks.sum());
+            view.put("compilations", entry.compilations.sum());
+            if (entry.reason != null) {
+                view.put("reason", entry.reason);
+            }
+            CompiledRowMapper mapper = entry.mapper;
+            if (mapper != null) {
+                Map<String, String> columns = new LinkedHashMap<>();
+                for (int i = 0; i < mapper.properties().length; i++) {
+                    columns.put(mapper.columnOf(i), mapper.properties()[i]);
+                }
+                view.put("columns", columns);
+            }
+            list.add(view);
+        });
+        return list;
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    private static String ineligibleReason(MappedStatement ms) {
+        Configuration configuration = ms.getConfiguration();
+        if (ms.getResultSets() != null && ms.getResultSets().length > 0) {
+            return "multiple result sets";
+        }
+        List<ResultMap> resultMaps = ms.getResultMaps();
+        if (resultMaps == null || resultMaps.size() != 1) {
+            return "expects exactly one result map";
+        }
+        ResultMap resultMap = resultMaps.get(0);
+        if (resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()) {
+            return "nested result maps or queries";
+        }
+        if (resultMap.getDiscriminator() != null) {
+            return "discriminator";
+        }
+        if (!resultMap.getConstructorResultMappings().isEmpty()) {
+            return "constructor mappings";
+        }
+        Class<?> type = resultMap.getType();
+        if (configuration.getTypeHandlerRegistry().hasTypeHandler(type)) {
+            return "simple result type " + type.getName();
+        }
+        if (type.isInterface() || Map.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type)
+                || Modifier.isAbstract(type.getModifiers()) || !Modifier.isPublic(type.getModifiers())) {
+            return "unsupported result type " + type.getName();
+        }
+        if (configuration.getObjectFactory().getClass() != DefaultObjectFactory.class) {
+            return "custom ObjectFactory";
+        }
+        if (configuration.getObjectWrapperFactory().getClass() != DefaultObjectWrapperFactory.class) {
+            return "custom ObjectWrapperFactory";
+        }
+        if (configuration.getAutoMappingUnknownColumnBehavior() != AutoMappingUnknownColumnBehavior.NONE) {
+            return "autoMappingUnknownColumnBehavior " + configuration.getAutoMappingUnknownColumnBehavior();
+        }
+        return null;
+    }
+
+    private static CompiledRowMapper compile(MappedStatement ms, ResultSet rs) throws SQLException {
+        Configuration configuration = ms.getConfiguration();
+        ResultMap resultMap = ms.getResultMaps().get(0);
+        Class<?> type = resultMap.getType();
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IneligibleException("no public no-arg constructor on " + type.getName());
+        }
+
+        ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+        List<String> labels = rsw.getColumnNames();
+        MetaClass metaClass = MetaClass.forClass(type, configuration.getReflectorFactory());
+        List<Integer> indexes = new ArrayList<>();
+        List<TypeHandler<?>> typeHandlers = new ArrayList<>();
+        List<MethodHandle> setters = new ArrayList<>();
+        List<Boolean> primitives = new ArrayList<>();
+        List<String> properties = new ArrayList<>();
+
+        // 1) 自动映射：与 DefaultResultSetHandler#createAutomaticMappings 相同的规则
+        boolean autoMapping = resultMap.getAutoMapping() != null
+                ? resultMap.getAutoMapping()
+                : configuration.getAutoMappingBehavior() != AutoMappingBehavior.NONE;
+        if (autoMapping) {
+            for (String column : rsw.getUnmappedColumnNames(resultMap, null)) {
+                String property = metaClass.findProperty(column, configuration.isMapUnderscoreToCamelCase());
+                if (property == null || !metaClass.hasSetter(property) || resultMap.getMappedProperties().contains(property)) {
+                    continue;
+                }
+                if (property.indexOf('.') >= 0) {
+                    throw new IneligibleException("nested property " + property);
+                }
+                Class<?> propertyType = metaClass.getSetterType(property);
+                if (!configuration.getTypeHandlerRegistry().hasTypeHandler(propertyType, rsw.getJdbcType(column))) {
+                    continue;
+                }
+                indexes.add(labels.indexOf(column) + 1);
+                typeHandlers.add(rsw.getTypeHandler(propertyType, column));
+                setters.add(setter(type, property, propertyType));
+                primitives.add(propertyType.isPrimitive());
+                properties.add(property);
+            }
+        }
+
+        // 2) 显式映射：结果集中存在对应列时才应用
+        List<String> mappedColumns = rsw.getMappedColumnNames(resultMap, null);
+        for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+            String column = mapping.getColumn();
+            String property = mapping.getProperty();
+            if (mapping.isCompositeResult() || column == null || property == null
+                    || !mappedColumns.contains(column.toUpperCase(Locale.ENGLISH))) {
+                continue;
+            }
+            if (property.indexOf('.') >= 0) {
+                throw new IneligibleException("nested property " + property);
+            }
+            Class<?> propertyType = metaClass.getSetterType(property);
+            indexes.add(indexOfIgnoreCase(labels, column));
+            typeHandlers.add(mapping.getTypeHandler());
+            setters.add(setter(type, property, propertyType));
+            primitives.add(propertyType.isPrimitive());
+            properties.add(property);
+        }
+
+        int n = indexes.size();
+        int[] indexArray = new int[n];
+        boolean[] primitiveArray = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            indexArray[i] = indexes.get(i);
+            primitiveArray[i] = primitives.get(i);
+        }
+        return new CompiledRowMapper(labels.toArray(new String[0]), configuration.isUseColumnLabel(), constructor,
+                indexArray, typeHandlers.toArray(new TypeHandler<?>[0]), setters.toArray(new MethodHandle[0]),
+                primitiveArray, properties.toArray(new String[0]), configuration.isCallSettersOnNulls(),
+                configuration.isReturnInstanceForEmptyRow());
+    }
+
+    /**
+     * 查找公共 setter 并适配为 {@code (Object, Object)void}；基本类型参数在调用时自动拆箱。
+     */
+    private static MethodHandle setter(Class<?> type, String property, Class<?> propertyType) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == 1 && !method.isBridge()
+                    && method.getParameterTypes()[0].isAssignableFrom(propertyType)) {
+                try {
+                    return MethodHandles.publicLookup().unreflect(method)
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                } catch (IllegalAccessException e) {
+                    break;
+                }
+            }
+        }
+        throw new IneligibleException("no public setter for " + type.getSimpleName() + "." + property);
+    }
+
+    private static int indexOfIgnoreCase(List<String> labels, String column) {
+        for (int i = 0; i < labels.size(); i++) {
+            if (labels.get(i).equalsIgnoreCase(column)) {
+                return i + 1;
+            }
+        }
+        throw new IneligibleException("column not found: " + column);
+    }
+
+    private static final class Entry {
+
+        /** 不适用的原因；null 表示可以生成。 */
+        volatile String reason;
+        volatile CompiledRowMapper mapper;
+        final LongAdder executions = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder fallbacks = new LongAdder();
+        final LongAdder compilations = new LongAdder();
+
+        Entry(String reason) {
+            this.reason = reason;
+        }
+    }
+
+    private static final class IneligibleException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        IneligibleException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.kubo.mybatislab.mybatis.reuse;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * 语句复用作用域：在一个 {@link ExecutorType#REUSE} 会话里执行一段工作，
+ * 同一条 SQL 只 prepare 一次，之后按 SQL 文本复用同一个 {@code PreparedStatement}，作用域结束时统一关闭。
+ *
+ * <p>为什么不直接把 Spring 的 {@code SqlSessionTemplate} 改成 REUSE：事务外每次 Mapper 调用都是一个新会话，
+ * 会话一结束缓存的语句就关掉了，复用不到；而同一个 Spring 事务里又不能切换执行器类型。
+ * 这里自行打开会话（不登记到事务同步），连接仍经 {@code SpringManagedTransaction} 取得：
+ * 处于 Spring 事务中时与事务共用同一个连接，否则单独取一个连接并在结束时提交。</p>
+ *
+ * <p>全局开启可配置 {@code mybatis.executor-type: reuse}，只在事务内的多次调用之间生效。</p>
+ */
+@Component
+public class StatementReuseTemplate {
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final ExecutorType executorType;
+
+    public StatementReuseTemplate(SqlSessionFactory sqlSessionFactory,
+                                  @Value("${mybatis.myPlugins.statementReuse.executorType:REUSE}") ExecutorType executorType) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.executorType = executorType;
+    }
+
+    /**
+     * 以配置的执行器类型（默认 REUSE）获取 Mapper 并执行。
+     */
+    public <M, T> T execute(Class<M> mapperType, Function<M, T> work) {
+        return execute(executorType, mapperType, work);
+    }
+
+    /**
+     * 以指定执行器类型获取 Mapper 并执行（便于与 SIMPLE 对比）。
+     */
+    public <M, T> T execute(ExecutorType type, Class<M> mapperType, Function<M, T> work) {
+        try (SqlSession session = sqlSessionFactory.openSession(type, false)) {
+            T result = work.apply(session.getMapper(mapperType));
+            session.commit();
+            return result;
+        }
+    }
+
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+}
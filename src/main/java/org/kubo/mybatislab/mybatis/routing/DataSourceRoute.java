@@ -0,0 +1,21 @@
+package org.kubo.mybatislab.mybatis.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 为某个 Mapper（接口上）或某条语句（方法上）固定路由目标，优先级高于按 SqlCommandType 的默认判断。
+ *
+ * <p>典型用法：对复制延迟敏感的查询（如下单后立刻回查）标注 {@code @DataSourceRoute(Route.PRIMARY)}。
+ * 写语句标注 REPLICA 不会生效，始终走主库。</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface DataSourceRoute {
+
+    Route value();
+}
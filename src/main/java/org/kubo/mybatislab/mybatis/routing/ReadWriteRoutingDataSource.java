@@ -0,0 +1,236 @@
+package org.kubo.mybatislab.mybatis.routing;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源：取连接时按 {@link RoutingContext#current()} 决定走主库还是某个只读副本。
+ *
+ * <ul>
+ *   <li>路由目标为空或 {@link Route#PRIMARY}：主库；</li>
+ *   <li>{@link Route#REPLICA}：在健康的副本中按 {@link ReplicaSelectionPolicy} 选择一个；没有健康副本或取连接失败时回退主库；</li>
+ *   <li>健康摘除：某副本连续 {@code failureThreshold} 次取连接失败即摘除 {@code ejectMs}；
+ *       后台每 {@code healthCheckIntervalMs} 探测被摘除的副本，恢复后立即放回；不开探测时到期自动放回试一次。</li>
+ * </ul>
+ *
+ * <p>事务管理器会在事务开始时就取连接（早于任何语句），因此应用中需在外层包一层
+ * {@code LazyConnectionDataSourceProxy}，让物理连接推迟到第一条语句执行时、路由目标已确定后再取。
+ * 健康判断只覆盖“取连接”这一步，语句执行中的失败不计入。</p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private final DataSource primary;
+    private final Node[] replicas;
+    private final ReplicaSelectionPolicy policy;
+    private final int failureThreshold;
+    private final long ejectNanos;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaSelectionPolicy policy,
+                                      int failureThreshold, long ejectMs, long healthCheckIntervalMs) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(e -> new Node(e.getKey(), e.getValue()))
+                .toArray(Node[]::new);
+        this.policy = policy == null ? ReplicaSelectionPolicy.ROUND_ROBIN : policy;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.ejectNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ejectMs));
+        if (healthCheckIntervalMs > 0 && this.replicas.length > 0) {
+            this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "replica-health-check");
+                t.setDaemon(true);
+                return t;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkEjected, healthCheckIntervalMs, healthCheckIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.healthChecker = null;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (RoutingContext.current() == Route.REPLICA) {
+            Node node = select();
+            if (node != null) {
+                try {
+                    Connection connection = node.dataSource.getConnection();
+                    node.succeeded();
+                    return node.track(connection);
+                } catch (SQLException e) {
+                    node.failed();
+                    fallbacks.increment();
+                }
+            } else if (replicas.length > 0) {
+                fallbacks.increment();
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // 带凭据的取连接没有路由意义，统一走主库
+        primaryConnections.increment();
+        return primary.getConnection(username, password);
+    }
+
+    private Node select() {
+        long now = System.nanoTime();
+        int n = replicas.length;
+        if (n == 0) {
+            return null;
+        }
+        int start = Math.floorMod(cursor.getAndIncrement(), n);
+        Node best = null;
+        for (int i = 0; i < n; i++) {
+            Node node = replicas[(start + i) % n];
+            if (!node.isAvailable(now)) {
+                continue;
+            }
+            if (policy == ReplicaSelectionPolicy.ROUND_ROBIN) {
+                return node;
+            }
+            if (best == null || node.pending.get() < best.pending.get()) {
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    private void checkEjected() {
+        long now = System.nanoTime();
+        for (Node node : replicas) {
+            if (node.isAvailable(now)) {
+                continue;
+            }
+            try (Connection connection = node.dataSource.getConnection()) {
+                if (connection.isValid(1)) {
+                    node.readmit();
+                }
+            } catch (SQLException | RuntimeException e) {
+                // 仍不可用，等待下一轮
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long now = System.nanoTime();
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("policy", policy.name());
+        view.put("primaryConnections", primaryConnections.sum());
+        view.put("fallbacks", fallbacks.sum());
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Node node : replicas) {
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("name", node.name);
+            r.put("available", node.isAvailable(now));
+            r.put("pending", node.pending.get());
+            r.put("connections", node.connections.sum());
+            r.put("failures", node.failures.sum());
+            r.put("ejections", node.ejections.sum());
+            list.add(r);
+        }
+        view.put("replicas", list);
+        return view;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Node node : replicas) {
+            if (node.dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) node.dataSource).close();
+            }
+        }
+    }
+
+    private final class Node {
+
+        final String name;
+        final DataSource dataSource;
+        /** 已借出、尚未关闭的连接数。 */
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        /** 摘除截止时间（nanoTime），0 表示未摘除。 */
+        volatile long ejectedUntil;
+        final LongAdder connections = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder ejections = new LongAdder();
+
+        Node(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean isAvailable(long now) {
+            long until = ejectedUntil;
+            return until == 0 || now - until >= 0;
+        }
+
+        void succeeded() {
+            consecutiveFailures.set(0);
+            ejectedUntil = 0;
+            connections.increment();
+        }
+
+        void failed() {
+            failures.increment();
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                consecutiveFailures.set(0);
+                ejectedUntil = System.nanoTime() + ejectNanos;
+                ejections.increment();
+                System.out.println("[读写分离] 副本 " + name + " 连续取连接失败，摘除 "
+                        + TimeUnit.NANOSECONDS.toMillis(ejectNanos) + " ms");
+            }
+        }
+
+        void readmit() {
+            consecutiveFailures.set(0);
+            ejectedUntil = 0;
+            System.out.println("[读写分离] 副本 " + name + " 探测恢复，重新放回");
+        }
+
+        /**
+         * 包装连接以便在 close 时减少 pending（LEAST_PENDING 依赖它）。
+         */
+        Connection track(Connection target) {
+            pending.incrementAndGet();
+            boolean[] closed = new boolean[1];
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && !closed[0]) {
+                            closed[0] = true;
+                            pending.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
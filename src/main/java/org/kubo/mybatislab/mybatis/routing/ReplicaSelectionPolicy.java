@@ -0,0 +1,13 @@
+package org.kubo.mybatislab.mybatis.routing;
+
+/**
+ * 多个只读副本之间的选择策略。
+ */
+public enum ReplicaSelectionPolicy {
+
+    /** 轮询。 */
+    ROUND_ROBIN,
+
+    /** 选当前借出连接最少的副本，数量相同时轮询。 */
+    LEAST_PENDING
+}
@@ -0,0 +1,13 @@
+package org.kubo.mybatislab.mybatis.routing;
+
+/**
+ * 读写分离的路由目标。
+ */
+public enum Route {
+
+    /** 主库：所有写语句、写事务内的读、写之后的读。 */
+    PRIMARY,
+
+    /** 只读副本：事务外（或只读事务内）的查询。 */
+    REPLICA
+}
@@ -0,0 +1,61 @@
+package org.kubo.mybatislab.mybatis.routing;
+
+/**
+ * 当前线程的路由状态。
+ *
+ * <ul>
+ *   <li>当前语句的路由目标：由 {@code ReadWriteRoutingInterceptor} 在进入 Executor 前设置、返回后恢复，
+ *       {@link ReadWriteRoutingDataSource} 在真正取连接时读取；未设置时一律走主库；</li>
+ *   <li>写后粘滞：执行过写语句后，本请求内（{@link RoutingContextFilter} 在请求结束时清除）
+ *       或 {@code stickyAfterWriteMs} 内的读都走主库，保证读到自己的写。</li>
+ * </ul>
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Route> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<long[]> STICKY_UNTIL = ThreadLocal.withInitial(() -> new long[1]);
+
+    private RoutingContext() {
+    }
+
+    public static Route current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 设置当前语句的路由目标，返回之前的值（用于嵌套调用后恢复）。
+     */
+    public static Route push(Route route) {
+        Route previous = CURRENT.get();
+        CURRENT.set(route);
+        return previous;
+    }
+
+    public static void restore(Route previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * 记录一次写入：之后 stickyNanos 内本线程的读都走主库。
+     */
+    public static void markWrite(long stickyNanos) {
+        STICKY_UNTIL.get()[0] = System.nanoTime() + stickyNanos;
+    }
+
+    public static boolean isStickyToPrimary() {
+        long until = STICKY_UNTIL.get()[0];
+        return until != 0 && until - System.nanoTime() > 0;
+    }
+
+    /**
+     * 请求结束时调用：清除写后粘滞与路由状态，避免线程复用时带到下一个请求。
+     */
+    public static void clear() {
+        STICKY_UNTIL.get()[0] = 0;
+        CURRENT.remove();
+    }
+}
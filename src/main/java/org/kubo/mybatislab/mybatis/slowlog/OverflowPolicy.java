@@ -0,0 +1,17 @@
+package org.kubo.mybatislab.mybatis.slowlog;
+
+/**
+ * 慢 SQL 缓冲区接近/达到满载时的处理策略。
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 缓冲区满时丢弃新事件（计入 dropped），未满时全部接收。
+     */
+    DROP,
+
+    /**
+     * 缓冲区占用超过高水位（3/4）后按 1/sampleRate 采样接收，其余计入 sampledOut；满时同 DROP。
+     */
+    SAMPLE
+}
@@ -0,0 +1,21 @@
+package org.kubo.mybatislab.mybatis.slowlog;
+
+/**
+ * 慢 SQL 事件（预分配、可复用的环形缓冲区槽位）。
+ *
+ * <p>请求线程只写入几个引用/基本类型字段，不做任何字符串拼接；
+ * 字段的可见性由 {@link SlowSqlEventPipeline} 中槽位序号的 volatile 写/读保证。</p>
+ */
+final class SlowSqlEvent {
+
+    String statementId;
+    /** 只持有 BoundSql 中 SQL 字符串的引用，不做拷贝。 */
+    String sql;
+    long costNanos;
+    long timestampMillis;
+
+    void clear() {
+        statementId = null;
+        sql = null;
+    }
+}
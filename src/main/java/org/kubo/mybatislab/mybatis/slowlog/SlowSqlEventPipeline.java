@@ -0,0 +1,219 @@
+package org.kubo.mybatislab.mybatis.slowlog;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步、有界的慢 SQL 事件管道。
+ *
+ * <p>请求线程（生产者）只负责把几个字段写进一个预分配的槽位，随即返回；
+ * 后台单线程（消费者）按批取出事件、统一格式化，并一次性写出整批日志。</p>
+ *
+ * <ul>
+ *   <li>缓冲区：多生产者/单消费者的有界环形数组（Vyukov 序号槽位算法），
+ *       生产者只有一次 CAS，不加锁、不分配对象。</li>
+ *   <li>满载处理：{@link OverflowPolicy#DROP} 直接丢弃；{@link OverflowPolicy#SAMPLE} 超过高水位后按比例采样。
+ *       被丢弃/采样掉的数量都有计数，可通过 {@code GET /api/sql/slow-log/stats} 查看。</li>
+ *   <li>消费者不被生产者唤醒（避免在热路径上 unpark），而是按固定间隔轮询，日志最多延迟一个间隔。</li>
+ * </ul>
+ */
+@Component
+public class SlowSqlEventPipeline implements InitializingBean, DisposableBean {
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final SlowSqlEvent[] slots;
+    /** 每个槽位的序号：== pos 表示可写，== pos + 1 表示已发布可读。 */
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /** 仅消费者线程读写。 */
+    private long head;
+
+    private final int batchSize;
+    private final long pollIntervalNanos;
+    private final OverflowPolicy policy;
+    private final int sampleRate;
+    private final int highWatermark;
+    private final PrintStream out;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private volatile long written;
+
+    private volatile boolean running;
+    private Thread consumer;
+
+    @Autowired
+    public SlowSqlEventPipeline(
+            @Value("${mybatis.myPlugins.sqlCostInterceptor.slowSqlPipeline.capacity:1024}") int capacity,
+            @Value("${mybatis.myPlugins.sqlCostInterceptor.slowSqlPipeline.batchSize:128}") int batchSize,
+            @Value("${mybatis.myPlugins.sqlCostInterceptor.slowSqlPipeline.pollIntervalMs:200}") long pollIntervalMs,
+            @Value("${mybatis.myPlugins.sqlCostInterceptor.slowSqlPipeline.policy:DROP}") OverflowPolicy policy,
+            @Value("${mybatis.myPlugins.sqlCostInterceptor.slowSqlPipeline.sampleRate:10}") int sampleRate) {
+        this(capacity, batchSize, pollIntervalMs, policy, sampleRate, System.out);
+    }
+
+    SlowSqlEventPipeline(int capacity, int batchSize, long pollIntervalMs, OverflowPolicy policy, int sampleRate,
+                         PrintStream out) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new SlowSqlEvent[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new SlowSqlEvent();
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.batchSize = Math.max(1, batchSize);
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, pollIntervalMs));
+        this.policy = policy == null ? OverflowPolicy.DROP : policy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.highWatermark = size - size / 4;
+        this.out = out;
+    }
+
+    /**
+     * 由请求线程调用：尝试发布一条慢 SQL 事件，缓冲区满（或被采样掉）时立即返回 false。
+     */
+    public boolean publish(String statementId, String sql, long costNanos) {
+        if (policy == OverflowPolicy.SAMPLE && backlog() >= highWatermark
+                && sampleCounter.getAndIncrement() % sampleRate != 0) {
+            sampledOut.increment();
+            return false;
+        }
+        long pos = tail.get();
+        for (; ; ) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    SlowSqlEvent event = slots[index];
+                    event.statementId = statementId;
+                    event.sql = sql;
+                    event.costNanos = costNanos;
+                    event.timestampMillis = System.currentTimeMillis();
+                    sequences.set(index, pos + 1);
+                    published.increment();
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                dropped.increment();
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        start();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        consumer = new Thread(this::consumeLoop, "slow-sql-writer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = consumer;
+            consumer = null;
+        }
+        if (t != null) {
+            LockSupport.unpark(t);
+            t.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * 管道运行指标。
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("capacity", slots.length);
+        view.put("policy", policy.name());
+        view.put("backlog", backlog());
+        view.put("published", published.sum());
+        view.put("written", written);
+        view.put("dropped", dropped.sum());
+        view.put("sampledOut", sampledOut.sum());
+        return view;
+    }
+
+    private long backlog() {
+        // tail 只统计成功占位的事件，written 由消费者单线程递增；二者之差即待写出的近似积压量
+        return Math.max(0, tail.get() - written);
+    }
+
+    private void consumeLoop() {
+        StringBuilder buffer = new StringBuilder(256 * batchSize);
+        while (running) {
+            if (drainBatch(buffer) == 0) {
+                LockSupport.parkNanos(pollIntervalNanos);
+            }
+        }
+        // 退出前把剩余事件写完
+        while (drainBatch(buffer) > 0) {
+            // keep draining
+        }
+    }
+
+    private int drainBatch(StringBuilder buffer) {
+        int n = 0;
+        while (n < batchSize) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            SlowSqlEvent event = slots[index];
+            format(buffer, event);
+            event.clear();
+            sequences.set(index, head + slots.length);
+            head++;
+            n++;
+        }
+        if (n > 0) {
+            out.print(buffer);
+            out.flush();
+            buffer.setLength(0);
+            written += n;
+        }
+        return n;
+    }
+
+    private static void format(StringBuilder sb, SlowSqlEvent event) {
+        sb.append("[执行耗时统计拦截器][慢查询] time=").append(TIME_FORMAT.format(Instant.ofEpochMilli(event.timestampMillis)))
+                .append(", id=").append(event.statementId)
+                .append(", cost=").append(TimeUnit.NANOSECONDS.toMicros(event.costNanos) / 1000.0).append("ms")
+                .append(", sql=").append(event.sql)
+                .append(System.lineSeparator());
+    }
+}
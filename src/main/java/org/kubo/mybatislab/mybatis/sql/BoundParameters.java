@@ -0,0 +1,50 @@
+package org.kubo.mybatislab.mybatis.sql;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import java.util.List;
+
+/**
+ * 按 {@code DefaultParameterHandler} 的规则取出 BoundSql 中每个 {@code ?} 对应的实参。
+ *
+ * <p>依次查 foreach/bind 产生的附加参数、参数对象本身（有对应 TypeHandler 的简单类型）、参数对象的属性。
+ * OUT 参数没有输入值，对应位置为 null。</p>
+ */
+public final class BoundParameters {
+
+    private BoundParameters() {
+    }
+
+    public static Object[] values(Configuration configuration, BoundSql boundSql) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        Object[] values = new Object[mappings.size()];
+        Object parameterObject = boundSql.getParameterObject();
+        TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+        MetaObject metaObject = null;
+        for (int i = 0; i < values.length; i++) {
+            ParameterMapping mapping = mappings.get(i);
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            if (boundSql.hasAdditionalParameter(property)) {
+                values[i] = boundSql.getAdditionalParameter(property);
+            } else if (parameterObject == null) {
+                values[i] = null;
+            } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+                values[i] = parameterObject;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                values[i] = metaObject.getValue(property);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,234 @@
+package org.kubo.mybatislab.mybatis.sql;
+
+import org.kubo.mybatislab.mybatis.sql.SqlLexer.Token;
+
+/**
+ * 全表修改检测：基于 {@link SqlLexer} 的单遍扫描。
+ *
+ * <p>相比按子串查找 {@code " where "}，这里能正确处理：</p>
+ * <ul>
+ *   <li>字符串、反引号标识符、注释中的 WHERE/LIMIT（不算数）；</li>
+ *   <li>子查询 / 函数参数里的 WHERE（括号深度 &gt; 0，不算数），只认语句顶层的 WHERE；</li>
+ *   <li>恒真条件：{@code 1=1}、{@code 'a'='a'}、{@code id = id}、{@code true}、非零数字，
+ *       以及任意一个 OR 分支全部由恒真条件组成的情况（如 {@code where id = 1 or 1=1}）；</li>
+ *   <li>以分号分隔的多条语句，逐条判定。</li>
+ * </ul>
+ *
+ * <p>扫描只依赖词法单元的偏移量，不创建子串，时间与 SQL 长度成线性关系。</p>
+ */
+public final class ModifyGuardScanner {
+
+    private ModifyGuardScanner() {
+    }
+
+    /**
+     * 判定一段 SQL（可能包含多条语句）是否存在无保护的 UPDATE/DELETE。
+     */
+    public static ModifyGuardVerdict scan(String sql) {
+        SqlLexer lexer = new SqlLexer(sql);
+        StatementState statement = new StatementState();
+        for (Token t = lexer.next(); ; t = lexer.next()) {
+            if (t == Token.EOF || (t == Token.SEMICOLON && lexer.depth() == 0)) {
+                ModifyGuardVerdict verdict = statement.finish(lexer);
+                if (verdict != ModifyGuardVerdict.SAFE || t == Token.EOF) {
+                    return verdict;
+                }
+                statement.reset();
+                continue;
+            }
+            statement.accept(lexer, t);
+        }
+    }
+
+    /**
+     * 兼容旧语义：是否存在有效的过滤条件。
+     */
+    public static boolean hasWhereOrLimit(String sql) {
+        return scan(sql) == ModifyGuardVerdict.SAFE;
+    }
+
+    /**
+     * 单条语句的扫描状态（扫描过程中复用，不随词法单元分配对象）。
+     */
+    private static final class StatementState {
+
+        private boolean verbSeen;
+        private boolean modify;
+        private boolean limited;
+        private boolean whereSeen;
+        private boolean inWhere;
+        private boolean predicateTrivial;
+
+        // 当前 OR 分支：是否所有 AND 子条件都恒真
+        private boolean disjunctAllTrivial;
+        private boolean disjunctHasConjunct;
+
+        // 当前 AND 子条件：只记录前三个顶层单元，更多即视为非平凡
+        private int conjunctSize;
+        private boolean conjunctComplex;
+        private boolean betweenPending;
+        private final Token[] types = new Token[3];
+        private final int[] starts = new int[3];
+        private final int[] ends = new int[3];
+
+        void reset() {
+            verbSeen = false;
+            modify = false;
+            limited = false;
+            whereSeen = false;
+            inWhere = false;
+            predicateTrivial = false;
+            resetDisjunct();
+        }
+
+        void accept(SqlLexer lexer, Token t) {
+            boolean top = lexer.depth() == 0 && t != Token.LEFT_PAREN && t != Token.RIGHT_PAREN;
+            if (top && t == Token.WORD) {
+                if (!verbSeen && isVerb(lexer)) {
+                    verbSeen = true;
+                    modify = lexer.isWord("update") || lexer.isWord("delete");
+                    return;
+                }
+                if (lexer.isWord("limit")) {
+                    endPredicate(lexer);
+                    limited = true;
+                    return;
+                }
+                if (!whereSeen && lexer.isWord("where")) {
+                    whereSeen = true;
+                    inWhere = true;
+                    resetDisjunct();
+                    return;
+                }
+                if (inWhere && (lexer.isWord("order") || lexer.isWord("group") || lexer.isWord("having")
+                        || lexer.isWord("returning"))) {
+                    endPredicate(lexer);
+                    return;
+                }
+                if (inWhere && lexer.isWord("and") && !betweenPending) {
+                    endConjunct(lexer);
+                    return;
+                }
+                if (inWhere && lexer.isWord("or")) {
+                    endConjunct(lexer);
+                    endDisjunct();
+                    return;
+                }
+            }
+            if (!inWhere) {
+                return;
+            }
+            if (!top) {
+                // 括号或子查询参与的条件一律按“非平凡”处理（保守放行）
+                conjunctComplex = true;
+                return;
+            }
+            if (t == Token.WORD && lexer.isWord("between")) {
+                betweenPending = true;
+            } else if (t == Token.WORD && lexer.isWord("and")) {
+                betweenPending = false;
+            }
+            if (conjunctSize < 3) {
+                types[conjunctSize] = t;
+                starts[conjunctSize] = lexer.start();
+                ends[conjunctSize] = lexer.end();
+            }
+            conjunctSize++;
+        }
+
+        ModifyGuardVerdict finish(SqlLexer lexer) {
+            endPredicate(lexer);
+            if (!modify || limited || (whereSeen && !predicateTrivial)) {
+                return ModifyGuardVerdict.SAFE;
+            }
+            return whereSeen ? ModifyGuardVerdict.TRIVIAL_WHERE : ModifyGuardVerdict.NO_WHERE;
+        }
+
+        private void endPredicate(SqlLexer lexer) {
+            if (!inWhere) {
+                return;
+            }
+            endConjunct(lexer);
+            endDisjunct();
+            inWhere = false;
+        }
+
+        private void endConjunct(SqlLexer lexer) {
+            if (conjunctSize == 0 && !conjunctComplex) {
+                return;
+            }
+            disjunctHasConjunct = true;
+            disjunctAllTrivial &= !conjunctComplex && isTrivial(lexer);
+            conjunctSize = 0;
+            conjunctComplex = false;
+            betweenPending = false;
+        }
+
+        private void endDisjunct() {
+            if (disjunctHasConjunct && disjunctAllTrivial) {
+                predicateTrivial = true;
+            }
+            resetDisjunct();
+        }
+
+        private void resetDisjunct() {
+            disjunctAllTrivial = true;
+            disjunctHasConjunct = false;
+            conjunctSize = 0;
+            conjunctComplex = false;
+            betweenPending = false;
+        }
+
+        private boolean isTrivial(SqlLexer lexer) {
+            if (conjunctSize == 1) {
+                if (types[0] == Token.WORD) {
+                    return isWord(lexer, 0, "true");
+                }
+                return types[0] == Token.NUMBER && !isZero(lexer.sql(), starts[0], ends[0]);
+            }
+            if (conjunctSize != 3 || types[1] != Token.OPERATOR) {
+                return false;
+            }
+            boolean comparable = (types[0] == types[2])
+                    && (types[0] == Token.NUMBER || types[0] == Token.STRING
+                    || types[0] == Token.WORD || types[0] == Token.QUOTED_IDENTIFIER);
+            if (!comparable) {
+                return false;
+            }
+            boolean same = lexer.regionEquals(starts[0], ends[0], starts[2], ends[2]);
+            String sql = lexer.sql();
+            int opLen = ends[1] - starts[1];
+            boolean equalsOp = (opLen == 1 && sql.charAt(starts[1]) == '=')
+                    || sql.startsWith("<=", starts[1]) && opLen == 2
+                    || sql.startsWith(">=", starts[1]) && opLen == 2
+                    || sql.startsWith("<=>", starts[1]) && opLen == 3;
+            boolean notEqualsOp = opLen == 2 && (sql.startsWith("<>", starts[1]) || sql.startsWith("!=", starts[1]));
+            if (equalsOp) {
+                return same;
+            }
+            // 'a' <> 'b' 这类字面量不等式同样恒真；标识符之间的不等则取决于数据，不算
+            return notEqualsOp && !same && types[0] != Token.WORD && types[0] != Token.QUOTED_IDENTIFIER;
+        }
+
+        private boolean isWord(SqlLexer lexer, int index, String lowerKeyword) {
+            String sql = lexer.sql();
+            return ends[index] - starts[index] == lowerKeyword.length()
+                    && sql.regionMatches(true, starts[index], lowerKeyword, 0, lowerKeyword.length());
+        }
+
+        private static boolean isVerb(SqlLexer lexer) {
+            return lexer.isWord("select") || lexer.isWord("update") || lexer.isWord("delete")
+                    || lexer.isWord("insert") || lexer.isWord("replace") || lexer.isWord("merge");
+        }
+
+        private static boolean isZero(String sql, int start, int end) {
+            for (int i = start; i < end; i++) {
+                char c = sql.charAt(i);
+                if (c != '0' && c != '.') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
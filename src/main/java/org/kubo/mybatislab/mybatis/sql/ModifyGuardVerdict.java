@@ -0,0 +1,26 @@
+package org.kubo.mybatislab.mybatis.sql;
+
+/**
+ * 全表修改检测结论。
+ */
+public enum ModifyGuardVerdict {
+
+    /** 有有效的顶层 WHERE 条件或 LIMIT，放行。 */
+    SAFE("有过滤条件"),
+
+    /** UPDATE/DELETE 没有顶层 WHERE，也没有 LIMIT。 */
+    NO_WHERE("缺少顶层 WHERE 条件"),
+
+    /** 顶层 WHERE 恒为真（如 {@code where 1=1}），等同于全表。 */
+    TRIVIAL_WHERE("WHERE 条件恒为真");
+
+    private final String reason;
+
+    ModifyGuardVerdict(String reason) {
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,171 @@
+package org.kubo.mybatislab.mybatis.sql;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 指纹：把 {@code BoundSql.getSql()} 规范化为“语句形状”，同形状的 SQL 无论参数、字面量、空白与注释如何都得到同一指纹。
+ *
+ * <p>基于 {@link SqlLexer} 单遍切词：</p>
+ * <ul>
+ *   <li>字符串、数字字面量与 {@code ?} 一律替换为 {@code ?}；</li>
+ *   <li>只含占位符的括号列表折叠为 {@code (?+)}，{@code in (?, ?, ?)} 与 {@code in (?)} 同形状；
+ *       多行 {@code values (?+), (?+)} 也只保留一组；</li>
+ *   <li>关键字与普通标识符转小写，注释丢弃，空白统一为单个空格，去掉末尾分号。</li>
+ * </ul>
+ *
+ * <p>MyBatis 的 SQL 字符串大多是同一批实例反复出现，因此按原始 SQL 缓存结果；缓存条数有上限，
+ * 满了整体清空（<code>${}</code> 拼接字面量的 SQL 每次都不同，不能让它们撑大缓存）。</p>
+ */
+@Component
+public class SqlFingerprinter {
+
+    private static final String COLLAPSED_LIST = "(?+)";
+
+    private final int cacheSize;
+    private final ConcurrentHashMap<String, Fingerprint> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SqlFingerprinter(@Value("${mybatis.myPlugins.sqlFingerprint.cacheSize:4096}") int cacheSize) {
+        this.cacheSize = Math.max(1, cacheSize);
+    }
+
+    public Fingerprint fingerprint(String sql) {
+        Fingerprint fingerprint = cache.get(sql);
+        if (fingerprint != null) {
+            hits.increment();
+            return fingerprint;
+        }
+        misses.increment();
+        fingerprint = new Fingerprint(normalize(sql));
+        if (cache.size() >= cacheSize) {
+            cache.clear();
+            evictions.increment();
+        }
+        cache.put(sql, fingerprint);
+        return fingerprint;
+    }
+
+    /**
+     * 规范化为语句形状（不缓存）。
+     */
+    public static String normalize(String sql) {
+        SqlLexer lexer = new SqlLexer(sql);
+        List<String> out = new ArrayList<>();
+        Deque<Integer> parens = new ArrayDeque<>();
+        for (SqlLexer.Token token = lexer.next(); token != SqlLexer.Token.EOF; token = lexer.next()) {
+            switch (token) {
+                case STRING:
+                case NUMBER:
+                case PARAMETER:
+                    out.add("?");
+                    break;
+                case WORD:
+                    out.add(sql.substring(lexer.start(), lexer.end()).toLowerCase(Locale.ROOT));
+                    break;
+                case LEFT_PAREN:
+                    parens.push(out.size());
+                    out.add("(");
+                    break;
+                case RIGHT_PAREN:
+                    closeParen(out, parens.isEmpty() ? -1 : parens.pop());
+                    break;
+                default:
+                    out.add(sql.substring(lexer.start(), lexer.end()));
+                    break;
+            }
+        }
+        while (!out.isEmpty() && ";".equals(out.get(out.size() - 1))) {
+            out.remove(out.size() - 1);
+        }
+        return join(out);
+    }
+
+    /**
+     * 括号内只有 {@code ?} 与逗号时折叠为一个 {@code (?+)}；紧跟在另一个 {@code (?+)} 之后的重复组合并掉。
+     */
+    private static void closeParen(List<String> out, int open) {
+        boolean placeholdersOnly = open >= 0 && out.size() > open + 1;
+        for (int i = open + 1; placeholdersOnly && i < out.size(); i++) {
+            placeholdersOnly = out.get(i).equals((i - open) % 2 == 1 ? "?" : ",");
+        }
+        if (!placeholdersOnly || (out.size() - open) % 2 != 0) {
+            out.add(")");
+            return;
+        }
+        out.subList(open, out.size()).clear();
+        int n = out.size();
+        if (n >= 2 && ",".equals(out.get(n - 1)) && COLLAPSED_LIST.equals(out.get(n - 2))) {
+            out.remove(n - 1);
+            return;
+        }
+        out.add(COLLAPSED_LIST);
+    }
+
+    private static String join(List<String> tokens) {
+        StringBuilder sb = new StringBuilder();
+        String previous = null;
+        for (String token : tokens) {
+            if (previous != null && !"(".equals(previous) && !".".equals(previous)
+                    && !",".equals(token) && !")".equals(token) && !".".equals(token)) {
+                sb.append(' ');
+            }
+            sb.append(token);
+            previous = token;
+        }
+        return sb.toString();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("cached", cache.size());
+        view.put("cacheSize", cacheSize);
+        view.put("hits", hits.sum());
+        view.put("misses", misses.sum());
+        view.put("evictions", evictions.sum());
+        return view;
+    }
+
+    /**
+     * 语句形状及其 64 位散列（16 位十六进制，便于在日志与接口间引用）。
+     */
+    public static final class Fingerprint {
+
+        private final String id;
+        private final String shape;
+
+        Fingerprint(String shape) {
+            this.shape = shape;
+            this.id = String.format("%016x", fnv1a(shape));
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public String shape() {
+            return shape;
+        }
+
+        private static long fnv1a(String s) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < s.length(); i++) {
+                hash ^= s.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package org.kubo.mybatislab.mybatis.sql;
+
+/**
+ * 极简的流式 SQL 词法分析器。
+ *
+ * <p>只做“切词”这一件事，供全表修改检测、SQL 指纹等需要理解 SQL 结构的场景复用：</p>
+ * <ul>
+ *   <li>识别字符串（{@code '...'}、{@code "..."}，支持 {@code ''} 与反斜杠转义）、
+ *       反引号标识符、数字、{@code ?} 占位符、括号、逗号、分号与运算符；</li>
+ *   <li>跳过注释：{@code /* ... *}{@code /}（未闭合则到结尾）、{@code --} 与 {@code #} 到行尾（无换行则到结尾）；</li>
+ *   <li>维护括号嵌套深度，调用方据此区分顶层子句与子查询/函数参数中的内容。</li>
+ * </ul>
+ *
+ * <p>按 MySQL 语义把双引号视为字符串。整个过程对输入只遍历一次（线性时间），
+ * 词法单元以 [start, end) 偏移量表示，不产生任何子串；实例本身只有几个基本类型字段。</p>
+ */
+public final class SqlLexer {
+
+    /**
+     * 词法单元类型。
+     */
+    public enum Token {
+        /** 关键字或普通标识符。 */
+        WORD,
+        /** 反引号包裹的标识符。 */
+        QUOTED_IDENTIFIER,
+        /** 字符串字面量（含两侧引号）。 */
+        STRING,
+        /** 数字字面量（含小数、科学计数法与 0x 十六进制）。 */
+        NUMBER,
+        /** JDBC 占位符 {@code ?}。 */
+        PARAMETER,
+        LEFT_PAREN,
+        RIGHT_PAREN,
+        COMMA,
+        SEMICOLON,
+        /** 其它符号：比较/算术/逻辑运算符、点号等。 */
+        OPERATOR,
+        EOF
+    }
+
+    private final String sql;
+    private final int length;
+    private int pos;
+    private int start;
+    private int end;
+    private int depth;
+    private int tokenDepth;
+    private Token token;
+
+    public SqlLexer(String sql) {
+        this.sql = sql;
+        this.length = sql.length();
+    }
+
+    /**
+     * 前进到下一个词法单元并返回其类型；到达结尾后始终返回 {@link Token#EOF}。
+     */
+    public Token next() {
+        skipWhitespaceAndComments();
+        start = pos;
+        tokenDepth = depth;
+        if (pos >= length) {
+            end = pos;
+            return token = Token.EOF;
+        }
+        char c = sql.charAt(pos);
+        if (c == '\'' || c == '"') {
+            pos = skipQuoted(pos, c);
+            token = Token.STRING;
+        } else if (c == '`') {
+            pos = skipQuoted(pos, '`');
+            token = Token.QUOTED_IDENTIFIER;
+        } else if (isDigit(c) || (c == '.' && pos + 1 < length && isDigit(sql.charAt(pos + 1)))) {
+            pos = skipNumber(pos);
+            token = Token.NUMBER;
+        } else if (isIdentifierStart(c)) {
+            pos++;
+            while (pos < length && isIdentifierPart(sql.charAt(pos))) {
+                pos++;
+            }
+            token = Token.WORD;
+        } else if (c == '(') {
+            pos++;
+            depth++;
+            token = Token.LEFT_PAREN;
+        } else if (c == ')') {
+            pos++;
+            if (depth > 0) {
+                depth--;
+            }
+            tokenDepth = depth;
+            token = Token.RIGHT_PAREN;
+        } else if (c == ',') {
+            pos++;
+            token = Token.COMMA;
+        } else if (c == ';') {
+            pos++;
+            token = Token.SEMICOLON;
+        } else if (c == '?') {
+            pos++;
+            token = Token.PARAMETER;
+        } else {
+            pos = skipOperator(pos);
+            token = Token.OPERATOR;
+        }
+        end = pos;
+        return token;
+    }
+
+    public Token token() {
+        return token;
+    }
+
+    /** 当前词法单元的起始偏移（含）。 */
+    public int start() {
+        return start;
+    }
+
+    /** 当前词法单元的结束偏移（不含）。 */
+    public int end() {
+        return end;
+    }
+
+    /**
+     * 当前词法单元所在的括号深度：顶层为 0；左右括号本身算在外层。
+     */
+    public int depth() {
+        return tokenDepth;
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    /**
+     * 当前单元是否为给定关键字（大小写不敏感；参数须为小写）。
+     */
+    public boolean isWord(String lowerKeyword) {
+        return token == Token.WORD && regionEqualsIgnoreCase(start, end, lowerKeyword);
+    }
+
+    /**
+     * 当前单元的文本是否等于给定字符串（区分大小写），用于运算符判断。
+     */
+    public boolean textEquals(String text) {
+        return end - start == text.length() && sql.startsWith(text, start);
+    }
+
+    /**
+     * 比较两个区间的原文是否完全一致。
+     */
+    public boolean regionEquals(int s1, int e1, int s2, int e2) {
+        return e1 - s1 == e2 - s2 && sql.regionMatches(s1, sql, s2, e1 - s1);
+    }
+
+    private boolean regionEqualsIgnoreCase(int s, int e, String lowerKeyword) {
+        if (e - s != lowerKeyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerKeyword.length(); i++) {
+            char c = sql.charAt(s + i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != lowerKeyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipWhitespaceAndComments() {
+        while (pos < length) {
+            char c = sql.charAt(pos);
+            if (c <= ' ' || Character.isWhitespace(c)) {
+                pos++;
+            } else if (c == '/' && pos + 1 < length && sql.charAt(pos + 1) == '*') {
+                int close = sql.indexOf("*/", pos + 2);
+                pos = close < 0 ? length : close + 2;
+            } else if (c == '#' || (c == '-' && pos + 1 < length && sql.charAt(pos + 1) == '-')) {
+                while (pos < length && sql.charAt(pos) != '\n') {
+                    pos++;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private int skipQuoted(int from, char quote) {
+        int i = from + 1;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                    // '' / "" / `` 转义
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        // 未闭合的引号：吞到结尾，宁可保守也不把引号里的内容当成关键字
+        return length;
+    }
+
+    private int skipNumber(int from) {
+        int i = from;
+        if (sql.charAt(i) == '0' && i + 1 < length && (sql.charAt(i + 1) == 'x' || sql.charAt(i + 1) == 'X')) {
+            i += 2;
+            while (i < length && Character.digit(sql.charAt(i), 16) >= 0) {
+                i++;
+            }
+            return i;
+        }
+        while (i < length && (isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+            i++;
+        }
+        if (i < length && (sql.charAt(i) == 'e' || sql.charAt(i) == 'E')) {
+            int j = i + 1;
+            if (j < length && (sql.charAt(j) == '+' || sql.charAt(j) == '-')) {
+                j++;
+            }
+            if (j < length && isDigit(sql.charAt(j))) {
+                i = j;
+                while (i < length && isDigit(sql.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+    private int skipOperator(int from) {
+        if (from + 1 < length) {
+            char a = sql.charAt(from);
+            char b = sql.charAt(from + 1);
+            if (a == '<' && b == '=' && from + 2 < length && sql.charAt(from + 2) == '>') {
+                return from + 3;
+            }
+            if ((a == '<' && (b == '=' || b == '>')) || (a == '>' && b == '=') || (a == '!' && b == '=')
+                    || (a == '|' && b == '|') || (a == '&' && b == '&') || (a == ':' && b == '=')) {
+                return from + 2;
+            }
+        }
+        return from + 1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '$';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
@@ -0,0 +1,177 @@
+package org.kubo.mybatislab.mybatis.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁、分段（striped）的对数-线性延迟直方图。
+ *
+ * <p>设计要点：</p>
+ * <ul>
+ *   <li>桶划分：小于 16 的值每个值一个桶；其余按 2 的幂分段，每段再等分 16 个子桶，相对误差约 6%。</li>
+ *   <li>写入：按线程散列到若干条带（stripe），每个条带是一个 {@link AtomicLongArray}，
+ *       只做一次 {@code getAndIncrement}，不加锁、竞争被条带摊薄。</li>
+ *   <li>读取：快照时把各条带相加，计算分位数；读取方付出代价，热路径保持最轻。</li>
+ * </ul>
+ *
+ * <p>记录单位由调用方决定（本项目中统一用纳秒）。超过上限的值会落入最后一个桶，但 max 仍然精确。</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** 最高可区分的指数：2^36 ns ≈ 68 秒，再大的值并入最后一个桶。 */
+    private static final int MAX_EXPONENT = 36;
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+    private static final long MAX_TRACKABLE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private static final int STRIPES = stripeCount();
+
+    private final AtomicLongArray[] stripes;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        this.stripes = new AtomicLongArray[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT);
+        }
+    }
+
+    /**
+     * 记录一个非负值。
+     */
+    public void record(long value) {
+        long v = value < 0 ? 0 : value;
+        stripes[stripeIndex()].getAndIncrement(bucketIndex(v));
+        count.increment();
+        sum.add(v);
+        long currentMax = max.get();
+        // 先读后 CAS：绝大多数样本都不会刷新最大值，避免无谓的写竞争
+        while (v > currentMax && !max.compareAndSet(currentMax, v)) {
+            currentMax = max.get();
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * 生成只读快照，快照期间仍可并发写入（结果是近似一致的）。
+     */
+    public Snapshot snapshot() {
+        long[] merged = new long[BUCKET_COUNT];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                merged[i] += stripe.get(i);
+            }
+        }
+        return new Snapshot(merged, sum.sum(), max.get());
+    }
+
+    /**
+     * 清零。与并发写入之间不保证原子性，仅用于运维上的“重新开始统计”。
+     */
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                stripe.set(i, 0);
+            }
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucketIndex(long value) {
+        long v = Math.min(value, MAX_TRACKABLE);
+        if (v < SUB_BUCKET_COUNT) {
+            return (int) v;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (v >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + sub;
+    }
+
+    /**
+     * 桶内可能出现的最大值（分位数按上界报告，偏保守）。
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int sub = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lower = (long) (SUB_BUCKET_COUNT + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    private static int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h >>> 16) & (STRIPES - 1);
+    }
+
+    private static int stripeCount() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int n = Integer.highestOneBit(Math.max(1, cpus - 1)) << 1;
+        return Math.min(8, Math.max(1, n));
+    }
+
+    /**
+     * 直方图快照。
+     */
+    public static final class Snapshot {
+
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] buckets, long sum, long max) {
+            this.buckets = buckets;
+            long total = 0;
+            for (long b : buckets) {
+                total += b;
+            }
+            this.count = total;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile 0~100
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100.0 * count);
+            rank = Math.max(1, Math.min(count, rank));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
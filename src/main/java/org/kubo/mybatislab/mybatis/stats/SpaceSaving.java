@@ -0,0 +1,149 @@
+package org.kubo.mybatislab.mybatis.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 加权 Space-Saving 算法：只用固定 {@code capacity} 个计数器，近似找出权重最大的 K 个键。
+ *
+ * <p>键已被跟踪时累加权重；未被跟踪且计数器已满时，替换权重最小的计数器，新键继承它的权重并记为误差
+ * （真实值落在 {@code [count - error, count]} 之间）。任何真实权重超过总权重 {@code 1/capacity} 的键都一定在表中。</p>
+ *
+ * <p>计数器按权重组织成最小堆，每次更新 O(log capacity)。非线程安全，由调用方加锁。</p>
+ *
+ * @param <V> 计数器附带的信息（首次出现时创建，替换时重建）
+ */
+final class SpaceSaving<V> {
+
+    private final Counter<V>[] heap;
+    private final HashMap<String, Counter<V>> index;
+    private int size;
+    private long total;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    SpaceSaving(int capacity) {
+        this.heap = new Counter[Math.max(1, capacity)];
+        this.index = new HashMap<>(heap.length * 2);
+    }
+
+    /**
+     * 累加权重，返回该键当前的计数器；调用方可更新其中的附带信息。
+     *
+     * <p>附带信息只在新建或替换计数器时由 {@code factory.apply(source)} 创建，键已被跟踪时不产生任何分配
+     * （factory 传不捕获变量的方法引用即可）。</p>
+     */
+    <S> Counter<V> offer(String key, long weight, S source, Function<? super S, ? extends V> factory) {
+        total += weight;
+        Counter<V> counter = index.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.position);
+            return counter;
+        }
+        if (size < heap.length) {
+            counter = new Counter<>(key, factory.apply(source));
+            counter.count = weight;
+            counter.position = size;
+            heap[size++] = counter;
+            index.put(key, counter);
+            siftUp(counter.position);
+            return counter;
+        }
+        counter = heap[0];
+        index.remove(counter.key);
+        counter.key = key;
+        counter.value = factory.apply(source);
+        counter.error = counter.count;
+        counter.count += weight;
+        index.put(key, counter);
+        siftDown(0);
+        return counter;
+    }
+
+    /**
+     * 按估算权重降序返回前 limit 个计数器。
+     */
+    List<Counter<V>> top(int limit) {
+        Counter<V>[] copy = Arrays.copyOf(heap, size);
+        Arrays.sort(copy, Comparator.comparingLong((Counter<V> c) -> c.count).reversed());
+        List<Counter<V>> list = new ArrayList<>(Math.min(limit, size));
+        for (int i = 0; i < copy.length && i < limit; i++) {
+            list.add(copy[i]);
+        }
+        return list;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return heap.length;
+    }
+
+    long total() {
+        return total;
+    }
+
+    void clear() {
+        Arrays.fill(heap, null);
+        index.clear();
+        size = 0;
+        total = 0;
+    }
+
+    private void siftUp(int i) {
+        Counter<V> counter = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(counter, i);
+    }
+
+    private void siftDown(int i) {
+        Counter<V> counter = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], i);
+            i = child;
+        }
+        place(counter, i);
+    }
+
+    private void place(Counter<V> counter, int i) {
+        heap[i] = counter;
+        counter.position = i;
+    }
+
+    static final class Counter<V> {
+
+        String key;
+        V value;
+        /** 估算权重（可能偏大，最多偏大 error）。 */
+        long count;
+        long error;
+        int position;
+
+        Counter(String key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.kubo.mybatislab.mybatis.stats;
+
+import org.kubo.mybatislab.mybatis.sql.SqlFingerprinter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 SQL 指纹统计最重的语句形状：调用次数 Top-K 与总耗时 Top-K 各一个 {@link SpaceSaving}，
+ * 内存固定为 {@code 2 × capacity} 个计数器，加上 {@link SqlFingerprinter} 的有界缓存。
+ *
+ * <p>{@code /api/sql/stats} 按 statement id 统计，动态 SQL 的不同分支混在一起；按原始 SQL 统计又会因为
+ * 字面量与 IN 列表长度无限膨胀。这里按指纹（语句形状）聚合，且只保留最重的若干个。</p>
+ *
+ * <p>数据由 {@code SqlCostInterceptor} 在每条语句执行后上报；两个结构在同一把锁下更新（每次 O(log capacity)）。</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "mybatis.myPlugins.heavyHitters", name = "enabled", havingValue = "true")
+public class SqlHeavyHitters {
+
+    private final SqlFingerprinter fingerprinter;
+    private final SpaceSaving<Shape> byCalls;
+    private final SpaceSaving<Shape> byTime;
+
+    public SqlHeavyHitters(SqlFingerprinter fingerprinter,
+                           @Value("${mybatis.myPlugins.heavyHitters.capacity:128}") int capacity) {
+        this.fingerprinter = fingerprinter;
+        this.byCalls = new SpaceSaving<>(capacity);
+        this.byTime = new SpaceSaving<>(capacity);
+    }
+
+    public void record(String statementId, String sql, long nanos) {
+        SqlFingerprinter.Fingerprint fingerprint = fingerprinter.fingerprint(sql);
+        String key = fingerprint.id();
+        synchronized (this) {
+            byCalls.offer(key, 1, fingerprint, Shape::new).value.observe(statementId, nanos);
+            byTime.offer(key, Math.max(1, nanos), fingerprint, Shape::new).value.observe(statementId, nanos);
+        }
+    }
+
+    /**
+     * @param by    {@code calls} 或 {@code time}
+     * @param limit 返回条数
+     */
+    public List<Map<String, Object>> top(String by, int limit) {
+        boolean time = "time".equalsIgnoreCase(by);
+        List<Map<String, Object>> list = new ArrayList<>();
+        synchronized (this) {
+            for (SpaceSaving.Counter<Shape> counter : (time ? byTime : byCalls).top(Math.max(1, limit))) {
+                Shape shape = counter.value;
+                Map<String, Object> view = new LinkedHashMap<>();
+                view.put("fingerprint", counter.key);
+                view.put("shape", shape.fingerprint.shape());
+                view.put("statementId", shape.lastStatementId);
+                if (time) {
+                    view.put("estimatedTotalMs", toMillis(counter.count));
+                    view.put("errorMs", toMillis(counter.error));
+                } else {
+                    view.put("estimatedCalls", counter.count);
+                    view.put("error", counter.error);
+                }
+                // 以下为进入 Top-K 之后的精确值
+                view.put("trackedCalls", shape.calls);
+                view.put("trackedTotalMs", toMillis(shape.nanos));
+                view.put("trackedMeanMs", shape.calls == 0 ? 0 : toMillis((double) shape.nanos / shape.calls));
+                view.put("trackedMaxMs", toMillis(shape.maxNanos));
+                list.add(view);
+            }
+        }
+        return list;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("enabled", true);
+        synchronized (this) {
+            view.put("capacity", byCalls.capacity());
+            view.put("trackedByCalls", byCalls.size());
+            view.put("trackedByTime", byTime.size());
+            view.put("totalCalls", byCalls.total());
+            view.put("totalMs", toMillis(byTime.total()));
+        }
+        view.put("fingerprintCache", fingerprinter.stats());
+        return view;
+    }
+
+    public synchronized void reset() {
+        byCalls.clear();
+        byTime.clear();
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+
+    /**
+     * 计数器附带的信息：语句形状与进入 Top-K 之后观察到的精确次数与耗时。
+     */
+    static final class Shape {
+
+        final SqlFingerprinter.Fingerprint fingerprint;
+        String lastStatementId;
+        long calls;
+        long nanos;
+        long maxNanos;
+
+        Shape(SqlFingerprinter.Fingerprint fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        void observe(String statementId, long costNanos) {
+            lastStatementId = statementId;
+            calls++;
+            nanos += costNanos;
+            maxNanos = Math.max(maxNanos, costNanos);
+        }
+    }
+}
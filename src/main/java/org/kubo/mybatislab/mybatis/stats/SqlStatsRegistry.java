@@ -0,0 +1,49 @@
+package org.kubo.mybatislab.mybatis.stats;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按 MappedStatement id 聚合的 SQL 执行统计注册表。
+ *
+ * <p>热路径只有一次 {@link ConcurrentHashMap#get}（命中后无锁），
+ * 首次出现的 statement 才会走 {@code computeIfAbsent}。</p>
+ */
+@Component
+public class SqlStatsRegistry {
+
+    private final ConcurrentHashMap<String, StatementStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 获取（必要时创建）某个 statement 的统计对象。
+     */
+    public StatementStats statement(String statementId) {
+        StatementStats s = stats.get(statementId);
+        if (s == null) {
+            s = stats.computeIfAbsent(statementId, StatementStats::new);
+        }
+        return s;
+    }
+
+    /**
+     * 所有 statement 的统计视图，按执行次数倒序。
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<StatementStats> all = new ArrayList<>(stats.values());
+        all.sort(Comparator.comparingLong(StatementStats::count).reversed());
+        List<Map<String, Object>> views = new ArrayList<>(all.size());
+        for (StatementStats s : all) {
+            views.add(s.toView());
+        }
+        return views;
+    }
+
+    public void reset() {
+        stats.values().forEach(StatementStats::reset);
+    }
+}
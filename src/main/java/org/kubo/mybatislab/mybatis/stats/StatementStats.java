@@ -0,0 +1,92 @@
+package org.kubo.mybatislab.mybatis.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个 MappedStatement 的执行统计：延迟直方图 + 错误计数，以及 prepare 次数/耗时与语句复用次数。
+ */
+public final class StatementStats {
+
+    private final String statementId;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram prepareLatency = new LatencyHistogram();
+    private final LongAdder reused = new LongAdder();
+
+    StatementStats(String statementId) {
+        this.statementId = statementId;
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    /**
+     * 记录一次执行。
+     *
+     * @param costNanos 耗时（纳秒）
+     * @param failed    是否以异常结束
+     */
+    public void record(long costNanos, boolean failed) {
+        latency.record(costNanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * 记录一次 {@code StatementHandler#prepare}（创建 JDBC Statement）的耗时。
+     */
+    public void recordPrepare(long costNanos) {
+        prepareLatency.record(costNanos);
+    }
+
+    /**
+     * 记录一次复用已 prepare 的 Statement（REUSE / BATCH 执行器）。
+     */
+    public void recordReuse() {
+        reused.increment();
+    }
+
+    public long count() {
+        return latency.count();
+    }
+
+    void reset() {
+        latency.reset();
+        errors.reset();
+        prepareLatency.reset();
+        reused.reset();
+    }
+
+    /**
+     * 转换为便于 JSON 输出的视图，延迟单位为毫秒（保留三位小数）。
+     */
+    public Map<String, Object> toView() {
+        LatencyHistogram.Snapshot s = latency.snapshot();
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("statementId", statementId);
+        view.put("count", s.getCount());
+        view.put("errors", errors.sum());
+        view.put("meanMs", toMillis(s.getMean()));
+        view.put("p50Ms", toMillis(s.getValueAtPercentile(50)));
+        view.put("p90Ms", toMillis(s.getValueAtPercentile(90)));
+        view.put("p99Ms", toMillis(s.getValueAtPercentile(99)));
+        view.put("maxMs", toMillis(s.getMax()));
+        LatencyHistogram.Snapshot p = prepareLatency.snapshot();
+        if (p.getCount() > 0 || reused.sum() > 0) {
+            view.put("prepares", p.getCount());
+            view.put("reused", reused.sum());
+            view.put("prepareMeanMs", toMillis(p.getMean()));
+            view.put("prepareP99Ms", toMillis(p.getValueAtPercentile(99)));
+        }
+        return view;
+    }
+
+    static double toMillis(double nanos) {
+        return Math.round(nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+}
@@ -42,12 +42,13 @@ public class CacheDemoController {
     }
 
     /**
-     * 执行更新以演示缓存失效：更新操作会清空当前命名空间的二级缓存。
+     * 执行更新以演示缓存失效：updateOne 声明了 {@code @InvalidateTags("user:1")}，
+     * 只失效 id=1 的条目与 findAll 等集合查询，其它 findById 条目仍然命中。
      */
     @GetMapping("/api/cache/evict")
     public String evictByUpdate() {
         userMapper.updateOne();
-        return "Updated one row and flushed second-level cache for UserMapper namespace";
+        return "Updated one row and invalidated second-level cache entries tagged user:1 (and the user collection)";
     }
 }
 
@@ -1,15 +1,34 @@
 package org.kubo.mybatislab.user.controller;
 
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.mybatis.reuse.StatementReuseTemplate;
+import org.kubo.mybatislab.user.model.BulkWriteResult;
 import org.kubo.mybatislab.user.model.User;
+import org.kubo.mybatislab.user.model.UserPage;
+import org.kubo.mybatislab.user.service.UserBatchLoader;
+import org.kubo.mybatislab.user.service.UserBulkService;
+import org.kubo.mybatislab.user.service.UserPageService;
+import org.kubo.mybatislab.user.service.UserStreamService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -21,21 +40,97 @@ public class UserController {
 
     private final UserMapper userMapper;
     private final SqlSessionFactory sqlSessionFactory;
+    private final UserBatchLoader userBatchLoader;
+    private final UserStreamService userStreamService;
+    private final UserPageService userPageService;
+    private final UserBulkService userBulkService;
+    private final StatementReuseTemplate statementReuseTemplate;
     private final ReentrantLock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition(); ;
 
 
-    public UserController(UserMapper userMapper, SqlSessionFactory sqlSessionFactory) {
+    public UserController(UserMapper userMapper, SqlSessionFactory sqlSessionFactory, UserBatchLoader userBatchLoader,
+                          UserStreamService userStreamService, UserPageService userPageService,
+                          UserBulkService userBulkService, StatementReuseTemplate statementReuseTemplate) {
         this.userMapper = userMapper;
         this.sqlSessionFactory = sqlSessionFactory;
+        this.userBatchLoader = userBatchLoader;
+        this.userStreamService = userStreamService;
+        this.userPageService = userPageService;
+        this.userBulkService = userBulkService;
+        this.statementReuseTemplate = statementReuseTemplate;
     }
 
     /**
-     * 按 ID 查询用户。
+     * 按 ID 查询用户。开启 mybatis.myPlugins.userBatchLoader.enabled 时并发请求经 UserBatchLoader 合并为 in 查询，
+     * 默认关闭，逐条 findById（可命中二级缓存）。
      */
     @GetMapping("/api/users/{id}")
     public User getById(@PathVariable Long id) {
-        return userMapper.findById(id);
+        return userBatchLoader.findById(id);
+    }
+
+    /**
+     * keyset 分页查询：带 size 参数时生效，token 为上一页返回的 nextToken（首页不传）。
+     */
+    @GetMapping(value = "/api/users", params = "size")
+    public UserPage page(@RequestParam int size, @RequestParam(required = false) String token) {
+        try {
+            return userPageService.page(token, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 流式导出全部用户：游标逐行读取、逐行写出，内存占用与表大小无关。
+     *
+     * @param format ndjson（默认，每行一个 JSON 对象）或 array（分块写出的 JSON 数组）
+     */
+    @GetMapping("/api/users/stream")
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(defaultValue = "ndjson") String format) {
+        boolean array = "array".equalsIgnoreCase(format);
+        // 在异步写出线程里才打开 SqlSession，连接只在写出期间占用
+        StreamingResponseBody body = out -> userStreamService.writeAll(out, array);
+        return ResponseEntity.ok()
+                .contentType(array ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * 合并加载器统计：批次大小、调用方等待时间、实际查询次数。
+     */
+    @GetMapping("/api/users/batch-loader/stats")
+    public Map<String, Object> batchLoaderStats() {
+        return userBatchLoader.stats();
+    }
+
+    @PostMapping("/api/users/batch-loader/stats/reset")
+    public String resetBatchLoaderStats() {
+        userBatchLoader.resetStats();
+        return "User batch loader stats reset";
+    }
+
+    /**
+     * 语句复用演示：在一个会话内按 ID 1..count 逐条 findById，对比 SIMPLE（每次 prepare）与 REUSE（只 prepare 一次）。
+     * prepare / 复用次数与 prepare 耗时见 GET /api/sql/stats。
+     */
+    @GetMapping("/api/users/reuse-demo")
+    public Map<String, Object> reuseDemo(@RequestParam(defaultValue = "1000") int count,
+                                         @RequestParam(required = false) ExecutorType executorType) {
+        ExecutorType type = executorType != null ? executorType : statementReuseTemplate.getExecutorType();
+        long start = System.nanoTime();
+        long found = statementReuseTemplate.execute(type, UserMapper.class, mapper -> {
+            long hits = 0;
+            for (long id = 1; id <= count; id++) {
+                if (mapper.findById(id) != null) {
+                    hits++;
+                }
+            }
+            return hits;
+        });
+        return Map.of("executorType", type.name(), "lookups", count, "found", found,
+                "elapsedMs", (System.nanoTime() - start) / 1_000_000.0);
     }
 
     /**
@@ -48,6 +143,59 @@ public class UserController {
     }
 
 
+    /**
+     * 批量插入（BATCH 执行器，每 flushSize 行 flush 一次；不传则用配置值）。
+     */
+    @PostMapping("/api/users/bulk/insert")
+    public BulkWriteResult bulkInsert(@RequestBody List<User> users, @RequestParam(required = false) Integer flushSize) {
+        return userBulkService.insert(users, flushSize);
+    }
+
+    /**
+     * 按 ID 批量更新 username/email。
+     */
+    @PostMapping("/api/users/bulk/update")
+    public BulkWriteResult bulkUpdate(@RequestBody List<User> users, @RequestParam(required = false) Integer flushSize) {
+        return userBulkService.update(users, flushSize);
+    }
+
+    /**
+     * 批量 upsert：ID 已存在则更新，否则插入。
+     */
+    @PostMapping("/api/users/bulk/upsert")
+    public BulkWriteResult bulkUpsert(@RequestBody List<User> users, @RequestParam(required = false) Integer flushSize) {
+        return userBulkService.upsert(users, flushSize);
+    }
+
+    /**
+     * 生成并批量插入 count 个演示用户（逐个生成，不在内存中攒列表），用于观察 flushSize 与 rewriteBatchedStatements 的效果。
+     */
+    @PostMapping("/api/users/bulk/generate")
+    public BulkWriteResult bulkGenerate(@RequestParam(defaultValue = "10000") int count,
+                                        @RequestParam(required = false) Integer flushSize) {
+        Iterable<User> users = () -> new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public User next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                User user = new User();
+                user.setUsername("bulk-" + next);
+                user.setEmail("bulk-" + next + "@example.com");
+                next++;
+                return user;
+            }
+        };
+        return userBulkService.insert(users, flushSize);
+    }
+
     @GetMapping("/api/users/updateAll")
     public String updateAll() {
         userMapper.updateAll();
@@ -0,0 +1,102 @@
+package org.kubo.mybatislab.user.model;
+
+import java.util.List;
+
+/**
+ * 批量写入结果：按每次 {@code flushStatements} 汇总的 {@code BatchResult} 计数。
+ *
+ * <p>驱动开启 {@code rewriteBatchedStatements} 时，MySQL 对改写后的批次返回
+ * {@code Statement.SUCCESS_NO_INFO}（-2），无法得知逐行影响数，这类语句计入 {@code successNoInfo}。</p>
+ */
+public class BulkWriteResult {
+
+    private final String operation;
+    private final long rows;
+    private final long affectedRows;
+    private final long successNoInfo;
+    private final long elapsedMs;
+    private final int flushCount;
+    private final List<Flush> flushes;
+
+    public BulkWriteResult(String operation, long rows, long affectedRows, long successNoInfo, long elapsedMs,
+                           int flushCount, List<Flush> flushes) {
+        this.operation = operation;
+        this.rows = rows;
+        this.affectedRows = affectedRows;
+        this.successNoInfo = successNoInfo;
+        this.elapsedMs = elapsedMs;
+        this.flushCount = flushCount;
+        this.flushes = flushes;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getAffectedRows() {
+        return affectedRows;
+    }
+
+    public long getSuccessNoInfo() {
+        return successNoInfo;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * 各次 flush 的明细（只保留前若干次，总次数见 {@link #getFlushCount()}）。
+     */
+    public List<Flush> getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * 一次 flush 中某条语句（一个 BatchResult）的计数。
+     */
+    public static class Flush {
+
+        private final int flush;
+        private final String statementId;
+        private final int statements;
+        private final long affectedRows;
+        private final int successNoInfo;
+
+        public Flush(int flush, String statementId, int statements, long affectedRows, int successNoInfo) {
+            this.flush = flush;
+            this.statementId = statementId;
+            this.statements = statements;
+            this.affectedRows = affectedRows;
+            this.successNoInfo = successNoInfo;
+        }
+
+        public int getFlush() {
+            return flush;
+        }
+
+        public String getStatementId() {
+            return statementId;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getAffectedRows() {
+            return affectedRows;
+        }
+
+        public int getSuccessNoInfo() {
+            return successNoInfo;
+        }
+    }
+}
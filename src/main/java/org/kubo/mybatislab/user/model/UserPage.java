@@ -0,0 +1,27 @@
+package org.kubo.mybatislab.user.model;
+
+import java.util.List;
+
+/**
+ * 一页用户数据。
+ *
+ * <p>{@code nextToken} 为不透明的续页令牌，原样传回即可取下一页；为 null 表示已经是最后一页。</p>
+ */
+public class UserPage {
+
+    private final List<User> items;
+    private final String nextToken;
+
+    public UserPage(List<User> items, String nextToken) {
+        this.items = items;
+        this.nextToken = nextToken;
+    }
+
+    public List<User> getItems() {
+        return items;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+}
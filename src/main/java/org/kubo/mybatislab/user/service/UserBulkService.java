@@ -0,0 +1,111 @@
+package org.kubo.mybatislab.user.service;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.user.model.BulkWriteResult;
+import org.kubo.mybatislab.user.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * 用户批量写入：在 {@link ExecutorType#BATCH} 会话中逐行调用 Mapper，每 {@code flushSize} 行 {@code flushStatements} 一次。
+ *
+ * <ul>
+ *   <li>BatchExecutor 对连续相同的 SQL 复用同一个 PreparedStatement、只做 {@code addBatch}，flush 时一次 {@code executeBatch}；</li>
+ *   <li>MySQL 需在 JDBC URL 上加 {@code rewriteBatchedStatements=true}，驱动才会把一批 insert 改写成多值 insert，
+ *       否则仍是逐条往返；改写后的批次返回 {@code SUCCESS_NO_INFO}，见 {@link BulkWriteResult}；</li>
+ *   <li>flush 之后执行器清空已执行的参数对象，配合 {@link Iterable} 入参，内存只与 flushSize 有关；</li>
+ *   <li>整个批量写入是一个事务：全部成功才提交，任一批失败则回滚。处于 Spring 事务中时由外层事务提交。</li>
+ * </ul>
+ */
+@Component
+public class UserBulkService {
+
+    /** 结果中保留的 flush 明细条数上限。 */
+    private static final int MAX_FLUSH_DETAILS = 100;
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final int defaultFlushSize;
+
+    public UserBulkService(SqlSessionFactory sqlSessionFactory,
+                           @Value("${mybatis.myPlugins.userBulk.flushSize:1000}") int defaultFlushSize) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.defaultFlushSize = Math.max(1, defaultFlushSize);
+    }
+
+    public BulkWriteResult insert(Iterable<User> users, Integer flushSize) {
+        return execute("insert", users, flushSize, UserMapper::insertUser);
+    }
+
+    public BulkWriteResult update(Iterable<User> users, Integer flushSize) {
+        return execute("update", users, flushSize, UserMapper::updateUser);
+    }
+
+    public BulkWriteResult upsert(Iterable<User> users, Integer flushSize) {
+        return execute("upsert", users, flushSize, UserMapper::upsertUser);
+    }
+
+    private BulkWriteResult execute(String operation, Iterable<User> users, Integer flushSize,
+                                    BiConsumer<UserMapper, User> write) {
+        int batchSize = flushSize == null || flushSize <= 0 ? defaultFlushSize : flushSize;
+        long start = System.nanoTime();
+        Totals totals = new Totals();
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            for (User user : users) {
+                write.accept(mapper, user);
+                if (++totals.rows % batchSize == 0) {
+                    totals.add(session.flushStatements());
+                }
+            }
+            totals.add(session.flushStatements());
+            session.commit();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("[批量写入] " + operation + " rows=" + totals.rows + ", flushSize=" + batchSize
+                + ", flushes=" + totals.flushCount + ", 耗时: " + elapsedMs + " ms");
+        return new BulkWriteResult(operation, totals.rows, totals.affectedRows, totals.successNoInfo, elapsedMs,
+                totals.flushCount, totals.details);
+    }
+
+    private static final class Totals {
+
+        long rows;
+        long affectedRows;
+        long successNoInfo;
+        int flushCount;
+        final List<BulkWriteResult.Flush> details = new ArrayList<>();
+
+        void add(List<BatchResult> results) {
+            if (results.isEmpty()) {
+                return;
+            }
+            flushCount++;
+            for (BatchResult result : results) {
+                long affected = 0;
+                int noInfo = 0;
+                for (int count : result.getUpdateCounts()) {
+                    if (count >= 0) {
+                        affected += count;
+                    } else if (count == Statement.SUCCESS_NO_INFO) {
+                        noInfo++;
+                    }
+                }
+                affectedRows += affected;
+                successNoInfo += noInfo;
+                if (details.size() < MAX_FLUSH_DETAILS) {
+                    details.add(new BulkWriteResult.Flush(flushCount, result.getMappedStatement().getId(),
+                            result.getUpdateCounts().length, affected, noInfo));
+                }
+            }
+        }
+    }
+}
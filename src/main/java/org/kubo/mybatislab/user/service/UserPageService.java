@@ -0,0 +1,167 @@
+package org.kubo.mybatislab.user.service;
+
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.user.model.User;
+import org.kubo.mybatislab.user.model.UserPage;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于主键的 keyset（seek）分页。
+ *
+ * <p>每页都是 {@code where id > #{afterId} order by id limit #{limit}}，走主键索引定位起点，
+ * 第 N 页与第 1 页代价相同；OFFSET 分页则要先扫描并丢弃前面所有行。多取一行用来判断是否还有下一页。</p>
+ *
+ * <p>续页令牌是 {@code v1:<afterId>} 的 Base64URL 编码，对调用方不透明，以后换排序键时只需升级版本号。</p>
+ *
+ * <p>可选预取（{@code prefetch=true}）：返回一页后在后台线程查好下一页，放进一个有界、短 TTL 的表里；
+ * 下一次请求命中则直接返回。预取结果最多比数据库旧 {@code prefetchTtlMs}，适合导出任务与列表翻页，
+ * 不适合需要读到刚写入数据的场景。预取线程池满时直接放弃，不影响当前请求。</p>
+ */
+@Component
+public class UserPageService implements DisposableBean {
+
+    private static final String TOKEN_VERSION = "v1:";
+
+    private final UserMapper userMapper;
+    private final int maxPageSize;
+    private final boolean prefetch;
+    private final long prefetchTtlNanos;
+    private final int prefetchMaxEntries;
+    private final ConcurrentHashMap<PageKey, Prefetched> prefetched = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor prefetchExecutor;
+
+    public UserPageService(
+            UserMapper userMapper,
+            @Value("${mybatis.myPlugins.userPage.maxPageSize:1000}") int maxPageSize,
+            @Value("${mybatis.myPlugins.userPage.prefetch:false}") boolean prefetch,
+            @Value("${mybatis.myPlugins.userPage.prefetchTtlMs:2000}") long prefetchTtlMs,
+            @Value("${mybatis.myPlugins.userPage.prefetchMaxEntries:256}") int prefetchMaxEntries) {
+        this.userMapper = userMapper;
+        this.maxPageSize = Math.max(1, maxPageSize);
+        this.prefetch = prefetch;
+        this.prefetchTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, prefetchTtlMs));
+        this.prefetchMaxEntries = Math.max(1, prefetchMaxEntries);
+        AtomicInteger seq = new AtomicInteger();
+        this.prefetchExecutor = prefetch
+                ? new ThreadPoolExecutor(1, 2, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(64), r -> {
+            Thread t = new Thread(r, "user-page-prefetch-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.DiscardPolicy())
+                : null;
+    }
+
+    /**
+     * 取一页。
+     *
+     * @param token 上一页返回的续页令牌，null/空表示第一页
+     * @param size  页大小，超过 maxPageSize 时截断
+     * @throws IllegalArgumentException 令牌无法解析或页大小非法
+     */
+    public UserPage page(String token, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        PageKey key = new PageKey(decodeToken(token), Math.min(size, maxPageSize));
+        List<User> rows = takePrefetched(key);
+        if (rows == null) {
+            rows = userMapper.findPage(key.afterId, key.size + 1);
+        }
+        if (rows.size() <= key.size) {
+            return new UserPage(rows, null);
+        }
+        List<User> items = rows.subList(0, key.size);
+        long lastId = items.get(items.size() - 1).getId();
+        if (prefetch) {
+            schedulePrefetch(new PageKey(lastId, key.size));
+        }
+        return new UserPage(List.copyOf(items), encodeToken(lastId));
+    }
+
+    static String encodeToken(long afterId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((TOKEN_VERSION + afterId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long decodeToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            if (raw.startsWith(TOKEN_VERSION)) {
+                return Long.parseLong(raw.substring(TOKEN_VERSION.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // 非法 Base64 或数字，统一按无效令牌处理
+        }
+        throw new IllegalArgumentException("Invalid page token: " + token);
+    }
+
+    private List<User> takePrefetched(PageKey key) {
+        if (!prefetch) {
+            return null;
+        }
+        Prefetched entry = prefetched.remove(key);
+        if (entry == null || System.nanoTime() - entry.createdNanos > prefetchTtlNanos
+                || !entry.future.isDone() || entry.future.isCompletedExceptionally()) {
+            // 未完成的预取不等待：当前请求自己查，预取结果作废
+            return null;
+        }
+        return entry.future.join();
+    }
+
+    private void schedulePrefetch(PageKey key) {
+        if (prefetched.size() >= prefetchMaxEntries) {
+            evictExpired();
+            if (prefetched.size() >= prefetchMaxEntries) {
+                return;
+            }
+        }
+        Prefetched entry = new Prefetched();
+        if (prefetched.putIfAbsent(key, entry) != null) {
+            return;
+        }
+        prefetchExecutor.execute(() -> {
+            try {
+                entry.future.complete(userMapper.findPage(key.afterId, key.size + 1));
+            } catch (Throwable e) {
+                entry.future.completeExceptionally(e);
+                prefetched.remove(key, entry);
+            }
+        });
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        prefetched.entrySet().removeIf(e -> now - e.getValue().createdNanos > prefetchTtlNanos);
+    }
+
+    @Override
+    public void destroy() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
+    }
+
+    private record PageKey(long afterId, int size) {
+    }
+
+    private static final class Prefetched {
+
+        final CompletableFuture<List<User>> future = new CompletableFuture<>();
+        final long createdNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,97 @@
+package org.kubo.mybatislab.user.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.user.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 用户表流式导出：基于 MyBatis {@link Cursor}（{@code Executor#queryCursor}）逐行读取、逐行写出，内存占用与行数无关。
+ *
+ * <ul>
+ *   <li>JDBC 取数：启动时把 {@code UserMapper.streamAll} 的 fetchSize 改为配置值。
+ *       MySQL Connector/J 默认一次把整个结果集读进内存，{@code mysqlRowStreaming=true} 时使用
+ *       {@code Integer.MIN_VALUE} 开启逐行流式；也可以在 URL 上加 {@code useCursorFetch=true} 并配置正数 fetchSize 走服务端游标；</li>
+ *   <li>写出：Jackson {@link SequenceWriter} 逐个对象序列化，每 {@code flushEveryRows} 行刷新一次，
+ *       既不在内存里攒整个响应，也不会每行发一个分块。</li>
+ * </ul>
+ *
+ * <p>SqlSession 在写出过程中才打开、写完即关闭（流式结果集会一直占用该连接），因此必须在
+ * {@code StreamingResponseBody} 内调用 {@link #writeAll}，而不是在控制器方法里提前取 Cursor。</p>
+ */
+@Component
+public class UserStreamService {
+
+    private static final String STATEMENT_ID = UserMapper.class.getName() + ".streamAll";
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final ObjectWriter writer;
+    private final int flushEveryRows;
+
+    public UserStreamService(
+            SqlSessionFactory sqlSessionFactory,
+            ObjectMapper objectMapper,
+            @Value("${mybatis.myPlugins.userStream.fetchSize:500}") int fetchSize,
+            @Value("${mybatis.myPlugins.userStream.mysqlRowStreaming:true}") boolean mysqlRowStreaming,
+            @Value("${mybatis.myPlugins.userStream.flushEveryRows:256}") int flushEveryRows) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.flushEveryRows = Math.max(1, flushEveryRows);
+        applyFetchSize(sqlSessionFactory, mysqlRowStreaming ? Integer.MIN_VALUE : fetchSize);
+    }
+
+    /**
+     * MappedStatement 没有公开的 setter，注解上的 fetchSize 又只能是常量，这里在启动时按配置改写一次。
+     */
+    private static void applyFetchSize(SqlSessionFactory sqlSessionFactory, int fetchSize) {
+        MappedStatement ms = sqlSessionFactory.getConfiguration().getMappedStatement(STATEMENT_ID);
+        SystemMetaObject.forObject(ms).setValue("fetchSize", fetchSize);
+        System.out.println("[用户流式导出] " + STATEMENT_ID + " fetchSize=" + fetchSize);
+    }
+
+    /**
+     * 把全部用户写到输出流。
+     *
+     * @param array true：JSON 数组（{@code [{...},{...}]}）；false：NDJSON（每行一个对象）
+     * @return 写出的行数
+     */
+    public long writeAll(OutputStream out, boolean array) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<User> cursor = session.getMapper(UserMapper.class).streamAll()) {
+            ObjectWriter sequenceWriter = array ? writer : writer.withRootValueSeparator("\n");
+            try (SequenceWriter sequence = array ? sequenceWriter.writeValuesAsArray(out) : sequenceWriter.writeValues(out)) {
+                for (User user : cursor) {
+                    sequence.write(user);
+                    if (++rows % flushEveryRows == 0) {
+                        sequence.flush();
+                    }
+                }
+            }
+            if (!array && rows > 0) {
+                out.write('\n');
+            }
+            out.flush();
+        } finally {
+            System.out.println("[用户流式导出] rows=" + rows + ", 耗时: "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,33 @@
+package org.kubo.mybatislab.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口。
+ *
+ * <ul>
+ *   <li>无参数：运行全部基准，并启用 GC profiler（输出 gc.alloc.rate.norm，即每次操作分配的字节数）；</li>
+ *   <li>有参数：原样交给 JMH 命令行，例如 {@code UserMapperBenchmark.findById -p plugins=none,all -prof gc -rf json}。</li>
+ * </ul>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            Main.main(args);
+            return;
+        }
+        Options options = new OptionsBuilder()
+                .include(BenchmarkRunner.class.getPackageName() + ".*Benchmark")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,63 @@
+package org.kubo.mybatislab.benchmark;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.kubo.mybatislab.mybatis.cache.CopyOnReadCache;
+import org.kubo.mybatislab.user.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读写隔离二级缓存的命中成本：{@code SerializedCache}（Java 序列化往返）对比 {@link CopyOnReadCache}（按类型复制）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyOnReadBenchmark {
+
+    @Param({"serialized", "copy-on-read"})
+    public String codec;
+
+    /** 缓存结果的行数：1 对应 findById，20 近似 findAll。 */
+    @Param({"1", "20"})
+    public int rows;
+
+    private Cache cache;
+
+    @Setup
+    public void setUp() {
+        PerpetualCache store = new PerpetualCache("bench");
+        cache = "serialized".equals(codec) ? new SerializedCache(store) : new CopyOnReadCache(store);
+        List<User> result = new ArrayList<>();
+        for (long i = 1; i <= rows; i++) {
+            User user = new User();
+            user.setId(i);
+            user.setUsername("user-" + i);
+            user.setEmail("user-" + i + "@example.com");
+            result.add(user);
+        }
+        cache.putObject("key", result);
+    }
+
+    @Benchmark
+    public Object hit() {
+        return cache.getObject("key");
+    }
+}
@@ -0,0 +1,77 @@
+package org.kubo.mybatislab.benchmark;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.kubo.mybatislab.mybatis.cache.TinyLfuCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二级缓存实现本身的并发读写基准：MyBatis 默认装饰链（{@code SynchronizedCache + LruCache}）对比 {@link TinyLfuCache}。
+ *
+ * <p>键按 Zipf 近似分布（少量热点），容量为键空间的一半，命中后约 5% 概率覆盖写，线程数用 {@code -t} 调整（默认取 CPU 数）。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class L2CacheBenchmark {
+
+    private static final int KEY_SPACE = 1024;
+
+    @Param({"lru", "tinylfu"})
+    public String cache;
+
+    private Cache target;
+    private Integer[] keys;
+
+    @Setup
+    public void setUp() throws Exception {
+        if ("tinylfu".equals(cache)) {
+            TinyLfuCache tinyLfu = new TinyLfuCache("bench");
+            tinyLfu.setMaximumSize(512);
+            tinyLfu.initialize();
+            target = tinyLfu;
+        } else {
+            LruCache lru = new LruCache(new PerpetualCache("bench"));
+            lru.setSize(512);
+            target = new SynchronizedCache(lru);
+        }
+        keys = new Integer[KEY_SPACE];
+        for (int i = 0; i < KEY_SPACE; i++) {
+            keys[i] = i;
+            target.putObject(keys[i], List.of(i));
+        }
+    }
+
+    @Benchmark
+    public Object readMostly() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // 两次取最小近似偏斜分布：小编号键被访问得更频繁
+        Integer key = keys[Math.min(random.nextInt(KEY_SPACE), random.nextInt(KEY_SPACE))];
+        Object value = target.getObject(key);
+        if (value == null || random.nextInt(20) == 0) {
+            target.putObject(key, List.of(key));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,98 @@
+package org.kubo.mybatislab.benchmark;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.kubo.mybatislab.mybatis.plugin.BlockFullTableModifyInterceptor;
+import org.kubo.mybatislab.mybatis.plugin.CacheTagInterceptor;
+import org.kubo.mybatislab.mybatis.plugin.CompositeInterceptor;
+import org.kubo.mybatislab.mybatis.plugin.SqlCostInterceptor;
+import org.kubo.mybatislab.mybatis.plugin.TestInterceptor;
+import org.kubo.mybatislab.mybatis.slowlog.OverflowPolicy;
+import org.kubo.mybatislab.mybatis.slowlog.SlowSqlEventPipeline;
+import org.kubo.mybatislab.mybatis.stats.SqlStatsRegistry;
+import org.kubo.mybatislab.support.TestDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 不依赖 Spring 的 MyBatis 基准环境：{@link TestDatabase}（H2 内存库 + schema.sql/data.sql + UserMapper 注解映射）。
+ *
+ * <p>配置尽量与 bootstrap.yml 保持一致（下划线转驼峰、STATEMENT 级一级缓存），
+ * 拦截器按 {@code plugins} 参数手动注册，不经过 Spring。</p>
+ */
+final class MybatisFixture implements AutoCloseable {
+
+    /**
+     * 拦截器组合：none / cost / block / trace-jfr / trace-stdout / all / all-composite。
+     */
+    static final String PLUGINS = "none,cost,block,trace-jfr,trace-stdout,all,all-composite";
+
+    private final PooledDataSource dataSource;
+    private final SlowSqlEventPipeline slowSqlEventPipeline;
+    final SqlSessionFactory sqlSessionFactory;
+
+    MybatisFixture(String plugins, boolean l2Cache) throws Exception {
+        this.dataSource = TestDatabase.create("bench");
+        this.slowSqlEventPipeline = new SlowSqlEventPipeline(1024, 128, 200, OverflowPolicy.DROP, 10);
+        this.slowSqlEventPipeline.start();
+
+        Configuration configuration = TestDatabase.configuration(dataSource);
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        configuration.setCacheEnabled(l2Cache);
+        List<Interceptor> interceptors = interceptors(plugins, l2Cache);
+        if (plugins.endsWith("-composite")) {
+            configuration.addInterceptor(new CompositeInterceptor(interceptors));
+        } else {
+            interceptors.forEach(configuration::addInterceptor);
+        }
+        this.sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    private List<Interceptor> interceptors(String plugins, boolean l2Cache) {
+        List<Interceptor> list = new ArrayList<>();
+        if (l2Cache) {
+            // UserMapper 的写语句依赖按标签失效（flushCache=false），开启二级缓存时始终注册，与应用保持一致
+            list.add(new CacheTagInterceptor());
+        }
+        boolean all = plugins.startsWith("all");
+        if (all || plugins.equals("cost")) {
+            SqlCostInterceptor cost = new SqlCostInterceptor(new SqlStatsRegistry(), slowSqlEventPipeline);
+            cost.setProperties(properties("slowSqlThresholdMs", "1000"));
+            list.add(cost);
+        }
+        if (all || plugins.equals("block")) {
+            list.add(new BlockFullTableModifyInterceptor());
+        }
+        if (all || plugins.startsWith("trace")) {
+            TestInterceptor trace = new TestInterceptor();
+            // “all” 组合使用 JFR 模式（无录制时接近零开销）；STDOUT 模式单独衡量
+            trace.setProperties(properties("mode", plugins.equals("trace-stdout") ? "STDOUT" : "JFR"));
+            list.add(trace);
+        }
+        return list;
+    }
+
+    private static Properties properties(String key, String value) {
+        Properties properties = new Properties();
+        properties.setProperty(key, value);
+        return properties;
+    }
+
+    @Override
+    public void close() {
+        try {
+            slowSqlEventPipeline.destroy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            dataSource.forceCloseAll();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.kubo.mybatislab.benchmark;
+
+import org.apache.ibatis.session.SqlSession;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.user.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserMapper 执行路径基准：吞吐量与延迟分布，按拦截器组合与二级缓存开关对比。
+ *
+ * <p>每次操作都模拟 SqlSessionTemplate 在非事务下的行为：打开会话 → 调用 Mapper → commit → close，
+ * 因此二级缓存能在操作之间命中，拦截器也会经历完整的 Executor/StatementHandler 链路。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    @Param({"none", "cost", "block", "trace-jfr", "trace-stdout", "all", "all-composite"})
+    public String plugins;
+
+    @Param({"false", "true"})
+    public boolean l2Cache;
+
+    private MybatisFixture fixture;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // trace-stdout 衡量的是格式化与 println 本身的代价，而不是终端刷屏速度
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        fixture = new MybatisFixture(plugins, l2Cache);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public User findById() {
+        try (SqlSession session = fixture.sqlSessionFactory.openSession()) {
+            User user = session.getMapper(UserMapper.class).findById(1L);
+            session.commit();
+            return user;
+        }
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        try (SqlSession session = fixture.sqlSessionFactory.openSession()) {
+            List<User> users = session.getMapper(UserMapper.class).findAll();
+            session.commit();
+            return users;
+        }
+    }
+
+    @Benchmark
+    public void updateOne() {
+        try (SqlSession session = fixture.sqlSessionFactory.openSession()) {
+            session.getMapper(UserMapper.class).updateOne();
+            session.commit();
+        }
+    }
+}
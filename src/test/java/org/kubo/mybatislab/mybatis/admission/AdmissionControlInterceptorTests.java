@@ -0,0 +1,85 @@
+package org.kubo.mybatislab.mybatis.admission;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mybatis.plugin.AdmissionControlInterceptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionControlInterceptorTests {
+
+    private final AdmissionLimiter limiter = new AdmissionLimiter(true, 1, 0, 50);
+    private final AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(limiter);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(limiter);
+    }
+
+    @Test
+    void sessionHoldsOnePermitUntilClose() throws Exception {
+        Executor a = executor();
+        Executor b = executor();
+        a.update(null, null);
+        a.update(null, null);
+        a.flushStatements();
+        // 唯一的许可仍被会话 a 持有（游标遍历、批量 flush 期间都算占用连接）
+        assertThrows(DatabaseBusyException.class, () -> b.update(null, null));
+        assertEquals(1L, limiter.stats().get("admitted"));
+
+        a.close(false);
+        b.update(null, null);
+        assertEquals(1, limiter.stats().get("inFlight"));
+        b.close(false);
+        assertEquals(0, limiter.stats().get("inFlight"));
+    }
+
+    @Test
+    void transactionAcquiresOnceAndReleasesOnCompletion() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        Executor a = executor();
+        Executor b = executor();
+        a.update(null, null);
+        // 同一事务内的其它会话与后续语句不再排队
+        b.update(null, null);
+        a.update(null, null);
+        a.close(false);
+        assertEquals(1L, limiter.stats().get("admitted"));
+        assertEquals(1, limiter.stats().get("inFlight"));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals(0, limiter.stats().get("inFlight"));
+    }
+
+    private Executor executor() {
+        Executor target = (Executor) Proxy.newProxyInstance(Executor.class.getClassLoader(),
+                new Class<?>[]{Executor.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "executor@" + System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Class<?> type = method.getReturnType();
+                    return type == int.class ? 0 : type == boolean.class ? Boolean.FALSE : null;
+                });
+        return (Executor) Plugin.wrap(target, interceptor);
+    }
+}
@@ -0,0 +1,36 @@
+package org.kubo.mybatislab.mybatis.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionLimiterTests {
+
+    @Test
+    void rejectsWhenQueueTimesOutOrIsFull() throws Exception {
+        AdmissionLimiter limiter = new AdmissionLimiter(true, 1, 1, 50);
+        limiter.acquire("a");
+        // 唯一的许可被占用：排队 50ms 后拒绝
+        assertThrows(DatabaseBusyException.class, () -> limiter.acquire("b"));
+        assertEquals(1L, limiter.stats().get("rejectedTimeout"));
+
+        // 许可释放后，排队者按顺序拿到许可
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> {
+            limiter.acquire("c");
+            limiter.release();
+        });
+        Thread.sleep(10);
+        limiter.release();
+        queued.get(5, TimeUnit.SECONDS);
+        assertEquals(2L, limiter.stats().get("admitted"));
+
+        AdmissionLimiter noQueue = new AdmissionLimiter(true, 1, 0, 1_000);
+        noQueue.acquire("a");
+        assertThrows(DatabaseBusyException.class, () -> noQueue.acquire("b"));
+        assertEquals(1L, noQueue.stats().get("rejectedQueueFull"));
+    }
+}
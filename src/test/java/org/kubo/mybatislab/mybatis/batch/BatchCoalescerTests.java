@@ -0,0 +1,74 @@
+package org.kubo.mybatislab.mybatis.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchCoalescerTests {
+
+    @Test
+    void concurrentLoadsAreMergedAndChunked() {
+        List<List<Integer>> calls = new CopyOnWriteArrayList<>();
+        // 键为奇数的“行”不存在
+        try (BatchCoalescer<Integer, String> coalescer = new BatchCoalescer<>("test",
+                keys -> {
+                    calls.add(new ArrayList<>(keys));
+                    List<String> rows = new ArrayList<>();
+                    for (Integer k : keys) {
+                        if (k % 2 == 0) {
+                            rows.add("row-" + k);
+                        }
+                    }
+                    Collections.reverse(rows);
+                    return rows;
+                },
+                row -> Integer.valueOf(row.substring(4)), 50_000, 1_000, 4, 1_000, 1)) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(coalescer.load(i));
+            }
+            futures.add(coalescer.load(2));
+            for (int i = 0; i < 10; i++) {
+                String row = futures.get(i).join();
+                if (i % 2 == 0) {
+                    assertEquals("row-" + i, row);
+                } else {
+                    assertNull(row);
+                }
+            }
+            assertEquals("row-2", futures.get(10).join());
+            // 一个批次，10 个不同的键按 4 个一块拆成 3 条查询
+            assertEquals(List.of(List.of(0, 1, 2, 3), List.of(4, 5, 6, 7), List.of(8, 9)), calls);
+            assertEquals(1L, coalescer.stats().get("batches"));
+            assertEquals(1L, coalescer.stats().get("deduplicated"));
+        }
+    }
+
+    @Test
+    void fullBatchIsDispatchedWithoutWaitingAndFailuresPropagate() {
+        try (BatchCoalescer<Integer, String> coalescer = new BatchCoalescer<>("test",
+                keys -> {
+                    throw new IllegalArgumentException("boom");
+                },
+                row -> 0, 60_000_000, 3, 100, 5_000, 1)) {
+            long start = System.nanoTime();
+            coalescer.load(1);
+            coalescer.load(2);
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> coalescer.get(3));
+            assertEquals("boom", e.getMessage());
+            // 窗口是 60 秒，攒满 3 个键立即派发
+            assertTrue(System.nanoTime() - start < 5_000_000_000L);
+            assertEquals(1L, coalescer.stats().get("fullBatches"));
+            assertEquals(1L, coalescer.stats().get("failures"));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.kubo.mybatislab.mybatis.budget;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.mybatis.plugin.CacheTagInterceptor;
+import org.kubo.mybatislab.mybatis.plugin.RequestSqlInterceptor;
+import org.kubo.mybatislab.support.TestDatabase;
+import org.kubo.mybatislab.user.model.User;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestSqlBudgetTests {
+
+    private static final String ENDPOINT = "GET /api/users";
+
+    private PooledDataSource dataSource;
+    private RequestSqlBudgetProperties properties;
+    private EndpointSqlMetrics metrics;
+    private SqlSessionFactory factory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create("budget");
+        properties = new RequestSqlBudgetProperties();
+        metrics = new EndpointSqlMetrics(properties);
+        Configuration configuration = TestDatabase.configuration(dataSource);
+        configuration.setCacheEnabled(true);
+        configuration.addInterceptor(new CacheTagInterceptor());
+        configuration.addInterceptor(new RequestSqlInterceptor(metrics));
+        factory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestSqlContext.end();
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    void accumulatesStatementsRowsAndCacheHitsPerRequest() {
+        // 请求之外：不统计，只用来填充二级缓存
+        try (SqlSession session = factory.openSession()) {
+            session.getMapper(UserMapper.class).findById(1L);
+            session.commit();
+        }
+
+        RequestSqlStats stats = RequestSqlContext.begin(() -> ENDPOINT);
+        try (SqlSession session = factory.openSession()) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            mapper.findById(1L);
+            mapper.findByIds(List.of(1L, 2L));
+            mapper.findByIds(List.of(1L, 2L));
+            mapper.findAll();
+        } finally {
+            RequestSqlContext.end();
+        }
+        metrics.complete(stats);
+
+        assertEquals(4, stats.mapperCalls);
+        assertEquals(2, stats.statements);
+        assertEquals(4, stats.rows);
+        assertEquals(1, stats.l1Hits);
+        assertEquals(1, stats.l2Hits);
+        assertTrue(stats.serverTiming().startsWith("db;dur="), stats.serverTiming());
+        assertTrue(stats.serverTiming().contains("\"2 statements, 4 rows\""), stats.serverTiming());
+
+        Map<String, Object> endpoint = metrics.snapshot().get(0);
+        assertEquals(ENDPOINT, endpoint.get("endpoint"));
+        assertEquals(1L, endpoint.get("requests"));
+        assertEquals(2.0, endpoint.get("statementsPerRequest"));
+        assertEquals(0L, endpoint.get("budgetViolations"));
+    }
+
+    @Test
+    void warnsOrRejectsWhenBudgetIsExceeded() {
+        SqlBudget budget = new SqlBudget();
+        budget.setEndpoint(ENDPOINT);
+        budget.setMaxStatements(1);
+        properties.getBudgets().add(budget);
+
+        RequestSqlStats warned = RequestSqlContext.begin(() -> ENDPOINT);
+        try (SqlSession session = factory.openSession()) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            mapper.findByIds(List.of(1L));
+            mapper.findByIds(List.of(2L));
+        } finally {
+            RequestSqlContext.end();
+        }
+        metrics.complete(warned);
+        assertEquals("statements 2 > 1", warned.violation);
+
+        budget.setAction(SqlBudget.Action.REJECT);
+        RequestSqlStats rejected = RequestSqlContext.begin(() -> ENDPOINT);
+        try (SqlSession session = factory.openSession()) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            mapper.findByIds(List.of(1L));
+            PersistenceException e = assertThrows(PersistenceException.class, () -> mapper.findByIds(List.of(2L)));
+            assertInstanceOf(SqlBudgetExceededException.class, e.getCause());
+        } finally {
+            RequestSqlContext.end();
+        }
+        metrics.complete(rejected);
+
+        Map<String, Object> endpoint = metrics.snapshot().get(0);
+        assertEquals(2L, endpoint.get("requests"));
+        assertEquals(2L, endpoint.get("budgetViolations"));
+        assertEquals(1L, endpoint.get("rejected"));
+    }
+
+    @Test
+    void countsBatchFlushesAsStatements() {
+        RequestSqlStats stats = RequestSqlContext.begin(() -> "POST /api/users/bulk/insert");
+        try (SqlSession session = factory.openSession(ExecutorType.BATCH)) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            for (int i = 0; i < 3; i++) {
+                User user = new User();
+                user.setUsername("bulk" + i);
+                user.setEmail("bulk" + i + "@example.com");
+                mapper.insertUser(user);
+            }
+            session.flushStatements();
+            session.commit();
+        } finally {
+            RequestSqlContext.end();
+        }
+        // 三次 addBatch 只有一次 executeBatch 往返
+        assertEquals(3, stats.mapperCalls);
+        assertEquals(1, stats.statements);
+        assertEquals(3, stats.updatedRows);
+    }
+
+    @Test
+    void followsAsyncRequestsOntoTheAsyncThread() throws Exception {
+        RequestSqlFilter filter = new RequestSqlFilter(metrics, properties);
+        RequestSqlAsyncInterceptor async = new RequestSqlAsyncInterceptor();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/stream");
+        request.setAsyncSupported(true);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/users/stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        Callable<Object> task = () -> null;
+
+        // 请求线程：Controller 返回 StreamingResponseBody 后交给异步线程，过滤器随即退出
+        filter.doFilter(request, response, (req, res) -> {
+            req.startAsync();
+            async.beforeConcurrentHandling(webRequest, task);
+        });
+        assertNull(RequestSqlContext.current());
+        assertTrue(metrics.snapshot().isEmpty());
+
+        CompletableFuture.runAsync(() -> {
+            async.preProcess(webRequest, task);
+            try (SqlSession session = factory.openSession()) {
+                session.getMapper(UserMapper.class).findByIds(List.of(1L, 2L));
+            } finally {
+                async.postProcess(webRequest, task, null);
+            }
+        }).get(5, TimeUnit.SECONDS);
+        assertTrue(metrics.snapshot().isEmpty());
+
+        request.getAsyncContext().complete();
+        Map<String, Object> endpoint = metrics.snapshot().get(0);
+        assertEquals("GET /api/users/stream", endpoint.get("endpoint"));
+        assertEquals(1.0, endpoint.get("statementsPerRequest"));
+        assertNull(response.getHeader(RequestSqlFilter.SERVER_TIMING));
+    }
+}
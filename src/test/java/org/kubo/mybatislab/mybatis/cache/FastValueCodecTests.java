@@ -0,0 +1,55 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FastValueCodecTests {
+
+    private final FastValueCodec codec = new FastValueCodec();
+
+    @Test
+    void resultEntitiesAreCopiedWithoutSerialization() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("kubo");
+        List<Object> result = new ArrayList<>(List.of(user, user));
+
+        Object stored = codec.encode(result);
+        assertInstanceOf(List.class, stored);
+        user.setUsername("changed after put");
+
+        @SuppressWarnings("unchecked")
+        List<User> hit = (List<User>) codec.decode(stored);
+        assertEquals("kubo", hit.get(0).getUsername());
+        // 同一对象的多次引用在副本中仍是同一个对象
+        assertSame(hit.get(0), hit.get(1));
+        hit.get(0).setUsername("changed after get");
+
+        @SuppressWarnings("unchecked")
+        List<User> again = (List<User>) codec.decode(stored);
+        assertNotSame(hit.get(0), again.get(0));
+        assertEquals("kubo", again.get(0).getUsername());
+    }
+
+    @Test
+    void unsupportedTypesFallBackToSerialization() {
+        TreeMap<String, Integer> sorted = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        sorted.put("b", 2);
+        sorted.put("A", 1);
+
+        Object stored = codec.encode(List.of(sorted));
+        assertInstanceOf(SerializingValueCodec.SerializedForm.class, stored);
+        @SuppressWarnings("unchecked")
+        List<TreeMap<String, Integer>> hit = (List<TreeMap<String, Integer>>) codec.decode(stored);
+        assertEquals(1, hit.get(0).get("a"));
+    }
+}
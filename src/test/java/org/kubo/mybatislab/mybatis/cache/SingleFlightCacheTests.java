@@ -0,0 +1,58 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SingleFlightCacheTests {
+
+    @Test
+    void concurrentMissesWaitForTheLeader() throws Exception {
+        SingleFlightCache cache = new SingleFlightCache(new PerpetualCache("sf-leader"), 5_000);
+        // 领头者未命中，同线程重复查询不会等自己
+        assertNull(cache.getObject("k"));
+        assertNull(cache.getObject("k"));
+
+        CompletableFuture<Object> waiter = CompletableFuture.supplyAsync(() -> cache.getObject("k"));
+        awaitCoalesced(cache, 1);
+        cache.putObject("k", List.of("row"));
+        assertEquals(List.of("row"), waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, cache.stats().get("leaders"));
+        assertEquals(1L, cache.stats().get("sharedHits"));
+
+        // 回滚：等待者各自回源，失败不被缓存
+        assertNull(cache.getObject("r"));
+        CompletableFuture<Object> loser = CompletableFuture.supplyAsync(() -> cache.getObject("r"));
+        awaitCoalesced(cache, 2);
+        cache.removeObject("r");
+        assertNull(loser.get(5, TimeUnit.SECONDS));
+        assertNull(cache.getObject("r"));
+    }
+
+    @Test
+    void waitersGiveUpAfterTimeout() throws Exception {
+        SingleFlightCache cache = new SingleFlightCache(new PerpetualCache("sf-timeout"), 50);
+        assertNull(cache.getObject("k"));
+        long start = System.nanoTime();
+        assertNull(CompletableFuture.supplyAsync(() -> cache.getObject("k")).get(5, TimeUnit.SECONDS));
+        assertEquals(1L, cache.stats().get("timeouts"));
+        // 卡住的回源已被撤下，下一个调用方成为新的领头者而不再等待
+        assertNull(CompletableFuture.supplyAsync(() -> cache.getObject("k")).get(5, TimeUnit.SECONDS));
+        assertEquals(2L, cache.stats().get("leaders"));
+        assertEquals(1L, cache.stats().get("timeouts"));
+        assertEquals(true, System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    private static void awaitCoalesced(SingleFlightCache cache, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((Long) cache.stats().get("coalesced") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.mybatis.plugin.CacheTagInterceptor;
+import org.kubo.mybatislab.support.TestDatabase;
+import org.kubo.mybatislab.user.model.User;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TagInvalidationTests {
+
+    private PooledDataSource dataSource;
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create("tags");
+        Configuration configuration = TestDatabase.configuration(dataSource);
+        configuration.setCacheEnabled(true);
+        configuration.addInterceptor(new CacheTagInterceptor());
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    void rowWriteInvalidatesOnlyThatRowAndCollections() throws Exception {
+        // 预热：两行 + 列表
+        assertEquals("alice", findById(1L).getUsername());
+        assertEquals("bob", findById(2L).getUsername());
+        assertEquals(2, findAll().size());
+
+        // 绕过 MyBatis 修改第 2 行：二级缓存仍返回旧值，说明条目在缓存中
+        execute("update t_user set username = 'bobby' where id = 2");
+        assertEquals("bob", findById(2L).getUsername());
+
+        // updateOne 只声明了 user:1 —— 第 1 行与 findAll 失效，第 2 行仍命中
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            session.getMapper(UserMapper.class).updateOne();
+            session.commit();
+        }
+        assertEquals("kubo", findById(1L).getUsername());
+        assertEquals("bob", findById(2L).getUsername());
+        assertEquals("bobby", findAll().get(1).getUsername());
+
+        // 组标签 user 让整组失效
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            session.getMapper(UserMapper.class).updateAll();
+            session.commit();
+        }
+        assertEquals("kubo", findById(2L).getUsername());
+    }
+
+    @Test
+    void updateUserInvalidatesTheRowFromItsParameter() throws Exception {
+        assertEquals("alice", findById(1L).getUsername());
+        assertEquals("bob", findById(2L).getUsername());
+        assertEquals(2, findAll().size());
+        execute("update t_user set username = 'bobby' where id = 2");
+
+        // user:#{id} 解析为 user:1：只失效第 1 行与集合查询
+        User alice = findById(1L);
+        alice.setUsername("alicia");
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            session.getMapper(UserMapper.class).updateUser(alice);
+            session.commit();
+        }
+        assertEquals("alicia", findById(1L).getUsername());
+        assertEquals("bob", findById(2L).getUsername());
+        assertEquals("bobby", findAll().get(1).getUsername());
+    }
+
+    @Test
+    void reportsCachedWritesThatDependOnTheInterceptor() {
+        List<String> statements = CacheTagInterceptor.dependentStatements(sqlSessionFactory.getConfiguration());
+
+        assertTrue(statements.contains(UserMapper.class.getName() + ".updateUser"));
+        assertTrue(statements.contains(UserMapper.class.getName() + ".insertUser"));
+        assertFalse(statements.contains(UserMapper.class.getName() + ".findById"));
+
+        // 全局关闭二级缓存时没有需要失效的条目
+        sqlSessionFactory.getConfiguration().setCacheEnabled(false);
+        assertTrue(CacheTagInterceptor.dependentStatements(sqlSessionFactory.getConfiguration()).isEmpty());
+    }
+
+    private User findById(Long id) {
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            User user = session.getMapper(UserMapper.class).findById(id);
+            session.commit();
+            return user;
+        }
+    }
+
+    private List<User> findAll() {
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            List<User> users = session.getMapper(UserMapper.class).findAll();
+            session.commit();
+            return users;
+        }
+    }
+
+    private void execute(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+            connection.commit();
+        }
+    }
+}
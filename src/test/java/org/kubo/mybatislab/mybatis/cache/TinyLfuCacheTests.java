@@ -0,0 +1,67 @@
+package org.kubo.mybatislab.mybatis.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TinyLfuCacheTests {
+
+    @Test
+    void sizeBoundKeepsFrequentlyReadKeys() throws Exception {
+        TinyLfuCache cache = newCache(100, 0, 0);
+        for (int i = 0; i < 100; i++) {
+            cache.putObject("hot-" + i, i);
+        }
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 100; i++) {
+                cache.getObject("hot-" + i);
+            }
+        }
+        // 一次性扫描大量冷数据，不应把热点冲掉
+        for (int i = 0; i < 1_000; i++) {
+            cache.putObject("cold-" + i, i);
+        }
+        assertTrue(cache.getSize() <= 100);
+        int retained = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.getObject("hot-" + i) != null) {
+                retained++;
+            }
+        }
+        assertTrue(retained >= 90, "hot keys retained: " + retained);
+    }
+
+    @Test
+    void weightBoundUsesResultSize() throws Exception {
+        TinyLfuCache cache = newCache(0, 10, 0);
+        cache.putObject("a", List.of(1, 2, 3, 4, 5, 6));
+        cache.putObject("b", List.of(1, 2, 3, 4, 5, 6));
+        assertEquals(1, cache.getSize());
+        assertEquals(6L, cache.stats().get("weightedSize"));
+    }
+
+    @Test
+    void expiredEntriesAreMisses() throws Exception {
+        TinyLfuCache cache = newCache(10, 0, 20);
+        cache.putObject("k", "v");
+        assertEquals("v", cache.getObject("k"));
+        Thread.sleep(40);
+        assertNull(cache.getObject("k"));
+        assertEquals(1L, cache.stats().get("expirations"));
+    }
+
+    private static TinyLfuCache newCache(long maximumSize, long maximumWeight, long ttlMs) throws Exception {
+        TinyLfuCache cache = new TinyLfuCache("test");
+        if (maximumSize > 0) {
+            cache.setMaximumSize(maximumSize);
+        }
+        cache.setMaximumWeight(maximumWeight);
+        cache.setExpireAfterWriteMs(ttlMs);
+        cache.initialize();
+        return cache;
+    }
+}
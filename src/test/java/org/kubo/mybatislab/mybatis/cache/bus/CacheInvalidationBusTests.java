@@ -0,0 +1,75 @@
+package org.kubo.mybatislab.mybatis.cache.bus;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 两个总线挂在同一个回环频道上模拟两个节点；窗口设得很长，由测试手动 flush。
+ */
+class CacheInvalidationBusTests {
+
+    private final String channel = "bus-" + UUID.randomUUID();
+    private final List<InvalidationMessage.Entry> appliedOnA = new ArrayList<>();
+    private final List<InvalidationMessage.Entry> appliedOnB = new ArrayList<>();
+    private CacheInvalidationBus nodeA;
+    private CacheInvalidationBus nodeB;
+
+    private void start(int maxEntriesPerMessage, int maxTagsPerNamespace) {
+        nodeA = new CacheInvalidationBus("A", new LoopbackInvalidationTransport(channel), appliedOnA::add,
+                60_000, maxEntriesPerMessage, maxTagsPerNamespace);
+        nodeB = new CacheInvalidationBus("B", new LoopbackInvalidationTransport(channel), appliedOnB::add,
+                60_000, maxEntriesPerMessage, maxTagsPerNamespace);
+        nodeA.start();
+        nodeB.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void coalescesWindowIntoOneMessageAndSkipsOwnNode() {
+        start(64, 256);
+        nodeA.tagsCommitted("UserMapper", new String[]{"user:1", "user"});
+        nodeA.tagsCommitted("UserMapper", new String[]{"user:1", "user"});
+        nodeA.tagsCommitted("UserMapper", new String[]{"user:2"});
+        nodeA.tagsCommitted("OrderMapper", new String[]{"order:9"});
+        nodeA.namespaceCleared("OrderMapper");
+        nodeA.tagsCommitted("OrderMapper", new String[]{"order:10"});
+        nodeA.flush();
+
+        assertEquals(2, appliedOnB.size());
+        assertEquals("UserMapper", appliedOnB.get(0).getNamespace());
+        assertEquals(List.of("user:1", "user", "user:2"), appliedOnB.get(0).getTags());
+        assertEquals("OrderMapper", appliedOnB.get(1).getNamespace());
+        assertTrue(appliedOnB.get(1).isClear());
+        assertTrue(appliedOnA.isEmpty());
+
+        assertEquals(1L, nodeA.stats().get("messagesSent"));
+        assertEquals(3L, nodeA.stats().get("coalesced"));
+        assertEquals(1L, nodeA.stats().get("ignoredOwn"));
+        assertEquals(2L, nodeB.stats().get("applied"));
+    }
+
+    @Test
+    void promotesRowTagsToGroupBeyondLimit() {
+        start(64, 3);
+        for (int i = 0; i < 10; i++) {
+            nodeA.tagsCommitted("UserMapper", new String[]{"user:" + i});
+        }
+        nodeA.flush();
+
+        assertEquals(1, appliedOnB.size());
+        assertEquals(List.of("user"), appliedOnB.get(0).getTags());
+        assertEquals(1L, nodeA.stats().get("promoted"));
+    }
+}
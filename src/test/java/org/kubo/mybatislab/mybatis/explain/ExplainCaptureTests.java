@@ -0,0 +1,147 @@
+package org.kubo.mybatislab.mybatis.explain;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.mybatis.plugin.SqlCostInterceptor;
+import org.kubo.mybatislab.mybatis.slowlog.OverflowPolicy;
+import org.kubo.mybatislab.mybatis.slowlog.SlowSqlEventPipeline;
+import org.kubo.mybatislab.mybatis.sql.SqlFingerprinter;
+import org.kubo.mybatislab.mybatis.stats.SqlStatsRegistry;
+import org.kubo.mybatislab.support.TestDatabase;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExplainCaptureTests {
+
+    private static final String FIND_BY_ID = UserMapper.class.getName() + ".findById";
+
+    private PooledDataSource dataSource;
+    private PooledDataSource explainDataSource;
+    private ExplainCapture capture;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create("explain");
+        explainDataSource = TestDatabase.anotherPool(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (capture != null) {
+            capture.close();
+        }
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    void capturesOnePlanPerFingerprintWithMaskedParameters() throws Exception {
+        capture = new ExplainCapture(explainDataSource, new SqlFingerprinter(4096), "EXPLAIN", 60_000, 30, 16, 10, 5, true);
+        SqlSessionFactory factory = factory(capture);
+
+        try (SqlSession session = factory.openSession(true)) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            mapper.findById(1L);
+            capture.awaitIdle(5000);
+            mapper.findById(2L);
+            mapper.findById(1L);
+            mapper.findAll();
+            mapper.updateAll();
+        }
+        capture.awaitIdle(5000);
+
+        Map<String, Object> stats = capture.stats();
+        assertEquals(2L, stats.get("explained"));
+        assertEquals(0L, stats.get("failed"));
+        assertEquals(2L, stats.get("deduplicated"));
+        assertEquals(1L, stats.get("skippedNonSelect"));
+        assertEquals(2, stats.get("plans"));
+
+        Map<String, Object> findById = capture.plans().stream()
+                .filter(p -> FIND_BY_ID.equals(p.get("statementId")))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3L, findById.get("occurrences"));
+        assertEquals(1L, findById.get("captures"));
+        assertEquals(List.of("1"), findById.get("parameters"));
+        assertFalse(((List<?>) findById.get("plan")).isEmpty());
+        assertNull(findById.get("error"));
+
+        assertEquals("'a***'(17)", ExplainCapture.mask("alice@example.com"));
+        assertEquals("<Object>", ExplainCapture.mask(new Object()));
+    }
+
+    @Test
+    void comparesOnlyPlanStructure() {
+        Map<String, Object> before = mysqlRow("PRIMARY", "const", "1", "100.00");
+        // 统计信息刷新：rows/filtered 估算变化不算计划变化
+        assertEquals(ExplainCapture.planStructure(List.of(before)),
+                ExplainCapture.planStructure(List.of(mysqlRow("PRIMARY", "const", "3", "33.33"))));
+        // 索引失效退化为全表扫描：计划变化
+        assertNotEquals(ExplainCapture.planStructure(List.of(before)),
+                ExplainCapture.planStructure(List.of(mysqlRow(null, "ALL", "1", "100.00"))));
+        // H2 只有 PLAN 一列，按 PLAN 文本比较
+        assertEquals(List.of(Map.of("PLAN", "SELECT ...")),
+                ExplainCapture.planStructure(List.of(Map.of("PLAN", "SELECT ..."))));
+    }
+
+    private static Map<String, Object> mysqlRow(String key, String type, String rows, String filtered) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", "1");
+        row.put("select_type", "SIMPLE");
+        row.put("table", "t_user");
+        row.put("type", type);
+        row.put("possible_keys", "PRIMARY");
+        row.put("key", key);
+        row.put("rows", rows);
+        row.put("filtered", filtered);
+        row.put("Extra", null);
+        return row;
+    }
+
+    @Test
+    void rateLimitsAcrossFingerprints() throws Exception {
+        capture = new ExplainCapture(explainDataSource, new SqlFingerprinter(4096), "EXPLAIN", 0, 1, 16, 10, 5, true);
+        SqlSessionFactory factory = factory(capture);
+
+        try (SqlSession session = factory.openSession(true)) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            mapper.findById(1L);
+            mapper.findAll();
+        }
+        capture.awaitIdle(5000);
+
+        Map<String, Object> stats = capture.stats();
+        assertEquals(1L, stats.get("submitted"));
+        assertEquals(1L, stats.get("rateLimited"));
+    }
+
+    private SqlSessionFactory factory(ExplainCapture capture) {
+        Configuration configuration = TestDatabase.configuration(dataSource);
+        configuration.setCacheEnabled(false);
+        configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        SqlCostInterceptor cost = new SqlCostInterceptor(new SqlStatsRegistry(),
+                new SlowSqlEventPipeline(1024, 128, 200, OverflowPolicy.DROP, 10));
+        Properties properties = new Properties();
+        properties.setProperty("slowSqlThresholdMs", "0");
+        cost.setProperties(properties);
+        cost.setExplainCapture(capture);
+        configuration.addInterceptor(cost);
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+}
@@ -0,0 +1,130 @@
+package org.kubo.mybatislab.mybatis.governor;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mybatis.plugin.TestInterceptor;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 不启动后台节拍（不调用 afterPropertiesSet），由测试逐个周期调用 evaluate。
+ */
+class DiagnosticsGovernorTests {
+
+    private DiagnosticsGovernorProperties properties;
+    private DiagnosticsGovernor governor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DiagnosticsGovernorProperties();
+        properties.setSloP99Ms(10);
+        properties.setMaxOverheadPercent(5);
+        properties.setRecoverIntervals(2);
+        properties.setSampleRate(4);
+        properties.setMinSamples(20);
+        governor = new DiagnosticsGovernor(properties);
+    }
+
+    @Test
+    void degradesUnderLatencyAndRecoversStepByStep() {
+        assertEquals(DiagnosticsLevel.FULL, governor.level());
+
+        interval(50, 20, 0);
+        assertEquals(DiagnosticsLevel.SAMPLED, governor.level());
+        interval(50, 20, 0);
+        assertEquals(DiagnosticsLevel.OFF, governor.level());
+
+        // 低于阈值但未到 recoverRatio（5ms）以下：保持
+        interval(50, 8, 0);
+        interval(50, 8, 0);
+        assertEquals(DiagnosticsLevel.OFF, governor.level());
+
+        // 连续两个健康周期升一级；样本不足也视为健康
+        interval(50, 1, 0);
+        interval(0, 0, 0);
+        assertEquals(DiagnosticsLevel.SAMPLED, governor.level());
+        interval(50, 1, 0);
+        interval(50, 1, 0);
+        assertEquals(DiagnosticsLevel.FULL, governor.level());
+    }
+
+    @Test
+    void degradesWhenOwnOverheadExceedsBudgetAndSamples() {
+        // 每条 1ms，开销合计占 10%
+        interval(100, 1, TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(DiagnosticsLevel.SAMPLED, governor.level());
+
+        int admitted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (governor.admit()) {
+                admitted++;
+            }
+        }
+        assertEquals(25, admitted);
+    }
+
+    @Test
+    void forcedModeAppliesImmediately() {
+        properties.setMode(DiagnosticsGovernorProperties.Mode.OFF);
+        governor.onEnvironmentChange();
+        assertEquals(DiagnosticsLevel.OFF, governor.level());
+        assertFalse(governor.admit());
+
+        properties.setMode(DiagnosticsGovernorProperties.Mode.AUTO);
+        properties.setMaxLevel(DiagnosticsLevel.SAMPLED);
+        properties.setRecoverIntervals(1);
+        governor.onEnvironmentChange();
+        assertEquals(DiagnosticsLevel.SAMPLED, governor.level());
+        interval(0, 0, 0);
+        assertEquals(DiagnosticsLevel.SAMPLED, governor.level());
+        assertTrue(governor.admit());
+    }
+
+    @Test
+    void samplesOnlyAtTheStatementRoot() throws Exception {
+        properties.setMode(DiagnosticsGovernorProperties.Mode.SAMPLED);
+        governor.onEnvironmentChange();
+        TestInterceptor interceptor = new TestInterceptor();
+        interceptor.setGovernor(governor);
+        Executor executor = (Executor) Plugin.wrap(Proxy.newProxyInstance(Executor.class.getClassLoader(),
+                new Class<?>[]{Executor.class}, (proxy, method, args) -> null), interceptor);
+        Configuration configuration = new Configuration();
+        MappedStatement ms = new MappedStatement.Builder(configuration, "UserMapper.streamAll",
+                new StaticSqlSource(configuration, "select * from users"), SqlCommandType.SELECT).build();
+
+        // commit/close 等会话级调用不询问调节器，也不推进采样计数
+        for (int i = 0; i < 3; i++) {
+            executor.getTransaction();
+            executor.commit(true);
+            executor.close(false);
+        }
+        assertEquals(0L, governor.stats().get("admitted"));
+        assertEquals(0L, governor.stats().get("skipped"));
+
+        for (int i = 0; i < 8; i++) {
+            executor.queryCursor(ms, null, RowBounds.DEFAULT);
+        }
+        assertEquals(2L, governor.stats().get("admitted"));
+        assertEquals(6L, governor.stats().get("skipped"));
+    }
+
+    private void interval(int statements, long latencyMs, long overheadNanos) {
+        for (int i = 0; i < statements; i++) {
+            governor.recordStatement(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        }
+        governor.recordOverhead(overheadNanos);
+        governor.evaluate();
+    }
+}
@@ -0,0 +1,114 @@
+package org.kubo.mybatislab.mybatis.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mybatis.jfr.JfrTracer.Phase;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrTracerTests {
+
+    @Test
+    void mapsExecutorMethods() throws Exception {
+        assertPhase(Phase.QUERY, Executor.class.getMethod("query",
+                MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class));
+        assertPhase(Phase.QUERY, Executor.class.getMethod("query",
+                MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class));
+        assertPhase(Phase.QUERY_CURSOR, Executor.class.getMethod("queryCursor",
+                MappedStatement.class, Object.class, RowBounds.class));
+        assertPhase(Phase.UPDATE, Executor.class.getMethod("update", MappedStatement.class, Object.class));
+        assertPhase(Phase.FLUSH_STATEMENTS, Executor.class.getMethod("flushStatements"));
+        assertPhase(Phase.COMMIT, Executor.class.getMethod("commit", boolean.class));
+        assertPhase(Phase.ROLLBACK, Executor.class.getMethod("rollback", boolean.class));
+        assertPhase(Phase.CLOSE, Executor.class.getMethod("close", boolean.class));
+        assertPhase(Phase.NONE, Executor.class.getMethod("isClosed"));
+        assertPhase(Phase.NONE, Executor.class.getMethod("getTransaction"));
+    }
+
+    @Test
+    void mapsHandlerMethodsByDeclaringType() throws Exception {
+        // StatementHandler 与 Executor 同名的 update/query/queryCursor 映射到不同阶段
+        assertPhase(Phase.PREPARE, StatementHandler.class.getMethod("prepare", Connection.class, Integer.class));
+        assertPhase(Phase.PARAMETERIZE, StatementHandler.class.getMethod("parameterize", Statement.class));
+        assertPhase(Phase.BATCH, StatementHandler.class.getMethod("batch", Statement.class));
+        assertPhase(Phase.STATEMENT_UPDATE, StatementHandler.class.getMethod("update", Statement.class));
+        assertPhase(Phase.STATEMENT_QUERY, StatementHandler.class.getMethod("query", Statement.class, ResultHandler.class));
+        assertPhase(Phase.STATEMENT_QUERY_CURSOR, StatementHandler.class.getMethod("queryCursor", Statement.class));
+        assertPhase(Phase.NONE, StatementHandler.class.getMethod("getBoundSql"));
+
+        assertPhase(Phase.SET_PARAMETERS, ParameterHandler.class.getMethod("setParameters", PreparedStatement.class));
+        assertPhase(Phase.NONE, ParameterHandler.class.getMethod("getParameterObject"));
+
+        assertPhase(Phase.HANDLE_RESULT_SETS, ResultSetHandler.class.getMethod("handleResultSets", Statement.class));
+        assertPhase(Phase.HANDLE_CURSOR_RESULT_SETS, ResultSetHandler.class.getMethod("handleCursorResultSets", Statement.class));
+        assertPhase(Phase.HANDLE_OUTPUT_PARAMETERS, ResultSetHandler.class.getMethod("handleOutputParameters", CallableStatement.class));
+
+        assertPhase(Phase.NONE, Object.class.getMethod("toString"));
+    }
+
+    @Test
+    void cachesOnePhasePerMethod() throws Exception {
+        Method commit = Executor.class.getMethod("commit", boolean.class);
+        Method rollback = Executor.class.getMethod("rollback", boolean.class);
+        JfrTracer.phaseOf(commit);
+        JfrTracer.phaseOf(commit);
+        JfrTracer.phaseOf(rollback);
+
+        assertSame(Phase.COMMIT, JfrTracer.PHASES.get(commit));
+        assertSame(Phase.ROLLBACK, JfrTracer.PHASES.get(rollback));
+    }
+
+    @Test
+    void recordsTransactionEventsWithTheirPhase() throws Throwable {
+        Executor executor = (Executor) Proxy.newProxyInstance(Executor.class.getClassLoader(),
+                new Class<?>[]{Executor.class}, (proxy, method, args) -> method.getReturnType() == boolean.class ? Boolean.FALSE : null);
+        Path file = Files.createTempFile("jfr-tracer", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.kubo.mybatislab.Transaction").withThreshold(Duration.ZERO);
+            recording.start();
+            JfrTracer.trace(new Invocation(executor, Executor.class.getMethod("commit", boolean.class), new Object[]{true}));
+            JfrTracer.trace(new Invocation(executor, Executor.class.getMethod("rollback", boolean.class), new Object[]{false}));
+            // 不属于任何阶段的方法直接放行，不产生事件
+            JfrTracer.trace(new Invocation(executor, Executor.class.getMethod("isClosed"), new Object[0]));
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(2, events.size());
+            assertEquals("commit", events.get(0).getString("action"));
+            assertTrue(events.get(0).getBoolean("flag"));
+            assertEquals("rollback", events.get(1).getString("action"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void assertPhase(Phase expected, Method method) {
+        assertSame(expected, JfrTracer.phaseOf(method), method.toString());
+    }
+}
@@ -0,0 +1,113 @@
+package org.kubo.mybatislab.mybatis.nplusone;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.mybatis.plugin.NPlusOneInterceptor;
+import org.kubo.mybatislab.support.TestDatabase;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NPlusOneDetectorTests {
+
+    private static final String FIND_BY_ID = UserMapper.class.getName() + ".findById";
+
+    private PooledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create("nplusone");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    void flagsDistinctParametersAboveThresholdWithinOneUnit() {
+        NPlusOneDetector detector = new NPlusOneDetector(true, 3, false, 10, 3);
+        SqlSessionFactory factory = factory(detector);
+
+        Object previous = detector.begin("GET /users");
+        try (SqlSession session = factory.openSession()) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            for (long id = 1; id <= 5; id++) {
+                mapper.findById(id);
+            }
+        }
+        detector.end(previous);
+
+        // 同一参数重复执行不算 N+1
+        previous = detector.begin("GET /users/1");
+        try (SqlSession session = factory.openSession()) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            for (int i = 0; i < 5; i++) {
+                mapper.findById(1L);
+            }
+        }
+        detector.end(previous);
+
+        // 不在任何工作单元内时不统计
+        try (SqlSession session = factory.openSession()) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            for (long id = 1; id <= 5; id++) {
+                mapper.findById(id);
+            }
+        }
+
+        Map<String, Object> findings = detector.findings();
+        assertEquals(2L, findings.get("units"));
+        assertEquals(1L, findings.get("flaggedUnits"));
+        List<?> recent = (List<?>) findings.get("recent");
+        assertEquals(1, recent.size());
+        Map<?, ?> finding = (Map<?, ?>) recent.get(0);
+        assertEquals("GET /users", finding.get("unit"));
+        assertEquals(FIND_BY_ID, finding.get("statementId"));
+        assertEquals("repeated-select", finding.get("kind"));
+        assertEquals(5L, finding.get("executions"));
+        assertEquals(5, finding.get("distinctParameters"));
+        List<?> callSite = (List<?>) finding.get("callSite");
+        assertTrue(((String) callSite.get(0)).startsWith(NPlusOneDetectorTests.class.getName() + "."), callSite.toString());
+    }
+
+    @Test
+    void strictModeFailsTheUnitOfWork() {
+        NPlusOneDetector detector = new NPlusOneDetector(true, 3, true, 10, 3);
+        SqlSessionFactory factory = factory(detector);
+
+        Object previous = detector.begin("GET /strict");
+        try (SqlSession session = factory.openSession()) {
+            UserMapper mapper = session.getMapper(UserMapper.class);
+            for (long id = 1; id <= 3; id++) {
+                mapper.findById(id);
+            }
+            PersistenceException e = assertThrows(PersistenceException.class, () -> mapper.findById(4L));
+            assertInstanceOf(NPlusOneQueryException.class, e.getCause());
+        } finally {
+            detector.end(previous);
+        }
+    }
+
+    private SqlSessionFactory factory(NPlusOneDetector detector) {
+        Configuration configuration = TestDatabase.configuration(dataSource);
+        configuration.setCacheEnabled(false);
+        configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        configuration.addInterceptor(new NPlusOneInterceptor(detector));
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+}
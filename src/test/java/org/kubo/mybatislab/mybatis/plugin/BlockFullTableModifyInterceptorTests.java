@@ -0,0 +1,145 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mybatis.sql.ModifyGuardVerdict;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockFullTableModifyInterceptorTests {
+
+    private final Configuration configuration = new Configuration();
+    private final BlockFullTableModifyInterceptor interceptor = new BlockFullTableModifyInterceptor();
+    private final AtomicInteger updates = new AtomicInteger();
+    private final Executor executor = (Executor) Plugin.wrap(target(), interceptor);
+
+    @Test
+    void staticStatementIsJudgedOnceById() throws Exception {
+        CountingSqlSource source = new CountingSqlSource("delete from users where id = ?");
+        MappedStatement ms = statement("UserMapper.deleteById", source, SqlCommandType.DELETE);
+
+        executor.update(ms, 1L);
+        executor.update(ms, 2L);
+        executor.update(ms, 3L);
+
+        // 命中按 statement id 缓存的判定后，不再生成 BoundSql
+        assertEquals(1, source.boundSqlCalls.get());
+        assertEquals(ModifyGuardVerdict.SAFE, interceptor.staticVerdicts.get("UserMapper.deleteById"));
+        assertTrue(interceptor.dynamicVerdicts.isEmpty());
+        assertEquals(3, updates.get());
+    }
+
+    @Test
+    void dynamicStatementIsCachedBySqlText() throws Exception {
+        MappedStatement ms = statement("UserMapper.updateDynamic",
+                parameter -> new BoundSql(configuration, "update users set name = ? where id = " + parameter,
+                        Collections.emptyList(), parameter),
+                SqlCommandType.UPDATE);
+
+        executor.update(ms, 1L);
+        executor.update(ms, 1L);
+        executor.update(ms, 2L);
+
+        assertEquals(2, interceptor.dynamicVerdicts.size());
+        assertTrue(interceptor.staticVerdicts.isEmpty());
+        assertEquals(3, updates.get());
+    }
+
+    @Test
+    void dynamicCacheIsClearedWhenFull() throws Exception {
+        MappedStatement ms = statement("UserMapper.deleteDynamic",
+                parameter -> new BoundSql(configuration, "delete from users where id = " + parameter,
+                        Collections.emptyList(), parameter),
+                SqlCommandType.DELETE);
+
+        for (long id = 0; id < 2048; id++) {
+            executor.update(ms, id);
+        }
+        assertEquals(2048, interceptor.dynamicVerdicts.size());
+
+        // 第 2049 条不同的 SQL：整体清空后只保留新判定
+        executor.update(ms, 2048L);
+        assertEquals(1, interceptor.dynamicVerdicts.size());
+        assertTrue(interceptor.dynamicVerdicts.containsKey("delete from users where id = 2048"));
+    }
+
+    @Test
+    void cacheSizeUsesTheSameKeyAsSpringConfiguration() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("blockFullTableModifyCacheSize", "2");
+        interceptor.setProperties(properties);
+        MappedStatement ms = statement("UserMapper.deleteDynamic",
+                parameter -> new BoundSql(configuration, "delete from users where id = " + parameter,
+                        Collections.emptyList(), parameter),
+                SqlCommandType.DELETE);
+
+        executor.update(ms, 1L);
+        executor.update(ms, 2L);
+        executor.update(ms, 3L);
+        assertEquals(1, interceptor.dynamicVerdicts.size());
+    }
+
+    @Test
+    void cachedUnsafeVerdictStillBlocks() {
+        MappedStatement ms = statement("UserMapper.deleteAll",
+                new CountingSqlSource("delete from users"), SqlCommandType.DELETE);
+
+        assertThrows(IllegalStateException.class, () -> executor.update(ms, null));
+        assertThrows(IllegalStateException.class, () -> executor.update(ms, null));
+        assertEquals(1, interceptor.staticVerdicts.size());
+        assertEquals(0, updates.get());
+    }
+
+    @Test
+    void insertSkipsTheCache() throws Exception {
+        CountingSqlSource source = new CountingSqlSource("insert into users(name) values (?)");
+        executor.update(statement("UserMapper.insert", source, SqlCommandType.INSERT), "carol");
+
+        assertEquals(0, source.boundSqlCalls.get());
+        assertTrue(interceptor.staticVerdicts.isEmpty());
+        assertEquals(1, updates.get());
+    }
+
+    private MappedStatement statement(String id, SqlSource source, SqlCommandType type) {
+        return new MappedStatement.Builder(configuration, id, source, type).build();
+    }
+
+    private Executor target() {
+        return (Executor) Proxy.newProxyInstance(Executor.class.getClassLoader(),
+                new Class<?>[]{Executor.class}, (proxy, method, args) -> {
+                    if ("update".equals(method.getName())) {
+                        return updates.incrementAndGet();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private final class CountingSqlSource extends StaticSqlSource {
+
+        final AtomicInteger boundSqlCalls = new AtomicInteger();
+
+        CountingSqlSource(String sql) {
+            super(configuration, sql);
+        }
+
+        @Override
+        public BoundSql getBoundSql(Object parameterObject) {
+            boundSqlCalls.incrementAndGet();
+            return super.getBoundSql(parameterObject);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.kubo.mybatislab.mybatis.plugin;
+
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 组合拦截器与逐个 {@code Plugin.wrap} 叠代理的行为对照：调用顺序、返回值与异常传播都应一致。
+ */
+class CompositeInterceptorTests {
+
+    @Test
+    void callOrderMatchesStackedPlugins() throws Exception {
+        List<String> stackedLog = new ArrayList<>();
+        List<String> compositeLog = new ArrayList<>();
+        Greeter stacked = stacked(new Target(stackedLog), interceptors(stackedLog));
+        Greeter composite = composite(new Target(compositeLog), interceptors(compositeLog));
+
+        assertEquals(stacked.greet("kubo"), composite.greet("kubo"));
+        assertEquals(List.of("C>", "B>", "A>", "target", "<A", "<B", "<C"), stackedLog);
+        assertEquals(stackedLog, compositeLog);
+
+        // 没有任何拦截器声明的方法直接调用目标
+        stackedLog.clear();
+        compositeLog.clear();
+        assertEquals(stacked.count(), composite.count());
+        assertEquals(List.of("count"), stackedLog);
+        assertEquals(stackedLog, compositeLog);
+    }
+
+    @Test
+    void checkedExceptionsPropagateTheSameWay() {
+        List<String> stackedLog = new ArrayList<>();
+        List<String> compositeLog = new ArrayList<>();
+        Greeter stacked = stacked(new Target(stackedLog), interceptors(stackedLog));
+        Greeter composite = composite(new Target(compositeLog), interceptors(compositeLog));
+
+        // 目标抛出受检异常：调用方拿到原始异常，各层 proceed() 看到的都是 InvocationTargetException
+        IOException fromStacked = assertThrows(IOException.class, () -> stacked.greet("io"));
+        IOException fromComposite = assertThrows(IOException.class, () -> composite.greet("io"));
+        assertEquals(fromStacked.getMessage(), fromComposite.getMessage());
+        assertEquals(List.of("C>", "B>", "A>", "target", "A!InvocationTargetException",
+                "B!InvocationTargetException", "C!InvocationTargetException"), stackedLog);
+        assertEquals(stackedLog, compositeLog);
+    }
+
+    @Test
+    void exceptionsThrownByAnInterceptorPropagateTheSameWay() {
+        List<String> stackedLog = new ArrayList<>();
+        List<String> compositeLog = new ArrayList<>();
+        Greeter stacked = stacked(new Target(stackedLog), interceptors(stackedLog));
+        Greeter composite = composite(new Target(compositeLog), interceptors(compositeLog));
+
+        // B 自己抛出运行时异常：A 与目标不再执行，外层 C 的 proceed() 看到的是包装后的 InvocationTargetException
+        IllegalStateException fromStacked = assertThrows(IllegalStateException.class, () -> stacked.greet("veto"));
+        IllegalStateException fromComposite = assertThrows(IllegalStateException.class, () -> composite.greet("veto"));
+        assertEquals("B vetoed", fromStacked.getMessage());
+        assertEquals(fromStacked.getMessage(), fromComposite.getMessage());
+        assertEquals(List.of("C>", "B>", "C!InvocationTargetException"), stackedLog);
+        assertEquals(stackedLog, compositeLog);
+    }
+
+    @Test
+    void skippedTargetTypesAreNotProxied() {
+        Target target = new Target(new ArrayList<>());
+        CompositeInterceptor interceptor = new CompositeInterceptor(interceptors(new ArrayList<>()));
+        interceptor.setSkipTargetTypes(List.of(Target.class));
+        assertSame(target, interceptor.plugin(target));
+    }
+
+    private static Greeter stacked(Greeter target, List<Interceptor> interceptors) {
+        Object wrapped = target;
+        for (Interceptor interceptor : interceptors) {
+            wrapped = Plugin.wrap(wrapped, interceptor);
+        }
+        return (Greeter) wrapped;
+    }
+
+    private static Greeter composite(Greeter target, List<Interceptor> interceptors) {
+        return (Greeter) new CompositeInterceptor(interceptors).plugin(target);
+    }
+
+    /**
+     * 按注册顺序 A、B、C：B 遇到参数 veto 时拒绝放行。
+     */
+    private static List<Interceptor> interceptors(List<String> log) {
+        return List.of(
+                new Recording("A", log, null),
+                new Recording("B", log, arg -> "veto".equals(arg) ? new IllegalStateException("B vetoed") : null),
+                new Recording("C", log, null));
+    }
+
+    public interface Greeter {
+
+        String greet(String name) throws IOException;
+
+        int count();
+    }
+
+    static final class Target implements Greeter {
+
+        private final List<String> log;
+
+        Target(List<String> log) {
+            this.log = log;
+        }
+
+        @Override
+        public String greet(String name) throws IOException {
+            log.add("target");
+            if ("io".equals(name)) {
+                throw new IOException("disk full");
+            }
+            return "hello " + name;
+        }
+
+        @Override
+        public int count() {
+            log.add("count");
+            return 42;
+        }
+    }
+
+    @Intercepts(@Signature(type = Greeter.class, method = "greet", args = {String.class}))
+    static final class Recording implements Interceptor {
+
+        private final String name;
+        private final List<String> log;
+        private final Function<Object, RuntimeException> veto;
+
+        Recording(String name, List<String> log, Function<Object, RuntimeException> veto) {
+            this.name = name;
+            this.log = log;
+            this.veto = veto;
+        }
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            log.add(name + ">");
+            RuntimeException rejected = veto == null ? null : veto.apply(invocation.getArgs()[0]);
+            if (rejected != null) {
+                throw rejected;
+            }
+            try {
+                Object result = invocation.proceed();
+                log.add("<" + name);
+                return result;
+            } catch (Throwable e) {
+                log.add(name + "!" + e.getClass().getSimpleName());
+                throw e;
+            }
+        }
+    }
+}
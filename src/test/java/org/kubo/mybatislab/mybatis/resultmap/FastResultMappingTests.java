@@ -0,0 +1,125 @@
+package org.kubo.mybatislab.mybatis.resultmap;
+
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.mybatis.plugin.FastResultMappingInterceptor;
+import org.kubo.mybatislab.support.TestDatabase;
+import org.kubo.mybatislab.user.model.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastResultMappingTests {
+
+    private static final String FIND_ALL = UserMapper.class.getName() + ".findAll";
+    private static final String FIND_RENAMED = ProbeMapper.class.getName() + ".findRenamed";
+    private static final String COUNT = ProbeMapper.class.getName() + ".count";
+
+    private PooledDataSource dataSource;
+    private RowMapperRegistry registry;
+    private SqlSessionFactory plain;
+    private SqlSessionFactory fast;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create("resultmap");
+        registry = new RowMapperRegistry();
+        plain = new SqlSessionFactoryBuilder().build(configuration());
+        Configuration configuration = configuration();
+        configuration.addInterceptor(new FastResultMappingInterceptor(registry));
+        fast = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    private Configuration configuration() {
+        Configuration configuration = TestDatabase.configuration(dataSource);
+        configuration.setCacheEnabled(false);
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addMapper(ProbeMapper.class);
+        return configuration;
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    void generatedMapperMatchesReflectiveMapping() {
+        assertSameUsers(run(plain, s -> s.getMapper(UserMapper.class).findAll()),
+                run(fast, s -> s.getMapper(UserMapper.class).findAll()));
+        assertSameUsers(run(plain, s -> s.getMapper(ProbeMapper.class).findRenamed()),
+                run(fast, s -> s.getMapper(ProbeMapper.class).findRenamed()));
+        assertNull(run(fast, s -> s.getMapper(UserMapper.class).findById(404L)));
+        assertEquals("alice", run(fast, s -> s.getMapper(UserMapper.class).findById(1L)).getUsername());
+
+        // H2 返回大写列标签
+        Map<String, Object> findAll = view(FIND_ALL);
+        assertEquals(true, findAll.get("compiled"));
+        assertEquals(1L, findAll.get("executions"));
+        assertEquals(1L, findAll.get("compilations"));
+        assertEquals(Map.of("ID", "id", "USERNAME", "username", "EMAIL", "email"), findAll.get("columns"));
+        assertEquals(Map.of("ID", "id", "USER_NAME", "username", "EMAIL", "email"), view(FIND_RENAMED).get("columns"));
+    }
+
+    @Test
+    void unsupportedShapesFallBackToMyBatis() {
+        assertEquals(2L, (long) run(fast, s -> s.getMapper(ProbeMapper.class).count()));
+        Map<String, Object> count = view(COUNT);
+        assertFalse((Boolean) count.get("compiled"));
+        assertTrue(((String) count.get("reason")).startsWith("simple result type"));
+
+        List<User> page = run(fast, s -> s.<User>selectList(FIND_ALL, null, new RowBounds(1, 1)));
+        assertEquals(1, page.size());
+        assertEquals("bob", page.get(0).getUsername());
+        assertEquals(1L, view(FIND_ALL).get("fallbacks"));
+        assertEquals(0L, view(FIND_ALL).get("executions"));
+    }
+
+    private static <T> T run(SqlSessionFactory factory, Function<SqlSession, T> action) {
+        try (SqlSession session = factory.openSession()) {
+            return action.apply(session);
+        }
+    }
+
+    private static void assertSameUsers(List<User> expected, List<User> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertFalse(expected.isEmpty());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+
+    private Map<String, Object> view(String statementId) {
+        return registry.snapshot().stream()
+                .filter(m -> statementId.equals(m.get("statementId")))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    interface ProbeMapper {
+
+        @Select("select id, username as user_name, email from t_user order by id")
+        @Results({@Result(column = "user_name", property = "username")})
+        List<User> findRenamed();
+
+        @Select("select count(*) from t_user")
+        long count();
+    }
+}
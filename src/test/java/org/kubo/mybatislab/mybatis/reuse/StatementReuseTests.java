@@ -0,0 +1,72 @@
+package org.kubo.mybatislab.mybatis.reuse;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.mybatis.plugin.StatementPrepareInterceptor;
+import org.kubo.mybatislab.mybatis.stats.SqlStatsRegistry;
+import org.kubo.mybatislab.support.TestDatabase;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatementReuseTests {
+
+    private static final String FIND_BY_ID = UserMapper.class.getName() + ".findById";
+
+    private PooledDataSource dataSource;
+    private SqlStatsRegistry registry;
+    private StatementReuseTemplate template;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create("reuse");
+        Configuration configuration = TestDatabase.configuration(dataSource);
+        configuration.setCacheEnabled(false);
+        registry = new SqlStatsRegistry();
+        configuration.addInterceptor(new StatementPrepareInterceptor(registry));
+        template = new StatementReuseTemplate(new SqlSessionFactoryBuilder().build(configuration), ExecutorType.REUSE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    void reuseExecutorPreparesOncePerScope() {
+        assertEquals(2L, template.execute(ExecutorType.SIMPLE, UserMapper.class, this::lookupFive));
+        Map<String, Object> simple = view();
+        assertEquals(5L, simple.get("prepares"));
+        assertEquals(0L, simple.get("reused"));
+
+        registry.reset();
+        assertEquals(2L, template.execute(UserMapper.class, this::lookupFive));
+        Map<String, Object> reuse = view();
+        assertEquals(1L, reuse.get("prepares"));
+        assertEquals(4L, reuse.get("reused"));
+    }
+
+    private long lookupFive(UserMapper mapper) {
+        long found = 0;
+        for (long id = 1; id <= 5; id++) {
+            if (mapper.findById(id) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private Map<String, Object> view() {
+        return registry.snapshot().stream()
+                .filter(v -> FIND_BY_ID.equals(v.get("statementId")))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,139 @@
+package org.kubo.mybatislab.mybatis.routing;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mybatis.plugin.ReadWriteRoutingInterceptor;
+import org.kubo.mybatislab.support.TestDatabase;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 两个 H2 库分别充当主库与副本（副本里 id=1 的用户名不同，用来区分读到的是哪个库）。
+ */
+class ReadWriteRoutingTests {
+
+    interface RoutedMapper {
+
+        @Select("select username from t_user where id = #{id}")
+        String usernameOf(@Param("id") long id);
+
+        @DataSourceRoute(Route.PRIMARY)
+        @Select("select username from t_user where id = #{id}")
+        String usernameOnPrimary(@Param("id") long id);
+
+        @Update("update t_user set email = #{email} where id = #{id}")
+        int updateEmail(@Param("id") long id, @Param("email") String email);
+    }
+
+    private final List<PooledDataSource> pools = new ArrayList<>();
+    private ReadWriteRoutingDataSource routing;
+    private RoutedMapper mapper;
+    private TransactionTemplate transactions;
+
+    private void setUp(Map<String, DataSource> replicas) throws Exception {
+        PooledDataSource primary = database("primary");
+        routing = new ReadWriteRoutingDataSource(primary, replicas, ReplicaSelectionPolicy.ROUND_ROBIN, 2, 60_000, 0);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        Configuration configuration = new Configuration(
+                new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        configuration.setCacheEnabled(false);
+        configuration.addInterceptor(new ReadWriteRoutingInterceptor(10_000, "", ""));
+        configuration.addMapper(RoutedMapper.class);
+        mapper = new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(configuration)).getMapper(RoutedMapper.class);
+        transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        RoutingContext.clear();
+        if (routing != null) {
+            routing.destroy();
+        }
+        pools.forEach(PooledDataSource::forceCloseAll);
+    }
+
+    @Test
+    void readsGoToReplicaUntilWriteOrOverride() throws Exception {
+        PooledDataSource replica = database("replica");
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("update t_user set username = 'alice@replica' where id = 1");
+        }
+        setUp(Map.of("replica-1", replica));
+
+        assertEquals("alice@replica", mapper.usernameOf(1));
+        assertEquals("alice", mapper.usernameOnPrimary(1));
+
+        // 读写事务内：读也走主库
+        assertEquals("alice", transactions.execute(status -> {
+            mapper.updateEmail(2, "bob@tx");
+            return mapper.usernameOf(1);
+        }));
+        RoutingContext.clear();
+
+        // 只读事务：走副本
+        transactions.setReadOnly(true);
+        assertEquals("alice@replica", transactions.execute(status -> mapper.usernameOf(1)));
+        transactions.setReadOnly(false);
+
+        // 写后粘滞：同一请求内之后的读走主库，请求结束（clear）后恢复
+        mapper.updateEmail(2, "bob@sticky");
+        assertEquals("alice", mapper.usernameOf(1));
+        RoutingContext.clear();
+        assertEquals("alice@replica", mapper.usernameOf(1));
+    }
+
+    @Test
+    void failingReplicaFallsBackToPrimaryAndIsEjected() throws Exception {
+        setUp(Map.of("broken", new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("replica down");
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                throw new SQLException("replica down");
+            }
+        }));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("alice", mapper.usernameOf(1));
+        }
+        Map<String, Object> stats = routing.stats();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> broken = ((List<Map<String, Object>>) stats.get("replicas")).get(0);
+        // 阈值 2：前两次取连接失败后摘除，第三次直接走主库不再尝试
+        assertEquals(2L, broken.get("failures"));
+        assertEquals(1L, broken.get("ejections"));
+        assertFalse((Boolean) broken.get("available"));
+    }
+
+    private PooledDataSource database(String name) throws Exception {
+        PooledDataSource dataSource = TestDatabase.create(name);
+        pools.add(dataSource);
+        return dataSource;
+    }
+}
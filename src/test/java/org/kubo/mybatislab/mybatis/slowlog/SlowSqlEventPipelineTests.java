@@ -0,0 +1,81 @@
+package org.kubo.mybatislab.mybatis.slowlog;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowSqlEventPipelineTests {
+
+    @Test
+    void dropPolicyRejectsWhenTheRingIsFull() {
+        // 不启动消费者：容量 4 写满后其余全部丢弃
+        SlowSqlEventPipeline pipeline = new SlowSqlEventPipeline(4, 128, 10, OverflowPolicy.DROP, 10, sink());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(pipeline.publish("m.s", "select " + i, 1));
+        }
+        assertFalse(pipeline.publish("m.s", "select 4", 1));
+        assertFalse(pipeline.publish("m.s", "select 5", 1));
+
+        assertEquals(4L, pipeline.stats().get("published"));
+        assertEquals(2L, pipeline.stats().get("dropped"));
+        assertEquals(0L, pipeline.stats().get("sampledOut"));
+    }
+
+    @Test
+    void samplePolicyKeepsOneInRateAboveHighWatermark() {
+        // 容量 8，高水位 6：前 6 条全收，之后每 3 条只收 1 条，直到写满
+        SlowSqlEventPipeline pipeline = new SlowSqlEventPipeline(8, 128, 10, OverflowPolicy.SAMPLE, 3, sink());
+        int accepted = 0;
+        for (int i = 0; i < 12; i++) {
+            if (pipeline.publish("m.s", "select " + i, 1)) {
+                accepted++;
+            }
+        }
+        // 6 条低于水位 + 余下 6 条中按 1/3 采样的 2 条
+        assertEquals(8, accepted);
+        assertEquals(4L, pipeline.stats().get("sampledOut"));
+        assertEquals(0L, pipeline.stats().get("dropped"));
+    }
+
+    @Test
+    void consumerWritesBacklogInBatches() throws Exception {
+        int[] flushes = new int[1];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8) {
+            @Override
+            public void print(Object obj) {
+                flushes[0]++;
+                super.print(obj);
+            }
+        };
+        SlowSqlEventPipeline pipeline = new SlowSqlEventPipeline(16, 2, 10, OverflowPolicy.DROP, 10, out);
+        for (int i = 0; i < 5; i++) {
+            pipeline.publish("UserMapper.findById", "select " + i, TimeUnit.MILLISECONDS.toNanos(150));
+        }
+        pipeline.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((Long) pipeline.stats().get("written") < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        pipeline.destroy();
+
+        assertEquals(5L, pipeline.stats().get("written"));
+        assertEquals(0L, pipeline.stats().get("backlog"));
+        // batchSize=2：5 条积压分 3 批写出，每批一次 print
+        assertEquals(3, flushes[0]);
+        String log = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(log.contains("id=UserMapper.findById, cost=150.0ms, sql=select 0"), log);
+        assertEquals(5, log.lines().count());
+    }
+
+    private static PrintStream sink() {
+        return new PrintStream(new ByteArrayOutputStream());
+    }
+}
@@ -0,0 +1,47 @@
+package org.kubo.mybatislab.mybatis.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ModifyGuardScannerTests {
+
+    @Test
+    void topLevelWhereIsSafe() {
+        assertEquals(ModifyGuardVerdict.SAFE, ModifyGuardScanner.scan("update t_user set username = 'kubo' where id = 1"));
+        assertEquals(ModifyGuardVerdict.SAFE, ModifyGuardScanner.scan("DELETE FROM t_user WHERE id IN (?, ?)"));
+        assertEquals(ModifyGuardVerdict.SAFE, ModifyGuardScanner.scan("delete from t_user limit 10"));
+        assertEquals(ModifyGuardVerdict.SAFE, ModifyGuardScanner.scan("update t set a = 1 where id between 1 and 5"));
+    }
+
+    @Test
+    void missingWhereIsBlocked() {
+        assertEquals(ModifyGuardVerdict.NO_WHERE, ModifyGuardScanner.scan("update t_user set username = 'kubo'"));
+        assertEquals(ModifyGuardVerdict.NO_WHERE, ModifyGuardScanner.scan("delete from t_user"));
+    }
+
+    @Test
+    void whereHiddenInLiteralsCommentsOrSubqueriesDoesNotCount() {
+        assertEquals(ModifyGuardVerdict.NO_WHERE, ModifyGuardScanner.scan("update t set note = ' where id = 1 '"));
+        assertEquals(ModifyGuardVerdict.NO_WHERE, ModifyGuardScanner.scan("update t set `where` = 1"));
+        assertEquals(ModifyGuardVerdict.NO_WHERE, ModifyGuardScanner.scan("delete from t -- where id = 1"));
+        assertEquals(ModifyGuardVerdict.NO_WHERE, ModifyGuardScanner.scan("delete from t /* where id = 1 */"));
+        assertEquals(ModifyGuardVerdict.NO_WHERE,
+                ModifyGuardScanner.scan("update t set a = (select max(b) from s where s.id = 1)"));
+    }
+
+    @Test
+    void triviallyTruePredicatesAreBlocked() {
+        assertEquals(ModifyGuardVerdict.TRIVIAL_WHERE, ModifyGuardScanner.scan("delete from t where 1=1"));
+        assertEquals(ModifyGuardVerdict.TRIVIAL_WHERE, ModifyGuardScanner.scan("delete from t where 'a' = 'a'"));
+        assertEquals(ModifyGuardVerdict.TRIVIAL_WHERE, ModifyGuardScanner.scan("update t set a = 1 where id = 1 or 1 = 1"));
+        assertEquals(ModifyGuardVerdict.SAFE, ModifyGuardScanner.scan("update t set a = 1 where 1=1 and id = 3"));
+    }
+
+    @Test
+    void everyStatementIsChecked() {
+        assertEquals(ModifyGuardVerdict.NO_WHERE,
+                ModifyGuardScanner.scan("update t set a = 1 where id = 1; delete from t"));
+        assertEquals(ModifyGuardVerdict.SAFE, ModifyGuardScanner.scan("select * from t"));
+    }
+}
@@ -0,0 +1,57 @@
+package org.kubo.mybatislab.mybatis.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SqlFingerprinterTests {
+
+    @Test
+    void literalsAndPlaceholdersBecomeTheSameShape() {
+        assertEquals("select * from t_user where id = ? and name = ?",
+                SqlFingerprinter.normalize("SELECT * FROM t_user WHERE id = 42 AND name = 'it''s'"));
+        assertEquals(SqlFingerprinter.normalize("select * from t_user where id = ?"),
+                SqlFingerprinter.normalize("select *\n  from T_USER\twhere id = 7;"));
+    }
+
+    @Test
+    void inListsOfAnyLengthCollapse() {
+        String shape = SqlFingerprinter.normalize("select id from t_user where id in (?)");
+        assertEquals("select id from t_user where id in (?+)", shape);
+        assertEquals(shape, SqlFingerprinter.normalize("select id from t_user where id IN (?, ?, ?)"));
+        assertEquals(shape, SqlFingerprinter.normalize("select id from t_user where id in (1, 2, 'x')"));
+        // 函数调用与子查询保持原样
+        assertEquals("select count (*) from t where a = coalesce (b, ?)",
+                SqlFingerprinter.normalize("select count(*) from t where a = coalesce (b, 0)"));
+        assertEquals("select * from t where id in (select uid from s where k = ?)",
+                SqlFingerprinter.normalize("select * from t where id in (select uid from s where k = 5)"));
+    }
+
+    @Test
+    void multiRowValuesCollapseToOneGroup() {
+        assertEquals("insert into t_user (id, username) values (?+)",
+                SqlFingerprinter.normalize("INSERT INTO t_user (id, username) VALUES (?, ?), (?, ?), (?, ?)"));
+        assertEquals(SqlFingerprinter.normalize("insert into t_user (id, username) values (?, ?)"),
+                SqlFingerprinter.normalize("insert into t_user (id, username) values (1, 'a'), (2, 'b')"));
+    }
+
+    @Test
+    void commentsAreDroppedAndQualifiedNamesKept() {
+        assertEquals("select u.id from t_user u where u.id = ?",
+                SqlFingerprinter.normalize("/* hint */ select u.id -- trailing\n from t_user u where u . id = ?"));
+    }
+
+    @Test
+    void fingerprintsAreCachedAndBounded() {
+        SqlFingerprinter fingerprinter = new SqlFingerprinter(2);
+        SqlFingerprinter.Fingerprint a = fingerprinter.fingerprint("select * from t where id = 1");
+        assertSame(a, fingerprinter.fingerprint("select * from t where id = 1"));
+        assertEquals(a.id(), fingerprinter.fingerprint("select * from t where id = 2").id());
+        assertNotEquals(a.id(), fingerprinter.fingerprint("select * from t where name = 'x'").id());
+        assertEquals(16, a.id().length());
+        assertEquals(1L, fingerprinter.stats().get("hits"));
+        assertEquals(1L, fingerprinter.stats().get("evictions"));
+    }
+}
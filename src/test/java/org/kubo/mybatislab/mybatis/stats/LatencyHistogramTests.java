@@ -0,0 +1,107 @@
+package org.kubo.mybatislab.mybatis.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTests {
+
+    private static final int LAST = LatencyHistogram.BUCKET_COUNT - 1;
+
+    @Test
+    void smallValuesHaveOneBucketEach() {
+        for (int v = 0; v < 16; v++) {
+            assertEquals(v, LatencyHistogram.bucketIndex(v));
+            assertEquals(v, LatencyHistogram.bucketUpperBound(v));
+        }
+    }
+
+    @Test
+    void subBucketEdges() {
+        // 16..31：指数 4，子桶宽 1
+        assertEquals(16, LatencyHistogram.bucketIndex(16));
+        assertEquals(31, LatencyHistogram.bucketIndex(31));
+        // 32..63：子桶宽 2
+        assertEquals(32, LatencyHistogram.bucketIndex(32));
+        assertEquals(32, LatencyHistogram.bucketIndex(33));
+        assertEquals(33, LatencyHistogram.bucketIndex(34));
+        assertEquals(33, LatencyHistogram.bucketUpperBound(32));
+        assertEquals(63, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(63)));
+        // 2 的幂跨段：1023 在上一段最后一个子桶，1024 开启新段的第一个子桶
+        int i1023 = LatencyHistogram.bucketIndex(1023);
+        int i1024 = LatencyHistogram.bucketIndex(1024);
+        assertEquals(i1023 + 1, i1024);
+        assertEquals(1023, LatencyHistogram.bucketUpperBound(i1023));
+        assertEquals(1024 + 63, LatencyHistogram.bucketUpperBound(i1024));
+    }
+
+    @Test
+    void largeValuesClampToTheLastBucket() {
+        long maxTrackable = (1L << 37) - 1;
+        assertEquals(LAST, LatencyHistogram.bucketIndex(maxTrackable));
+        assertEquals(LAST, LatencyHistogram.bucketIndex(maxTrackable + 1));
+        assertEquals(LAST, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+        assertEquals(maxTrackable, LatencyHistogram.bucketUpperBound(LAST));
+        assertEquals(LAST - 1, LatencyHistogram.bucketIndex(maxTrackable - (1L << 32)));
+    }
+
+    @Test
+    void everyValueFallsInsideItsBucketWithBoundedError() {
+        int previous = -1;
+        for (long v = 0; v < 1 << 20; v += 1 + v / 64) {
+            int index = LatencyHistogram.bucketIndex(v);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            long lower = index == 0 ? 0 : LatencyHistogram.bucketUpperBound(index - 1) + 1;
+            assertTrue(index >= previous, "index must not decrease at " + v);
+            assertTrue(lower <= v && v <= upper, v + " not in [" + lower + ", " + upper + "]");
+            // 上界相对误差不超过 1/16
+            assertTrue(upper - v <= v / 16, "error too large at " + v + ": " + upper);
+            previous = index;
+        }
+    }
+
+    @Test
+    void percentilesOnSyntheticData() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LatencyHistogram.Snapshot empty = histogram.snapshot();
+        assertEquals(0, empty.getValueAtPercentile(99));
+        assertEquals(0.0, empty.getMean());
+
+        for (long v = 1; v <= 1000; v++) {
+            histogram.record(v);
+        }
+        histogram.record(-5);
+        LatencyHistogram.Snapshot s = histogram.snapshot();
+        assertEquals(1001, s.getCount());
+        assertEquals(1000, s.getMax());
+        assertEquals(500500 / 1001.0, s.getMean(), 1e-9);
+        // 负值按 0 记录
+        assertEquals(0, s.getValueAtPercentile(0));
+        assertEquals(10, s.getValueAtPercentile(1));
+        // 第 501 个值是 500，落在 [496, 511]，按桶上界报告
+        assertEquals(511, s.getValueAtPercentile(50));
+        // 第 991 个值是 990，落在 [960, 991]
+        assertEquals(991, s.getValueAtPercentile(99));
+        // 最高分位不超过真实最大值
+        assertEquals(1000, s.getValueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getMax());
+    }
+
+    @Test
+    void singleOutlierOnlyMovesTheTail() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 999; i++) {
+            histogram.record(1_000_000);
+        }
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot s = histogram.snapshot();
+        long p99 = s.getValueAtPercentile(99);
+        assertTrue(p99 >= 1_000_000 && p99 <= 1_000_000 + 1_000_000 / 16, String.valueOf(p99));
+        assertEquals(Long.MAX_VALUE, s.getMax());
+        assertEquals((1L << 37) - 1, s.getValueAtPercentile(100));
+    }
+}
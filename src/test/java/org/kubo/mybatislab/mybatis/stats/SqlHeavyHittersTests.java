@@ -0,0 +1,84 @@
+package org.kubo.mybatislab.mybatis.stats;
+
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mybatis.sql.SqlFingerprinter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlHeavyHittersTests {
+
+    @Test
+    void heavyShapesSurviveALongTailWithinFixedCapacity() {
+        SqlHeavyHitters hitters = new SqlHeavyHitters(new SqlFingerprinter(64), 16);
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int r = random.nextInt(100);
+            if (r < 30) {
+                // 同一形状，IN 列表长度各不相同
+                hitters.record("UserMapper.findByIds", "select * from t_user where id in ("
+                        + "?, ".repeat(random.nextInt(5)) + "?)", 1_000);
+            } else if (r < 50) {
+                hitters.record("UserMapper.findById", "select * from t_user where id = " + random.nextInt(1000), 1_000);
+            } else if (r < 51) {
+                hitters.record("ReportMapper.slow", "select sum(amount) from t_order where day = ?", 50_000_000);
+            } else {
+                // 长尾：每条都是不同的表，形状互不相同
+                hitters.record("Ad.hoc", "select * from t_tail_" + i + " where k = ?", 1_000);
+            }
+        }
+
+        List<Map<String, Object>> byCalls = hitters.top("calls", 2);
+        assertEquals(Set.of("select * from t_user where id in (?+)", "select * from t_user where id = ?"),
+                byCalls.stream().map(m -> m.get("shape")).collect(Collectors.toSet()));
+        Map<String, Object> first = byCalls.get(0);
+        assertEquals("select * from t_user where id in (?+)", first.get("shape"));
+        long estimated = (Long) first.get("estimatedCalls");
+        long error = (Long) first.get("error");
+        // 真实次数约 6000：估算值只会偏大，且偏大不超过 error
+        assertTrue(estimated - error <= 6_500 && estimated >= 5_500, "estimated=" + estimated + " error=" + error);
+
+        Map<String, Object> slowest = hitters.top("time", 1).get(0);
+        assertEquals("select sum (amount) from t_order where day = ?", slowest.get("shape"));
+        assertEquals("ReportMapper.slow", slowest.get("statementId"));
+
+        Map<String, Object> stats = hitters.stats();
+        assertEquals(16, stats.get("trackedByCalls"));
+        assertEquals(20_000L, stats.get("totalCalls"));
+    }
+
+    @Test
+    void createsCounterValuesOnlyOnInsertOrReplace() {
+        SpaceSaving<String> counters = new SpaceSaving<>(2);
+        AtomicInteger created = new AtomicInteger();
+        Function<String, String> factory = key -> key + "#" + created.incrementAndGet();
+
+        counters.offer("a", 1, "a", factory);
+        counters.offer("a", 1, "a", factory);
+        counters.offer("b", 5, "b", factory);
+        counters.offer("b", 5, "b", factory);
+        assertEquals(2, created.get());
+
+        // 已满：替换权重最小的 a
+        assertEquals("c#3", counters.offer("c", 1, "c", factory).value);
+        counters.offer("c", 1, "c", factory);
+        assertEquals(3, created.get());
+    }
+
+    @Test
+    void resetClearsCounters() {
+        SqlHeavyHitters hitters = new SqlHeavyHitters(new SqlFingerprinter(64), 4);
+        hitters.record("A.a", "select 1", 10);
+        hitters.reset();
+        assertTrue(hitters.top("calls", 10).isEmpty());
+        assertEquals(0L, hitters.stats().get("totalCalls"));
+    }
+}
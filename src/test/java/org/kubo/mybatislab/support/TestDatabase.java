@@ -0,0 +1,67 @@
+package org.kubo.mybatislab.support;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.kubo.mybatislab.mapper.UserMapper;
+
+import javax.sql.DataSource;
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.UUID;
+
+/**
+ * 不依赖 Spring 的测试数据库：每次新建一个独立的 H2 内存库（MySQL 模式），并执行 schema.sql/data.sql
+ * （初始数据 alice id=1、bob id=2）。
+ *
+ * <p>注意 H2 返回的列标签是大写的。用完调用 {@link PooledDataSource#forceCloseAll()} 关闭连接池。</p>
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    /**
+     * 新建内存库并初始化表结构与数据；{@code name} 只用作库名前缀，便于排查。
+     */
+    public static PooledDataSource create(String name) throws Exception {
+        PooledDataSource dataSource = pool("jdbc:h2:mem:" + name + "_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptRunner runner = new ScriptRunner(connection);
+            runner.setLogWriter(null);
+            runner.setStopOnError(true);
+            // 连接以自动提交状态归还连接池，测试里直接用 JDBC 改数据时不必再手动提交
+            runner.setAutoCommit(true);
+            for (String script : new String[]{"schema.sql", "data.sql"}) {
+                try (Reader reader = Resources.getResourceAsReader(script)) {
+                    runner.runScript(reader);
+                }
+            }
+        }
+        return dataSource;
+    }
+
+    /**
+     * 连到同一个库的另一个连接池（例如 EXPLAIN 专用池）。
+     */
+    public static PooledDataSource anotherPool(PooledDataSource dataSource) {
+        return pool(dataSource.getUrl());
+    }
+
+    /**
+     * 指向 {@code dataSource} 的 MyBatis 配置（JDBC 事务），已注册 UserMapper；拦截器与其它设置由调用方补充。
+     */
+    public static Configuration configuration(DataSource dataSource) {
+        Configuration configuration = new Configuration(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(UserMapper.class);
+        return configuration;
+    }
+
+    private static PooledDataSource pool(String url) {
+        return new PooledDataSource("org.h2.Driver", url, "sa", "");
+    }
+}
@@ -0,0 +1,81 @@
+package org.kubo.mybatislab.user.service;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.support.TestDatabase;
+import org.kubo.mybatislab.user.model.BulkWriteResult;
+import org.kubo.mybatislab.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserBulkServiceTests {
+
+    private PooledDataSource dataSource;
+    private SqlSessionFactory sqlSessionFactory;
+    private UserBulkService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create("bulk");
+        Configuration configuration = TestDatabase.configuration(dataSource);
+        // 没有注册 CacheTagInterceptor，写语句 flushCache=false 不会清二级缓存，这里直接关闭
+        configuration.setCacheEnabled(false);
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        service = new UserBulkService(sqlSessionFactory, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    void insertUpdateAndUpsertRunInFlushedBatches() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            users.add(user(null, "bulk-" + i));
+        }
+        BulkWriteResult inserted = service.insert(users, null);
+        assertEquals(2500, inserted.getRows());
+        assertEquals(3, inserted.getFlushCount());
+        assertEquals(List.of(1000, 1000, 500),
+                inserted.getFlushes().stream().map(BulkWriteResult.Flush::getStatements).toList());
+        assertEquals(2500, inserted.getAffectedRows() + inserted.getSuccessNoInfo());
+        assertEquals(2502, count());
+
+        BulkWriteResult updated = service.update(List.of(user(1L, "a"), user(2L, "b"), user(999_999L, "none")), 2);
+        assertEquals(2, updated.getFlushCount());
+        assertEquals(2, updated.getAffectedRows());
+
+        // 一行冲突更新、一行新插入
+        service.upsert(List.of(user(1L, "upserted"), user(100_000L, "new")), null);
+        assertEquals(2503, count());
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            assertEquals("upserted", session.getMapper(UserMapper.class).findById(1L).getUsername());
+        }
+    }
+
+    private long count() {
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+            return session.getMapper(UserMapper.class).findPage(0, Integer.MAX_VALUE).size();
+        }
+    }
+
+    private static User user(Long id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        return user;
+    }
+}
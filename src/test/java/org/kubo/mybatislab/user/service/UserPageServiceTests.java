@@ -0,0 +1,72 @@
+package org.kubo.mybatislab.user.service;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.mapper.UserMapper;
+import org.kubo.mybatislab.support.TestDatabase;
+import org.kubo.mybatislab.user.model.User;
+import org.kubo.mybatislab.user.model.UserPage;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserPageServiceTests {
+
+    private PooledDataSource dataSource;
+    private SqlSession session;
+    private UserPageService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create("page");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (int i = 0; i < 5; i++) {
+                statement.execute("insert into t_user (username, email) values ('u" + i + "', null)");
+            }
+            connection.commit();
+        }
+        Configuration configuration = TestDatabase.configuration(dataSource);
+        SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        session = sqlSessionFactory.openSession(true);
+        service = new UserPageService(session.getMapper(UserMapper.class), 3, false, 2000, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    void walksAllRowsWithContinuationTokens() {
+        List<Long> ids = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            // size 超过上限按 maxPageSize=3 截断
+            UserPage page = service.page(token, 10);
+            page.getItems().forEach(u -> ids.add(u.getId()));
+            token = page.getNextToken();
+            pages++;
+        } while (token != null);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), ids);
+        assertEquals(3, pages);
+
+        UserPage last = service.page(UserPageService.encodeToken(6), 3);
+        assertEquals(List.of(7L), last.getItems().stream().map(User::getId).toList());
+        assertNull(last.getNextToken());
+        assertThrows(IllegalArgumentException.class, () -> service.page("not-a-token", 3));
+    }
+}
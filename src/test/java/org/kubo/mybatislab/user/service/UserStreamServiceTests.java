@@ -0,0 +1,51 @@
+package org.kubo.mybatislab.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kubo.mybatislab.support.TestDatabase;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserStreamServiceTests {
+
+    private PooledDataSource dataSource;
+    private UserStreamService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = TestDatabase.create("stream");
+        Configuration configuration = TestDatabase.configuration(dataSource);
+        SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        // H2 不接受负的 fetchSize，这里走普通 fetchSize
+        service = new UserStreamService(sqlSessionFactory, new ObjectMapper(), 1, false, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    void writesNdjsonAndJsonArray() throws Exception {
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        assertEquals(2, service.writeAll(ndjson, false));
+        assertEquals("{\"id\":1,\"username\":\"alice\",\"email\":\"alice@example.com\"}\n"
+                        + "{\"id\":2,\"username\":\"bob\",\"email\":\"bob@example.com\"}\n",
+                ndjson.toString(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream array = new ByteArrayOutputStream();
+        assertEquals(2, service.writeAll(array, true));
+        assertEquals("[{\"id\":1,\"username\":\"alice\",\"email\":\"alice@example.com\"},"
+                        + "{\"id\":2,\"username\":\"bob\",\"email\":\"bob@example.com\"}]",
+                array.toString(StandardCharsets.UTF_8));
+    }
+}